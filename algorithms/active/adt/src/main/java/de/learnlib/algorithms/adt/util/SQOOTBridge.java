@@ -22,13 +22,16 @@ import javax.annotation.ParametersAreNonnullByDefault;
 
 import de.learnlib.algorithms.adt.model.ObservationTree;
 import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.util.mealy.TracingSymbolQueryOracle;
 import net.automatalib.automata.transout.impl.FastMealy;
 import net.automatalib.automata.transout.impl.FastMealyState;
 
 /**
  * A utility class that links an observation tree with a symbol query oracle, meaning that all queries to the symbol
  * query oracle will be stored in the observation tree. Additionally, if a query can be answered by the observation tree
- * (and caching is enabled) the delegated symbol query oracle will not be queried.
+ * (and caching is enabled) the delegated symbol query oracle will not be queried. If a query needs to be delegated and
+ * the current trace extends the symbols that have been queried on the delegate since its last reset, only the missing
+ * symbols are queried instead of resetting the delegate and replaying the complete trace.
  *
  * @param <I>
  *         input alphabet type
@@ -42,7 +45,7 @@ public class SQOOTBridge<I, O> implements SymbolQueryOracle<I, O> {
 
     private final FastMealy<I, O> observationTree;
 
-    private final SymbolQueryOracle<I, O> delegate;
+    private final TracingSymbolQueryOracle<I, O> delegate;
 
     private final boolean enableCache;
 
@@ -56,7 +59,7 @@ public class SQOOTBridge<I, O> implements SymbolQueryOracle<I, O> {
                        final SymbolQueryOracle<I, O> delegate,
                        final boolean enableCache) {
         this.observationTree = observationTree.getObservationTree();
-        this.delegate = delegate;
+        this.delegate = new TracingSymbolQueryOracle<>(delegate);
         this.enableCache = enableCache;
         this.currentTrace = new ArrayList<>();
     }
@@ -79,11 +82,7 @@ public class SQOOTBridge<I, O> implements SymbolQueryOracle<I, O> {
                 return output;
             } else {
                 this.currentTraceValid = false;
-                this.delegate.reset();
-
-                for (final I trace : this.currentTrace) {
-                    this.delegate.query(trace);
-                }
+                this.delegate.replay(this.currentTrace);
             }
         }
 
@@ -0,0 +1,157 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.adt.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.algorithms.adt.model.ObservationTree;
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the {@link SQOOTBridge} class, in particular for the re-use of the trace that has been executed on the
+ * delegate since its last reset.
+ */
+public class SQOOTBridgeTest {
+
+    private final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+
+    private ObservationTree<Integer, Character, Integer> observationTree;
+    private LoggingSymbolQueryOracle delegate;
+
+    @BeforeMethod
+    public void setUp() {
+        observationTree = new ObservationTree<>(alphabet);
+        observationTree.initialize(0);
+        delegate = new LoggingSymbolQueryOracle();
+    }
+
+    @Test
+    public void testHit() {
+        final SQOOTBridge<Character, Integer> bridge = createBridge(true);
+
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(2));
+        Assert.assertEquals(delegate.getLog(), "Raa");
+
+        bridge.reset();
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(2));
+        Assert.assertEquals(delegate.getLog(), "Raa");
+        Assert.assertEquals(observationTree.getObservationTree().size(), 3);
+    }
+
+    @Test
+    public void testMiss() {
+        final SQOOTBridge<Character, Integer> bridge = createBridge(true);
+
+        bridge.query('a');
+        bridge.query('a');
+
+        // the new trace diverges from the executed trace after a hit in the observation tree
+        bridge.reset();
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(bridge.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "RaaRab");
+        Assert.assertEquals(observationTree.getObservationTree().size(), 4);
+    }
+
+    @Test
+    public void testExtend() {
+        final SQOOTBridge<Character, Integer> bridge = createBridge(true);
+
+        bridge.query('b');
+
+        bridge.reset();
+        Assert.assertEquals(bridge.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(bridge.query('b'), Integer.valueOf(2));
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "Rbba");
+
+        // the extended trace can be extended again
+        bridge.reset();
+        bridge.query('b');
+        bridge.query('b');
+        bridge.query('a');
+        Assert.assertEquals(bridge.query('a'), Integer.valueOf(2));
+        Assert.assertEquals(delegate.getLog(), "Rbbaa");
+    }
+
+    @Test
+    public void testReset() {
+        final SQOOTBridge<Character, Integer> cached = createBridge(true);
+
+        // resets are only forwarded once a query cannot be answered from the observation tree
+        cached.reset();
+        cached.reset();
+        Assert.assertEquals(delegate.getLog(), "");
+        cached.query('a');
+        Assert.assertEquals(delegate.getLog(), "Ra");
+
+        final LoggingSymbolQueryOracle uncachedDelegate = new LoggingSymbolQueryOracle();
+        final SQOOTBridge<Character, Integer> uncached =
+                new SQOOTBridge<>(observationTree, uncachedDelegate, false);
+        uncached.initialize();
+
+        // without caching, every reset is forwarded and every query is delegated
+        uncached.reset();
+        Assert.assertEquals(uncached.query('a'), Integer.valueOf(1));
+        uncached.reset();
+        Assert.assertEquals(uncached.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(uncached.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(uncachedDelegate.getLog(), "RaRab");
+        Assert.assertEquals(observationTree.getObservationTree().size(), 3);
+    }
+
+    private SQOOTBridge<Character, Integer> createBridge(boolean enableCache) {
+        final SQOOTBridge<Character, Integer> bridge = new SQOOTBridge<>(observationTree, delegate, enableCache);
+        bridge.initialize();
+        return bridge;
+    }
+
+    /**
+     * A symbol query oracle that logs its resets (as {@code R}) and queried symbols. The output of a query is the
+     * number of occurrences of the queried symbol since the last reset.
+     */
+    private static final class LoggingSymbolQueryOracle implements SymbolQueryOracle<Character, Integer> {
+
+        private final StringBuilder log = new StringBuilder();
+        private final List<Character> trace = new ArrayList<>();
+
+        @Override
+        public Integer query(Character i) {
+            log.append(i);
+            trace.add(i);
+            return Collections.frequency(trace, i);
+        }
+
+        @Override
+        public void reset() {
+            log.append('R');
+            trace.clear();
+        }
+
+        String getLog() {
+            return log.toString();
+        }
+    }
+}
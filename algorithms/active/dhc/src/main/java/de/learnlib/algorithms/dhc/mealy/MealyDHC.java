@@ -16,7 +16,6 @@
 package de.learnlib.algorithms.dhc.mealy;
 
 import java.io.Serializable;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -25,7 +24,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 
 import com.github.misberner.buildergen.annotations.GenerateBuilder;
 import com.google.common.collect.Interner;
@@ -66,6 +64,12 @@ public class MealyDHC<I, O> implements MealyLearner<I, O>,
     private CompactMealy<I, O> hypothesis;
     private MutableMapping<Integer, QueueElement<I, O>> accessSequences;
     private final GlobalSuffixFinder<? super I, ? super Word<O>> suffixFinder;
+    /**
+     * Output signatures of all explored access sequences, w.r.t. a prefix of the current list of splitters. Allows to
+     * only query new splitters upon refinement.
+     */
+    private final Map<Word<I>, List<Word<O>>> signatureCache = new HashMap<>();
+    private final Interner<Word<O>> deduplicator = Interners.newStrongInterner();
 
     /**
      * Constructor, provided for backwards compatibility reasons.
@@ -151,58 +155,84 @@ public class MealyDHC<I, O> implements MealyLearner<I, O>,
         // set up new hypothesis machine
         hypothesis = new CompactMealy<>(alphabet);
 
-        // initialize exploration queue
-        Queue<QueueElement<I, O>> queue = new ArrayDeque<>();
-
         // initialize storage for access sequences
         accessSequences = hypothesis.createDynamicStateMapping();
 
         // first element to be explored represents the initial state with no predecessor
-        queue.add(new QueueElement<>(null, null, null, null));
+        List<QueueElement<I, O>> frontier = Collections.singletonList(new QueueElement<>(null, null, null, null));
+
+        // explore the hypothesis level by level, so that the signatures of a whole level are queried in one batch
+        while (!frontier.isEmpty()) {
+            List<List<Word<O>>> frontierSignatures = querySignatures(frontier);
+            List<QueueElement<I, O>> nextFrontier = new ArrayList<>();
+
+            for (int i = 0; i < frontier.size(); i++) {
+                QueueElement<I, O> elem = frontier.get(i);
+                List<Word<O>> sig = frontierSignatures.get(i);
+
+                Integer sibling = signatures.get(sig);
+
+                if (sibling != null) {
+                    // this element does not possess a new output signature
+                    // create a transition from parent state to sibling
+                    hypothesis.addTransition(elem.parentState, elem.transIn, sibling, elem.transOut);
+                } else {
+                    // this is actually an observably distinct state! Progress!
+                    // Create state and connect via transition to parent
+                    Integer state = elem.parentElement == null ? hypothesis.addInitialState() : hypothesis.addState();
+                    if (elem.parentElement != null) {
+                        hypothesis.addTransition(elem.parentState, elem.transIn, state, elem.transOut);
+                    }
+                    signatures.put(sig, state);
+                    accessSequences.put(state, elem);
+
+                    scheduleSuccessors(elem, state, nextFrontier, sig);
+                }
+            }
 
-        Interner<Word<O>> deduplicator = Interners.newStrongInterner();
+            frontier = nextFrontier;
+        }
+    }
 
-        while (!queue.isEmpty()) {
-            // get element to be explored from queue
-            QueueElement<I, O> elem = queue.poll();
+    /**
+     * Determines the output signatures of the given elements. Only splitters for which an access sequence has not been
+     * queried before (see {@link #signatureCache}) are queried, all in a single batch.
+     *
+     * @param elements
+     *         the elements whose signatures should be determined
+     *
+     * @return the signatures of the given elements, in the same order
+     */
+    private List<List<Word<O>>> querySignatures(List<QueueElement<I, O>> elements) {
+        List<Word<I>> splitterList = new ArrayList<>(splitters);
+        List<List<Word<O>>> result = new ArrayList<>(elements.size());
+        List<DefaultQuery<I, Word<O>>> queries = new ArrayList<>();
 
-            // determine access sequence for state
+        // assemble queries for all unknown splitters
+        for (QueueElement<I, O> elem : elements) {
             Word<I> access = assembleAccessSequence(elem);
+            List<Word<O>> sig = signatureCache.computeIfAbsent(access, k -> new ArrayList<>(splitterList.size()));
 
-            // assemble queries
-            ArrayList<DefaultQuery<I, Word<O>>> queries = new ArrayList<>(splitters.size());
-            for (Word<I> suffix : splitters) {
-                queries.add(new DefaultQuery<>(access, suffix));
+            for (int i = sig.size(); i < splitterList.size(); i++) {
+                queries.add(new DefaultQuery<>(access, splitterList.get(i)));
             }
+            result.add(sig);
+        }
 
-            // retrieve answers
+        // retrieve answers
+        if (!queries.isEmpty()) {
             oracle.processQueries(queries);
+        }
 
-            // assemble output signature
-            List<Word<O>> sig = new ArrayList<>(splitters.size());
-            for (DefaultQuery<I, Word<O>> query : queries) {
-                sig.add(deduplicator.intern(query.getOutput()));
-            }
-
-            Integer sibling = signatures.get(sig);
-
-            if (sibling != null) {
-                // this element does not possess a new output signature
-                // create a transition from parent state to sibling
-                hypothesis.addTransition(elem.parentState, elem.transIn, sibling, elem.transOut);
-            } else {
-                // this is actually an observably distinct state! Progress!
-                // Create state and connect via transition to parent
-                Integer state = elem.parentElement == null ? hypothesis.addInitialState() : hypothesis.addState();
-                if (elem.parentElement != null) {
-                    hypothesis.addTransition(elem.parentState, elem.transIn, state, elem.transOut);
-                }
-                signatures.put(sig, state);
-                accessSequences.put(state, elem);
-
-                scheduleSuccessors(elem, state, queue, sig);
+        // complete output signatures
+        Iterator<DefaultQuery<I, Word<O>>> answers = queries.iterator();
+        for (List<Word<O>> sig : result) {
+            while (sig.size() < splitterList.size()) {
+                sig.add(deduplicator.intern(answers.next().getOutput()));
             }
         }
+
+        return result;
     }
 
     private Word<I> assembleAccessSequence(QueueElement<I, O> elem) {
@@ -222,7 +252,7 @@ public class MealyDHC<I, O> implements MealyLearner<I, O>,
 
     private void scheduleSuccessors(QueueElement<I, O> elem,
                                     Integer state,
-                                    Queue<QueueElement<I, O>> queue,
+                                    Collection<QueueElement<I, O>> queue,
                                     List<Word<O>> sig) throws IllegalArgumentException {
         for (int i = 0; i < alphabet.size(); ++i) {
             // retrieve I/O for transition
@@ -272,6 +302,8 @@ public class MealyDHC<I, O> implements MealyLearner<I, O>,
 
         this.alphabet.addSymbol(symbol);
         this.splitters = newSplitters;
+        // the new splitter is not appended, hence the cached signatures do not match the splitters anymore
+        this.signatureCache.clear();
 
         this.startLearning();
     }
@@ -284,6 +316,7 @@ public class MealyDHC<I, O> implements MealyLearner<I, O>,
     @Override
     public void resume(final MealyDHCState<I, O> state) {
         this.splitters = state.getSplitters();
+        this.signatureCache.clear();
         this.accessSequences = new MapMapping<>(state.getAccessSequences());
         this.hypothesis = state.getHypothesis();
     }
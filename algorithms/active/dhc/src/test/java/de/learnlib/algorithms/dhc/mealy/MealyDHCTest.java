@@ -15,11 +15,17 @@
  */
 package de.learnlib.algorithms.dhc.mealy;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
+import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.counterexamples.GlobalSuffixFinders;
 import de.learnlib.examples.mealy.ExampleCoffeeMachine;
 import de.learnlib.examples.mealy.ExampleGrid;
 import de.learnlib.examples.mealy.ExampleStack;
@@ -28,6 +34,8 @@ import de.learnlib.oracle.membership.SimulatorOracle;
 import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.automata.transout.impl.compact.CompactMealy;
+import net.automatalib.commons.util.Pair;
+import net.automatalib.util.automata.Automata;
 import net.automatalib.util.automata.random.RandomAutomata;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
@@ -194,4 +202,55 @@ public class MealyDHCTest {
         LOGGER.debug("Hypothesis has {} states", dhc.getHypothesisModel().size());
 
     }
+
+    @Test
+    public void testMealyDHCBatchesAndQueryReuse() {
+
+        Alphabet<Character> inputs = Alphabets.characters('a', 'c');
+
+        List<String> outputs = Arrays.asList("o1", "o2", "o3");
+
+        CompactMealy<Character, String> fm = RandomAutomata.randomDeterministic(new Random(42),
+                                                                                50,
+                                                                                inputs,
+                                                                                null,
+                                                                                outputs,
+                                                                                new CompactMealy<>(inputs));
+
+        SimulatorOracle<Character, Word<String>> simoracle = new SimulatorOracle<>(fm);
+        Set<Pair<Word<Character>, Word<Character>>> askedQueries = new HashSet<>();
+        int[] numBatches = new int[1];
+
+        MembershipOracle<Character, Word<String>> countingOracle = queries -> {
+            numBatches[0]++;
+            for (Query<Character, Word<String>> q : queries) {
+                Assert.assertTrue(askedQueries.add(new Pair<>(q.getPrefix(), q.getSuffix())),
+                                  "Query has been asked before: " + q);
+            }
+            simoracle.processQueries(queries);
+        };
+
+        MealyDHC<Character, String> dhc = new MealyDHC<>(inputs, countingOracle);
+        dhc.startLearning();
+
+        // the signatures of each level of the BFS tree should be queried in a single batch
+        Assert.assertTrue(numBatches[0] < dhc.getHypothesisModel().size());
+
+        List<Word<Character>> newSuffixes =
+                Arrays.asList(Word.fromString("aa"), Word.fromString("ab"), Word.fromString("bca"));
+        dhc.addGlobalSuffixes(newSuffixes);
+
+        // compare against a run with all suffixes from the start
+        List<Word<Character>> allSuffixes = new ArrayList<>(dhc.getGlobalSuffixes());
+        MealyDHC<Character, String> reference = new MealyDHC<>(inputs,
+                                                               simoracle,
+                                                               GlobalSuffixFinders.RIVEST_SCHAPIRE,
+                                                               allSuffixes);
+        reference.startLearning();
+
+        Assert.assertEquals(dhc.getHypothesisModel().size(), reference.getHypothesisModel().size());
+        Assert.assertNull(Automata.findSeparatingWord(dhc.getHypothesisModel(),
+                                                      reference.getHypothesisModel(),
+                                                      inputs));
+    }
 }
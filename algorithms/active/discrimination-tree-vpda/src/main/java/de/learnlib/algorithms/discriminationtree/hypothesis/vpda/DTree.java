@@ -17,6 +17,7 @@ package de.learnlib.algorithms.discriminationtree.hypothesis.vpda;
 
 import de.learnlib.api.AccessSequenceProvider;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.datastructure.discriminationtree.model.AbstractDiscriminationTree;
 import net.automatalib.words.Word;
 
@@ -62,4 +63,10 @@ public class DTree<I> extends AbstractDiscriminationTree<ContextPair<I>, I, Bool
         return sift(start, asp.getAccessSequence(), hard);
     }
 
+    @Override
+    protected DefaultQuery<I, Boolean> buildQuery(DTNode<I> node, Word<I> prefix) {
+        ContextPair<I> discr = node.getDiscriminator();
+        return new DefaultQuery<>(discr.getPrefix().concat(prefix), discr.getSuffix());
+    }
+
 }
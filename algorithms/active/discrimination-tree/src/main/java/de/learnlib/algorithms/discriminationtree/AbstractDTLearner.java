@@ -152,9 +152,8 @@ public abstract class AbstractDTLearner<M extends SuffixOutput<I, D>, I, D, SP,
     }
 
     protected void updateHypothesis() {
-        HTransition<I, D, SP, TP> current;
-        while ((current = openTransitions.poll()) != null) {
-            updateTransition(current);
+        while (!openTransitions.isEmpty()) {
+            updateTransitions();
         }
 
         List<Query<I, D>> queries = new ArrayList<>();
@@ -177,13 +176,43 @@ public abstract class AbstractDTLearner<M extends SuffixOutput<I, D>, I, D, SP,
         oracle.processQueries(queries);
     }
 
+    /**
+     * Sifts all currently open (non-tree) transitions through the discrimination tree in a single batched sift
+     * operation (see {@link AbstractWordBasedDiscriminationTree#sift(List, List)}) and updates their targets
+     * accordingly. Transitions opened by states created during this update are left for the next invocation.
+     */
+    private void updateTransitions() {
+        final List<HTransition<I, D, SP, TP>> transitions = new ArrayList<>(openTransitions.size());
+        final List<AbstractWordBasedDTNode<I, D, HState<I, D, SP, TP>>> starts =
+                new ArrayList<>(openTransitions.size());
+        final List<Word<I>> prefixes = new ArrayList<>(openTransitions.size());
+
+        HTransition<I, D, SP, TP> current;
+        while ((current = openTransitions.poll()) != null) {
+            if (!current.isTree()) {
+                transitions.add(current);
+                starts.add(current.getDT());
+                prefixes.add(current.getAccessSequence());
+            }
+        }
+
+        final List<AbstractWordBasedDTNode<I, D, HState<I, D, SP, TP>>> targets = dtree.sift(starts, prefixes);
+
+        for (int i = 0; i < transitions.size(); i++) {
+            updateTransition(transitions.get(i), targets.get(i));
+        }
+    }
+
     protected void updateTransition(HTransition<I, D, SP, TP> trans) {
         if (trans.isTree()) {
             return;
         }
 
-        AbstractWordBasedDTNode<I, D, HState<I, D, SP, TP>> currDt = trans.getDT();
-        currDt = dtree.sift(currDt, trans.getAccessSequence());
+        updateTransition(trans, dtree.sift(trans.getDT(), trans.getAccessSequence()));
+    }
+
+    private void updateTransition(HTransition<I, D, SP, TP> trans,
+                                  AbstractWordBasedDTNode<I, D, HState<I, D, SP, TP>> currDt) {
         trans.setDT(currDt);
 
         HState<I, D, SP, TP> state = currDt.getData();
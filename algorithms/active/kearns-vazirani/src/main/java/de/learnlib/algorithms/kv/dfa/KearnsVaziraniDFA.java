@@ -172,6 +172,7 @@ public class KearnsVaziraniDFA<I>
     private void updateTransitions(List<Long> transList,
                                    AbstractWordBasedDTNode<I, Boolean, StateInfo<I>> oldDtTarget) { // TODO: replace with primitive specialization
         int numTrans = transList.size();
+        List<Word<I>> prefixes = new ArrayList<>(numTrans);
         for (int i = 0; i < numTrans; i++) {
             long encodedTrans = transList.get(i);
 
@@ -181,8 +182,13 @@ public class KearnsVaziraniDFA<I>
             StateInfo<I> sourceInfo = stateInfos.get(sourceState);
             I symbol = alphabet.getSymbol(transIdx);
 
-            StateInfo<I> succ = sift(oldDtTarget, sourceInfo.accessSequence.append(symbol));
-            setTransition(sourceState, transIdx, succ);
+            prefixes.add(sourceInfo.accessSequence.append(symbol));
+        }
+
+        List<StateInfo<I>> succs = sift(Collections.nCopies(numTrans, oldDtTarget), prefixes);
+        for (int i = 0; i < numTrans; i++) {
+            long encodedTrans = transList.get(i);
+            setTransition((int) (encodedTrans >> INTEGER_WORD_WIDTH), (int) (encodedTrans), succs.get(i));
         }
     }
 
@@ -225,13 +231,15 @@ public class KearnsVaziraniDFA<I>
         int state = stateInfo.id;
         Word<I> accessSequence = stateInfo.accessSequence;
 
+        List<Word<I>> prefixes = new ArrayList<>(alphabetSize);
         for (int i = 0; i < alphabetSize; i++) {
             I sym = alphabet.getSymbol(i);
+            prefixes.add(accessSequence.append(sym));
+        }
 
-            Word<I> transAs = accessSequence.append(sym);
-
-            StateInfo<I> succ = sift(transAs);
-            setTransition(state, i, succ);
+        List<StateInfo<I>> succs = sift(prefixes);
+        for (int i = 0; i < alphabetSize; i++) {
+            setTransition(state, i, succs.get(i));
         }
     }
 
@@ -240,13 +248,27 @@ public class KearnsVaziraniDFA<I>
         hypothesis.setTransition(state, symIdx, succInfo.id);
     }
 
-    private StateInfo<I> sift(Word<I> prefix) {
-        return sift(discriminationTree.getRoot(), prefix);
+    private List<StateInfo<I>> sift(List<Word<I>> prefixes) {
+        return sift(Collections.nCopies(prefixes.size(), discriminationTree.getRoot()), prefixes);
     }
 
-    private StateInfo<I> sift(AbstractWordBasedDTNode<I, Boolean, StateInfo<I>> start, Word<I> prefix) {
-        AbstractWordBasedDTNode<I, Boolean, StateInfo<I>> leaf = discriminationTree.sift(start, prefix);
+    /**
+     * Sifts the given words into the discrimination tree using a single batched sift operation (see {@link
+     * BinaryDTree#sift(List, List)}), and returns the information of the states associated with the reached leaves.
+     */
+    private List<StateInfo<I>> sift(List<AbstractWordBasedDTNode<I, Boolean, StateInfo<I>>> starts,
+                                    List<Word<I>> prefixes) {
+        List<AbstractWordBasedDTNode<I, Boolean, StateInfo<I>>> leaves = discriminationTree.sift(starts, prefixes);
+
+        List<StateInfo<I>> result = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            result.add(getStateInfo(leaves.get(i), prefixes.get(i)));
+        }
 
+        return result;
+    }
+
+    private StateInfo<I> getStateInfo(AbstractWordBasedDTNode<I, Boolean, StateInfo<I>> leaf, Word<I> prefix) {
         StateInfo<I> succStateInfo = leaf.getData();
         if (succStateInfo == null) {
             // Special case: this is the *first* state of a different
@@ -273,13 +295,15 @@ public class KearnsVaziraniDFA<I>
         final int inputIdx = this.alphabet.addSymbol(symbol);
 
         // use new list to prevent concurrent modification exception
-        for (final StateInfo<I> si : new ArrayList<>(this.stateInfos)) {
-            final int state = si.id;
-            final Word<I> accessSequence = si.accessSequence;
-            final Word<I> transAs = accessSequence.append(symbol);
+        final List<StateInfo<I>> oldStateInfos = new ArrayList<>(this.stateInfos);
+        final List<Word<I>> prefixes = new ArrayList<>(oldStateInfos.size());
+        for (final StateInfo<I> si : oldStateInfos) {
+            prefixes.add(si.accessSequence.append(symbol));
+        }
 
-            final StateInfo<I> succ = sift(transAs);
-            setTransition(state, inputIdx, succ);
+        final List<StateInfo<I>> succs = sift(prefixes);
+        for (int i = 0; i < oldStateInfos.size(); i++) {
+            setTransition(oldStateInfos.get(i).id, inputIdx, succs.get(i));
         }
     }
 
@@ -186,6 +186,7 @@ public class KearnsVaziraniMealy<I, O>
     private void updateTransitions(List<Long> transList,
                                    AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>> oldDtTarget) { // TODO: replace with primitive specialization
         int numTrans = transList.size();
+        List<Word<I>> prefixes = new ArrayList<>(numTrans);
         for (int i = 0; i < numTrans; i++) {
             long encodedTrans = transList.get(i);
 
@@ -195,10 +196,18 @@ public class KearnsVaziraniMealy<I, O>
             StateInfo<I, O> sourceInfo = stateInfos.get(sourceState);
             I symbol = alphabet.getSymbol(transIdx);
 
-            StateInfo<I, O> succInfo = sift(oldDtTarget, sourceInfo.accessSequence.append(symbol));
+            prefixes.add(sourceInfo.accessSequence.append(symbol));
+        }
+
+        List<StateInfo<I, O>> succInfos = sift(Collections.nCopies(numTrans, oldDtTarget), prefixes);
+        for (int i = 0; i < numTrans; i++) {
+            long encodedTrans = transList.get(i);
+
+            int sourceState = (int) (encodedTrans >> INTEGER_WORD_WIDTH);
+            int transIdx = (int) (encodedTrans);
 
             O output = hypothesis.getTransition(sourceState, transIdx).getOutput();
-            setTransition(sourceState, transIdx, succInfo, output);
+            setTransition(sourceState, transIdx, succInfos.get(i), output);
         }
     }
 
@@ -239,15 +248,21 @@ public class KearnsVaziraniMealy<I, O>
         int state = stateInfo.id;
         Word<I> accessSequence = stateInfo.accessSequence;
 
+        List<DefaultQuery<I, Word<O>>> outputQueries = new ArrayList<>(alphabetSize);
+        List<Word<I>> prefixes = new ArrayList<>(alphabetSize);
         for (int i = 0; i < alphabetSize; i++) {
             I sym = alphabet.getSymbol(i);
 
-            O output = oracle.answerQuery(accessSequence, Word.fromLetter(sym)).firstSymbol();
+            outputQueries.add(new DefaultQuery<>(accessSequence, Word.fromLetter(sym)));
+            prefixes.add(accessSequence.append(sym));
+        }
 
-            Word<I> transAs = accessSequence.append(sym);
+        oracle.processQueries(outputQueries);
 
-            StateInfo<I, O> succInfo = sift(transAs);
-            setTransition(state, i, succInfo, output);
+        List<StateInfo<I, O>> succInfos = sift(prefixes);
+        for (int i = 0; i < alphabetSize; i++) {
+            O output = outputQueries.get(i).getOutput().firstSymbol();
+            setTransition(state, i, succInfos.get(i), output);
         }
     }
 
@@ -256,13 +271,29 @@ public class KearnsVaziraniMealy<I, O>
         hypothesis.setTransition(state, symIdx, succInfo.id, output);
     }
 
-    private StateInfo<I, O> sift(Word<I> prefix) {
-        return sift(discriminationTree.getRoot(), prefix);
+    private List<StateInfo<I, O>> sift(List<Word<I>> prefixes) {
+        return sift(Collections.nCopies(prefixes.size(), discriminationTree.getRoot()), prefixes);
     }
 
-    private StateInfo<I, O> sift(AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>> start, Word<I> prefix) {
-        AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>> leaf = discriminationTree.sift(start, prefix);
+    /**
+     * Sifts the given words into the discrimination tree using a single batched sift operation (see {@link
+     * MultiDTree#sift(List, List)}), and returns the information of the states associated with the reached leaves.
+     */
+    private List<StateInfo<I, O>> sift(List<AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>>> starts,
+                                       List<Word<I>> prefixes) {
+        List<AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>>> leaves =
+                discriminationTree.sift(starts, prefixes);
+
+        List<StateInfo<I, O>> result = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            result.add(getStateInfo(leaves.get(i), prefixes.get(i)));
+        }
+
+        return result;
+    }
 
+    private StateInfo<I, O> getStateInfo(AbstractWordBasedDTNode<I, Word<O>, StateInfo<I, O>> leaf,
+                                         Word<I> prefix) {
         StateInfo<I, O> succStateInfo = leaf.getData();
         if (succStateInfo == null) {
             // Special case: this is the *first* state with a different output
@@ -289,15 +320,20 @@ public class KearnsVaziraniMealy<I, O>
         final int inputIdx = this.alphabet.addSymbol(symbol);
 
         // use new list to prevent concurrent modification exception
-        for (final StateInfo<I, O> si : new ArrayList<>(this.stateInfos)) {
-            final int state = si.id;
-            final Word<I> accessSequence = si.accessSequence;
-            final Word<I> transAs = accessSequence.append(symbol);
+        final List<StateInfo<I, O>> oldStateInfos = new ArrayList<>(this.stateInfos);
+        final List<DefaultQuery<I, Word<O>>> outputQueries = new ArrayList<>(oldStateInfos.size());
+        final List<Word<I>> prefixes = new ArrayList<>(oldStateInfos.size());
+        for (final StateInfo<I, O> si : oldStateInfos) {
+            outputQueries.add(new DefaultQuery<>(si.accessSequence, Word.fromLetter(symbol)));
+            prefixes.add(si.accessSequence.append(symbol));
+        }
 
-            final O output = oracle.answerQuery(accessSequence, Word.fromLetter(symbol)).firstSymbol();
+        oracle.processQueries(outputQueries);
 
-            final StateInfo<I, O> succ = sift(transAs);
-            setTransition(state, inputIdx, succ, output);
+        final List<StateInfo<I, O>> succs = sift(prefixes);
+        for (int i = 0; i < oldStateInfos.size(); i++) {
+            final O output = outputQueries.get(i).getOutput().firstSymbol();
+            setTransition(oldStateInfos.get(i).id, inputIdx, succs.get(i), output);
         }
     }
 
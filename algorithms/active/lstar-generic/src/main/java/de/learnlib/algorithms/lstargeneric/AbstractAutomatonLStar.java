@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 
 import de.learnlib.algorithms.lstargeneric.table.Row;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.algorithm.feature.ResumableLearner;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
@@ -61,7 +62,24 @@ public abstract class AbstractAutomatonLStar<A, I, D, S, T, SP, TP, AI extends M
      *         the learning oracle
      */
     public AbstractAutomatonLStar(Alphabet<I> alphabet, MembershipOracle<I, D> oracle, AI internalHyp) {
-        super(alphabet, oracle);
+        this(alphabet, oracle, internalHyp, RowContentStorageType.GENERIC);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet
+     * @param oracle
+     *         the learning oracle
+     * @param storageType
+     *         the representation used for storing the row contents of the observation table
+     */
+    public AbstractAutomatonLStar(Alphabet<I> alphabet,
+                                  MembershipOracle<I, D> oracle,
+                                  AI internalHyp,
+                                  RowContentStorageType storageType) {
+        super(alphabet, oracle, storageType);
         this.internalHyp = internalHyp;
         internalHyp.clear();
     }
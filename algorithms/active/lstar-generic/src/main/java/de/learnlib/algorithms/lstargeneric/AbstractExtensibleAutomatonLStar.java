@@ -23,6 +23,7 @@ import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandlers;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategies;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategy;
 import de.learnlib.algorithms.lstargeneric.table.Row;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.automata.GrowableAlphabetAutomaton;
@@ -45,7 +46,25 @@ public abstract class AbstractExtensibleAutomatonLStar<A, I, D, S, T, SP, TP, AI
                                             List<Word<I>> initialSuffixes,
                                             ObservationTableCEXHandler<? super I, ? super D> cexHandler,
                                             ClosingStrategy<? super I, ? super D> closingStrategy) {
-        super(alphabet, oracle, internalHyp);
+        this(alphabet,
+             oracle,
+             internalHyp,
+             initialPrefixes,
+             initialSuffixes,
+             cexHandler,
+             closingStrategy,
+             RowContentStorageType.GENERIC);
+    }
+
+    public AbstractExtensibleAutomatonLStar(Alphabet<I> alphabet,
+                                            MembershipOracle<I, D> oracle,
+                                            AI internalHyp,
+                                            List<Word<I>> initialPrefixes,
+                                            List<Word<I>> initialSuffixes,
+                                            ObservationTableCEXHandler<? super I, ? super D> cexHandler,
+                                            ClosingStrategy<? super I, ? super D> closingStrategy,
+                                            RowContentStorageType storageType) {
+        super(alphabet, oracle, internalHyp, storageType);
         this.initialPrefixes = initialPrefixes;
         this.initialSuffixes = initialSuffixes;
         this.cexHandler = cexHandler;
@@ -92,6 +111,10 @@ public abstract class AbstractExtensibleAutomatonLStar<A, I, D, S, T, SP, TP, AI
             return ClosingStrategies.CLOSE_FIRST;
         }
 
+        public static RowContentStorageType storageType() {
+            return RowContentStorageType.GENERIC;
+        }
+
     }
 
 }
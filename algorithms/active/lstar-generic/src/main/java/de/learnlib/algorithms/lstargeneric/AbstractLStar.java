@@ -25,6 +25,7 @@ import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandlers;
 import de.learnlib.algorithms.lstargeneric.table.Inconsistency;
 import de.learnlib.algorithms.lstargeneric.table.ObservationTable;
 import de.learnlib.algorithms.lstargeneric.table.Row;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.algorithm.feature.GlobalSuffixLearner;
 import de.learnlib.api.algorithm.feature.SupportsGrowingAlphabet;
 import de.learnlib.api.oracle.MembershipOracle;
@@ -69,9 +70,23 @@ public abstract class AbstractLStar<A, I, D>
      *         the membership oracle.
      */
     public AbstractLStar(Alphabet<I> alphabet, MembershipOracle<I, D> oracle) {
+        this(alphabet, oracle, RowContentStorageType.GENERIC);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param oracle
+     *         the membership oracle.
+     * @param storageType
+     *         the representation used for storing the row contents of the observation table.
+     */
+    public AbstractLStar(Alphabet<I> alphabet, MembershipOracle<I, D> oracle, RowContentStorageType storageType) {
         this.alphabet = new SimpleAlphabet<>(alphabet);
         this.oracle = oracle;
-        this.table = new ObservationTable<>(alphabet);
+        this.table = new ObservationTable<>(alphabet, storageType);
     }
 
     @Override
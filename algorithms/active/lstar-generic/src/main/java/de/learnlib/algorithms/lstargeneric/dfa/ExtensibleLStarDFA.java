@@ -23,6 +23,7 @@ import de.learnlib.algorithms.lstargeneric.AbstractExtensibleAutomatonLStar;
 import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandler;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategy;
 import de.learnlib.algorithms.lstargeneric.table.Row;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.datastructure.observationtable.OTLearner.OTLearnerDFA;
 import net.automatalib.automata.concepts.SuffixOutput;
@@ -60,20 +61,48 @@ public class ExtensibleLStarDFA<I>
         this(alphabet, oracle, Collections.singletonList(Word.epsilon()), initialSuffixes, cexHandler, closingStrategy);
     }
 
-    @GenerateBuilder(defaults = AbstractExtensibleAutomatonLStar.BuilderDefaults.class)
     public ExtensibleLStarDFA(Alphabet<I> alphabet,
                               MembershipOracle<I, Boolean> oracle,
                               List<Word<I>> initialPrefixes,
                               List<Word<I>> initialSuffixes,
                               ObservationTableCEXHandler<? super I, ? super Boolean> cexHandler,
                               ClosingStrategy<? super I, ? super Boolean> closingStrategy) {
+        this(alphabet,
+             oracle,
+             initialPrefixes,
+             initialSuffixes,
+             cexHandler,
+             closingStrategy,
+             RowContentStorageType.GENERIC);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param oracle
+     *         the DFA oracle.
+     * @param storageType
+     *         the representation used for storing the row contents of the observation table. {@link
+     *         RowContentStorageType#PACKED} stores a single bit per cell.
+     */
+    @GenerateBuilder(defaults = AbstractExtensibleAutomatonLStar.BuilderDefaults.class)
+    public ExtensibleLStarDFA(Alphabet<I> alphabet,
+                              MembershipOracle<I, Boolean> oracle,
+                              List<Word<I>> initialPrefixes,
+                              List<Word<I>> initialSuffixes,
+                              ObservationTableCEXHandler<? super I, ? super Boolean> cexHandler,
+                              ClosingStrategy<? super I, ? super Boolean> closingStrategy,
+                              RowContentStorageType storageType) {
         super(alphabet,
               oracle,
               new CompactDFA<>(alphabet),
               initialPrefixes,
               LStarDFAUtil.ensureSuffixCompliancy(initialSuffixes),
               cexHandler,
-              closingStrategy);
+              closingStrategy,
+              storageType);
     }
 
     @Override
@@ -24,6 +24,7 @@ import de.learnlib.algorithms.lstargeneric.AbstractExtensibleAutomatonLStar;
 import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandler;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategy;
 import de.learnlib.algorithms.lstargeneric.table.Row;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.datastructure.observationtable.OTLearner.OTLearnerMealy;
@@ -48,20 +49,37 @@ public class ExtensibleLStarMealy<I, O>
         this(alphabet, oracle, Collections.singletonList(Word.epsilon()), initialSuffixes, cexHandler, closingStrategy);
     }
 
-    @GenerateBuilder(defaults = AbstractExtensibleAutomatonLStar.BuilderDefaults.class)
     public ExtensibleLStarMealy(Alphabet<I> alphabet,
                                 MembershipOracle<I, Word<O>> oracle,
                                 List<Word<I>> initialPrefixes,
                                 List<Word<I>> initialSuffixes,
                                 ObservationTableCEXHandler<? super I, ? super Word<O>> cexHandler,
                                 ClosingStrategy<? super I, ? super Word<O>> closingStrategy) {
+        this(alphabet,
+             oracle,
+             initialPrefixes,
+             initialSuffixes,
+             cexHandler,
+             closingStrategy,
+             RowContentStorageType.GENERIC);
+    }
+
+    @GenerateBuilder(defaults = AbstractExtensibleAutomatonLStar.BuilderDefaults.class)
+    public ExtensibleLStarMealy(Alphabet<I> alphabet,
+                                MembershipOracle<I, Word<O>> oracle,
+                                List<Word<I>> initialPrefixes,
+                                List<Word<I>> initialSuffixes,
+                                ObservationTableCEXHandler<? super I, ? super Word<O>> cexHandler,
+                                ClosingStrategy<? super I, ? super Word<O>> closingStrategy,
+                                RowContentStorageType storageType) {
         super(alphabet,
               oracle,
               new CompactMealy<>(alphabet),
               initialPrefixes,
               LStarMealyUtil.ensureSuffixCompliancy(initialSuffixes, alphabet, cexHandler.needsConsistencyCheck()),
               cexHandler,
-              closingStrategy);
+              closingStrategy,
+              storageType);
     }
 
     @Override
@@ -0,0 +1,73 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.lstargeneric.table;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RowContentStorage} that stores row contents as lists of output objects, and identifies equal row contents
+ * via a hash map.
+ *
+ * @param <D>
+ *         output domain type
+ */
+final class GenericRowContentStorage<D> extends RowContentStorage<D> {
+
+    private final List<List<D>> allRowContents = new ArrayList<>();
+    private final Map<List<D>, Integer> rowContentIds = new HashMap<>();
+
+    @Override
+    int size() {
+        return allRowContents.size();
+    }
+
+    @Override
+    int getOrAdd(List<D> contents) {
+        Integer contentId = rowContentIds.get(contents);
+        if (contentId == null) {
+            contentId = allRowContents.size();
+            rowContentIds.put(contents, contentId);
+            allRowContents.add(contents);
+        }
+        return contentId;
+    }
+
+    @Override
+    int length(int contentId) {
+        return allRowContents.get(contentId).size();
+    }
+
+    @Override
+    void append(int contentId, List<D> cells) {
+        List<D> contents = allRowContents.get(contentId);
+        rowContentIds.remove(contents);
+        contents.addAll(cells);
+        rowContentIds.put(contents, contentId);
+    }
+
+    @Override
+    D get(int contentId, int index) {
+        return allRowContents.get(contentId).get(index);
+    }
+
+    @Override
+    List<D> get(int contentId) {
+        return allRowContents.get(contentId);
+    }
+}
@@ -66,15 +66,11 @@ import net.automatalib.words.impl.SimpleAlphabet;
  */
 public final class ObservationTable<I, D> implements AccessSequenceTransformer<I>, Serializable {
 
-    private static final Integer NO_ENTRY = null; // TODO: replace with primitive specialization
     private final List<Row<I>> shortPrefixRows = new ArrayList<>();
-    // private static final int NO_ENTRY = -1;
     private final List<Row<I>> longPrefixRows = new ArrayList<>();
     private final List<Row<I>> allRows = new ArrayList<>();
-    private final List<List<D>> allRowContents = new ArrayList<>();
+    private final RowContentStorage<D> contentStorage;
     private final List<Row<I>> canonicalRows = new ArrayList<>();
-    // private final TObjectIntMap<List<D>> rowContentIds = new TObjectIntHashMap<>(10, 0.75f, NO_ENTRY);
-    private final Map<List<D>, Integer> rowContentIds = new HashMap<>(); // TODO: replace with primitive specialization
     private final Map<Word<I>, Row<I>> rowMap = new HashMap<>();
     private final List<Word<I>> suffixes = new ArrayList<>();
     private final Set<Word<I>> suffixSet = new HashSet<>();
@@ -89,7 +85,20 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
      *         the learning alphabet.
      */
     public ObservationTable(Alphabet<I> alphabet) {
+        this(alphabet, RowContentStorageType.GENERIC);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabet
+     *         the learning alphabet.
+     * @param storageType
+     *         the representation used for storing row contents
+     */
+    public ObservationTable(Alphabet<I> alphabet, RowContentStorageType storageType) {
         this.alphabet = new SimpleAlphabet<>(alphabet);
+        this.contentStorage = storageType.createStorage();
     }
 
     protected static <I, D> void buildQueries(List<DefaultQuery<I, D>> queryList,
@@ -254,16 +263,11 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
         }
     }
 
-    protected boolean processContents(Row<I> row, List<D> rowContents, boolean makeCanonical) {
-        Integer contentId; // TODO: replace with primitive specialization
-        // int contentId;
-        boolean added = false;
-        contentId = rowContentIds.get(rowContents);
-        if (contentId == NO_ENTRY) {
-            contentId = numDistinctRows();
-            rowContentIds.put(rowContents, contentId);
-            allRowContents.add(rowContents);
-            added = true;
+    protected boolean processContents(Row<I> row, List<D> contents, boolean makeCanonical) {
+        int numDistinct = numDistinctRows();
+        int contentId = contentStorage.getOrAdd(contents);
+        boolean added = contentId == numDistinct;
+        if (added) {
             if (makeCanonical) {
                 canonicalRows.add(row);
             } else {
@@ -275,7 +279,7 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
     }
 
     public int numDistinctRows() {
-        return allRowContents.size();
+        return contentStorage.size();
     }
 
     /**
@@ -337,14 +341,14 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
         Iterator<DefaultQuery<I, D>> queryIt = queries.iterator();
 
         for (Row<I> row : shortPrefixRows) {
-            List<D> rowContents = allRowContents.get(row.getRowContentId());
-            if (rowContents.size() == oldSuffixCount) {
-                rowContentIds.remove(rowContents);
-                fetchResults(queryIt, rowContents, numNewSuffixes);
-                rowContentIds.put(rowContents, row.getRowContentId());
+            int contentId = row.getRowContentId();
+            if (contentStorage.length(contentId) == oldSuffixCount) {
+                List<D> newCells = new ArrayList<>(numNewSuffixes);
+                fetchResults(queryIt, newCells, numNewSuffixes);
+                contentStorage.append(contentId, newCells);
             } else {
                 List<D> newContents = new ArrayList<>(oldSuffixCount + numNewSuffixes);
-                newContents.addAll(rowContents.subList(0, oldSuffixCount));
+                newContents.addAll(contentStorage.get(contentId).subList(0, oldSuffixCount));
                 fetchResults(queryIt, newContents, numNewSuffixes);
                 processContents(row, newContents, true);
             }
@@ -354,14 +358,14 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
         numSpRows = numDistinctRows();
 
         for (Row<I> row : longPrefixRows) {
-            List<D> rowContents = allRowContents.get(row.getRowContentId());
-            if (rowContents.size() == oldSuffixCount) {
-                rowContentIds.remove(rowContents);
-                fetchResults(queryIt, rowContents, numNewSuffixes);
-                rowContentIds.put(rowContents, row.getRowContentId());
+            int contentId = row.getRowContentId();
+            if (contentStorage.length(contentId) == oldSuffixCount) {
+                List<D> newCells = new ArrayList<>(numNewSuffixes);
+                fetchResults(queryIt, newCells, numNewSuffixes);
+                contentStorage.append(contentId, newCells);
             } else {
                 List<D> newContents = new ArrayList<>(oldSuffixCount + numNewSuffixes);
-                newContents.addAll(rowContents.subList(0, oldSuffixCount));
+                newContents.addAll(contentStorage.get(contentId).subList(0, oldSuffixCount));
                 fetchResults(queryIt, newContents, numNewSuffixes);
                 if (processContents(row, newContents, false)) {
                     unclosed.add(new ArrayList<>());
@@ -538,12 +542,11 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
     }
 
     public D cellContents(Row<I> row, int columnId) {
-        List<D> contents = rowContents(row);
-        return contents.get(columnId);
+        return contentStorage.get(row.getRowContentId(), columnId);
     }
 
     public List<D> rowContents(Row<I> row) {
-        return allRowContents.get(row.getRowContentId());
+        return contentStorage.get(row.getRowContentId());
     }
 
     public Row<I> getRow(int rowId) {
@@ -756,7 +759,7 @@ public final class ObservationTable<I, D> implements AccessSequenceTransformer<I
 
         @Override
         public List<D> getContents() {
-            return Collections.unmodifiableList(allRowContents.get(internalRow.getRowContentId()));
+            return Collections.unmodifiableList(contentStorage.get(internalRow.getRowContentId()));
         }
     }
 }
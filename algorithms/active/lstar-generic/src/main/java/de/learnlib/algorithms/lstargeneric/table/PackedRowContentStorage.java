@@ -0,0 +1,236 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.lstargeneric.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RowContentStorage} that stores row contents in a bit-packed representation.
+ * <p>
+ * Every distinct output is mapped to an integer code, and the cells of a row are stored as a sequence of codes, each
+ * occupying the same (power of two) number of bits in an array of {@code long}s. The number of bits per cell is
+ * increased on-the-fly (re-packing all row contents) once the number of distinct outputs exceeds the capacity of the
+ * current cell size. In particular, the contents of a DFA observation table are stored using a single bit per cell.
+ * <p>
+ * Equal row contents are identified via an open addressing hash table over primitive content ids, so no boxing is
+ * involved in the lookup.
+ *
+ * @param <D>
+ *         output domain type
+ */
+final class PackedRowContentStorage<D> extends RowContentStorage<D> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = 0;
+    private static final int DELETED_SLOT = -1;
+
+    private final Map<D, Integer> codes = new HashMap<>();
+    private final List<D> outputs = new ArrayList<>();
+
+    // log2 of the number of bits per cell
+    private int cellShift;
+
+    private long[][] contents = new long[INITIAL_CAPACITY][];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // hash table slots, storing content ids incremented by one
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int usedSlots;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    int getOrAdd(List<D> rowContents) {
+        int[] cellCodes = encode(rowContents);
+        int length = cellCodes.length;
+        long[] packed = pack(cellCodes, length, cellShift);
+        int hash = hash(packed, length);
+
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == EMPTY_SLOT) {
+                break;
+            }
+            int contentId = slot - 1;
+            if (slot != DELETED_SLOT && hashes[contentId] == hash && lengths[contentId] == length &&
+                Arrays.equals(contents[contentId], packed)) {
+                return contentId;
+            }
+        }
+
+        int contentId = size++;
+        if (contentId == contents.length) {
+            int newCapacity = contentId * 2;
+            contents = Arrays.copyOf(contents, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            hashes = Arrays.copyOf(hashes, newCapacity);
+        }
+        contents[contentId] = packed;
+        lengths[contentId] = length;
+        hashes[contentId] = hash;
+        insertSlot(contentId);
+
+        return contentId;
+    }
+
+    @Override
+    int length(int contentId) {
+        return lengths[contentId];
+    }
+
+    @Override
+    void append(int contentId, List<D> cells) {
+        int[] cellCodes = encode(cells);
+
+        removeSlot(contentId);
+
+        int oldLength = lengths[contentId];
+        int newLength = oldLength + cellCodes.length;
+        long[] packed = Arrays.copyOf(contents[contentId], numWords(newLength, cellShift));
+        for (int i = 0; i < cellCodes.length; i++) {
+            setCell(packed, oldLength + i, cellCodes[i], cellShift);
+        }
+
+        contents[contentId] = packed;
+        lengths[contentId] = newLength;
+        hashes[contentId] = hash(packed, newLength);
+        insertSlot(contentId);
+    }
+
+    @Override
+    D get(int contentId, int index) {
+        return outputs.get(getCell(contents[contentId], index, cellShift));
+    }
+
+    private int[] encode(List<D> cells) {
+        int[] result = new int[cells.size()];
+
+        int i = 0;
+        for (D cell : cells) {
+            Integer code = codes.get(cell);
+            if (code == null) {
+                code = outputs.size();
+                codes.put(cell, code);
+                outputs.add(cell);
+            }
+            result[i++] = code;
+        }
+
+        int requiredShift = cellShift;
+        while (requiredShift < 5 && (outputs.size() - 1) >>> (1 << requiredShift) != 0) {
+            requiredShift++;
+        }
+        if (requiredShift != cellShift) {
+            repack(requiredShift);
+        }
+
+        return result;
+    }
+
+    private void repack(int newShift) {
+        for (int i = 0; i < size; i++) {
+            long[] oldPacked = contents[i];
+            int length = lengths[i];
+            long[] newPacked = new long[numWords(length, newShift)];
+            for (int j = 0; j < length; j++) {
+                setCell(newPacked, j, getCell(oldPacked, j, cellShift), newShift);
+            }
+            contents[i] = newPacked;
+            hashes[i] = hash(newPacked, length);
+        }
+        cellShift = newShift;
+
+        rehash(slots.length);
+    }
+
+    private void insertSlot(int contentId) {
+        if ((usedSlots + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+
+        int mask = slots.length - 1;
+        int i = hashes[contentId] & mask;
+        while (slots[i] != EMPTY_SLOT && slots[i] != DELETED_SLOT) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == EMPTY_SLOT) {
+            usedSlots++;
+        }
+        slots[i] = contentId + 1;
+    }
+
+    private void removeSlot(int contentId) {
+        int mask = slots.length - 1;
+        int i = hashes[contentId] & mask;
+        while (slots[i] != contentId + 1) {
+            i = (i + 1) & mask;
+        }
+        // keep the slot occupied, so that probe sequences passing through it remain intact
+        slots[i] = DELETED_SLOT;
+    }
+
+    private void rehash(int numSlots) {
+        slots = new int[numSlots];
+        usedSlots = 0;
+        for (int i = 0; i < size; i++) {
+            insertSlot(i);
+        }
+    }
+
+    private static int numWords(int length, int shift) {
+        return (int) (((long) length << shift) + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long[] pack(int[] cellCodes, int length, int shift) {
+        long[] result = new long[numWords(length, shift)];
+        for (int i = 0; i < length; i++) {
+            setCell(result, i, cellCodes[i], shift);
+        }
+        return result;
+    }
+
+    private static int getCell(long[] packed, int index, int shift) {
+        long bitIndex = (long) index << shift;
+        long word = packed[(int) (bitIndex >>> 6)];
+        long cellMask = (1L << (1 << shift)) - 1;
+        return (int) ((word >>> (bitIndex & 63)) & cellMask);
+    }
+
+    private static void setCell(long[] packed, int index, int code, int shift) {
+        long bitIndex = (long) index << shift;
+        // cells are initially zero and are only ever written once
+        packed[(int) (bitIndex >>> 6)] |= (code & 0xFFFFFFFFL) << (bitIndex & 63);
+    }
+
+    private static int hash(long[] packed, int length) {
+        int hash = length;
+        for (long word : packed) {
+            hash = 31 * hash + Long.hashCode(word);
+        }
+        // spread higher bits, as only the lower bits are used for addressing
+        return hash ^ (hash >>> 16);
+    }
+}
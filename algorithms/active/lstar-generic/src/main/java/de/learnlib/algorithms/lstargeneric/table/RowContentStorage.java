@@ -0,0 +1,96 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.lstargeneric.table;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Storage for the (distinct) row contents of an {@link ObservationTable}. Each distinct row content is identified by an
+ * integer id, which is assigned in ascending order, starting at {@code 0}.
+ *
+ * @param <D>
+ *         output domain type
+ */
+abstract class RowContentStorage<D> implements Serializable {
+
+    /**
+     * Retrieves the number of distinct row contents in this storage.
+     *
+     * @return the number of distinct row contents
+     */
+    abstract int size();
+
+    /**
+     * Retrieves the id of the given row contents. If no equal row contents are stored yet, the row contents are added
+     * to the storage, and assigned the id {@link #size()}.
+     *
+     * @param contents
+     *         the row contents. Implementations may take ownership of this list, i.e., it must not be modified
+     *         afterwards.
+     *
+     * @return the id of the given row contents
+     */
+    abstract int getOrAdd(List<D> contents);
+
+    /**
+     * Retrieves the number of cells of the row contents with the given id.
+     */
+    abstract int length(int contentId);
+
+    /**
+     * Appends cells to the row contents with the given id. The caller has to ensure that this does not result in row
+     * contents equal to other stored row contents.
+     */
+    abstract void append(int contentId, List<D> cells);
+
+    /**
+     * Retrieves a single cell of the row contents with the given id.
+     */
+    abstract D get(int contentId, int index);
+
+    /**
+     * Retrieves the row contents with the given id. The default implementation returns a view, which reflects later
+     * calls to {@link #append(int, List)}.
+     */
+    List<D> get(int contentId) {
+        return new ContentsView(contentId);
+    }
+
+    private final class ContentsView extends AbstractList<D> implements RandomAccess {
+
+        private final int contentId;
+
+        ContentsView(int contentId) {
+            this.contentId = contentId;
+        }
+
+        @Override
+        public D get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(Integer.toString(index));
+            }
+            return RowContentStorage.this.get(contentId, index);
+        }
+
+        @Override
+        public int size() {
+            return length(contentId);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.lstargeneric.table;
+
+/**
+ * The available representations of the row contents of an {@link ObservationTable}.
+ */
+public enum RowContentStorageType {
+
+    /**
+     * Stores row contents as lists of output objects. This representation does not pose any requirements on the
+     * outputs apart from proper {@link Object#equals(Object) equals} and {@link Object#hashCode() hashCode}
+     * implementations.
+     */
+    GENERIC {
+        @Override
+        <D> RowContentStorage<D> createStorage() {
+            return new GenericRowContentStorage<>();
+        }
+    },
+
+    /**
+     * Stores row contents in a bit-packed representation, encoding each distinct output as an integer code (occupying
+     * a single bit per cell for DFA learning). This drastically reduces the memory footprint of tables with many rows
+     * and suffixes, in particular if the number of distinct outputs is small.
+     */
+    PACKED {
+        @Override
+        <D> RowContentStorage<D> createStorage() {
+            return new PackedRowContentStorage<>();
+        }
+    };
+
+    abstract <D> RowContentStorage<D> createStorage();
+}
@@ -20,6 +20,7 @@ import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandlers;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategies;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategy;
 import de.learnlib.algorithms.lstargeneric.dfa.ExtensibleLStarDFABuilder;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.oracle.MembershipOracle.DFAMembershipOracle;
 import de.learnlib.testsupport.it.learner.AbstractDFALearnerIT;
 import de.learnlib.testsupport.it.learner.LearnerVariantList.DFALearnerVariantList;
@@ -40,9 +41,13 @@ public class ExtensibleLStarDFAIT extends AbstractDFALearnerIT {
             builder.setCexHandler(handler);
             for (ClosingStrategy<? super I, ? super Boolean> closingStrategy : ClosingStrategies.values()) {
                 builder.setClosingStrategy(closingStrategy);
+                for (RowContentStorageType storageType : RowContentStorageType.values()) {
+                    builder.setStorageType(storageType);
 
-                String variantName = "cexHandler=" + handler + ",closingStrategy=" + closingStrategy;
-                variants.addLearnerVariant(variantName, builder.create());
+                    String variantName = "cexHandler=" + handler + ",closingStrategy=" + closingStrategy +
+                                         ",storageType=" + storageType;
+                    variants.addLearnerVariant(variantName, builder.create());
+                }
             }
         }
     }
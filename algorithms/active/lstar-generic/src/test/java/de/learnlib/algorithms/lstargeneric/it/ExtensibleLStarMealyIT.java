@@ -22,6 +22,7 @@ import de.learnlib.algorithms.lstargeneric.ce.ObservationTableCEXHandlers;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategies;
 import de.learnlib.algorithms.lstargeneric.closing.ClosingStrategy;
 import de.learnlib.algorithms.lstargeneric.mealy.ExtensibleLStarMealyBuilder;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
 import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
 import de.learnlib.testsupport.it.learner.AbstractMealyLearnerIT;
 import de.learnlib.testsupport.it.learner.LearnerVariantList.MealyLearnerVariantList;
@@ -44,9 +45,13 @@ public class ExtensibleLStarMealyIT extends AbstractMealyLearnerIT {
             builder.setCexHandler(handler);
             for (ClosingStrategy<? super I, ? super Word<O>> closingStrategy : ClosingStrategies.values()) {
                 builder.setClosingStrategy(closingStrategy);
+                for (RowContentStorageType storageType : RowContentStorageType.values()) {
+                    builder.setStorageType(storageType);
 
-                String variantName = "cexHandler=" + handler + ",closingStrategy=" + closingStrategy;
-                variants.addLearnerVariant(variantName, builder.create());
+                    String variantName = "cexHandler=" + handler + ",closingStrategy=" + closingStrategy +
+                                         ",storageType=" + storageType;
+                    variants.addLearnerVariant(variantName, builder.create());
+                }
             }
         }
     }
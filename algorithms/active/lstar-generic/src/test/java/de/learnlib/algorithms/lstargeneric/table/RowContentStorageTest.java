@@ -0,0 +1,92 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.lstargeneric.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RowContentStorageTest {
+
+    @DataProvider(name = "storageTypes")
+    public static Object[][] storageTypes() {
+        RowContentStorageType[] types = RowContentStorageType.values();
+        Object[][] result = new Object[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            result[i] = new Object[] {types[i]};
+        }
+        return result;
+    }
+
+    @Test(dataProvider = "storageTypes")
+    public void testBooleanContents(RowContentStorageType type) {
+        RowContentStorage<Boolean> storage = type.createStorage();
+
+        Assert.assertEquals(storage.getOrAdd(new ArrayList<>(Arrays.asList(true, false))), 0);
+        Assert.assertEquals(storage.getOrAdd(new ArrayList<>(Arrays.asList(false, false))), 1);
+        Assert.assertEquals(storage.getOrAdd(new ArrayList<>(Arrays.asList(true, false))), 0);
+        Assert.assertEquals(storage.size(), 2);
+
+        storage.append(0, Arrays.asList(true, true, true));
+        Assert.assertEquals(storage.length(0), 5);
+        Assert.assertEquals(storage.get(0), Arrays.asList(true, false, true, true, true));
+        Assert.assertEquals(storage.get(1), Arrays.asList(false, false));
+        Assert.assertEquals(storage.getOrAdd(new ArrayList<>(Arrays.asList(true, false, true, true, true))), 0);
+        Assert.assertEquals(storage.getOrAdd(new ArrayList<>(Arrays.asList(true, false))), 2);
+    }
+
+    @Test(dataProvider = "storageTypes")
+    public void testRandomContents(RowContentStorageType type) {
+        RowContentStorage<Integer> storage = type.createStorage();
+        RowContentStorage<Integer> reference = new GenericRowContentStorage<>();
+        Random random = new Random(42);
+
+        // the number of distinct outputs grows over time, enforcing several re-packings
+        for (int i = 0; i < 2000; i++) {
+            int maxOutput = 1 + i / 10;
+            if (i % 7 == 0 && reference.size() > 0) {
+                int contentId = random.nextInt(reference.size());
+                List<Integer> cells = randomContents(random, 1 + random.nextInt(3), maxOutput);
+                // appending must not result in equal contents, so use a unique marker
+                cells.add(-1 - i);
+                storage.append(contentId, cells);
+                reference.append(contentId, new ArrayList<>(cells));
+            } else {
+                List<Integer> contents = randomContents(random, random.nextInt(100), maxOutput);
+                Assert.assertEquals(storage.getOrAdd(contents), reference.getOrAdd(new ArrayList<>(contents)));
+            }
+        }
+
+        Assert.assertEquals(storage.size(), reference.size());
+        for (int i = 0; i < reference.size(); i++) {
+            Assert.assertEquals(storage.get(i), reference.get(i));
+            Assert.assertEquals(storage.getOrAdd(new ArrayList<>(reference.get(i))), i);
+        }
+    }
+
+    private static List<Integer> randomContents(Random random, int length, int maxOutput) {
+        List<Integer> result = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(random.nextInt(maxOutput));
+        }
+        return result;
+    }
+}
@@ -781,23 +781,57 @@ public abstract class AbstractTTTLearner<A, I, D>
         return new EmptyDOTHelper<>();
     }
 
+    /**
+     * Closes all open transitions, i.e., ensures that they point to leaves of the discrimination tree (or block roots),
+     * and creates new states for leaves that are not associated with a state yet.
+     * <p>
+     * All open transitions are sifted through the discrimination tree simultaneously, such that the membership oracle
+     * receives a single batch of queries per level of the discrimination tree (see {@link
+     * BaseTTTDiscriminationTree#sift(List, List, boolean)}).
+     */
     protected void closeTransitions() {
-        TTTTransition<I, D> next;
         UnorderedCollection<AbstractBaseDTNode<I, D>> newStateNodes = new UnorderedCollection<>();
 
         do {
+            List<TTTTransition<I, D>> transitions = new ArrayList<>();
+            TTTTransition<I, D> next;
             while ((next = openTransitions.poll()) != null) {
-                AbstractBaseDTNode<I, D> newStateNode = closeTransition(next, false);
-                if (newStateNode != null) {
-                    newStateNodes.add(newStateNode);
+                if (!next.isTree()) {
+                    transitions.add(next);
                 }
             }
+            closeTransitions(transitions, newStateNodes);
             if (!newStateNodes.isEmpty()) {
                 addNewStates(newStateNodes);
             }
         } while (!openTransitions.isEmpty());
     }
 
+    private void closeTransitions(List<TTTTransition<I, D>> transitions,
+                                  UnorderedCollection<AbstractBaseDTNode<I, D>> newStateNodes) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+
+        List<AbstractBaseDTNode<I, D>> starts = new ArrayList<>(transitions.size());
+        List<Word<I>> accessSequences = new ArrayList<>(transitions.size());
+        for (TTTTransition<I, D> trans : transitions) {
+            starts.add(trans.getNonTreeTarget());
+            accessSequences.add(trans.getAccessSequence());
+        }
+
+        List<AbstractBaseDTNode<I, D>> targets = dtree.sift(starts, accessSequences, false);
+
+        for (int i = 0; i < transitions.size(); i++) {
+            TTTTransition<I, D> trans = transitions.get(i);
+            AbstractBaseDTNode<I, D> node = targets.get(i);
+            trans.setNonTreeTarget(node);
+            if (node.isLeaf() && node.getData() == null && trans.getNextElement() == null) {
+                newStateNodes.add(node);
+            }
+        }
+    }
+
     private void addNewStates(UnorderedCollection<AbstractBaseDTNode<I, D>> newStateNodes) {
         AbstractBaseDTNode<I, D> minTransNode = null;
         TTTTransition<I, D> minTrans = null;
@@ -835,25 +869,6 @@ public abstract class AbstractTTTLearner<A, I, D>
         return state;
     }
 
-    /**
-     * Ensures that the specified transition points to a leaf-node. If the transition is a tree transition, this method
-     * has no effect.
-     *
-     * @param trans
-     *         the transition
-     */
-    private AbstractBaseDTNode<I, D> closeTransition(TTTTransition<I, D> trans, boolean hard) {
-        if (trans.isTree()) {
-            return null;
-        }
-
-        AbstractBaseDTNode<I, D> node = updateDTTarget(trans, hard);
-        if (node.isLeaf() && node.getData() == null && trans.getNextElement() == null) {
-            return node;
-        }
-        return null;
-    }
-
     /**
      * Updates the transition to point to either a leaf in the discrimination tree, or---if the {@code hard} parameter
      * is set to {@code false}---to a block root.
@@ -15,11 +15,13 @@
  */
 package de.learnlib.algorithms.ttt.base;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
 import de.learnlib.api.AccessSequenceProvider;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.datastructure.discriminationtree.model.AbstractDiscriminationTree;
 import net.automatalib.graphs.dot.DefaultDOTHelper;
 import net.automatalib.graphs.dot.GraphDOTHelper;
@@ -77,7 +79,7 @@ public class BaseTTTDiscriminationTree<I, D>
     public AbstractBaseDTNode<I, D> sift(AbstractBaseDTNode<I, D> start, Word<I> word, boolean hard) {
         AbstractBaseDTNode<I, D> curr = start;
 
-        while (!curr.isLeaf() && (hard || !curr.isTemp())) {
+        while (needsSift(curr, hard)) {
             D outcome = super.oracle.answerQuery(word, curr.getDiscriminator());
             curr = curr.child(outcome);
         }
@@ -85,6 +87,36 @@ public class BaseTTTDiscriminationTree<I, D>
         return curr;
     }
 
+    /**
+     * Sifts several words into the tree simultaneously, each one starting at its respective start node. The words are
+     * sifted level by level, i.e., the queries for all words that have not reached their final node yet are posed to
+     * the membership oracle in a single batch. The result is the same as sifting each word individually via {@link
+     * #sift(AbstractBaseDTNode, Word, boolean)}.
+     *
+     * @param starts
+     *         the start nodes, one for each word
+     * @param words
+     *         the words to sift
+     * @param hard
+     *         whether to perform a "hard" sift (see {@link #sift(AccessSequenceProvider, boolean)})
+     *
+     * @return the nodes resulting from the sift operations, in the order of the given words
+     */
+    public List<AbstractBaseDTNode<I, D>> sift(List<? extends AbstractBaseDTNode<I, D>> starts,
+                                               List<? extends Word<I>> words,
+                                               boolean hard) {
+        return super.sift(starts, words, n -> needsSift(n, hard));
+    }
+
+    @Override
+    protected DefaultQuery<I, D> buildQuery(AbstractBaseDTNode<I, D> node, Word<I> prefix) {
+        return new DefaultQuery<>(prefix, node.getDiscriminator());
+    }
+
+    private static <I, D> boolean needsSift(AbstractBaseDTNode<I, D> node, boolean hard) {
+        return !node.isLeaf() && (hard || !node.isTemp());
+    }
+
     public AbstractBaseDTNode<I, D> sift(AbstractBaseDTNode<I, D> start, AccessSequenceProvider<I> asp, boolean hard) {
         return sift(start, asp.getAccessSequence(), hard);
     }
@@ -0,0 +1,122 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.ttt;
+
+import java.util.Collection;
+
+import de.learnlib.acex.analyzers.AcexAnalyzers;
+import de.learnlib.algorithms.ttt.dfa.PrefixTTTLearnerDFA;
+import de.learnlib.algorithms.ttt.dfa.TTTLearnerDFA;
+import de.learnlib.algorithms.ttt.mealy.TTTLearnerMealy;
+import de.learnlib.api.algorithm.LearningAlgorithm;
+import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.examples.dfa.ExampleKeylock;
+import de.learnlib.examples.mealy.ExampleGrid;
+import de.learnlib.oracle.equivalence.SimulatorEQOracle.DFASimulatorEQOracle;
+import de.learnlib.oracle.equivalence.SimulatorEQOracle.MealySimulatorEQOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the TTT learners pose their transition-closing queries in batches.
+ */
+public class TTTBatchedClosingTest {
+
+    @Test
+    public void testDFA() {
+        ExampleKeylock example = ExampleKeylock.createExample(10, false);
+        DFA<?, Integer> target = example.getReferenceAutomaton();
+        Alphabet<Integer> alphabet = example.getAlphabet();
+
+        BatchRecordingOracle<Integer, Boolean> oracle = new BatchRecordingOracle<>(new DFASimulatorOracle<>(target));
+        TTTLearnerDFA<Integer> learner = new TTTLearnerDFA<>(alphabet, oracle, AcexAnalyzers.BINARY_SEARCH_BWD);
+
+        learn(learner, new DFASimulatorEQOracle<>(target), alphabet);
+
+        Assert.assertNull(Automata.findSeparatingWord(target, learner.getHypothesisModel(), alphabet));
+        Assert.assertTrue(oracle.maxBatchSize > 1);
+    }
+
+    @Test
+    public void testPrefixDFA() {
+        ExampleKeylock example = ExampleKeylock.createExample(10, false);
+        DFA<?, Integer> target = example.getReferenceAutomaton();
+        Alphabet<Integer> alphabet = example.getAlphabet();
+
+        BatchRecordingOracle<Integer, Boolean> oracle = new BatchRecordingOracle<>(new DFASimulatorOracle<>(target));
+        PrefixTTTLearnerDFA<Integer> learner =
+                new PrefixTTTLearnerDFA<>(alphabet, oracle, AcexAnalyzers.BINARY_SEARCH_BWD);
+
+        learn(learner, new DFASimulatorEQOracle<>(target), alphabet);
+
+        Assert.assertNull(Automata.findSeparatingWord(target, learner.getHypothesisModel(), alphabet));
+        Assert.assertTrue(oracle.maxBatchSize > 1);
+    }
+
+    @Test
+    public void testMealy() {
+        ExampleGrid example = ExampleGrid.createExample(5, 5);
+        MealyMachine<?, Character, ?, Integer> target = example.getReferenceAutomaton();
+        Alphabet<Character> alphabet = example.getAlphabet();
+
+        BatchRecordingOracle<Character, Word<Integer>> oracle =
+                new BatchRecordingOracle<>(new MealySimulatorOracle<>(target));
+        TTTLearnerMealy<Character, Integer> learner =
+                new TTTLearnerMealy<>(alphabet, oracle, AcexAnalyzers.BINARY_SEARCH_BWD);
+
+        learn(learner, new MealySimulatorEQOracle<>(target), alphabet);
+
+        Assert.assertNull(Automata.findSeparatingWord(target, learner.getHypothesisModel(), alphabet));
+        Assert.assertTrue(oracle.maxBatchSize > 1);
+    }
+
+    private static <M, I, D> void learn(LearningAlgorithm<M, I, D> learner,
+                                        EquivalenceOracle<? super M, I, D> eqOracle,
+                                        Alphabet<I> alphabet) {
+        learner.startLearning();
+
+        DefaultQuery<I, D> ce;
+        while ((ce = eqOracle.findCounterExample(learner.getHypothesisModel(), alphabet)) != null) {
+            learner.refineHypothesis(ce);
+        }
+    }
+
+    private static final class BatchRecordingOracle<I, D> implements MembershipOracle<I, D> {
+
+        private final MembershipOracle<I, D> delegate;
+        private int maxBatchSize;
+
+        BatchRecordingOracle(MembershipOracle<I, D> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, D>> queries) {
+            maxBatchSize = Math.max(maxBatchSize, queries.size());
+            delegate.processQueries(queries);
+        }
+    }
+}
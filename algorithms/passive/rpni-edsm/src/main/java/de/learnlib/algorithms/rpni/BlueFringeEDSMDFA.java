@@ -18,16 +18,17 @@ package de.learnlib.algorithms.rpni;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
 
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
 import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.InPlaceRedBlueMerger;
 import de.learnlib.datastructure.pta.pta.PTATransition;
-import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.automata.UniversalDeterministicAutomaton;
 import net.automatalib.automata.fsa.DFA;
 import net.automatalib.commons.util.Pair;
@@ -41,6 +42,12 @@ import net.automatalib.words.Alphabet;
  * situation occurs, the algorithm merges the two states whose merge would yield the biggest score (see {@link
  * EDSMUtil#score(UniversalDeterministicAutomaton, List, List)}). Thus the behavior of this algorithm is more passive,
  * or as the name suggest evidence-driven.
+ * <p>
+ * Scores are not computed by re-running the samples on each candidate merge, but are maintained incrementally from the
+ * per-state sample counts of the PTA, which makes the cost of scoring a merge proportional to the size of the merge.
+ * If merges are not evaluated in parallel, candidate merges are folded directly on the PTA and rolled back after
+ * scoring (see {@link InPlaceRedBlueMerger}). The same applies to the compact PTA representation (see {@link
+ * #setCompact(boolean)}), in which case blue states are processed in the order of their discovery.
  *
  * @param <I>
  *         input symbol type
@@ -61,16 +68,25 @@ public class BlueFringeEDSMDFA<I> extends BlueFringeRPNIDFA<I> {
 
     @Override
     public DFA<?, I> computeModel() {
-        BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(super.alphabetSize);
-        initializePTA(pta);
+        if (super.compact) {
+            return computeModelOnCompactPTA();
+        }
+
+        BlueFringePTA<Boolean, Void> pta = createPTA();
 
         Set<PTATransition<BlueFringePTAState<Boolean, Void>>> blue = new HashSet<>();
 
         pta.init(blue::add);
 
+        final InPlaceRedBlueMerger<Boolean, Void, BlueFringePTAState<Boolean, Void>> merger =
+                new InPlaceRedBlueMerger<>(super.alphabetSize);
+
+        long ptaScore = EDSMUtil.score(pta);
+
         while (!blue.isEmpty()) {
+            final long currentScore = ptaScore;
             boolean promotion = false;
-            RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> bestMerge = null;
+            BlueFringePTAState<Boolean, Void> bestRed = null;
             PTATransition<BlueFringePTAState<Boolean, Void>> bestTransition = null;
             long bestScore = Long.MIN_VALUE;
 
@@ -80,27 +96,25 @@ public class BlueFringeEDSMDFA<I> extends BlueFringeRPNIDFA<I> {
                 final PTATransition<BlueFringePTAState<Boolean, Void>> qbRef = blueIter.next();
                 final BlueFringePTAState<Boolean, Void> qb = qbRef.getTarget();
 
-                Stream<BlueFringePTAState<Boolean, Void>> stream = pta.redStatesStream();
+                final Optional<Pair<BlueFringePTAState<Boolean, Void>, Long>> result;
                 if (super.parallel) {
-                    stream = stream.parallel();
+                    result = pta.redStatesStream()
+                                .parallel()
+                                .map(qr -> tryMerge(pta, qr, qb))
+                                .filter(Objects::nonNull)
+                                .map(merge -> new Pair<>(merge.getRedState(), EDSMUtil.score(currentScore, merge)))
+                                .max(Comparator.comparingLong(Pair::getSecond));
+                } else {
+                    result = findBestMerge(merger, pta, qb, currentScore);
                 }
 
-                final Optional<Pair<RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>>, Long>> result =
-                        stream.map(qr -> tryMerge(pta, qr, qb))
-                              .filter(Objects::nonNull)
-                              .map(merge -> new Pair<>(merge,
-                                                       EDSMUtil.score(merge.toMergedAutomaton(),
-                                                                      super.positive,
-                                                                      super.negative)))
-                              .max(Comparator.comparingLong(Pair::getSecond));
-
                 if (result.isPresent()) {
-                    final Pair<RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>>, Long> mergeResult =
-                            result.get();
+                    final Pair<BlueFringePTAState<Boolean, Void>, Long> mergeResult = result.get();
 
                     if (mergeResult.getSecond() > bestScore) {
-                        bestMerge = mergeResult.getFirst();
+                        bestRed = mergeResult.getFirst();
                         bestTransition = qbRef;
+                        bestScore = mergeResult.getSecond();
                     }
                 } else {
                     promotion = true;
@@ -111,10 +125,98 @@ public class BlueFringeEDSMDFA<I> extends BlueFringeRPNIDFA<I> {
             }
             if (!promotion) {
                 blue.remove(bestTransition);
-                bestMerge.apply(pta, blue::add);
+                final boolean merged = merger.merge(bestRed, bestTransition.getTarget());
+                assert merged;
+                ptaScore = EDSMUtil.score(currentScore, merger);
+                merger.commit(blue::add);
             }
         }
 
         return ptaToModel(pta);
     }
+
+    private DFA<?, I> computeModelOnCompactPTA() {
+        final CompactBlueFringePTA<Boolean, Void> pta = createCompactPTA();
+
+        final Set<Integer> blue = new LinkedHashSet<>();
+
+        pta.init(blue::add);
+
+        long ptaScore = EDSMUtil.score(pta);
+
+        while (!blue.isEmpty()) {
+            boolean promotion = false;
+            int bestRed = CompactBlueFringePTA.NO_STATE;
+            int bestBlue = CompactBlueFringePTA.NO_STATE;
+            long bestScore = Long.MIN_VALUE;
+
+            final Iterator<Integer> blueIter = blue.iterator();
+
+            while (blueIter.hasNext()) {
+                final int qb = blueIter.next();
+
+                int red = CompactBlueFringePTA.NO_STATE;
+                long score = Long.MIN_VALUE;
+
+                for (int id = 0; id < pta.getNumRedStates(); id++) {
+                    final int qr = pta.getRedState(id);
+                    if (pta.merge(qr, qb)) {
+                        final long mergeScore = EDSMUtil.score(ptaScore, pta);
+                        pta.rollback();
+
+                        if (red == CompactBlueFringePTA.NO_STATE || mergeScore > score) {
+                            red = qr;
+                            score = mergeScore;
+                        }
+                    }
+                }
+
+                if (red != CompactBlueFringePTA.NO_STATE) {
+                    if (score > bestScore) {
+                        bestRed = red;
+                        bestBlue = qb;
+                        bestScore = score;
+                    }
+                } else {
+                    promotion = true;
+                    blueIter.remove();
+                    pta.promote(qb, blue::add);
+                    break;
+                }
+            }
+            if (!promotion) {
+                blue.remove(bestBlue);
+                final boolean merged = pta.merge(bestRed, bestBlue);
+                assert merged;
+                ptaScore = EDSMUtil.score(ptaScore, pta);
+                pta.commit(blue::add);
+            }
+        }
+
+        return ptaToModel(pta);
+    }
+
+    private static Optional<Pair<BlueFringePTAState<Boolean, Void>, Long>> findBestMerge(
+            InPlaceRedBlueMerger<Boolean, Void, BlueFringePTAState<Boolean, Void>> merger,
+            BlueFringePTA<Boolean, Void> pta,
+            BlueFringePTAState<Boolean, Void> qb,
+            long ptaScore) {
+
+        BlueFringePTAState<Boolean, Void> bestRed = null;
+        long bestScore = Long.MIN_VALUE;
+
+        for (final BlueFringePTAState<Boolean, Void> qr : pta.getRedStates()) {
+            if (merger.merge(qr, qb)) {
+                final long score = EDSMUtil.score(ptaScore, merger);
+                merger.rollback();
+
+                if (bestRed == null || score > bestScore) {
+                    bestRed = qr;
+                    bestScore = score;
+                }
+            }
+        }
+
+        return (bestRed == null) ? Optional.empty() : Optional.of(new Pair<>(bestRed, bestScore));
+    }
 }
\ No newline at end of file
@@ -18,6 +18,11 @@ package de.learnlib.algorithms.rpni;
 import java.util.List;
 
 import com.google.common.primitives.Ints;
+import de.learnlib.datastructure.pta.pta.AbstractBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.AbstractBlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.InPlaceRedBlueMerger;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.automata.UniversalDeterministicAutomaton;
 import net.automatalib.automata.concepts.StateIDs;
 
@@ -29,6 +34,66 @@ final class EDSMUtil {
     private EDSMUtil() {
     }
 
+    /**
+     * Computes the EDSM score of the given PTA from the sample end counts of its states (see {@link
+     * AbstractBlueFringePTAState#getNumSampleEnds()}). For a PTA constructed from the given samples, this yields the
+     * same value as {@link #score(UniversalDeterministicAutomaton, List, List)} without re-running any sample.
+     */
+    static <S extends AbstractBlueFringePTAState<Boolean, ?, S>> long score(AbstractBlueFringePTA<Boolean, ?, S> pta) {
+        long score = 0;
+
+        for (final S s : pta.getStates()) {
+            final int sampleEnds = s.getNumSampleEnds();
+            if (sampleEnds > 0) {
+                score += sampleEnds - 1;
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Computes the EDSM score of the automaton resulting from the given merge, based on the score of the PTA the merge
+     * has been computed on. Since every state of a valid merge is consistent w.r.t. its positive and negative samples,
+     * the score only increases by one for each fold of two sample-ending states (see {@link
+     * RedBlueMerge#getNumSampleEndCollisions()}), which is computed alongside the merge itself.
+     */
+    static long score(long ptaScore, RedBlueMerge<Boolean, ?, ?> merge) {
+        return ptaScore + merge.getNumSampleEndCollisions();
+    }
+
+    /**
+     * Computes the EDSM score of the automaton represented by the PTA of the given (active) in-place merger. See
+     * {@link #score(long, RedBlueMerge)}.
+     */
+    static long score(long ptaScore, InPlaceRedBlueMerger<Boolean, ?, ?> merger) {
+        return ptaScore + merger.getNumSampleEndCollisions();
+    }
+
+    /**
+     * Computes the EDSM score of the given compact PTA. See {@link #score(AbstractBlueFringePTA)}.
+     */
+    static long score(CompactBlueFringePTA<Boolean, ?> pta) {
+        long score = 0;
+
+        for (final int s : pta.getStates()) {
+            final int sampleEnds = pta.getNumSampleEnds(s);
+            if (sampleEnds > 0) {
+                score += sampleEnds - 1;
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Computes the EDSM score of the automaton represented by the given compact PTA, on which a merge is currently
+     * conducted. See {@link #score(long, RedBlueMerge)}.
+     */
+    static long score(long ptaScore, CompactBlueFringePTA<Boolean, ?> mergedPTA) {
+        return ptaScore + mergedPTA.getNumSampleEndCollisions();
+    }
+
     static <S> long score(UniversalDeterministicAutomaton<S, Integer, ?, Boolean, ?> pta,
                           List<int[]> positiveSamples,
                           List<int[]> negativeSamples) {
@@ -0,0 +1,57 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.rpni;
+
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that {@link BlueFringeEDSMDFA} merges the blue state with the highest score, regardless of the order in
+ * which the blue states are inspected.
+ */
+@Test
+public class BlueFringeEDSMDFATest {
+
+    private final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+
+    @Test
+    public void testBestBlueStateIsMerged() {
+        for (final boolean compact : new boolean[] {false, true}) {
+            for (final boolean parallel : new boolean[] {false, true}) {
+                final BlueFringeEDSMDFA<Character> learner = new BlueFringeEDSMDFA<>(alphabet);
+                learner.setCompact(compact);
+                learner.setParallel(parallel);
+
+                // initially, both blue states can be merged into the root: merging a scores 2, merging b scores 1
+                learner.addPositiveSamples(Word.epsilon(), Word.fromString("a"), Word.fromString("aa"));
+                learner.addPositiveSample(Word.fromString("b"));
+                learner.addNegativeSample(Word.fromString("bab"));
+
+                final DFA<?, Character> model = learner.computeModel();
+                final String variant = String.format("compact=%b, parallel=%b", compact, parallel);
+
+                // merging b first would have made ab rejected and bb accepted
+                Assert.assertTrue(model.accepts(Word.fromString("ab")), variant);
+                Assert.assertFalse(model.accepts(Word.fromString("bb")), variant);
+                Assert.assertEquals(model.size(), 3, variant);
+            }
+        }
+    }
+}
@@ -15,12 +15,20 @@
  */
 package de.learnlib.algorithms.rpni;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
 import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.PTATransition;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.automata.UniversalDeterministicAutomaton;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
@@ -80,6 +88,117 @@ public class EDSMScoreTest {
         Assert.assertEquals(2L, EDSMUtil.score(secondMerged, positiveSamplesAsIntArray, negativeSamplesAsIntArray));
     }
 
+    @Test
+    public void testIncrementalScore() {
+        checkIncrementalScore(positiveSamplesAsIntArray, negativeSamplesAsIntArray);
+        checkCompactIncrementalScore(positiveSamplesAsIntArray, negativeSamplesAsIntArray);
+
+        // samples of the language of all words with an even number of a's
+        final Random random = new Random(42);
+        final List<int[]> positive = new ArrayList<>();
+        final List<int[]> negative = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            final int[] sample = random.ints(random.nextInt(10), 0, alphabet.size()).toArray();
+            final long numAs = Arrays.stream(sample).filter(x -> x == 0).count();
+            if (numAs % 2 == 0) {
+                positive.add(sample);
+            } else {
+                negative.add(sample);
+            }
+        }
+
+        checkIncrementalScore(positive, negative);
+        checkCompactIncrementalScore(positive, negative);
+    }
+
+    /*
+     * Runs the blue-fringe loop on a PTA of the given samples and checks that the incrementally maintained scores
+     * coincide with the scores obtained from re-running the samples.
+     */
+    private void checkIncrementalScore(List<int[]> positive, List<int[]> negative) {
+        final BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(alphabet.size());
+        positive.forEach(s -> pta.addSample(s, true));
+        negative.forEach(s -> pta.addSample(s, false));
+
+        final Queue<PTATransition<BlueFringePTAState<Boolean, Void>>> blue = new ArrayDeque<>();
+        pta.init(blue::add);
+
+        long ptaScore = EDSMUtil.score(pta);
+        Assert.assertEquals(ptaScore, EDSMUtil.score(pta, positive, negative));
+
+        PTATransition<BlueFringePTAState<Boolean, Void>> qbRef;
+        while ((qbRef = blue.poll()) != null) {
+            final BlueFringePTAState<Boolean, Void> qb = qbRef.getTarget();
+            RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> selected = null;
+
+            for (final BlueFringePTAState<Boolean, Void> qr : pta.getRedStates()) {
+                final RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge = pta.tryMerge(qr, qb);
+                if (merge != null) {
+                    Assert.assertEquals(EDSMUtil.score(ptaScore, merge),
+                                        EDSMUtil.score(merge.toMergedAutomaton(), positive, negative));
+                    if (selected == null) {
+                        selected = merge;
+                    }
+                }
+            }
+
+            if (selected == null) {
+                pta.promote(qb, blue::add);
+            } else {
+                ptaScore = EDSMUtil.score(ptaScore, selected);
+                selected.apply(pta, blue::add);
+                Assert.assertEquals(EDSMUtil.score(pta), ptaScore);
+                Assert.assertEquals(EDSMUtil.score(pta, positive, negative), ptaScore);
+            }
+        }
+    }
+
+    /*
+     * Same as checkIncrementalScore, but for the compact PTA, whose merges are conducted in place. Hence the
+     * incrementally computed scores can be checked against the scores of the (merged) PTA itself.
+     */
+    private void checkCompactIncrementalScore(List<int[]> positive, List<int[]> negative) {
+        final CompactBlueFringePTA<Boolean, Void> pta = new CompactBlueFringePTA<>(alphabet.size());
+        positive.forEach(s -> pta.addSample(s, true));
+        negative.forEach(s -> pta.addSample(s, false));
+
+        final Queue<Integer> blue = new ArrayDeque<>();
+        pta.init(blue::add);
+
+        final BlueFringePTA<Boolean, Void> referencePTA = new BlueFringePTA<>(alphabet.size());
+        positive.forEach(s -> referencePTA.addSample(s, true));
+        negative.forEach(s -> referencePTA.addSample(s, false));
+
+        long ptaScore = EDSMUtil.score(pta);
+        Assert.assertEquals(ptaScore, EDSMUtil.score(referencePTA));
+
+        Integer qb;
+        while ((qb = blue.poll()) != null) {
+            int selected = CompactBlueFringePTA.NO_STATE;
+
+            for (int id = 0; id < pta.getNumRedStates(); id++) {
+                final int qr = pta.getRedState(id);
+                if (pta.merge(qr, qb)) {
+                    Assert.assertEquals(EDSMUtil.score(ptaScore, pta), EDSMUtil.score(pta));
+                    pta.rollback();
+                    if (selected == CompactBlueFringePTA.NO_STATE) {
+                        selected = qr;
+                    }
+                }
+            }
+
+            if (selected == CompactBlueFringePTA.NO_STATE) {
+                pta.promote(qb, blue::add);
+            } else {
+                Assert.assertTrue(pta.merge(selected, qb));
+                ptaScore = EDSMUtil.score(ptaScore, pta);
+                pta.commit(blue::add);
+                Assert.assertEquals(EDSMUtil.score(pta), ptaScore);
+            }
+        }
+    }
+
     /*
      * Build PTA from Fig 14.12
      */
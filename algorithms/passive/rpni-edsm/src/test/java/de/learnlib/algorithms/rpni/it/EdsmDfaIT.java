@@ -41,5 +41,9 @@ public class EdsmDfaIT extends AbstractDFAPassiveLearnerIT {
                 variants.addLearnerVariant(String.format("BlueFringeEDSMDFA, det=%b, par=%b", d, p), learner);
             }
         }
+
+        final BlueFringeEDSMDFA<I> compactLearner = new BlueFringeEDSMDFA<>(alphabet);
+        compactLearner.setCompact(true);
+        variants.addLearnerVariant("BlueFringeEDSMDFA, compact", compactLearner);
     }
 }
@@ -18,7 +18,9 @@ package de.learnlib.algorithms.rpni;
 import java.util.Collection;
 
 import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.datastructure.pta.pta.BlueFringePTA;
 import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
 import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.words.Alphabet;
 
@@ -30,6 +32,9 @@ import net.automatalib.words.Alphabet;
  * <p>
  * This passive approach to state-merging works better in scenarios where only positive training data is available.
  * Hence, this algorithm only expect positive training data.
+ * <p>
+ * Scores of candidate merges are not computed by re-running the samples on the merged automaton, but are derived from
+ * the score of the current PTA and the per-state visit counts of the states affected by the merge.
  *
  * @param <I>
  *         input symbol type
@@ -39,6 +44,7 @@ import net.automatalib.words.Alphabet;
 public class BlueFringeMDLDFA<I> extends BlueFringeRPNIDFA<I> {
 
     private double currentScore = Double.POSITIVE_INFINITY;
+    private double ptaScore;
 
     /**
      * Constructor.
@@ -58,14 +64,58 @@ public class BlueFringeMDLDFA<I> extends BlueFringeRPNIDFA<I> {
         super.addSamples(samples);
     }
 
+    @Override
+    protected void addSample(CompactBlueFringePTA<Boolean, Void> pta, int[] sample, boolean accepted) {
+        if (!accepted) {
+            throw new IllegalArgumentException("Only positive examples are allowed");
+        }
+        super.addSample(pta, sample, accepted);
+    }
+
+    @Override
+    protected void initializePTA(BlueFringePTA<Boolean, Void> pta) {
+        super.initializePTA(pta);
+        ptaScore = MDLUtil.score(pta, super.alphabetSize);
+    }
+
+    @Override
+    protected void initializePTA(CompactBlueFringePTA<Boolean, Void> pta) {
+        super.initializePTA(pta);
+        ptaScore = MDLUtil.score(pta, super.alphabetSize);
+    }
+
     @Override
     protected boolean decideOnValidMerge(RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge) {
-        final double score = MDLUtil.score(merge.toMergedAutomaton(), super.alphabetSize, super.positive);
+        final double score = MDLUtil.score(ptaScore, super.alphabetSize, merge);
+        if (score < currentScore) {
+            currentScore = score;
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    protected boolean decideOnValidMerge(CompactBlueFringePTA<Boolean, Void> pta) {
+        final double score = MDLUtil.score(ptaScore, super.alphabetSize, pta);
         if (score < currentScore) {
             currentScore = score;
+            // accepted merges are committed right away
+            ptaScore = score;
             return true;
         }
 
         return false;
     }
+
+    @Override
+    protected void onMergeSelected(RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge) {
+        ptaScore = MDLUtil.score(ptaScore, super.alphabetSize, merge);
+    }
+
+    @Override
+    protected boolean supportsInPlaceMerging() {
+        // merges are scored on the merge objects
+        return false;
+    }
 }
@@ -17,7 +17,13 @@ package de.learnlib.algorithms.rpni;
 
 import java.util.List;
 
+import de.learnlib.datastructure.pta.pta.AbstractBasePTAState;
+import de.learnlib.datastructure.pta.pta.AbstractBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.AbstractBlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.automata.UniversalDeterministicAutomaton;
+import net.automatalib.commons.util.Pair;
 
 /**
  * @author frohme
@@ -27,6 +33,90 @@ final class MDLUtil {
     private MDLUtil() {
     }
 
+    /**
+     * Computes the MDL score of the given PTA from the visit counts of its states (see {@link
+     * AbstractBasePTAState#getNumVisits()}). For a PTA constructed from the given samples, this yields the same value
+     * as {@link #score(UniversalDeterministicAutomaton, int, List)} without re-running any sample.
+     */
+    static <S extends AbstractBlueFringePTAState<Boolean, ?, S>> double score(
+            AbstractBlueFringePTA<Boolean, ?, S> pta, int alphabetSize) {
+        double sampleScore = 0;
+        int size = 0;
+
+        for (final S s : pta.getStates()) {
+            sampleScore += stateScore(s.getNumVisits(), countStateChoices(s, alphabetSize));
+            size++;
+        }
+
+        return (size * alphabetSize) + sampleScore;
+    }
+
+    /**
+     * Computes the MDL score of the automaton resulting from the given merge, based on the score of the PTA the merge
+     * has been computed on. Only the contributions of the states folded or modified by the merge are re-evaluated,
+     * using their accumulated visit counts.
+     */
+    static <S extends AbstractBlueFringePTAState<Boolean, ?, S>> double score(
+            double ptaScore, int alphabetSize, RedBlueMerge<Boolean, ?, S> merge) {
+        final UniversalDeterministicAutomaton<S, Integer, ?, Boolean, ?> merged = merge.toMergedAutomaton();
+        double delta = 0;
+
+        for (final Pair<S, S> modified : merge.getModifiedStates()) {
+            final S original = modified.getFirst();
+            final S representative = modified.getSecond();
+            delta += stateScore(merge.getNumVisits(representative),
+                                countStateChoices(merged, alphabetSize, representative));
+            delta -= stateScore(original.getNumVisits(), countStateChoices(original, alphabetSize));
+        }
+
+        for (final S folded : merge.getFoldedStates()) {
+            delta -= alphabetSize + stateScore(folded.getNumVisits(), countStateChoices(folded, alphabetSize));
+        }
+
+        return ptaScore + delta;
+    }
+
+    /**
+     * Computes the MDL score of the given compact PTA. See {@link #score(AbstractBlueFringePTA, int)}.
+     */
+    static double score(CompactBlueFringePTA<Boolean, ?> pta, int alphabetSize) {
+        final int[] states = pta.getStates();
+        double sampleScore = 0;
+
+        for (final int s : states) {
+            sampleScore += stateScore(pta.getNumVisits(s), countStateChoices(pta.getStateProperty(s),
+                                                                             pta.getNumSuccessors(s)));
+        }
+
+        return (states.length * alphabetSize) + sampleScore;
+    }
+
+    /**
+     * Computes the MDL score of the automaton represented by the given compact PTA, on which a merge is currently
+     * conducted. See {@link #score(double, int, RedBlueMerge)}.
+     */
+    static double score(double ptaScore, int alphabetSize, CompactBlueFringePTA<Boolean, ?> mergedPTA) {
+        double delta = 0;
+
+        for (int i = 0; i < mergedPTA.getNumModifiedStates(); i++) {
+            final int s = mergedPTA.getModifiedState(i);
+            delta += stateScore(mergedPTA.getNumVisits(s),
+                                countStateChoices(mergedPTA.getStateProperty(s), mergedPTA.getNumSuccessors(s)));
+            delta -= stateScore(mergedPTA.getOriginalNumVisits(i),
+                                countStateChoices(mergedPTA.getOriginalStateProperty(i),
+                                                  mergedPTA.getOriginalNumSuccessors(i)));
+        }
+
+        for (int i = 0; i < mergedPTA.getNumFoldedStates(); i++) {
+            final int s = mergedPTA.getFoldedState(i);
+            delta -= alphabetSize + stateScore(mergedPTA.getNumVisits(s),
+                                               countStateChoices(mergedPTA.getStateProperty(s),
+                                                                 mergedPTA.getNumSuccessors(s)));
+        }
+
+        return ptaScore + delta;
+    }
+
     static <S> double score(UniversalDeterministicAutomaton<S, Integer, ?, Boolean, ?> pta,
                             int alphabetSize,
                             List<int[]> positiveSamples) {
@@ -54,6 +144,29 @@ final class MDLUtil {
         return result;
     }
 
+    private static double stateScore(int visits, int choices) {
+        if (visits == 0) {
+            return 0;
+        }
+        return visits * Math.log(choices) / Math.log(2); // log_2 x = log_e x / log_e 2
+    }
+
+    private static int countStateChoices(AbstractBasePTAState<Boolean, ?, ?> state, int alphabetSize) {
+        int choices = Boolean.TRUE.equals(state.getStateProperty()) ? 1 : 0;
+
+        for (int i = 0; i < alphabetSize; i++) {
+            if (state.getSuccessor(i) != null) {
+                choices++;
+            }
+        }
+
+        return choices;
+    }
+
+    private static int countStateChoices(Boolean property, int numSuccessors) {
+        return Boolean.TRUE.equals(property) ? numSuccessors + 1 : numSuccessors;
+    }
+
     private static <S> int countStateChoices(UniversalDeterministicAutomaton<S, Integer, ?, Boolean, ?> pta,
                                              int alphabetSize,
                                              S state) {
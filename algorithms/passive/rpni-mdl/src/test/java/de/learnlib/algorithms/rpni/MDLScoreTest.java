@@ -15,11 +15,20 @@
  */
 package de.learnlib.algorithms.rpni;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.PTATransition;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.automata.fsa.DFA;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
@@ -36,6 +45,8 @@ import org.testng.internal.collections.Ints;
 @Test
 public class MDLScoreTest {
 
+    private static final double EPSILON = 1e-6;
+
     private Alphabet<Character> alphabet;
     private Alphabet<Integer> alphabetAsInt;
 
@@ -91,4 +102,113 @@ public class MDLScoreTest {
         Assert.assertTrue(45.2 < finalEncodingInformation);
         Assert.assertTrue(finalEncodingInformation < 45.21);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIncrementalScore() {
+        checkIncrementalScore(positiveSamplesAsIntArray);
+        checkCompactIncrementalScore(positiveSamplesAsIntArray);
+
+        // samples of the language of all words with an even number of a's
+        final Random random = new Random(42);
+        final List<int[]> positive = new ArrayList<>();
+
+        while (positive.size() < 100) {
+            final int[] sample = random.ints(random.nextInt(10), 0, alphabet.size()).toArray();
+            if (Arrays.stream(sample).filter(x -> x == 0).count() % 2 == 0) {
+                positive.add(sample);
+            }
+        }
+
+        checkIncrementalScore(positive);
+        checkCompactIncrementalScore(positive);
+    }
+
+    /*
+     * Runs the blue-fringe loop on a PTA of the given samples and checks that the incrementally maintained scores
+     * coincide with the scores obtained from re-running the samples.
+     */
+    private void checkIncrementalScore(List<int[]> positive) {
+        final int alphabetSize = alphabet.size();
+        final BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(alphabetSize);
+        positive.forEach(s -> pta.addSample(s, true));
+
+        final Queue<PTATransition<BlueFringePTAState<Boolean, Void>>> blue = new ArrayDeque<>();
+        pta.init(blue::add);
+
+        double ptaScore = MDLUtil.score(pta, alphabetSize);
+        Assert.assertEquals(ptaScore, MDLUtil.score(pta, alphabetSize, positive), EPSILON);
+
+        PTATransition<BlueFringePTAState<Boolean, Void>> qbRef;
+        while ((qbRef = blue.poll()) != null) {
+            final BlueFringePTAState<Boolean, Void> qb = qbRef.getTarget();
+            RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> selected = null;
+
+            for (final BlueFringePTAState<Boolean, Void> qr : pta.getRedStates()) {
+                final RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge = pta.tryMerge(qr, qb);
+                if (merge != null) {
+                    Assert.assertEquals(MDLUtil.score(ptaScore, alphabetSize, merge),
+                                        MDLUtil.score(merge.toMergedAutomaton(), alphabetSize, positive),
+                                        EPSILON);
+                    if (selected == null) {
+                        selected = merge;
+                    }
+                }
+            }
+
+            if (selected == null) {
+                pta.promote(qb, blue::add);
+            } else {
+                ptaScore = MDLUtil.score(ptaScore, alphabetSize, selected);
+                selected.apply(pta, blue::add);
+                Assert.assertEquals(MDLUtil.score(pta, alphabetSize), ptaScore, EPSILON);
+                Assert.assertEquals(MDLUtil.score(pta, alphabetSize, positive), ptaScore, EPSILON);
+            }
+        }
+    }
+
+    /*
+     * Same as checkIncrementalScore, but for the compact PTA, whose merges are conducted in place. Hence the
+     * incrementally computed scores can be checked against the scores of the (merged) PTA itself.
+     */
+    private void checkCompactIncrementalScore(List<int[]> positive) {
+        final int alphabetSize = alphabet.size();
+        final CompactBlueFringePTA<Boolean, Void> pta = new CompactBlueFringePTA<>(alphabetSize);
+        positive.forEach(s -> pta.addSample(s, true));
+
+        final Queue<Integer> blue = new ArrayDeque<>();
+        pta.init(blue::add);
+
+        final BlueFringePTA<Boolean, Void> referencePTA = new BlueFringePTA<>(alphabetSize);
+        positive.forEach(s -> referencePTA.addSample(s, true));
+
+        double ptaScore = MDLUtil.score(pta, alphabetSize);
+        Assert.assertEquals(ptaScore, MDLUtil.score(referencePTA, alphabetSize), EPSILON);
+
+        Integer qb;
+        while ((qb = blue.poll()) != null) {
+            int selected = CompactBlueFringePTA.NO_STATE;
+
+            for (int id = 0; id < pta.getNumRedStates(); id++) {
+                final int qr = pta.getRedState(id);
+                if (pta.merge(qr, qb)) {
+                    Assert.assertEquals(MDLUtil.score(ptaScore, alphabetSize, pta),
+                                        MDLUtil.score(pta, alphabetSize),
+                                        EPSILON);
+                    pta.rollback();
+                    if (selected == CompactBlueFringePTA.NO_STATE) {
+                        selected = qr;
+                    }
+                }
+            }
+
+            if (selected == CompactBlueFringePTA.NO_STATE) {
+                pta.promote(qb, blue::add);
+            } else {
+                Assert.assertTrue(pta.merge(selected, qb));
+                ptaScore = MDLUtil.score(ptaScore, alphabetSize, pta);
+                pta.commit(blue::add);
+                Assert.assertEquals(MDLUtil.score(pta, alphabetSize), ptaScore, EPSILON);
+            }
+        }
+    }
+}
@@ -53,5 +53,13 @@ public class MdlDfaIT extends AbstractDFAPassiveLearnerIT {
                 variants.addLearnerVariant(String.format("BlueFringeMDLDFA, det=%b, par=%b", d, p), learner);
             }
         }
+
+        final BlueFringeMDLDFA<I> compactLearner = new BlueFringeMDLDFA<>(alphabet);
+        compactLearner.setCompact(true);
+        variants.addLearnerVariant("BlueFringeMDLDFA, compact", compactLearner);
+
+        final BlueFringeMDLDFA<I> speculativeLearner = new BlueFringeMDLDFA<>(alphabet);
+        speculativeLearner.setSpeculationWidth(4);
+        variants.addLearnerVariant("BlueFringeMDLDFA, speculative", speculativeLearner);
     }
 }
\ No newline at end of file
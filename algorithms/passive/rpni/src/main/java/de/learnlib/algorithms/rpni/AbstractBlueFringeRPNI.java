@@ -15,18 +15,32 @@
  */
 package de.learnlib.algorithms.rpni;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import de.learnlib.api.algorithm.PassiveLearningAlgorithm;
+import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.datastructure.pta.bluefringe.DefaultProcessingOrders;
 import de.learnlib.datastructure.pta.bluefringe.ProcessingOrder;
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
 import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.InPlaceRedBlueMerger;
 import de.learnlib.datastructure.pta.pta.PTATransition;
 import de.learnlib.datastructure.pta.pta.RedBlueMerge;
 import net.automatalib.words.Alphabet;
@@ -64,6 +78,12 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
     protected final ProcessingOrder order = DefaultProcessingOrders.CANONICAL_ORDER;
     protected boolean parallel = true;
     protected boolean deterministic;
+    protected boolean compact;
+    protected int speculationWidth = 1;
+
+    @Nullable
+    private CompactBlueFringePTA<SP, TP> samplePTA;
+    private boolean samplePTAReleased;
 
     /**
      * Constructor.
@@ -81,6 +101,11 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
      * <p>
      * Note that setting this to {@code true} does not inhibit the possibility of deterministic algorithm runs (see
      * {@link #setDeterministic(boolean)}).
+     * <p>
+     * Parallel execution is enabled by default. If it is disabled and the learner supports it (see {@link
+     * #supportsInPlaceMerging()}), merges are conducted directly on the PTA (see {@link InPlaceRedBlueMerger}), which
+     * folds every candidate merge only once and does not construct (copy-on-write) {@link RedBlueMerge} objects.
+     * Parallel attempts always use {@link RedBlueMerge} objects, since the PTA must not be modified concurrently.
      *
      * @param parallel
      *         whether to parallelize the process of finding a possible merge
@@ -105,19 +130,165 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
         this.deterministic = deterministic;
     }
 
+    /**
+     * Sets the number of blue states for which merges are evaluated speculatively if parallel execution is enabled
+     * (see {@link #setParallel(boolean)}).
+     * <p>
+     * By default, merges are only attempted in parallel for the currently processed blue state, which leaves most of
+     * the workers idle if there are only few red states. With a speculation width {@code w > 1}, merges of the next
+     * {@code w} blue states into all red states are attempted concurrently. The resulting merge objects are re-used
+     * until a promotion or an applied merge changes any of the states they depend on (see {@link
+     * RedBlueMerge#getAffectedStates()}); only then are they re-computed. Red states promoted in the meantime are
+     * checked in addition. This requires impossible merges to stay impossible once other merges have been applied,
+     * which holds for {@link #tryMerge(BlueFringePTA, BlueFringePTAState, BlueFringePTAState)} unless it is overridden
+     * with additional criteria.
+     * <p>
+     * Valid merges are still decided on (see {@link #decideOnValidMerge(RedBlueMerge)}) one blue state at a time and
+     * in order of the red states, hence the result is the same as the one of a sequential run, regardless of {@link
+     * #setDeterministic(boolean)}. Speculation has no effect on the compact PTA representation (see {@link
+     * #setCompact(boolean)}).
+     *
+     * @param speculationWidth
+     *         the number of blue states to evaluate at once, {@code 1} (the default) disables speculation
+     */
+    public void setSpeculationWidth(int speculationWidth) {
+        if (speculationWidth < 1) {
+            throw new IllegalArgumentException("Speculation width must be positive: " + speculationWidth);
+        }
+        this.speculationWidth = speculationWidth;
+    }
+
+    /**
+     * Sets whether the PTA is stored in a compact, array-based representation (see {@link CompactBlueFringePTA})
+     * instead of allocating an object per PTA state, which considerably reduces the memory footprint for large sample
+     * sets.
+     * <p>
+     * As merges are then conducted directly on the shared arrays, candidate merges are evaluated sequentially (and
+     * deterministically) regardless of {@link #setParallel(boolean)} and {@link #setDeterministic(boolean)}. Moreover,
+     * valid merges are decided on by {@link #decideOnValidMerge(CompactBlueFringePTA)} instead of {@link
+     * #decideOnValidMerge(RedBlueMerge)}.
+     * <p>
+     * The compact PTA representation is only available if this learner supports it (see {@link
+     * #supportsCompactPTA()}).
+     *
+     * @param compact
+     *         whether to use the compact PTA representation
+     *
+     * @throws IllegalStateException
+     *         if the compact PTA representation is requested, but not supported by this learner
+     */
+    public void setCompact(boolean compact) {
+        if (compact && !supportsCompactPTA()) {
+            throw unsupportedCompactPTA();
+        }
+        this.compact = compact;
+    }
+
+    /**
+     * Returns whether this learner supports the compact PTA representation (see {@link CompactBlueFringePTA}), which
+     * is used for streamed samples (see {@link #addSamples(Stream)}) and, if enabled, for computing the model (see
+     * {@link #setCompact(boolean)}). Subclasses returning {@code true} have to override {@link
+     * #addSample(CompactBlueFringePTA, DefaultQuery)}, {@link #initializePTA(CompactBlueFringePTA)} and {@link
+     * #ptaToModel(CompactBlueFringePTA)}. By default, this method returns {@code false}.
+     *
+     * @return {@code true} if this learner supports the compact PTA representation, {@code false} otherwise
+     */
+    protected boolean supportsCompactPTA() {
+        return false;
+    }
+
+    /**
+     * Adds the samples of the given stream. The samples are not retained, but immediately inserted into a compact
+     * prefix tree (see {@link CompactBlueFringePTA}), from which the PTA is initialized upon {@link #computeModel()}.
+     * <p>
+     * If parallel execution is enabled (see {@link #setParallel(boolean)}), the stream is consumed in parallel: every
+     * worker constructs a prefix tree for its share of the samples, and the partial trees are merged afterwards (see
+     * {@link CompactBlueFringePTA#addAll(CompactBlueFringePTA)}).
+     * <p>
+     * Unless the compact PTA representation is used (see {@link #setCompact(boolean)}), the prefix tree is released
+     * once it has been converted to the (object-based) PTA by {@link #computeModel()}, so that the streamed samples are
+     * not kept in memory twice. Consequently, {@link #computeModel()} can then be invoked only once.
+     * <p>
+     * If this learner does not support the compact PTA representation (see {@link #supportsCompactPTA()}), the samples
+     * are added one by one (see {@link #addSample(DefaultQuery)}) instead.
+     *
+     * @param samples
+     *         the samples to add
+     */
+    @Override
+    public void addSamples(Stream<? extends DefaultQuery<I, D>> samples) {
+        if (supportsCompactPTA()) {
+            addSamples(samples, this::addSample);
+        } else {
+            PassiveLearningAlgorithm.super.addSamples(samples);
+        }
+    }
+
+    /**
+     * Adds the samples of the given stream to the prefix tree of streamed samples (see {@link #addSamples(Stream)}),
+     * using the given function to insert a single sample into a (partial) prefix tree.
+     *
+     * @param samples
+     *         the samples to add
+     * @param inserter
+     *         the function for inserting a single sample into a prefix tree
+     * @param <T>
+     *         sample type
+     */
+    protected <T> void addSamples(Stream<T> samples, BiConsumer<CompactBlueFringePTA<SP, TP>, ? super T> inserter) {
+        final Stream<T> stream = parallel ? samples.parallel() : samples.sequential();
+        final CompactBlueFringePTA<SP, TP> pta =
+                stream.collect(() -> new CompactBlueFringePTA<>(alphabetSize), inserter, CompactBlueFringePTA::addAll);
+
+        if (samplePTA == null) {
+            samplePTA = pta;
+        } else {
+            samplePTA.addAll(pta);
+        }
+    }
+
+    /**
+     * Inserts a single (streamed) sample into the given prefix tree. Has to be overridden by learners that support the
+     * compact PTA representation (see {@link #supportsCompactPTA()}).
+     *
+     * @param pta
+     *         the prefix tree
+     * @param sample
+     *         the sample to insert
+     */
+    protected void addSample(CompactBlueFringePTA<SP, TP> pta, DefaultQuery<I, D> sample) {
+        throw unsupportedCompactPTA();
+    }
+
     @Override
     public M computeModel() {
-        BlueFringePTA<SP, TP> pta = new BlueFringePTA<>(alphabetSize);
-        initializePTA(pta);
+        if (compact) {
+            return computeModelOnCompactPTA();
+        }
+        if (parallel && speculationWidth > 1) {
+            return computeModelSpeculatively();
+        }
+
+        BlueFringePTA<SP, TP> pta = createPTA();
 
         Queue<PTATransition<BlueFringePTAState<SP, TP>>> blue = order.createWorklist();
 
         pta.init(blue::offer);
 
+        final InPlaceRedBlueMerger<SP, TP, BlueFringePTAState<SP, TP>> merger =
+                (parallel || !supportsInPlaceMerging()) ? null : new InPlaceRedBlueMerger<>(alphabetSize);
+
         PTATransition<BlueFringePTAState<SP, TP>> qbRef;
         while ((qbRef = blue.poll()) != null) {
             BlueFringePTAState<SP, TP> qb = qbRef.getTarget();
 
+            if (merger != null) {
+                if (!mergeInPlace(pta, merger, qb, blue)) {
+                    pta.promote(qb, blue::offer);
+                }
+                continue;
+            }
+
             Stream<BlueFringePTAState<SP, TP>> stream = pta.redStatesStream();
             if (parallel) {
                 stream = stream.parallel();
@@ -131,6 +302,7 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
 
             if (result.isPresent()) {
                 RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> mod = result.get();
+                onMergeSelected(mod);
                 mod.apply(pta, blue::offer);
             } else {
                 pta.promote(qb, blue::offer);
@@ -140,6 +312,248 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
         return ptaToModel(pta);
     }
 
+    /**
+     * Merges the given blue state into the first red state for which this is possible, folding each candidate merge
+     * only once directly on the PTA.
+     *
+     * @return {@code true} if the blue state has been merged, {@code false} if it has to be promoted
+     */
+    private boolean mergeInPlace(BlueFringePTA<SP, TP> pta,
+                                 InPlaceRedBlueMerger<SP, TP, BlueFringePTAState<SP, TP>> merger,
+                                 BlueFringePTAState<SP, TP> qb,
+                                 Queue<PTATransition<BlueFringePTAState<SP, TP>>> blue) {
+        for (final BlueFringePTAState<SP, TP> qr : pta.getRedStates()) {
+            if (merger.merge(qr, qb)) {
+                merger.commit(blue::offer);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether merges may be conducted directly on the PTA (see {@link InPlaceRedBlueMerger}) if parallel
+     * execution is disabled (see {@link #setParallel(boolean)}). In this case, {@link #tryMerge(BlueFringePTA,
+     * BlueFringePTAState, BlueFringePTAState)}, {@link #decideOnValidMerge(RedBlueMerge)} and {@link
+     * #onMergeSelected(RedBlueMerge)} are not invoked, and the first valid merge is applied. Subclasses that override
+     * any of these methods must therefore return {@code false}. By default, this method returns {@code false}.
+     *
+     * @return {@code true} if merges may be conducted directly on the PTA, {@code false} otherwise
+     */
+    protected boolean supportsInPlaceMerging() {
+        return false;
+    }
+
+    private M computeModelSpeculatively() {
+        BlueFringePTA<SP, TP> pta = createPTA();
+
+        Queue<PTATransition<BlueFringePTAState<SP, TP>>> blue = order.createWorklist();
+
+        pta.init(blue::offer);
+
+        // speculative results for upcoming blue states
+        Map<BlueFringePTAState<SP, TP>, Speculation<SP, TP>> speculations = new HashMap<>();
+
+        PTATransition<BlueFringePTAState<SP, TP>> qbRef;
+        while ((qbRef = blue.poll()) != null) {
+            BlueFringePTAState<SP, TP> qb = qbRef.getTarget();
+
+            Speculation<SP, TP> speculation = speculations.remove(qb);
+            if (speculation == null) {
+                speculations.putAll(speculate(pta, qbRef, blue, speculations));
+                speculation = speculations.remove(qb);
+            }
+
+            RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> mod = selectMerge(pta, qb, speculation);
+
+            if (mod != null) {
+                onMergeSelected(mod);
+                Set<BlueFringePTAState<SP, TP>> changed = mod.getAffectedStates();
+                mod.apply(pta, blue::offer);
+                invalidate(speculations, changed);
+            } else {
+                pta.promote(qb, blue::offer);
+                invalidate(speculations, Collections.singleton(qb));
+            }
+        }
+
+        return ptaToModel(pta);
+    }
+
+    /**
+     * Attempts the merges of the given blue state and those of its {@link #speculationWidth}{@code - 1} successors in
+     * the worklist that have not been speculated on yet into all current red states in parallel. The worklist is left
+     * unchanged.
+     */
+    private Map<BlueFringePTAState<SP, TP>, Speculation<SP, TP>> speculate(
+            BlueFringePTA<SP, TP> pta,
+            PTATransition<BlueFringePTAState<SP, TP>> qbRef,
+            Queue<PTATransition<BlueFringePTAState<SP, TP>>> blue,
+            Map<BlueFringePTAState<SP, TP>, Speculation<SP, TP>> speculations) {
+        final List<BlueFringePTAState<SP, TP>> batch = new ArrayList<>(speculationWidth);
+        final List<PTATransition<BlueFringePTAState<SP, TP>>> polled = new ArrayList<>(speculationWidth - 1);
+        batch.add(qbRef.getTarget());
+
+        PTATransition<BlueFringePTAState<SP, TP>> next;
+        while (polled.size() < speculationWidth - 1 && (next = blue.poll()) != null) {
+            polled.add(next);
+            if (!speculations.containsKey(next.getTarget())) {
+                batch.add(next.getTarget());
+            }
+        }
+        polled.forEach(blue::offer);
+
+        final int numRedStates = pta.getNumRedStates();
+        final List<Candidate<SP, TP>> candidates =
+                IntStream.range(0, batch.size() * numRedStates)
+                         .parallel()
+                         .mapToObj(i -> createCandidate(pta, i % numRedStates, batch.get(i / numRedStates)))
+                         .collect(Collectors.toList());
+
+        final Map<BlueFringePTAState<SP, TP>, Speculation<SP, TP>> result = new HashMap<>();
+        for (int b = 0; b < batch.size(); b++) {
+            final List<Candidate<SP, TP>> valid = new ArrayList<>();
+            for (final Candidate<SP, TP> c : candidates.subList(b * numRedStates, (b + 1) * numRedStates)) {
+                if (c != null) {
+                    valid.add(c);
+                }
+            }
+            result.put(batch.get(b), new Speculation<>(numRedStates, valid));
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private Candidate<SP, TP> createCandidate(BlueFringePTA<SP, TP> pta, int redId, BlueFringePTAState<SP, TP> qb) {
+        final RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge = tryMerge(pta, pta.getRedState(redId), qb);
+        return merge == null ? null : new Candidate<>(redId, merge);
+    }
+
+    /**
+     * Discards the speculative merges that depend on any of the given states, which have been changed by applying a
+     * merge or promoted. Speculations of blue states that have been replaced in the PTA are dropped altogether.
+     * <p>
+     * Impossible merges need not be reconsidered: applying a merge only coarsens the state partition, hence a merge
+     * that is impossible on the PTA remains impossible on the merged automaton.
+     */
+    private static <SP, TP> void invalidate(Map<BlueFringePTAState<SP, TP>, Speculation<SP, TP>> speculations,
+                                            Set<BlueFringePTAState<SP, TP>> changed) {
+        speculations.keySet().removeIf(changed::contains);
+
+        for (final Speculation<SP, TP> speculation : speculations.values()) {
+            for (final Candidate<SP, TP> c : speculation.candidates) {
+                if (c.merge != null && !Collections.disjoint(c.affectedStates, changed)) {
+                    c.merge = null;
+                    c.affectedStates = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects the merge of the given blue state based on its speculation, i.e. the first valid merge (in the order of
+     * the red states) that is accepted by {@link #decideOnValidMerge(RedBlueMerge)}. Speculative merges that are still
+     * valid are re-used, invalidated ones are re-computed. Red states that have been promoted after the speculation are
+     * checked in addition.
+     */
+    @Nullable
+    private RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> selectMerge(BlueFringePTA<SP, TP> pta,
+                                                                         BlueFringePTAState<SP, TP> qb,
+                                                                         Speculation<SP, TP> speculation) {
+        for (final Candidate<SP, TP> c : speculation.candidates) {
+            RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge = c.merge;
+            if (merge == null) {
+                merge = tryMerge(pta, pta.getRedState(c.redId), qb);
+            }
+            if (merge != null && decideOnValidMerge(merge)) {
+                return merge;
+            }
+        }
+
+        for (int id = speculation.numRedStates; id < pta.getNumRedStates(); id++) {
+            RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge = tryMerge(pta, pta.getRedState(id), qb);
+            if (merge != null && decideOnValidMerge(merge)) {
+                return merge;
+            }
+        }
+
+        return null;
+    }
+
+    private M computeModelOnCompactPTA() {
+        CompactBlueFringePTA<SP, TP> pta = createCompactPTA();
+
+        Queue<Integer> blue = new PriorityQueue<>(pta::canonicalCompare);
+
+        pta.init(blue::offer);
+
+        Integer qb;
+        while ((qb = blue.poll()) != null) {
+            boolean merged = false;
+
+            for (int id = 0; id < pta.getNumRedStates() && !merged; id++) {
+                if (pta.merge(pta.getRedState(id), qb)) {
+                    if (decideOnValidMerge(pta)) {
+                        pta.commit(blue::offer);
+                        merged = true;
+                    } else {
+                        pta.rollback();
+                    }
+                }
+            }
+
+            if (!merged) {
+                pta.promote(qb, blue::offer);
+            }
+        }
+
+        return ptaToModel(pta);
+    }
+
+    /**
+     * Creates the PTA for the current set of samples, i.e. the streamed samples (see {@link #addSamples(Stream)}) and
+     * the samples added by {@link #initializePTA(BlueFringePTA)}. The prefix tree of streamed samples is released
+     * afterwards.
+     *
+     * @return the PTA
+     *
+     * @throws IllegalStateException
+     *         if the streamed samples have already been released by a previous invocation
+     */
+    protected BlueFringePTA<SP, TP> createPTA() {
+        if (samplePTAReleased) {
+            throw new IllegalStateException("Streamed samples have already been consumed by a previous computation");
+        }
+        BlueFringePTA<SP, TP> pta = new BlueFringePTA<>(alphabetSize);
+        if (samplePTA != null) {
+            samplePTA.addTo(pta);
+            samplePTA = null;
+            samplePTAReleased = true;
+        }
+        initializePTA(pta);
+        return pta;
+    }
+
+    /**
+     * Creates the compact PTA for the current set of samples, i.e. the streamed samples (see {@link
+     * #addSamples(Stream)}) and the samples added by {@link #initializePTA(CompactBlueFringePTA)}.
+     *
+     * @return the compact PTA
+     *
+     * @throws IllegalStateException
+     *         if the streamed samples have already been released (see {@link #createPTA()})
+     */
+    protected CompactBlueFringePTA<SP, TP> createCompactPTA() {
+        if (samplePTAReleased) {
+            throw new IllegalStateException("Streamed samples have already been consumed by a previous computation");
+        }
+        CompactBlueFringePTA<SP, TP> pta =
+                (samplePTA == null) ? new CompactBlueFringePTA<>(alphabetSize) : new CompactBlueFringePTA<>(samplePTA);
+        initializePTA(pta);
+        return pta;
+    }
+
     /**
      * Initializes an empty PTA with sample data.
      *
@@ -148,8 +562,21 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
      */
     protected abstract void initializePTA(BlueFringePTA<SP, TP> pta);
 
+    /**
+     * Initializes an empty compact PTA with sample data. Has to be overridden by learners that support the compact PTA
+     * representation (see {@link #supportsCompactPTA()}).
+     *
+     * @param pta
+     *         the PTA to initialize
+     */
+    protected void initializePTA(CompactBlueFringePTA<SP, TP> pta) {
+        throw unsupportedCompactPTA();
+    }
+
     /**
      * Attempts to merge a blue state into a red state.
+     * <p>
+     * This method is not invoked if merges are conducted directly on the PTA (see {@link #supportsInPlaceMerging()}).
      *
      * @param pta
      *         the blue fringe PTA
@@ -177,8 +604,27 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
      */
     protected abstract M ptaToModel(BlueFringePTA<SP, TP> pta);
 
+    /**
+     * Transforms the final compact PTA into a model. Has to be overridden by learners that support the compact PTA
+     * representation (see {@link #supportsCompactPTA()}).
+     *
+     * @param pta
+     *         the final PTA
+     *
+     * @return a model built from the final PTA
+     */
+    protected M ptaToModel(CompactBlueFringePTA<SP, TP> pta) {
+        throw unsupportedCompactPTA();
+    }
+
+    private IllegalStateException unsupportedCompactPTA() {
+        return new IllegalStateException(getClass().getName() + " does not support the compact PTA representation");
+    }
+
     /**
      * Implementing the method allows subclasses to decide (and possible reject) valid merges.
+     * <p>
+     * This method is not invoked if merges are conducted directly on the PTA (see {@link #supportsInPlaceMerging()}).
      *
      * @param merge
      *         the prosed (valid) merge
@@ -190,4 +636,67 @@ public abstract class AbstractBlueFringeRPNI<I, D, SP, TP, M> implements Passive
         return true;
     }
 
+    /**
+     * Counterpart of {@link #decideOnValidMerge(RedBlueMerge)} for the compact PTA representation (see {@link
+     * #setCompact(boolean)}). When this method is invoked, the proposed merge has been conducted on the given PTA (see
+     * {@link CompactBlueFringePTA#merge(int, int)}) and it will be committed immediately if it is accepted.
+     *
+     * @param pta
+     *         the PTA representing the merged automaton
+     *
+     * @return {@code true} if the suggested merge should be performed, {@code false} otherwise
+     */
+    protected boolean decideOnValidMerge(CompactBlueFringePTA<SP, TP> pta) {
+        // by default we are greedy and try to merge the first pair of valid states
+        return true;
+    }
+
+    /**
+     * Implementing the method allows subclasses to update their internal state when a merge has been selected. The
+     * method is invoked right before the merge is applied to the PTA, i.e. the merge still describes the difference
+     * between the current PTA and the merged automaton.
+     * <p>
+     * This method is not invoked if merges are conducted directly on the PTA (see {@link #supportsInPlaceMerging()}).
+     *
+     * @param merge
+     *         the merge that is going to be applied
+     */
+    protected void onMergeSelected(RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge) {
+        // by default, no bookkeeping is necessary
+    }
+
+    /**
+     * The possible merges of a blue state into the first {@code numRedStates} red states, in the order of the red
+     * states.
+     */
+    private static final class Speculation<SP, TP> {
+
+        private final int numRedStates;
+        private final List<Candidate<SP, TP>> candidates;
+
+        Speculation(int numRedStates, List<Candidate<SP, TP>> candidates) {
+            this.numRedStates = numRedStates;
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * A possible merge into the red state with the given id. The merge object is discarded (i.e., set to {@code
+     * null}) once any of the states it depends on has changed.
+     */
+    private static final class Candidate<SP, TP> {
+
+        private final int redId;
+        @Nullable
+        private RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge;
+        @Nullable
+        private Set<BlueFringePTAState<SP, TP>> affectedStates;
+
+        Candidate(int redId, RedBlueMerge<SP, TP, BlueFringePTAState<SP, TP>> merge) {
+            this.redId = redId;
+            this.merge = merge;
+            this.affectedStates = merge.getAffectedStates();
+        }
+    }
+
 }
@@ -15,19 +15,29 @@
  */
 package de.learnlib.algorithms.rpni;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import de.learnlib.api.algorithm.PassiveLearningAlgorithm;
 import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.datastructure.pta.io.TraceFile;
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
 import net.automatalib.automata.fsa.DFA;
 import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.commons.util.Pair;
 import net.automatalib.words.Alphabet;
 
 /**
  * A Blue Fringe version of RPNI for learning DFAs.
+ * <p>
+ * Merges are attempted in parallel by default. If parallel execution is disabled (see {@link #setParallel(boolean)}),
+ * merges are conducted directly on the PTA instead (see {@link #supportsInPlaceMerging()}). Subclasses that override
+ * any of the hooks operating on merge objects have to disable this by overriding {@link #supportsInPlaceMerging()}.
  *
  * @param <I>
  *         input symbol type
@@ -62,6 +72,52 @@ public class BlueFringeRPNIDFA<I> extends AbstractBlueFringeRPNI<I, Boolean, Boo
         }
     }
 
+    /**
+     * Adds the samples of the given trace file (see {@link TraceFile}), whose symbols are interpreted as indices of
+     * the alphabet of this learner. Like {@link #addSamples(Stream)}, this method does not retain the individual
+     * samples, and hence allows to learn from trace files that exceed the available memory.
+     *
+     * @param traceFile
+     *         the trace file to read the samples from
+     *
+     * @throws IOException
+     *         if reading the trace file fails
+     */
+    public void addSamples(Path traceFile) throws IOException {
+        try (Stream<Pair<int[], Boolean>> traces = TraceFile.read(traceFile)) {
+            addSamples(traces, (pta, trace) -> addSample(pta, trace.getFirst(), trace.getSecond()));
+        }
+    }
+
+    @Override
+    protected boolean supportsCompactPTA() {
+        return true;
+    }
+
+    @Override
+    protected boolean supportsInPlaceMerging() {
+        return true;
+    }
+
+    @Override
+    protected void addSample(CompactBlueFringePTA<Boolean, Void> pta, DefaultQuery<I, Boolean> sample) {
+        addSample(pta, sample.getInput().toIntArray(alphabet), sample.getOutput());
+    }
+
+    /**
+     * Inserts a single (streamed) sample into the given prefix tree.
+     *
+     * @param pta
+     *         the prefix tree
+     * @param sample
+     *         the sample word, represented by the indices of its symbols
+     * @param accepted
+     *         whether the sample is accepted
+     */
+    protected void addSample(CompactBlueFringePTA<Boolean, Void> pta, int[] sample, boolean accepted) {
+        pta.addSample(sample, accepted);
+    }
+
     @Override
     protected void initializePTA(BlueFringePTA<Boolean, Void> pta) {
         for (int[] sample : positive) {
@@ -72,6 +128,16 @@ public class BlueFringeRPNIDFA<I> extends AbstractBlueFringeRPNI<I, Boolean, Boo
         }
     }
 
+    @Override
+    protected void initializePTA(CompactBlueFringePTA<Boolean, Void> pta) {
+        for (int[] sample : positive) {
+            pta.addSample(sample, true);
+        }
+        for (int[] sample : negative) {
+            pta.addSample(sample, false);
+        }
+    }
+
     @Override
     protected CompactDFA<I> ptaToModel(BlueFringePTA<Boolean, Void> pta) {
         CompactDFA<I> dfa = new CompactDFA<>(alphabet, pta.getNumRedStates());
@@ -80,4 +146,12 @@ public class BlueFringeRPNIDFA<I> extends AbstractBlueFringeRPNI<I, Boolean, Boo
         return dfa;
     }
 
+    @Override
+    protected CompactDFA<I> ptaToModel(CompactBlueFringePTA<Boolean, Void> pta) {
+        CompactDFA<I> dfa = new CompactDFA<>(alphabet, pta.getNumRedStates());
+        pta.toAutomaton(dfa, alphabet, b -> b, x -> x);
+
+        return dfa;
+    }
+
 }
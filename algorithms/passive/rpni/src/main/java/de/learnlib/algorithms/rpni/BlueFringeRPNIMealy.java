@@ -22,6 +22,7 @@ import java.util.List;
 import de.learnlib.api.algorithm.PassiveLearningAlgorithm;
 import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
 import net.automatalib.automata.transout.MealyMachine;
 import net.automatalib.automata.transout.impl.compact.CompactMealy;
 import net.automatalib.commons.util.Pair;
@@ -30,6 +31,10 @@ import net.automatalib.words.Word;
 
 /**
  * Blue-fringe version of RPNI for inferring Mealy machines.
+ * <p>
+ * Merges are attempted in parallel by default. If parallel execution is disabled (see {@link #setParallel(boolean)}),
+ * merges are conducted directly on the PTA instead (see {@link #supportsInPlaceMerging()}). Subclasses that override
+ * any of the hooks operating on merge objects have to disable this by overriding {@link #supportsInPlaceMerging()}.
  *
  * @param <I>
  *         input symbol type
@@ -54,6 +59,21 @@ public class BlueFringeRPNIMealy<I, O> extends AbstractBlueFringeRPNI<I, Word<O>
         }
     }
 
+    @Override
+    protected boolean supportsCompactPTA() {
+        return true;
+    }
+
+    @Override
+    protected boolean supportsInPlaceMerging() {
+        return true;
+    }
+
+    @Override
+    protected void addSample(CompactBlueFringePTA<Void, O> pta, DefaultQuery<I, Word<O>> sample) {
+        pta.addSampleWithTransitionProperties(sample.getInput().toIntArray(alphabet), sample.getOutput().asList());
+    }
+
     @Override
     protected void initializePTA(BlueFringePTA<Void, O> pta) {
         for (Pair<int[], Word<O>> sample : samples) {
@@ -61,6 +81,13 @@ public class BlueFringeRPNIMealy<I, O> extends AbstractBlueFringeRPNI<I, Word<O>
         }
     }
 
+    @Override
+    protected void initializePTA(CompactBlueFringePTA<Void, O> pta) {
+        for (Pair<int[], Word<O>> sample : samples) {
+            pta.addSampleWithTransitionProperties(sample.getFirst(), sample.getSecond().asList());
+        }
+    }
+
     @Override
     protected MealyMachine<?, I, ?, O> ptaToModel(BlueFringePTA<Void, O> pta) {
         CompactMealy<I, O> mealy = new CompactMealy<>(alphabet, pta.getNumRedStates());
@@ -68,4 +95,11 @@ public class BlueFringeRPNIMealy<I, O> extends AbstractBlueFringeRPNI<I, Word<O>
         return mealy;
     }
 
+    @Override
+    protected MealyMachine<?, I, ?, O> ptaToModel(CompactBlueFringePTA<Void, O> pta) {
+        CompactMealy<I, O> mealy = new CompactMealy<>(alphabet, pta.getNumRedStates());
+        pta.toAutomaton(mealy, alphabet);
+        return mealy;
+    }
+
 }
@@ -0,0 +1,155 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.rpni;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that speculatively evaluating merges of several blue states (see {@link
+ * AbstractBlueFringeRPNI#setSpeculationWidth(int)}) yields the same result as a sequential run.
+ */
+@Test
+public class SpeculativeMergeTest {
+
+    private final Alphabet<Integer> alphabet = Alphabets.fromArray(0, 1, 2, 3);
+
+    @Test
+    public void testSpeculativeMerges() {
+        final List<DefaultQuery<Integer, Boolean>> samples = generateSamples(new Random(42), 400);
+
+        final BlueFringeRPNIDFA<Integer> reference = new BlueFringeRPNIDFA<>(alphabet);
+        reference.setParallel(false);
+        reference.addSamples(samples);
+        final List<String> expected = signature(reference.computeModel());
+
+        for (final int width : new int[] {2, 4, 16, 1024}) {
+            final BlueFringeRPNIDFA<Integer> learner = new BlueFringeRPNIDFA<>(alphabet);
+            learner.setSpeculationWidth(width);
+            learner.setDeterministic(false);
+            learner.addSamples(samples);
+            Assert.assertEquals(signature(learner.computeModel()), expected, "width=" + width);
+        }
+    }
+
+    @Test
+    public void testDecisionOrder() {
+        final List<DefaultQuery<Integer, Boolean>> samples = generateSamples(new Random(1337), 200);
+
+        final SelectiveRPNI reference = new SelectiveRPNI(alphabet);
+        reference.setParallel(false);
+        reference.addSamples(samples);
+        final List<String> expected = signature(reference.computeModel());
+
+        Assert.assertFalse(reference.decisions.isEmpty());
+
+        for (final int width : new int[] {2, 8}) {
+            final SelectiveRPNI learner = new SelectiveRPNI(alphabet);
+            learner.setSpeculationWidth(width);
+            learner.addSamples(samples);
+            Assert.assertEquals(signature(learner.computeModel()), expected, "width=" + width);
+            Assert.assertEquals(learner.decisions, reference.decisions, "width=" + width);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidWidth() {
+        new BlueFringeRPNIDFA<>(alphabet).setSpeculationWidth(0);
+    }
+
+    private List<DefaultQuery<Integer, Boolean>> generateSamples(Random random, int numSamples) {
+        final List<DefaultQuery<Integer, Boolean>> samples = new ArrayList<>(numSamples);
+
+        for (int i = 0; i < numSamples; i++) {
+            final List<Integer> word = random.ints(random.nextInt(10), 0, alphabet.size())
+                                             .boxed()
+                                             .collect(Collectors.toList());
+            // words that contain an even number of 0s and end with a 1
+            final boolean accepted = word.stream().filter(x -> x == 0).count() % 2 == 0 && !word.isEmpty() &&
+                                     word.get(word.size() - 1) == 1;
+            samples.add(new DefaultQuery<>(Word.fromList(word), accepted));
+        }
+
+        return samples;
+    }
+
+    /*
+     * Enumerates the states of the given DFA in BFS order and lists their acceptance and successors.
+     */
+    private <S> List<String> signature(DFA<S, Integer> dfa) {
+        final Map<S, Integer> ids = new HashMap<>();
+        final List<S> states = new ArrayList<>();
+        final List<String> result = new ArrayList<>();
+
+        states.add(dfa.getInitialState());
+        ids.put(dfa.getInitialState(), 0);
+
+        for (int i = 0; i < states.size(); i++) {
+            final S state = states.get(i);
+            final StringBuilder sb = new StringBuilder().append(dfa.isAccepting(state));
+            for (final Integer sym : alphabet) {
+                final S succ = dfa.getSuccessor(state, sym);
+                if (succ != null && !ids.containsKey(succ)) {
+                    ids.put(succ, states.size());
+                    states.add(succ);
+                }
+                sb.append(',').append(succ == null ? -1 : ids.get(succ));
+            }
+            result.add(sb.toString());
+        }
+
+        return result;
+    }
+
+    /**
+     * A learner that rejects every third valid merge and records the merges it has been asked to decide on.
+     */
+    private static class SelectiveRPNI extends BlueFringeRPNIDFA<Integer> {
+
+        private final List<String> decisions = new ArrayList<>();
+
+        SelectiveRPNI(Alphabet<Integer> alphabet) {
+            super(alphabet);
+        }
+
+        @Override
+        protected boolean decideOnValidMerge(RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge) {
+            final boolean accept = decisions.size() % 3 != 2;
+            decisions.add(merge.getRedState().getNumVisits() + "/" + merge.getBlueState().getNumVisits() + ":" +
+                          accept);
+            return accept;
+        }
+
+        @Override
+        protected boolean supportsInPlaceMerging() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.algorithms.rpni;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.datastructure.pta.io.TraceFile;
+import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.automata.fsa.impl.compact.CompactDFA;
+import net.automatalib.commons.util.Pair;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that streamed samples (see {@link AbstractBlueFringeRPNI#addSamples(java.util.stream.Stream)}) yield the
+ * same hypotheses as samples added via collections.
+ */
+@Test
+public class StreamedSamplesTest {
+
+    private static final int MAX_LENGTH = 6;
+
+    private final Alphabet<Integer> alphabet = Alphabets.fromArray(0, 1, 2);
+
+    @Test
+    public void testStreamedSamples() throws IOException {
+        final Random random = new Random(42);
+        final List<DefaultQuery<Integer, Boolean>> samples = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            final List<Integer> word = random.ints(random.nextInt(12), 0, alphabet.size())
+                                             .boxed()
+                                             .collect(Collectors.toList());
+            // words whose length modulo 3 equals their number of 0s modulo 3
+            final boolean accepted = word.size() % 3 == word.stream().filter(x -> x == 0).count() % 3;
+            samples.add(new DefaultQuery<>(Word.fromList(word), accepted));
+        }
+
+        final Path traceFile = Files.createTempFile("traces", ".bin");
+        try {
+            TraceFile.write(traceFile,
+                            samples.stream()
+                                   .map(q -> new Pair<>(q.getInput().toIntArray(alphabet), q.getOutput()))
+                                   .collect(Collectors.toList()));
+
+            for (final boolean compact : new boolean[] {false, true}) {
+                final BlueFringeRPNIDFA<Integer> reference = createLearner(compact, false);
+                reference.addSamples(samples);
+                final DFA<?, Integer> expected = reference.computeModel();
+
+                for (final boolean parallel : new boolean[] {false, true}) {
+                    final BlueFringeRPNIDFA<Integer> streamed = createLearner(compact, parallel);
+                    streamed.addSamples(samples.stream());
+                    checkEquivalence(streamed.computeModel(), expected);
+                    if (compact) {
+                        // subsequent invocations must not be affected by previous merges
+                        checkEquivalence(streamed.computeModel(), expected);
+                    } else {
+                        // the streamed samples have been released after their conversion
+                        Assert.expectThrows(IllegalStateException.class, streamed::computeModel);
+                    }
+
+                    final BlueFringeRPNIDFA<Integer> mixed = createLearner(compact, parallel);
+                    mixed.addSamples(samples.subList(0, 100));
+                    mixed.addSamples(samples.subList(100, 200).stream());
+                    mixed.addSamples(samples.subList(200, samples.size()).stream());
+                    checkEquivalence(mixed.computeModel(), expected);
+
+                    final BlueFringeRPNIDFA<Integer> file = createLearner(compact, parallel);
+                    file.addSamples(traceFile);
+                    checkEquivalence(file.computeModel(), expected);
+                }
+            }
+        } finally {
+            Files.delete(traceFile);
+        }
+    }
+
+    @Test
+    public void testLearnerWithoutCompactPTA() {
+        final List<DefaultQuery<Integer, Boolean>> samples = new ArrayList<>();
+        samples.add(new DefaultQuery<>(Word.fromSymbols(0, 1), true));
+        samples.add(new DefaultQuery<>(Word.fromSymbols(0, 1, 0, 1), true));
+        samples.add(new DefaultQuery<>(Word.fromSymbols(0), false));
+        samples.add(new DefaultQuery<>(Word.fromSymbols(1, 0), false));
+
+        final BlueFringeRPNIDFA<Integer> reference = createLearner(false, false);
+        reference.addSamples(samples);
+
+        // streamed samples are added one by one if the compact PTA representation is not supported
+        final ObjectPTALearner streamed = new ObjectPTALearner(alphabet);
+        streamed.setDeterministic(true);
+        streamed.addSamples(samples.stream());
+        checkEquivalence(streamed.computeModel(), reference.computeModel());
+        checkEquivalence(streamed.computeModel(), reference.computeModel());
+
+        Assert.expectThrows(IllegalStateException.class, () -> streamed.setCompact(true));
+    }
+
+    private BlueFringeRPNIDFA<Integer> createLearner(boolean compact, boolean parallel) {
+        final BlueFringeRPNIDFA<Integer> learner = new BlueFringeRPNIDFA<>(alphabet);
+        learner.setCompact(compact);
+        learner.setParallel(parallel);
+        learner.setDeterministic(true);
+        return learner;
+    }
+
+    /*
+     * Compares the given hypotheses on all words up to length MAX_LENGTH.
+     */
+    private void checkEquivalence(DFA<?, Integer> actual, DFA<?, Integer> expected) {
+        final List<Word<Integer>> words = new ArrayList<>();
+        words.add(Word.epsilon());
+
+        for (int i = 0; i < words.size(); i++) {
+            final Word<Integer> word = words.get(i);
+            Assert.assertEquals(actual.accepts(word), expected.accepts(word), word.toString());
+            if (word.length() < MAX_LENGTH) {
+                for (final Integer sym : alphabet) {
+                    words.add(word.append(sym));
+                }
+            }
+        }
+    }
+
+    /**
+     * A learner that only implements the object-based PTA representation, like subclasses written before the compact
+     * PTA representation was introduced.
+     */
+    private static class ObjectPTALearner
+            extends AbstractBlueFringeRPNI<Integer, Boolean, Boolean, Void, DFA<?, Integer>> {
+
+        private final List<DefaultQuery<Integer, Boolean>> samples = new ArrayList<>();
+
+        ObjectPTALearner(Alphabet<Integer> alphabet) {
+            super(alphabet);
+        }
+
+        @Override
+        public void addSamples(Collection<? extends DefaultQuery<Integer, Boolean>> samples) {
+            this.samples.addAll(samples);
+        }
+
+        @Override
+        protected void initializePTA(BlueFringePTA<Boolean, Void> pta) {
+            for (DefaultQuery<Integer, Boolean> sample : samples) {
+                pta.addSample(sample.getInput().toIntArray(alphabet), sample.getOutput());
+            }
+        }
+
+        @Override
+        protected DFA<?, Integer> ptaToModel(BlueFringePTA<Boolean, Void> pta) {
+            CompactDFA<Integer> dfa = new CompactDFA<>(alphabet, pta.getNumRedStates());
+            pta.toAutomaton(dfa, alphabet, b -> b, x -> x);
+            return dfa;
+        }
+    }
+}
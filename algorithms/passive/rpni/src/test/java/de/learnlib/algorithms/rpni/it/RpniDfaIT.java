@@ -38,5 +38,13 @@ public class RpniDfaIT extends AbstractDFAPassiveLearnerIT {
                 variants.addLearnerVariant(String.format("BlueFringeRPNIDFA, det=%b, par=%b", d, p), learner);
             }
         }
+
+        final BlueFringeRPNIDFA<I> compactLearner = new BlueFringeRPNIDFA<>(alphabet);
+        compactLearner.setCompact(true);
+        variants.addLearnerVariant("BlueFringeRPNIDFA, compact", compactLearner);
+
+        final BlueFringeRPNIDFA<I> speculativeLearner = new BlueFringeRPNIDFA<>(alphabet);
+        speculativeLearner.setSpeculationWidth(4);
+        variants.addLearnerVariant("BlueFringeRPNIDFA, speculative", speculativeLearner);
     }
 }
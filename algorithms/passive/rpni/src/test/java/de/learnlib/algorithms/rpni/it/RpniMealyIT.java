@@ -39,5 +39,13 @@ public class RpniMealyIT extends AbstractMealyPassiveLearnerIT {
                 variants.addLearnerVariant(String.format("BlueFringeRPNIDFA, det=%b, par=%b", d, p), learner);
             }
         }
+
+        final BlueFringeRPNIMealy<I, O> compactLearner = new BlueFringeRPNIMealy<>(alphabet);
+        compactLearner.setCompact(true);
+        variants.addLearnerVariant("BlueFringeRPNIMealy, compact", compactLearner);
+
+        final BlueFringeRPNIMealy<I, O> speculativeLearner = new BlueFringeRPNIMealy<>(alphabet);
+        speculativeLearner.setSpeculationWidth(4);
+        variants.addLearnerVariant("BlueFringeRPNIMealy, speculative", speculativeLearner);
     }
 }
@@ -87,4 +87,36 @@ public interface SUL<I, O> {
     default SUL<I, O> fork() throws UnsupportedOperationException {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns whether this SUL is capable of taking {@link #snapshot() snapshots}.
+     *
+     * @return {@code true} if this SUL can take snapshots, {@code false} otherwise
+     *
+     * @see #snapshot()
+     */
+    default boolean canSnapshot() {
+        return false;
+    }
+
+    /**
+     * Takes a snapshot of this SUL, if possible. Unlike a {@link #fork() fork}, a snapshot is a copy of this SUL which
+     * is in the <i>same</i> state as this SUL, i.e., it may only be taken between a call to {@link #pre()} and {@link
+     * #post()}. Subsequent {@link #step(Object) steps} on the snapshot continue from the current state and do not affect
+     * this SUL (and vice versa). The session of the snapshot has to be terminated separately by calling {@link #post()}
+     * on the snapshot.
+     * <p>
+     * If {@link #canSnapshot()} returns {@code true}, this method must return a non-{@code null} object, which should
+     * behave exactly like this SUL (in particular, it must support snapshots as well). Otherwise, a {@link
+     * UnsupportedOperationException} must be thrown.
+     *
+     * @return a snapshot of this SUL.
+     *
+     * @throws UnsupportedOperationException
+     *         if this SUL can't take snapshots.
+     */
+    @Nonnull
+    default SUL<I, O> snapshot() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.automata.fsa.DFA;
@@ -32,6 +33,18 @@ public interface PassiveLearningAlgorithm<M, I, D> {
 
     void addSamples(Collection<? extends DefaultQuery<I, D>> samples);
 
+    /**
+     * Adds the samples of the given stream. Unlike {@link #addSamples(Collection)}, implementations may consume the
+     * stream without retaining the individual samples, which allows to learn from sample sets that exceed the
+     * available memory. By default, the samples are added one by one (see {@link #addSample(DefaultQuery)}).
+     *
+     * @param samples
+     *         the samples to add
+     */
+    default void addSamples(Stream<? extends DefaultQuery<I, D>> samples) {
+        samples.forEachOrdered(this::addSample);
+    }
+
     @SuppressWarnings("unchecked")
     default void addSamples(DefaultQuery<I, D>... samples) {
         addSamples(Arrays.asList(samples));
@@ -0,0 +1,211 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.api.oracle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+
+/**
+ * Asynchronous counterpart of the {@link MembershipOracle} interface. Instead of blocking until all queries of a batch
+ * have been answered, the methods of this interface return a {@link CompletableFuture} that is completed once the
+ * queries have been answered. This allows callers to prepare (and dispatch) further queries or to process the answers
+ * of earlier batches while the current batch is still being processed by the system under learning.
+ * <p>
+ * Note that implementations are not required to process queries on a different thread, i.e., the returned future may
+ * already be completed when the method returns. If a query cannot be answered, the returned future is completed
+ * exceptionally.
+ * <p>
+ * Existing (blocking) membership oracles can be adapted using {@link #of(MembershipOracle)} and {@link
+ * #of(MembershipOracle, Executor)}, and asynchronous oracles can be used wherever a blocking oracle is required via
+ * {@link #asBlockingOracle()}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+@ParametersAreNonnullByDefault
+public interface AsyncMembershipOracle<I, D> {
+
+    /**
+     * Asynchronously processes the specified collection of queries. When the returned future completes normally, the
+     * {@link Query#answer(Object)} method of each of the contained queries has been called with an argument reflecting
+     * the SUL response to the respective query.
+     *
+     * @param queries
+     *         the queries to process
+     *
+     * @return a future that is completed once all queries have been answered
+     */
+    @Nonnull
+    CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries);
+
+    /**
+     * Asynchronously processes a single query.
+     *
+     * @param query
+     *         the query to process
+     *
+     * @return a future that is completed once the query has been answered
+     *
+     * @see #processQueriesAsync(Collection)
+     */
+    @Nonnull
+    default CompletableFuture<Void> processQueryAsync(Query<I, D> query) {
+        return processQueriesAsync(Collections.singleton(query));
+    }
+
+    /**
+     * Asynchronously answers a single query.
+     *
+     * @param input
+     *         the input word of the query
+     *
+     * @return a future of the output of the query
+     */
+    @Nonnull
+    default CompletableFuture<D> answerQueryAsync(Word<I> input) {
+        return answerQueryAsync(Word.epsilon(), input);
+    }
+
+    /**
+     * Asynchronously answers a single query.
+     *
+     * @param prefix
+     *         the prefix of the query
+     * @param suffix
+     *         the suffix of the query
+     *
+     * @return a future of the output of the query
+     */
+    @Nonnull
+    default CompletableFuture<D> answerQueryAsync(Word<I> prefix, Word<I> suffix) {
+        DefaultQuery<I, D> query = new DefaultQuery<>(prefix, suffix);
+        return processQueryAsync(query).thenApply(v -> query.getOutput());
+    }
+
+    /**
+     * Returns a blocking view of this oracle, whose {@link MembershipOracle#processQueries(Collection)} method waits
+     * for the completion of {@link #processQueriesAsync(Collection)}. Unchecked exceptions that caused the future to
+     * complete exceptionally are rethrown directly.
+     *
+     * @return a blocking view of this oracle
+     */
+    @Nonnull
+    default MembershipOracle<I, D> asBlockingOracle() {
+        return queries -> {
+            try {
+                processQueriesAsync(queries).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Adapts the given membership oracle to the asynchronous interface. If the oracle natively implements this
+     * interface, it is returned as is. Otherwise, queries are processed synchronously on the calling thread, i.e., the
+     * returned futures are already completed when {@link #processQueriesAsync(Collection)} returns.
+     *
+     * @param oracle
+     *         the oracle to adapt
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return an asynchronous view of the given oracle
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <I, D> AsyncMembershipOracle<I, D> of(MembershipOracle<I, D> oracle) {
+        if (oracle instanceof AsyncMembershipOracle) {
+            return (AsyncMembershipOracle<I, D>) oracle;
+        }
+
+        return queries -> {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            try {
+                oracle.processQueries(queries);
+                result.complete(null);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Adapts the given membership oracle to the asynchronous interface by processing every batch of queries in a task
+     * executed by the given executor. Note that batches may then be processed concurrently, hence the given oracle has
+     * to be thread-safe (unless the executor runs its tasks sequentially).
+     * <p>
+     * The returned oracle can also be used as a regular (blocking) membership oracle, e.g., as the delegate of a cache
+     * which then forwards its queries asynchronously. Blocking calls are passed to the given oracle directly.
+     *
+     * @param oracle
+     *         the oracle to adapt
+     * @param executor
+     *         the executor used for processing the queries
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return an asynchronous view of the given oracle
+     */
+    @Nonnull
+    static <I, D> DualMembershipOracle<I, D> of(MembershipOracle<I, D> oracle, Executor executor) {
+        return new DualMembershipOracle<I, D>() {
+
+            @Override
+            public void processQueries(Collection<? extends Query<I, D>> queries) {
+                oracle.processQueries(queries);
+            }
+
+            @Override
+            public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+                return CompletableFuture.runAsync(() -> oracle.processQueries(queries), executor);
+            }
+        };
+    }
+
+    /**
+     * A membership oracle that can be queried both in a blocking and in an asynchronous fashion.
+     *
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     */
+    interface DualMembershipOracle<I, D> extends MembershipOracle<I, D>, AsyncMembershipOracle<I, D> {}
+}
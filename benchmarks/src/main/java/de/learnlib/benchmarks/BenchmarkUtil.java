@@ -0,0 +1,64 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import de.learnlib.api.algorithm.LearningAlgorithm;
+import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.words.Alphabet;
+
+/**
+ * Utility methods shared by the benchmarks.
+ */
+final class BenchmarkUtil {
+
+    /**
+     * Seed used for generating the (random) benchmark targets and inputs, so that all runs operate on the same data.
+     */
+    static final long SEED = 42L;
+
+    private BenchmarkUtil() {
+        throw new AssertionError("Constructor should not be invoked");
+    }
+
+    /**
+     * Runs the given learner until the given equivalence oracle does not find any more counterexamples.
+     *
+     * @param learner
+     *         the learner
+     * @param eqOracle
+     *         the equivalence oracle
+     * @param alphabet
+     *         the input alphabet
+     *
+     * @return the final hypothesis
+     */
+    static <M, I, D> M learn(LearningAlgorithm<? extends M, I, D> learner,
+                             EquivalenceOracle<? super M, I, D> eqOracle,
+                             Alphabet<I> alphabet) {
+        learner.startLearning();
+
+        M hyp = learner.getHypothesisModel();
+        DefaultQuery<I, D> ce;
+
+        while ((ce = eqOracle.findCounterExample(hyp, alphabet)) != null) {
+            learner.refineHypothesis(ce);
+            hyp = learner.getHypothesisModel();
+        }
+
+        return hyp;
+    }
+}
@@ -0,0 +1,104 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.algorithms.rpni.BlueFringeRPNIDFA;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.examples.dfa.ExampleRandomDFA;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes the passive {@link BlueFringeRPNIDFA} learner to construct a model from a set of random,
+ * labeled samples of a random target DFA, with and without parallel merge attempts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BlueFringeRPNIBenchmark {
+
+    @Param({"20", "50"})
+    public int size;
+
+    @Param({"2"})
+    public int numInputs;
+
+    @Param({"1000", "5000"})
+    public int numSamples;
+
+    @Param({"20"})
+    public int maxLength;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"true"})
+    public boolean deterministic;
+
+    private Alphabet<Integer> alphabet;
+    private List<DefaultQuery<Integer, Boolean>> samples;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(BenchmarkUtil.SEED);
+        final ExampleRandomDFA example = new ExampleRandomDFA(random, numInputs, size);
+        final DFA<?, Integer> target = example.getReferenceAutomaton();
+
+        this.alphabet = example.getAlphabet();
+        this.samples = new ArrayList<>(numSamples);
+
+        for (int i = 0; i < numSamples; i++) {
+            final int length = random.nextInt(maxLength + 1);
+            final WordBuilder<Integer> wb = new WordBuilder<>(length);
+            for (int j = 0; j < length; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            final Word<Integer> word = wb.toWord();
+            samples.add(new DefaultQuery<>(word, target.accepts(word)));
+        }
+    }
+
+    @Benchmark
+    public DFA<?, Integer> computeModel() {
+        final BlueFringeRPNIDFA<Integer> learner = new BlueFringeRPNIDFA<>(alphabet);
+        learner.setParallel(parallel);
+        learner.setDeterministic(deterministic);
+        learner.addSamples(samples);
+
+        return learner.computeModel();
+    }
+}
@@ -0,0 +1,58 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import de.learnlib.api.oracle.SymbolQueryOracle;
+
+/**
+ * A {@link SymbolQueryOracle} that counts the number of resets (i.e., queries) and symbols that are passed to its
+ * delegate.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+class CountingSymbolQueryOracle<I, O> implements SymbolQueryOracle<I, O> {
+
+    private final SymbolQueryOracle<I, O> delegate;
+    private long queryCount;
+    private long symbolCount;
+
+    CountingSymbolQueryOracle(SymbolQueryOracle<I, O> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public O query(I i) {
+        symbolCount++;
+        return delegate.query(i);
+    }
+
+    @Override
+    public void reset() {
+        queryCount++;
+        delegate.reset();
+    }
+
+    long getQueryCount() {
+        return queryCount;
+    }
+
+    long getSymbolCount() {
+        return symbolCount;
+    }
+}
@@ -0,0 +1,83 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.api.algorithm.LearningAlgorithm.DFALearner;
+import de.learnlib.examples.dfa.ExampleRandomDFA;
+import de.learnlib.filter.statistic.oracle.JointCounterOracle.DFAJointCounterOracle;
+import de.learnlib.oracle.equivalence.SimulatorEQOracle.DFASimulatorEQOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.words.Alphabet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes the different {@link DFALearners DFA learners} to infer a random target DFA from a
+ * simulated system. The number of posed queries and symbols is reported via {@link QueryCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DFALearnerBenchmark {
+
+    @Param
+    public DFALearners learner;
+
+    @Param({"50", "200"})
+    public int size;
+
+    @Param({"2", "10"})
+    public int numInputs;
+
+    private DFA<?, Integer> target;
+    private Alphabet<Integer> alphabet;
+
+    @Setup
+    public void setUp() {
+        final ExampleRandomDFA example = new ExampleRandomDFA(new Random(BenchmarkUtil.SEED), numInputs, size);
+        this.target = example.getReferenceAutomaton();
+        this.alphabet = example.getAlphabet();
+    }
+
+    @Benchmark
+    public DFA<?, Integer> learn(QueryCounters counters) {
+        final DFAJointCounterOracle<Integer> mqOracle =
+                new DFAJointCounterOracle<>(new DFASimulatorOracle<>(target));
+        final DFALearner<Integer> dfaLearner = learner.createLearner(alphabet, mqOracle);
+
+        final DFA<?, Integer> result =
+                BenchmarkUtil.learn(dfaLearner, new DFASimulatorEQOracle<>(target), alphabet);
+
+        counters.add(mqOracle.getQueryCount(), mqOracle.getSymbolCount());
+        return result;
+    }
+}
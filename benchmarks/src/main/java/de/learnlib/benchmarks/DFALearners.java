@@ -0,0 +1,89 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import de.learnlib.acex.analyzers.AcexAnalyzers;
+import de.learnlib.algorithms.discriminationtree.dfa.DTLearnerDFABuilder;
+import de.learnlib.algorithms.kv.dfa.KearnsVaziraniDFABuilder;
+import de.learnlib.algorithms.lstargeneric.dfa.ExtensibleLStarDFABuilder;
+import de.learnlib.algorithms.malerpnueli.MalerPnueliDFABuilder;
+import de.learnlib.algorithms.nlstar.NLStarLearner;
+import de.learnlib.algorithms.rivestschapire.RivestSchapireDFABuilder;
+import de.learnlib.algorithms.ttt.dfa.TTTLearnerDFABuilder;
+import de.learnlib.api.algorithm.LearningAlgorithm.DFALearner;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.counterexamples.LocalSuffixFinders;
+import net.automatalib.words.Alphabet;
+
+/**
+ * The DFA learners that are covered by the {@link DFALearnerBenchmark}.
+ */
+public enum DFALearners {
+
+    LSTAR {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new ExtensibleLStarDFABuilder<I>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    RIVEST_SCHAPIRE {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new RivestSchapireDFABuilder<I>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    MALER_PNUELI {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new MalerPnueliDFABuilder<I>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    TTT {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new TTTLearnerDFABuilder<I>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    KEARNS_VAZIRANI {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new KearnsVaziraniDFABuilder<I>().withAlphabet(alphabet)
+                                                    .withOracle(oracle)
+                                                    .withRepeatedCounterexampleEvaluation(true)
+                                                    .withCounterexampleAnalyzer(AcexAnalyzers.LINEAR_FWD)
+                                                    .create();
+        }
+    },
+    DISCRIMINATION_TREE {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new DTLearnerDFABuilder<I>().withAlphabet(alphabet)
+                                               .withOracle(oracle)
+                                               .withSuffixFinder(LocalSuffixFinders.RIVEST_SCHAPIRE)
+                                               .withRepeatedCounterexampleEvaluation(true)
+                                               .withEpsilonRoot(true)
+                                               .create();
+        }
+    },
+    NLSTAR {
+        @Override
+        <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle) {
+            return new NLStarLearner<>(alphabet, oracle).asDFALearner();
+        }
+    };
+
+    abstract <I> DFALearner<I> createLearner(Alphabet<I> alphabet, MembershipOracle<I, Boolean> oracle);
+}
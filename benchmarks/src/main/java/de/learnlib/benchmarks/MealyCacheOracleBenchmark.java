@@ -0,0 +1,177 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.examples.mealy.ExampleRandomMealy;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.statistic.oracle.JointCounterOracle.MealyJointCounterOracle;
+import de.learnlib.oracle.membership.SimulatorOracle.MealySimulatorOracle;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the different Mealy cache implementations of {@link MealyCaches} for a fixed workload of
+ * random query batches, in which a configurable share of queries repeats (prefixes of) earlier queries. The number of
+ * queries and symbols that pass the cache and reach the simulated system is reported via {@link QueryCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MealyCacheOracleBenchmark {
+
+    private static final int NUM_INPUTS = 5;
+    private static final int TARGET_SIZE = 100;
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_NODES = 10_000;
+
+    @Param
+    public CacheType cacheType;
+
+    @Param({"10000"})
+    public int numQueries;
+
+    @Param({"25"})
+    public int maxLength;
+
+    @Param({"0.5"})
+    public double repeatRatio;
+
+    private MealyMachine<?, Integer, ?, Character> target;
+    private Alphabet<Integer> alphabet;
+    private List<List<Word<Integer>>> batches;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(BenchmarkUtil.SEED);
+        final ExampleRandomMealy<Integer, Character> example =
+                ExampleRandomMealy.createExample(random, Alphabets.integers(0, NUM_INPUTS - 1), TARGET_SIZE, 'a', 'b');
+
+        this.target = example.getReferenceAutomaton();
+        this.alphabet = example.getAlphabet();
+
+        final List<Word<Integer>> issued = new ArrayList<>(numQueries);
+        this.batches = new ArrayList<>(numQueries / BATCH_SIZE + 1);
+
+        List<Word<Integer>> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < numQueries; i++) {
+            final Word<Integer> word;
+            if (!issued.isEmpty() && random.nextDouble() < repeatRatio) {
+                final Word<Integer> previous = issued.get(random.nextInt(issued.size()));
+                word = previous.prefix(random.nextInt(previous.length() + 1));
+            } else {
+                word = randomWord(random, 1 + random.nextInt(maxLength));
+            }
+            issued.add(word);
+            batch.add(word);
+
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+    }
+
+    @Benchmark
+    public int processQueries(QueryCounters counters) {
+        final MealyJointCounterOracle<Integer, Character> delegate =
+                new MealyJointCounterOracle<>(new MealySimulatorOracle<>(target));
+        final MembershipOracle<Integer, Word<Character>> cache = cacheType.createCache(alphabet, delegate);
+
+        int checksum = 0;
+        for (List<Word<Integer>> batch : batches) {
+            final List<DefaultQuery<Integer, Word<Character>>> queries = new ArrayList<>(batch.size());
+            for (Word<Integer> w : batch) {
+                queries.add(new DefaultQuery<>(w));
+            }
+            cache.processQueries(queries);
+            for (DefaultQuery<Integer, Word<Character>> q : queries) {
+                checksum += q.getOutput().hashCode();
+            }
+        }
+
+        counters.add(delegate.getQueryCount(), delegate.getSymbolCount());
+        return checksum;
+    }
+
+    private Word<Integer> randomWord(Random random, int length) {
+        final WordBuilder<Integer> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+        return wb.toWord();
+    }
+
+    public enum CacheType {
+        TREE {
+            @Override
+            <I, O> MembershipOracle<I, Word<O>> createCache(Alphabet<I> alphabet,
+                                                            MembershipOracle<I, Word<O>> delegate) {
+                return MealyCaches.createTreeCache(alphabet, delegate);
+            }
+        },
+        DAG {
+            @Override
+            <I, O> MembershipOracle<I, Word<O>> createCache(Alphabet<I> alphabet,
+                                                            MembershipOracle<I, Word<O>> delegate) {
+                return MealyCaches.createDAGCache(alphabet, delegate);
+            }
+        },
+        CONCURRENT_TREE {
+            @Override
+            <I, O> MembershipOracle<I, Word<O>> createCache(Alphabet<I> alphabet,
+                                                            MembershipOracle<I, Word<O>> delegate) {
+                return MealyCaches.createConcurrentTreeCache(alphabet, delegate);
+            }
+        },
+        BOUNDED_TREE {
+            @Override
+            <I, O> MembershipOracle<I, Word<O>> createCache(Alphabet<I> alphabet,
+                                                            MembershipOracle<I, Word<O>> delegate) {
+                return MealyCaches.createBoundedTreeCache(alphabet, MAX_NODES, delegate);
+            }
+        };
+
+        abstract <I, O> MembershipOracle<I, Word<O>> createCache(Alphabet<I> alphabet,
+                                                                 MembershipOracle<I, Word<O>> delegate);
+    }
+}
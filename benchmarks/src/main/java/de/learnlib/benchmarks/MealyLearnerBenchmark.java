@@ -0,0 +1,90 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.api.algorithm.LearningAlgorithm.MealyLearner;
+import de.learnlib.driver.util.MealySimulatorSUL;
+import de.learnlib.examples.mealy.ExampleRandomMealy;
+import de.learnlib.oracle.equivalence.SimulatorEQOracle.MealySimulatorEQOracle;
+import de.learnlib.oracle.membership.SULSymbolQueryOracle;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Alphabets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes the different {@link MealyLearners Mealy learners} to infer a random target Mealy machine
+ * from a simulated system. The number of resets (queries) and steps (symbols) is reported via {@link QueryCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MealyLearnerBenchmark {
+
+    private static final String[] OUTPUTS = {"o1", "o2", "o3"};
+
+    @Param
+    public MealyLearners learner;
+
+    @Param({"50", "200"})
+    public int size;
+
+    @Param({"2", "10"})
+    public int numInputs;
+
+    private MealyMachine<?, Integer, ?, String> target;
+    private Alphabet<Integer> alphabet;
+
+    @Setup
+    public void setUp() {
+        final ExampleRandomMealy<Integer, String> example =
+                ExampleRandomMealy.createExample(new Random(BenchmarkUtil.SEED),
+                                                 Alphabets.integers(0, numInputs - 1),
+                                                 size,
+                                                 OUTPUTS);
+        this.target = example.getReferenceAutomaton();
+        this.alphabet = example.getAlphabet();
+    }
+
+    @Benchmark
+    public MealyMachine<?, Integer, ?, String> learn(QueryCounters counters) {
+        final CountingSymbolQueryOracle<Integer, String> mqOracle =
+                new CountingSymbolQueryOracle<>(new SULSymbolQueryOracle<>(new MealySimulatorSUL<>(target)));
+        final MealyLearner<Integer, String> mealyLearner = learner.createLearner(alphabet, mqOracle);
+
+        final MealyMachine<?, Integer, ?, String> result =
+                BenchmarkUtil.learn(mealyLearner, new MealySimulatorEQOracle<>(target), alphabet);
+
+        counters.add(mqOracle.getQueryCount(), mqOracle.getSymbolCount());
+        return result;
+    }
+}
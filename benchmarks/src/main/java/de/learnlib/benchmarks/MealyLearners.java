@@ -0,0 +1,92 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import de.learnlib.acex.analyzers.AcexAnalyzers;
+import de.learnlib.algorithms.adt.learner.ADTLearnerBuilder;
+import de.learnlib.algorithms.dhc.mealy.MealyDHCBuilder;
+import de.learnlib.algorithms.discriminationtree.mealy.DTLearnerMealyBuilder;
+import de.learnlib.algorithms.kv.mealy.KearnsVaziraniMealyBuilder;
+import de.learnlib.algorithms.lstargeneric.mealy.ExtensibleLStarMealyBuilder;
+import de.learnlib.algorithms.malerpnueli.MalerPnueliMealyBuilder;
+import de.learnlib.algorithms.rivestschapire.RivestSchapireMealyBuilder;
+import de.learnlib.algorithms.ttt.mealy.TTTLearnerMealyBuilder;
+import de.learnlib.api.algorithm.LearningAlgorithm.MealyLearner;
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import net.automatalib.words.Alphabet;
+
+/**
+ * The Mealy learners that are covered by the {@link MealyLearnerBenchmark}. All learners are given a {@link
+ * SymbolQueryOracle}, so that the symbol-query based ADT learner and the query-based learners are measured against the
+ * same system under learning.
+ */
+public enum MealyLearners {
+
+    LSTAR {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new ExtensibleLStarMealyBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    RIVEST_SCHAPIRE {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new RivestSchapireMealyBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    MALER_PNUELI {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new MalerPnueliMealyBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    TTT {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new TTTLearnerMealyBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    KEARNS_VAZIRANI {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new KearnsVaziraniMealyBuilder<I, O>().withAlphabet(alphabet)
+                                                         .withOracle(oracle)
+                                                         .withRepeatedCounterexampleEvaluation(true)
+                                                         .withCounterexampleAnalyzer(AcexAnalyzers.LINEAR_FWD)
+                                                         .create();
+        }
+    },
+    DISCRIMINATION_TREE {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new DTLearnerMealyBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    DHC {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new MealyDHCBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    },
+    ADT {
+        @Override
+        <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle) {
+            return new ADTLearnerBuilder<I, O>().withAlphabet(alphabet).withOracle(oracle).create();
+        }
+    };
+
+    abstract <I, O> MealyLearner<I, O> createLearner(Alphabet<I> alphabet, SymbolQueryOracle<I, O> oracle);
+}
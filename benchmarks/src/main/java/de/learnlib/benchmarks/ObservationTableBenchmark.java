@@ -0,0 +1,105 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.algorithms.lstargeneric.table.ObservationTable;
+import de.learnlib.algorithms.lstargeneric.table.RowContentStorageType;
+import de.learnlib.examples.dfa.ExampleRandomDFA;
+import de.learnlib.oracle.membership.SimulatorOracle.DFASimulatorOracle;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.util.automata.cover.Covers;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of filling and analyzing an L* {@link ObservationTable} of a random target DFA with its state
+ * cover as short prefixes and its characterizing set as suffixes, for the different {@link RowContentStorageType row
+ * content storages}. Combine with JMH's GC profiler ({@code -prof gc}) to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ObservationTableBenchmark {
+
+    @Param
+    public RowContentStorageType storageType;
+
+    @Param({"100", "500"})
+    public int size;
+
+    @Param({"5"})
+    public int numInputs;
+
+    private Alphabet<Integer> alphabet;
+    private DFASimulatorOracle<Integer> oracle;
+    private List<Word<Integer>> shortPrefixes;
+    private List<Word<Integer>> suffixes;
+
+    @Setup
+    public void setUp() {
+        final ExampleRandomDFA example = new ExampleRandomDFA(new Random(BenchmarkUtil.SEED), numInputs, size);
+        final DFA<?, Integer> target = example.getReferenceAutomaton();
+
+        this.alphabet = example.getAlphabet();
+        this.oracle = new DFASimulatorOracle<>(target);
+
+        this.shortPrefixes = new ArrayList<>(target.size());
+        Covers.stateCover(target, alphabet, shortPrefixes);
+
+        final List<Word<Integer>> characterizingSet = new ArrayList<>();
+        Automata.characterizingSet(target, alphabet, characterizingSet);
+
+        this.suffixes = new ArrayList<>(characterizingSet.size() + 1);
+        this.suffixes.add(Word.epsilon());
+        for (Word<Integer> w : characterizingSet) {
+            if (!w.isEmpty()) {
+                this.suffixes.add(w);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object fillAndAnalyze() {
+        final ObservationTable<Integer, Boolean> table = new ObservationTable<>(alphabet, storageType);
+        table.initialize(shortPrefixes, suffixes, oracle);
+
+        if (table.numDistinctRows() != shortPrefixes.size()) {
+            throw new IllegalStateException("Table does not distinguish all states of the target");
+        }
+
+        return table.findInconsistency();
+    }
+}
@@ -0,0 +1,63 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Auxiliary JMH counters that report the number of queries and symbols posed to the system under learning alongside
+ * the timing results of a benchmark. Counters of type {@link AuxCounters.Type#EVENTS} are not normalized by JMH, but
+ * reported as the total of an iteration (summed up over all threads). Hence, the counters are divided by the number of
+ * benchmark invocations explicitly, i.e. the reported values are the average numbers of queries and symbols per
+ * invocation (of a single thread).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class QueryCounters {
+
+    private long invocations;
+    private long queries;
+    private long symbols;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        invocations = 0;
+        queries = 0;
+        symbols = 0;
+    }
+
+    public double queriesPerInvocation() {
+        return perInvocation(queries);
+    }
+
+    public double symbolsPerInvocation() {
+        return perInvocation(symbols);
+    }
+
+    void add(long numQueries, long numSymbols) {
+        this.invocations++;
+        this.queries += numQueries;
+        this.symbols += numSymbols;
+    }
+
+    private double perInvocation(long value) {
+        return invocations == 0 ? 0 : (double) value / invocations;
+    }
+}
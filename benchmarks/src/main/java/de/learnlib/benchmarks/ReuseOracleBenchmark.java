@@ -0,0 +1,161 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.examples.mealy.ExampleRandomMealy;
+import de.learnlib.filter.reuse.ReuseCapableOracle;
+import de.learnlib.filter.reuse.ReuseOracle;
+import de.learnlib.filter.reuse.ReuseOracle.ReuseOracleBuilder;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link ReuseOracle} (and its underlying {@link de.learnlib.filter.reuse.tree.ReuseTree})
+ * for a workload of random queries, in which a configurable share of queries extends previously answered queries and
+ * therefore allows to reuse system states. The number of queries and symbols that are passed to the {@link
+ * ReuseCapableOracle} is reported via {@link QueryCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReuseOracleBenchmark {
+
+    private static final int NUM_INPUTS = 5;
+    private static final int TARGET_SIZE = 100;
+
+    @Param({"10000"})
+    public int numQueries;
+
+    @Param({"10"})
+    public int maxLength;
+
+    @Param({"0.5"})
+    public double extendRatio;
+
+    @Param({"true", "false"})
+    public boolean invalidateSystemStates;
+
+    private MealyMachine<?, Integer, ?, Character> target;
+    private Alphabet<Integer> alphabet;
+    private List<Word<Integer>> queries;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(BenchmarkUtil.SEED);
+        final ExampleRandomMealy<Integer, Character> example =
+                ExampleRandomMealy.createExample(random, Alphabets.integers(0, NUM_INPUTS - 1), TARGET_SIZE, 'a', 'b');
+
+        this.target = example.getReferenceAutomaton();
+        this.alphabet = example.getAlphabet();
+        this.queries = new ArrayList<>(numQueries);
+
+        for (int i = 0; i < numQueries; i++) {
+            final WordBuilder<Integer> wb = new WordBuilder<>();
+            if (!queries.isEmpty() && random.nextDouble() < extendRatio) {
+                wb.append(queries.get(random.nextInt(queries.size())));
+            }
+            final int length = 1 + random.nextInt(maxLength);
+            for (int j = 0; j < length; j++) {
+                wb.add(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            queries.add(wb.toWord());
+        }
+    }
+
+    @Benchmark
+    public int answerQueries(QueryCounters counters) {
+        final SimulatorReuseCapableOracle<?, Integer, Character> sul = createOracle(target);
+        final ReuseOracle<?, Integer, Character> reuseOracle = createReuseOracle(sul);
+
+        int checksum = 0;
+        for (Word<Integer> q : queries) {
+            checksum += reuseOracle.answerQuery(q).hashCode();
+        }
+
+        counters.add(sul.queryCount, sul.symbolCount);
+        return checksum;
+    }
+
+    private static <S, I, O> SimulatorReuseCapableOracle<S, I, O> createOracle(MealyMachine<S, I, ?, O> mealy) {
+        return new SimulatorReuseCapableOracle<>(mealy);
+    }
+
+    private <S> ReuseOracle<S, Integer, Character> createReuseOracle(
+            SimulatorReuseCapableOracle<S, Integer, Character> sul) {
+        return new ReuseOracleBuilder<S, Integer, Character>(alphabet, () -> sul).withEnabledSystemstateInvalidation(
+                invalidateSystemStates).build();
+    }
+
+    /**
+     * A {@link ReuseCapableOracle} that uses the states of a (simulated) Mealy machine as system states.
+     */
+    private static final class SimulatorReuseCapableOracle<S, I, O> implements ReuseCapableOracle<S, I, O> {
+
+        private final MealyMachine<S, I, ?, O> mealy;
+        private long queryCount;
+        private long symbolCount;
+
+        SimulatorReuseCapableOracle(MealyMachine<S, I, ?, O> mealy) {
+            this.mealy = mealy;
+        }
+
+        @Override
+        public QueryResult<S, O> continueQuery(Word<I> trace, S s) {
+            return run(trace, s);
+        }
+
+        @Override
+        public QueryResult<S, O> processQuery(Word<I> trace) {
+            return run(trace, mealy.getInitialState());
+        }
+
+        private QueryResult<S, O> run(Word<I> trace, S start) {
+            queryCount++;
+            symbolCount += trace.length();
+
+            final WordBuilder<O> wb = new WordBuilder<>(trace.length());
+            S state = start;
+            for (I sym : trace) {
+                wb.add(mealy.getOutput(state, sym));
+                state = mealy.getSuccessor(state, sym);
+            }
+
+            return new QueryResult<>(wb.toWord(), state);
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package de.learnlib.acex;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface AbstractCounterexample<E> {
 
     int getLength();
@@ -26,4 +29,24 @@ public interface AbstractCounterexample<E> {
     boolean checkEffects(E eff1, E eff2);
 
     E effect(int index);
+
+    /**
+     * Retrieves the effects of several indices at once. Implementations may use this to evaluate the effects in a
+     * single batch (e.g., by posing all required membership queries at once), which allows analyzers that probe
+     * several indices per step to benefit from parallel query processing.
+     * <p>
+     * The default implementation evaluates each effect individually via {@link #effect(int)}.
+     *
+     * @param indices
+     *         the indices whose effects should be retrieved
+     *
+     * @return the effects of the given indices, in the order of the given indices
+     */
+    default List<E> effects(int[] indices) {
+        final List<E> result = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            result.add(effect(idx));
+        }
+        return result;
+    }
 }
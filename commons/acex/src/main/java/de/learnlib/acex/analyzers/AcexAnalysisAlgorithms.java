@@ -15,6 +15,8 @@
  */
 package de.learnlib.acex.analyzers;
 
+import java.util.List;
+
 import de.learnlib.acex.AbstractCounterexample;
 
 public final class AcexAnalysisAlgorithms {
@@ -191,4 +193,144 @@ public final class AcexAnalysisAlgorithms {
 
         return lowIter;
     }
+
+    /**
+     * Search for a suffix index using a k-ary search. In each step, the current search range is divided into {@code
+     * arity} parts, and the effects of all {@code arity - 1} inner probe indices are retrieved in a single batch (see
+     * {@link AbstractCounterexample#effects(int[])}). Compared to a binary search, this reduces the number of
+     * sequential steps to roughly <code>log_arity(high - low)</code> at the cost of evaluating more effects in total.
+     * <p>
+     * The probes of each step are evaluated in descending order, such that for an arity of 2 this method behaves
+     * exactly like {@link #binarySearchRight(AbstractCounterexample, int, int)}.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param arity
+     *         the number of parts the search range is divided into in each step
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int kArySearchRight(AbstractCounterexample<E> acex, int low, int high, int arity) {
+        checkArity(arity);
+
+        int[] probes = computeProbes(low, high, arity);
+        final List<E> initialEffects = acex.effects(withBounds(low, high, probes));
+
+        final E effLow = initialEffects.get(0);
+        E effHigh = initialEffects.get(1);
+
+        assert !acex.checkEffects(effLow, effHigh) :
+                "compatible effects at " + low + ", " + high + ": " + effLow + ", " + effHigh;
+
+        List<E> probeEffects = initialEffects.subList(2, initialEffects.size());
+
+        int highIter = high;
+        int lowIter = low;
+
+        while (true) {
+            for (int i = probes.length - 1; i >= 0; i--) {
+                final E effProbe = probeEffects.get(i);
+                if (!acex.checkEffects(effProbe, effHigh)) {
+                    lowIter = probes[i];
+                    break;
+                }
+                highIter = probes[i];
+                effHigh = effProbe;
+            }
+
+            if (highIter - lowIter <= 1) {
+                return lowIter;
+            }
+
+            probes = computeProbes(lowIter, highIter, arity);
+            probeEffects = acex.effects(probes);
+        }
+    }
+
+    /**
+     * Search for a suffix index using a k-ary search. This is the left-leaning counterpart of {@link
+     * #kArySearchRight(AbstractCounterexample, int, int, int)}: the probes of each step are evaluated in ascending
+     * order, such that for an arity of 2 this method behaves exactly like {@link
+     * #binarySearchLeft(AbstractCounterexample, int, int)}.
+     *
+     * @param acex
+     *         the abstract counterexample
+     * @param low
+     *         the lower bound of the search range
+     * @param high
+     *         the upper bound of the search range
+     * @param arity
+     *         the number of parts the search range is divided into in each step
+     *
+     * @return an index <code>i</code> such that <code>acex.testEffect(i) != acex.testEffect(i+1)</code>
+     */
+    public static <E> int kArySearchLeft(AbstractCounterexample<E> acex, int low, int high, int arity) {
+        checkArity(arity);
+
+        int[] probes = computeProbes(low, high, arity);
+        final List<E> initialEffects = acex.effects(withBounds(low, high, probes));
+
+        E effLow = initialEffects.get(0);
+        final E effHigh = initialEffects.get(1);
+
+        assert !acex.checkEffects(effLow, effHigh) :
+                "compatible effects at " + low + ", " + high + ": " + effLow + ", " + effHigh;
+
+        List<E> probeEffects = initialEffects.subList(2, initialEffects.size());
+
+        int highIter = high;
+        int lowIter = low;
+
+        while (true) {
+            for (int i = 0; i < probes.length; i++) {
+                final E effProbe = probeEffects.get(i);
+                if (!acex.checkEffects(effLow, effProbe)) {
+                    highIter = probes[i];
+                    break;
+                }
+                lowIter = probes[i];
+                effLow = effProbe;
+            }
+
+            if (highIter - lowIter <= 1) {
+                return lowIter;
+            }
+
+            probes = computeProbes(lowIter, highIter, arity);
+            probeEffects = acex.effects(probes);
+        }
+    }
+
+    private static void checkArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2, but was " + arity);
+        }
+    }
+
+    /**
+     * Computes (at most {@code arity - 1}) probe indices that evenly divide the open interval {@code (low, high)}.
+     */
+    private static int[] computeProbes(int low, int high, int arity) {
+        final int range = high - low;
+        final int numProbes = Math.max(0, Math.min(arity - 1, range - 1));
+        final int[] probes = new int[numProbes];
+
+        for (int i = 0; i < numProbes; i++) {
+            probes[i] = low + (int) ((long) range * (i + 1) / (numProbes + 1));
+        }
+
+        return probes;
+    }
+
+    private static int[] withBounds(int low, int high, int[] probes) {
+        final int[] result = new int[probes.length + 2];
+        result[0] = low;
+        result[1] = high;
+        System.arraycopy(probes, 0, result, 2, probes.length);
+        return result;
+    }
 }
@@ -112,6 +112,46 @@ public final class AcexAnalyzers {
         return result;
     }
 
+    /**
+     * Creates an analyzer that searches for a suffix index using a k-ary search, evaluating the effects of {@code
+     * arity - 1} probe indices per step in a single batch (see {@link AcexAnalysisAlgorithms#kArySearchRight(
+     * AbstractCounterexample, int, int, int)}).
+     *
+     * @param arity
+     *         the number of parts the search range is divided into in each step
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer kArySearchBwd(int arity) {
+        return new AbstractNamedAcexAnalyzer("KArySearchBwd(" + arity + ")") {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.kArySearchRight(acex, low, high, arity);
+            }
+        };
+    }
+
+    /**
+     * Creates an analyzer that searches for a suffix index using a k-ary search, evaluating the effects of {@code
+     * arity - 1} probe indices per step in a single batch (see {@link AcexAnalysisAlgorithms#kArySearchLeft(
+     * AbstractCounterexample, int, int, int)}).
+     *
+     * @param arity
+     *         the number of parts the search range is divided into in each step
+     *
+     * @return the analyzer
+     */
+    public static AbstractNamedAcexAnalyzer kArySearchFwd(int arity) {
+        return new AbstractNamedAcexAnalyzer("KArySearchFwd(" + arity + ")") {
+
+            @Override
+            public int analyzeAbstractCounterexample(AbstractCounterexample<?> acex, int low, int high) {
+                return AcexAnalysisAlgorithms.kArySearchLeft(acex, low, high, arity);
+            }
+        };
+    }
+
     public static Collection<AbstractNamedAcexAnalyzer> getAnalyzers(Direction dir) {
         switch (dir) {
             case FORWARD:
@@ -15,6 +15,10 @@
  */
 package de.learnlib.acex.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import de.learnlib.acex.AbstractCounterexample;
 import net.automatalib.commons.util.array.RichArray;
 
@@ -51,8 +55,61 @@ public abstract class AbstractBaseCounterexample<E> implements AbstractCounterex
         return eff;
     }
 
+    /**
+     * Retrieves the effects of the given indices. Effects that have not been computed yet are computed in a single
+     * invocation of {@link #computeEffects(int[])}.
+     *
+     * @param indices
+     *         the indices whose effects should be retrieved
+     *
+     * @return the effects of the given indices, in the order of the given indices
+     */
+    @Override
+    public List<E> effects(int[] indices) {
+        final int[] missing = new int[indices.length];
+        int numMissing = 0;
+
+        for (int idx : indices) {
+            if (values.get(idx) == null) {
+                missing[numMissing++] = idx;
+            }
+        }
+
+        if (numMissing > 0) {
+            final int[] toCompute = Arrays.copyOf(missing, numMissing);
+            final List<E> computed = computeEffects(toCompute);
+            for (int i = 0; i < numMissing; i++) {
+                values.set(toCompute[i], computed.get(i));
+            }
+        }
+
+        final List<E> result = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            result.add(values.get(idx));
+        }
+        return result;
+    }
+
     protected abstract E computeEffect(int index);
 
+    /**
+     * Computes the effects of several indices at once. The default implementation delegates to {@link
+     * #computeEffect(int)} for each index; subclasses may override this method to compute the effects in a single
+     * batch.
+     *
+     * @param indices
+     *         the indices whose effects should be computed
+     *
+     * @return the computed effects, in the order of the given indices
+     */
+    protected List<E> computeEffects(int[] indices) {
+        final List<E> result = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            result.add(computeEffect(idx));
+        }
+        return result;
+    }
+
     public void setEffect(int index, E effect) {
         values.set(index, effect);
     }
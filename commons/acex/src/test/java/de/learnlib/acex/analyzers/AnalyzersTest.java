@@ -15,8 +15,10 @@
  */
 package de.learnlib.acex.analyzers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
 
 import de.learnlib.acex.AbstractCounterexample;
@@ -33,9 +35,15 @@ public class AnalyzersTest {
 
     private static final int NUM_RANDOM = 10;
 
+    private static final int[] ARITIES = {2, 3, 8, 200};
+
     @DataProvider(name = "analyzers")
     public Object[][] analyzers() {
-        Collection<AbstractNamedAcexAnalyzer> analyzers = AcexAnalyzers.getAllAnalyzers();
+        Collection<AbstractNamedAcexAnalyzer> analyzers = new ArrayList<>(AcexAnalyzers.getAllAnalyzers());
+        for (int arity : ARITIES) {
+            analyzers.add(AcexAnalyzers.kArySearchFwd(arity));
+            analyzers.add(AcexAnalyzers.kArySearchBwd(arity));
+        }
         AbstractNamedAcexAnalyzer[][] result = new AbstractNamedAcexAnalyzer[analyzers.size()][1];
         int i = 0;
         for (AbstractNamedAcexAnalyzer a : analyzers) {
@@ -90,6 +98,30 @@ public class AnalyzersTest {
         }
     }
 
+    @Test
+    public void testKAryBatches() {
+        Random r = new Random(SEED);
+
+        for (int i = 0; i < NUM_RANDOM; i++) {
+            BatchCountingAcex acex = new BatchCountingAcex(createRandom(LENGTH, r));
+
+            int idx = AcexAnalyzers.kArySearchBwd(8).analyzeAbstractCounterexample(acex);
+            checkResult(acex, idx);
+            // 101 indices: at most three rounds of (at most 7) probes each
+            Assert.assertTrue(acex.numBatches <= 3);
+
+            acex.numBatches = 0;
+            idx = AcexAnalyzers.kArySearchFwd(8).analyzeAbstractCounterexample(acex);
+            checkResult(acex, idx);
+            Assert.assertTrue(acex.numBatches <= 3);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidArity() {
+        AcexAnalyzers.kArySearchBwd(1).analyzeAbstractCounterexample(createOne0(LENGTH));
+    }
+
     private static AbstractCounterexample<Integer> createRandom(int length, Random random) {
         int[] values = new int[length + 1];
         values[0] = 0;
@@ -99,4 +131,35 @@ public class AnalyzersTest {
         }
         return new DummyAcex(values);
     }
+
+    private static final class BatchCountingAcex implements AbstractCounterexample<Integer> {
+
+        private final AbstractCounterexample<Integer> delegate;
+        private int numBatches;
+
+        BatchCountingAcex(AbstractCounterexample<Integer> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int getLength() {
+            return delegate.getLength();
+        }
+
+        @Override
+        public boolean checkEffects(Integer eff1, Integer eff2) {
+            return delegate.checkEffects(eff1, eff2);
+        }
+
+        @Override
+        public Integer effect(int index) {
+            return delegate.effect(index);
+        }
+
+        @Override
+        public List<Integer> effects(int[] indices) {
+            numBatches++;
+            return delegate.effects(indices);
+        }
+    }
 }
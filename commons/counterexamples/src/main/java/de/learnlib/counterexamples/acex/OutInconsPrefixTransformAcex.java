@@ -15,11 +15,14 @@
  */
 package de.learnlib.counterexamples.acex;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
 import de.learnlib.acex.impl.AbstractBaseCounterexample;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.words.Word;
 
 /**
@@ -66,6 +69,25 @@ public class OutInconsPrefixTransformAcex<I, D> extends AbstractBaseCounterexamp
         return oracle.answerQuery(asPrefix, suffix);
     }
 
+    @Override
+    protected List<D> computeEffects(int[] indices) {
+        final List<DefaultQuery<I, D>> queries = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            Word<I> prefix = this.suffix.prefix(index);
+            Word<I> suffix = this.suffix.subWord(index);
+
+            queries.add(new DefaultQuery<>(asTransform.apply(prefix), suffix));
+        }
+
+        oracle.processQueries(queries);
+
+        final List<D> result = new ArrayList<>(indices.length);
+        for (DefaultQuery<I, D> q : queries) {
+            result.add(q.getOutput());
+        }
+        return result;
+    }
+
     @Override
     public boolean checkEffects(D eff1, D eff2) {
         return Objects.equals(eff1, eff2);
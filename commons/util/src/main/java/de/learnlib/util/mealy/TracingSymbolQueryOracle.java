@@ -0,0 +1,93 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.util.mealy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.SymbolQueryOracle;
+
+/**
+ * A {@link SymbolQueryOracle} wrapper that keeps track of the symbols that have been queried on its delegate since the
+ * delegate's last reset. This allows to {@link #replay(List) move} the delegate into the state reached by a given trace
+ * without resetting it, whenever the given trace extends the tracked one.
+ * <p>
+ * As long as the delegate has not been reset through this wrapper, its state is unknown and every replay resets it.
+ *
+ * @param <I>
+ *         input alphabet type
+ * @param <O>
+ *         output alphabet type
+ */
+@ParametersAreNonnullByDefault
+public class TracingSymbolQueryOracle<I, O> implements SymbolQueryOracle<I, O> {
+
+    private final SymbolQueryOracle<I, O> delegate;
+
+    private final List<I> trace;
+
+    private boolean traceValid;
+
+    public TracingSymbolQueryOracle(final SymbolQueryOracle<I, O> delegate) {
+        this.delegate = delegate;
+        this.trace = new ArrayList<>();
+        this.traceValid = false;
+    }
+
+    @Override
+    public O query(I i) {
+        final O output = this.delegate.query(i);
+
+        if (this.traceValid) {
+            this.trace.add(i);
+        }
+
+        return output;
+    }
+
+    @Override
+    public void reset() {
+        this.delegate.reset();
+        this.trace.clear();
+        this.traceValid = true;
+    }
+
+    /**
+     * Moves the delegate into the state reached by the given trace. If the given trace extends the symbols queried on
+     * the delegate since its last reset, only the missing symbols are queried. Otherwise, the delegate is reset and the
+     * complete trace is queried.
+     *
+     * @param word
+     *         the trace to replay
+     */
+    public void replay(final List<I> word) {
+        final int offset;
+
+        if (this.traceValid && this.trace.size() <= word.size() &&
+            this.trace.equals(word.subList(0, this.trace.size()))) {
+            offset = this.trace.size();
+        } else {
+            this.reset();
+            offset = 0;
+        }
+
+        for (int idx = offset; idx < word.size(); idx++) {
+            this.query(word.get(idx));
+        }
+    }
+}
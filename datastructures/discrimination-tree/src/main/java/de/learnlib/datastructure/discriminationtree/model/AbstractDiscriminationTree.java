@@ -22,9 +22,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Predicate;
 
 import com.google.common.collect.Iterables;
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.graphs.Graph;
 import net.automatalib.graphs.dot.DefaultDOTHelper;
 import net.automatalib.graphs.dot.GraphDOTHelper;
@@ -64,6 +66,101 @@ public abstract class AbstractDiscriminationTree<DSCR, I, O, D, N extends Abstra
 
     public abstract N sift(N start, Word<I> prefix);
 
+    /**
+     * Sifts several words into the tree simultaneously, starting at the root. See {@link #sift(List, List)}.
+     *
+     * @param prefixes
+     *         the words to sift
+     *
+     * @return the leaves the words were sifted into, in the iteration order of the given words
+     */
+    public List<N> sift(Collection<? extends Word<I>> prefixes) {
+        return sift(Collections.nCopies(prefixes.size(), root), new ArrayList<>(prefixes));
+    }
+
+    /**
+     * Sifts several words into the tree simultaneously, each one starting at its respective start node. All words are
+     * advanced in lock-step, i.e., the discriminator queries of all words that have not reached a leaf yet are posed to
+     * the membership oracle in a single {@link MembershipOracle#processQueries(Collection) batch} per tree level. The
+     * result is the same as sifting each word individually via {@link #sift(AbstractDTNode, Word)}.
+     *
+     * @param starts
+     *         the start nodes, one for each word
+     * @param prefixes
+     *         the words to sift
+     *
+     * @return the leaves the words were sifted into, in the order of the given words
+     */
+    public List<N> sift(List<? extends N> starts, List<? extends Word<I>> prefixes) {
+        return sift(starts, prefixes, n -> !n.isLeaf());
+    }
+
+    /**
+     * Batched sifting core. Sifting of a word stops as soon as it reaches a node that does not satisfy the given
+     * predicate.
+     *
+     * @param starts
+     *         the start nodes, one for each word
+     * @param prefixes
+     *         the words to sift
+     * @param continueSifting
+     *         the predicate determining whether a word has to be sifted further down from a given node
+     *
+     * @return the nodes the words were sifted into, in the order of the given words
+     */
+    protected List<N> sift(List<? extends N> starts,
+                           List<? extends Word<I>> prefixes,
+                           Predicate<? super N> continueSifting) {
+        if (starts.size() != prefixes.size()) {
+            throw new IllegalArgumentException("Number of start nodes and words does not match");
+        }
+
+        final List<N> result = new ArrayList<>(starts);
+        final int[] active = new int[result.size()];
+        int numActive = 0;
+
+        for (int i = 0; i < active.length; i++) {
+            if (continueSifting.test(result.get(i))) {
+                active[numActive++] = i;
+            }
+        }
+
+        while (numActive > 0) {
+            final List<DefaultQuery<I, O>> queries = new ArrayList<>(numActive);
+            for (int i = 0; i < numActive; i++) {
+                final int idx = active[i];
+                queries.add(buildQuery(result.get(idx), prefixes.get(idx)));
+            }
+
+            oracle.processQueries(queries);
+
+            int newNumActive = 0;
+            for (int i = 0; i < numActive; i++) {
+                final int idx = active[i];
+                final N next = result.get(idx).child(queries.get(i).getOutput());
+                result.set(idx, next);
+                if (continueSifting.test(next)) {
+                    active[newNumActive++] = idx;
+                }
+            }
+            numActive = newNumActive;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the query whose outcome decides the child of the given (inner) node the given word is sifted into.
+     *
+     * @param node
+     *         the inner node
+     * @param prefix
+     *         the word to sift
+     *
+     * @return the query for the discriminator of the given node
+     */
+    protected abstract DefaultQuery<I, O> buildQuery(N node, Word<I> prefix);
+
     public N getRoot() {
         return root;
     }
@@ -16,6 +16,7 @@
 package de.learnlib.datastructure.discriminationtree.model;
 
 import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
 import net.automatalib.words.Word;
 
 /**
@@ -47,4 +48,9 @@ public abstract class AbstractWordBasedDiscriminationTree<I, O, D>
 
         return curr;
     }
+
+    @Override
+    protected DefaultQuery<I, O> buildQuery(AbstractWordBasedDTNode<I, O, D> node, Word<I> prefix) {
+        return new DefaultQuery<>(prefix, node.getDiscriminator());
+    }
 }
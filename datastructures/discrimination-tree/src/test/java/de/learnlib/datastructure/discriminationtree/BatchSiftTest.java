@@ -0,0 +1,119 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.discriminationtree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.datastructure.discriminationtree.model.AbstractWordBasedDTNode;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that batched sifting yields the same leaves as sifting each word individually and groups the queries per tree
+ * level.
+ */
+public class BatchSiftTest {
+
+    @Test
+    public void testBatchSift() {
+        final CountingOracle oracle = new CountingOracle();
+        final MultiDTree<Character, Integer, String> tree = new MultiDTree<>(oracle);
+
+        // depth 2 tree: the number of 'a's modulo 3 and the number of 'a's modulo 3 after appending an additional 'a'
+        final AbstractWordBasedDTNode<Character, Integer, String> root = tree.getRoot();
+        final AbstractWordBasedDTNode<Character, Integer, String>.SplitResult sr =
+                root.split(Word.epsilon(), 0, 1, "1");
+        sr.nodeOld.split(Word.fromString("a"), 1, 2, "3");
+
+        final List<Word<Character>> words = new ArrayList<>();
+        for (String s : new String[] {"", "a", "b", "aa", "ab", "aaa", "bab", "aabaa", "abababa", "bbbbb"}) {
+            words.add(Word.fromString(s));
+        }
+
+        final List<AbstractWordBasedDTNode<Character, Integer, String>> expected = new ArrayList<>(words.size());
+        for (Word<Character> w : words) {
+            expected.add(tree.sift(w));
+        }
+
+        oracle.numBatches = 0;
+        final List<AbstractWordBasedDTNode<Character, Integer, String>> actual = tree.sift(words);
+
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            Assert.assertSame(actual.get(i), expected.get(i));
+        }
+        Assert.assertEquals(oracle.numBatches, 2);
+    }
+
+    @Test
+    public void testBatchSiftFromInnerNodes() {
+        final CountingOracle oracle = new CountingOracle();
+        final MultiDTree<Character, Integer, String> tree = new MultiDTree<>(oracle);
+
+        final AbstractWordBasedDTNode<Character, Integer, String> root = tree.getRoot();
+        final AbstractWordBasedDTNode<Character, Integer, String>.SplitResult sr =
+                root.split(Word.epsilon(), 0, 1, "1");
+
+        final List<AbstractWordBasedDTNode<Character, Integer, String>> starts = new ArrayList<>();
+        starts.add(root);
+        starts.add(sr.nodeNew);
+        starts.add(root);
+
+        final List<Word<Character>> words = new ArrayList<>();
+        words.add(Word.fromString("a"));
+        words.add(Word.fromString("aaa"));
+        words.add(Word.fromString("aa"));
+
+        final List<AbstractWordBasedDTNode<Character, Integer, String>> result = tree.sift(starts, words);
+
+        Assert.assertSame(result.get(0), sr.nodeNew);
+        Assert.assertSame(result.get(1), sr.nodeNew);
+        Assert.assertSame(result.get(2), root.child(2));
+        Assert.assertEquals(oracle.numBatches, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchingSizes() {
+        final MultiDTree<Character, Integer, String> tree = new MultiDTree<>(new CountingOracle());
+        final List<AbstractWordBasedDTNode<Character, Integer, String>> starts = new ArrayList<>();
+        starts.add(tree.getRoot());
+        tree.sift(starts, new ArrayList<>());
+    }
+
+    private static final class CountingOracle implements MembershipOracle<Character, Integer> {
+
+        private int numBatches;
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Integer>> queries) {
+            numBatches++;
+            for (Query<Character, Integer> q : queries) {
+                int count = 0;
+                for (Character c : q.getInput()) {
+                    if (c == 'a') {
+                        count++;
+                    }
+                }
+                q.answer(count % 3);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
+
+import net.automatalib.commons.util.Pair;
+
+/**
+ * Utility methods for writing and reading files of labeled traces, i.e. sequences of input (alphabet) indices together
+ * with their acceptance, from which PTAs can be constructed without materializing the complete sample set in memory.
+ * <p>
+ * A trace file is a sequence of records, each of which consists of the length of the trace, the label of the trace
+ * ({@code 1} for accepted and {@code 0} for rejected traces) and the indices of the symbols of the trace, all encoded
+ * as big-endian {@code int}s. Files are read through memory-mapped windows, so they may exceed both the available heap
+ * and the size limit of a single mapping.
+ */
+public final class TraceFile {
+
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private TraceFile() {
+        // prevent instantiation
+    }
+
+    /**
+     * Writes the given labeled traces to the given file, replacing any previous content of the file.
+     *
+     * @param file
+     *         the file to write to
+     * @param traces
+     *         the traces (and their labels) to write
+     *
+     * @throws IOException
+     *         if writing the file fails
+     */
+    public static void write(Path file, Iterable<? extends Pair<int[], Boolean>> traces) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (Pair<int[], Boolean> trace : traces) {
+                final int[] symbols = trace.getFirst();
+                out.writeInt(symbols.length);
+                out.writeInt(trace.getSecond() ? 1 : 0);
+                for (int sym : symbols) {
+                    out.writeInt(sym);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a stream of the labeled traces contained in the given file. The traces are read lazily, hence the
+     * returned stream should be closed after use to release the underlying file. A malformed file results in an {@link
+     * UncheckedIOException} when the stream is consumed.
+     * <p>
+     * Records are read sequentially, but a parallel version of the returned stream processes batches of records in
+     * parallel.
+     *
+     * @param file
+     *         the file to read
+     *
+     * @return a stream of the traces (and their labels) contained in the file
+     *
+     * @throws IOException
+     *         if opening the file fails
+     */
+    public static Stream<Pair<int[], Boolean>> read(Path file) throws IOException {
+        return read(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    static Stream<Pair<int[], Boolean>> read(Path file, int windowSize) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        final TraceSpliterator spliterator;
+
+        try {
+            spliterator = new TraceSpliterator(channel, windowSize);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static final class TraceSpliterator extends Spliterators.AbstractSpliterator<Pair<int[], Boolean>> {
+
+        private final FileChannel channel;
+        private final long size;
+        private final int windowSize;
+
+        @Nullable
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        TraceSpliterator(FileChannel channel, int windowSize) throws IOException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Pair<int[], Boolean>> action) {
+            if (position >= size) {
+                return false;
+            }
+
+            try {
+                ensureMapped(HEADER_BYTES);
+                int offset = (int) (position - windowStart);
+                final int length = window.getInt(offset);
+                final int label = window.getInt(offset + Integer.BYTES);
+
+                if (length < 0 || (label != 0 && label != 1)) {
+                    throw new IOException("Malformed trace record at position " + position);
+                }
+
+                final long recordBytes = HEADER_BYTES + (long) Integer.BYTES * length;
+                ensureMapped(recordBytes);
+                offset = (int) (position - windowStart);
+
+                final int[] symbols = new int[length];
+                final ByteBuffer buffer = window.duplicate();
+                buffer.position(offset + HEADER_BYTES);
+                buffer.asIntBuffer().get(symbols);
+
+                position += recordBytes;
+                action.accept(new Pair<>(symbols, label == 1));
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /*
+         * Makes sure that the given number of bytes, starting at the current position, are accessible through the
+         * current window.
+         */
+        private void ensureMapped(long bytes) throws IOException {
+            if (position + bytes > size) {
+                throw new IOException("Truncated trace record at position " + position);
+            }
+            if (window != null && position + bytes <= windowStart + window.capacity()) {
+                return;
+            }
+
+            final long mapSize = Math.min(Math.max(windowSize, bytes), size - position);
+            if (mapSize > Integer.MAX_VALUE) {
+                throw new IOException("Trace record at position " + position + " exceeds the maximum record size");
+            }
+
+            window = channel.map(MapMode.READ_ONLY, position, mapSize);
+            windowStart = position;
+        }
+    }
+}
@@ -27,11 +27,33 @@ public abstract class AbstractBasePTAState<SP, TP, S extends AbstractBasePTAStat
     protected RichArray<TP> transProperties;
     protected RichArray<S> successors;
     protected int id = -1;
+    protected int numVisits;
+    protected int numSampleEnds;
 
     public SP getStateProperty() {
         return property;
     }
 
+    /**
+     * Retrieves the number of samples whose path in the PTA visits this state (including the samples ending in this
+     * state). If states have been merged, the counts of all merged states are accumulated.
+     *
+     * @return the number of samples visiting this state
+     */
+    public int getNumVisits() {
+        return numVisits;
+    }
+
+    /**
+     * Retrieves the number of samples whose path in the PTA ends in this state. If states have been merged, the counts
+     * of all merged states are accumulated.
+     *
+     * @return the number of samples ending in this state
+     */
+    public int getNumSampleEnds() {
+        return numSampleEnds;
+    }
+
     public TP getTransProperty(int index) {
         if (transProperties == null) {
             return null;
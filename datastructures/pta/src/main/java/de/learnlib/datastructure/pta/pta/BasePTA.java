@@ -114,6 +114,25 @@ public class BasePTA<SP, TP, S extends AbstractBasePTAState<SP, TP, S>>
         if (!target.tryMergeStateProperty(lastProperty)) {
             throw new IllegalStateException();
         }
+        countSample(sample);
+    }
+
+    /**
+     * Updates the visit counts (see {@link AbstractBasePTAState#getNumVisits()}) of all states along the path of the
+     * given sample, as well as the sample end count (see {@link AbstractBasePTAState#getNumSampleEnds()}) of the
+     * state reached by it. The path for the sample must already exist in the PTA.
+     *
+     * @param sample
+     *         the sample to count
+     */
+    private void countSample(int[] sample) {
+        S curr = root;
+        curr.numVisits++;
+        for (int sym : sample) {
+            curr = curr.getSuccessor(sym);
+            curr.numVisits++;
+        }
+        curr.numSampleEnds++;
     }
 
     /**
@@ -163,6 +182,8 @@ public class BasePTA<SP, TP, S extends AbstractBasePTAState<SP, TP, S>>
         if (!curr.tryMergeStateProperty(spIt.next())) {
             throw new IllegalArgumentException();
         }
+
+        countSample(sample);
     }
 
     /**
@@ -197,6 +218,8 @@ public class BasePTA<SP, TP, S extends AbstractBasePTAState<SP, TP, S>>
             }
             curr = curr.getOrCreateSuccessor(sym, alphabetSize);
         }
+
+        countSample(sample);
     }
 
     public <I> void toAutomaton(MutableDeterministic<?, I, ?, ? super SP, ? super TP> automaton, Alphabet<I> alphabet) {
@@ -0,0 +1,1066 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta.pta;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import net.automatalib.automata.MutableDeterministic;
+import net.automatalib.commons.util.Pair;
+import net.automatalib.commons.util.comparison.CmpUtil;
+import net.automatalib.commons.util.functions.FunctionsUtil;
+import net.automatalib.util.automata.Automata;
+import net.automatalib.words.Alphabet;
+
+/**
+ * A blue-fringe PTA that stores its states in a struct-of-arrays layout, instead of allocating one object (plus
+ * successor and transition property arrays) per state like {@link BlueFringePTA} does. States are identified by
+ * non-negative {@code int}s (the root being {@code 0}), the successors of all states are stored in a single {@code int}
+ * table indexed by {@code state * alphabetSize + input}, and state and transition properties are interned and stored
+ * as {@code int} ids in parallel arrays. Hence, the footprint of a state is a small constant number of array slots
+ * (plus {@code alphabetSize} slots for its successors and, if present, its transition properties), and merges operate
+ * on contiguous memory.
+ * <p>
+ * A blue state is merged into a red state directly on the arrays, recording every modification in an undo log (cf.
+ * {@link InPlaceRedBlueMerger}). If the fold runs into a conflict it is rolled back immediately. Otherwise, the PTA
+ * represents the merged automaton until either {@link #rollback()} or {@link #commit(IntConsumer)} is called. Note that
+ * the slots of states that have been folded by a committed merge are not reclaimed.
+ * <p>
+ * Instances of this class must not be accessed concurrently, which especially rules out evaluating several merges in
+ * parallel.
+ *
+ * @param <SP>
+ *         state property type
+ * @param <TP>
+ *         transition property type
+ */
+@ParametersAreNonnullByDefault
+public class CompactBlueFringePTA<SP, TP> {
+
+    /**
+     * The value representing an undefined successor.
+     */
+    public static final int NO_STATE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int ROOT = 0;
+    private static final int UNDEFINED = 0;
+
+    // colors of non-red states, red states store their id instead
+    private static final int WHITE = -1;
+    private static final int BLUE = -2;
+
+    // undo log operations
+    private static final byte OP_SUCC = 0;
+    private static final byte OP_PROP = 1;
+    private static final byte OP_TRANS_PROP = 2;
+    private static final byte OP_COUNTS = 3;
+
+    @Nonnegative
+    private final int alphabetSize;
+
+    private final List<Object> properties = new ArrayList<>();
+    private final Map<Object, Integer> propertyIds = new HashMap<>();
+
+    private int numStates;
+    private int[] successors;
+    @Nullable
+    private int[] transProperties;
+    private int[] stateProperties;
+    private int[] parentSlots;
+    private int[] colors;
+    private int[] numVisits;
+    private int[] numSampleEnds;
+    private int[] marks;
+
+    private int[] redStates = new int[INITIAL_CAPACITY];
+    private final List<int[]> redAccess = new ArrayList<>();
+    private int numRedStates;
+
+    private int[] logIndices = new int[INITIAL_CAPACITY];
+    private int[] logValues = new int[INITIAL_CAPACITY];
+    private byte[] logOps = new byte[INITIAL_CAPACITY];
+    private int logSize;
+
+    private int[] stackQ = new int[INITIAL_CAPACITY];
+    private int[] stackR = new int[INITIAL_CAPACITY];
+    private int[] stackI = new int[INITIAL_CAPACITY];
+    private int stackSize;
+
+    private int[] modStates = new int[INITIAL_CAPACITY];
+    private int[] modVisits = new int[INITIAL_CAPACITY];
+    private int[] modProperties = new int[INITIAL_CAPACITY];
+    private int[] modNumSuccessors = new int[INITIAL_CAPACITY];
+    private int numModified;
+
+    private int[] foldedStates = new int[INITIAL_CAPACITY];
+    private int numFolded;
+
+    private boolean active;
+    private int epoch;
+    private long numSampleEndCollisions;
+
+    /**
+     * Constructor.
+     *
+     * @param alphabetSize
+     *         the size of the input alphabet
+     */
+    public CompactBlueFringePTA(@Nonnegative int alphabetSize) {
+        this.alphabetSize = alphabetSize;
+
+        this.successors = new int[INITIAL_CAPACITY * alphabetSize];
+        this.stateProperties = new int[INITIAL_CAPACITY];
+        this.parentSlots = new int[INITIAL_CAPACITY];
+        this.colors = new int[INITIAL_CAPACITY];
+        this.numVisits = new int[INITIAL_CAPACITY];
+        this.numSampleEnds = new int[INITIAL_CAPACITY];
+        this.marks = new int[INITIAL_CAPACITY];
+        Arrays.fill(successors, NO_STATE);
+
+        // id 0 represents an undefined property
+        this.properties.add(null);
+
+        createState(NO_STATE);
+    }
+
+    /**
+     * Copy constructor. Creates a PTA that is identical to, but independent of, the given PTA.
+     *
+     * @param other
+     *         the PTA to copy, on which no merge may be in progress
+     */
+    public CompactBlueFringePTA(CompactBlueFringePTA<SP, TP> other) {
+        if (other.active) {
+            throw new IllegalStateException("Cannot copy a PTA with a merge in progress");
+        }
+
+        this.alphabetSize = other.alphabetSize;
+        this.properties.addAll(other.properties);
+        this.propertyIds.putAll(other.propertyIds);
+
+        this.numStates = other.numStates;
+        this.successors = other.successors.clone();
+        this.transProperties = (other.transProperties == null) ? null : other.transProperties.clone();
+        this.stateProperties = other.stateProperties.clone();
+        this.parentSlots = other.parentSlots.clone();
+        this.colors = other.colors.clone();
+        this.numVisits = other.numVisits.clone();
+        this.numSampleEnds = other.numSampleEnds.clone();
+        this.marks = new int[other.marks.length];
+
+        this.redStates = other.redStates.clone();
+        this.redAccess.addAll(other.redAccess);
+        this.numRedStates = other.numRedStates;
+    }
+
+    /**
+     * Retrieves the root of the PTA.
+     *
+     * @return the root state
+     */
+    public int getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * Retrieves the successor of the given state for the given input (index).
+     *
+     * @param state
+     *         the state
+     * @param input
+     *         the input index
+     *
+     * @return the successor state, or {@link #NO_STATE} if there is no such successor
+     */
+    public int getSuccessor(int state, int input) {
+        return successors[state * alphabetSize + input];
+    }
+
+    /**
+     * Retrieves the number of defined successors of the given state.
+     *
+     * @param state
+     *         the state
+     *
+     * @return the number of defined successors
+     */
+    public int getNumSuccessors(int state) {
+        int result = 0;
+        for (int slot = state * alphabetSize, end = slot + alphabetSize; slot < end; slot++) {
+            if (successors[slot] != NO_STATE) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public SP getStateProperty(int state) {
+        return (SP) properties.get(stateProperties[state]);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public TP getTransProperty(int state, int input) {
+        if (transProperties == null) {
+            return null;
+        }
+        return (TP) properties.get(transProperties[state * alphabetSize + input]);
+    }
+
+    /**
+     * Retrieves the number of samples whose path in the PTA visits the given state (see {@link
+     * AbstractBasePTAState#getNumVisits()}).
+     *
+     * @param state
+     *         the state
+     *
+     * @return the number of samples visiting the state
+     */
+    public int getNumVisits(int state) {
+        return numVisits[state];
+    }
+
+    /**
+     * Retrieves the number of samples whose path in the PTA ends in the given state (see {@link
+     * AbstractBasePTAState#getNumSampleEnds()}).
+     *
+     * @param state
+     *         the state
+     *
+     * @return the number of samples ending in the state
+     */
+    public int getNumSampleEnds(int state) {
+        return numSampleEnds[state];
+    }
+
+    /**
+     * Retrieves the states reachable from the root of the PTA, in breadth-first order.
+     *
+     * @return the reachable states
+     */
+    public int[] getStates() {
+        final int[] queue = new int[numStates];
+        final BitSet visited = new BitSet(numStates);
+        int size = 0;
+
+        queue[size++] = ROOT;
+        visited.set(ROOT);
+
+        for (int head = 0; head < size; head++) {
+            for (int slot = queue[head] * alphabetSize, end = slot + alphabetSize; slot < end; slot++) {
+                final int succ = successors[slot];
+                if (succ != NO_STATE && !visited.get(succ)) {
+                    visited.set(succ);
+                    queue[size++] = succ;
+                }
+            }
+        }
+
+        return Arrays.copyOf(queue, size);
+    }
+
+    /**
+     * Retrieves the state reached by the given word (represented as an {@code int} array).
+     *
+     * @param word
+     *         the word
+     *
+     * @return the state reached by this word, or {@link #NO_STATE} if there is no path for the given word in the PTA
+     */
+    public int getState(int[] word) {
+        int curr = ROOT;
+        for (int i = 0; i < word.length && curr != NO_STATE; i++) {
+            curr = successors[curr * alphabetSize + word[i]];
+        }
+        return curr;
+    }
+
+    /**
+     * Retrieves the state reached by the given word (represented as an {@code int} array). If there is no path for the
+     * word in the PTA, it will be added to the PTA on-the-fly.
+     *
+     * @param word
+     *         the word
+     *
+     * @return the state reached by this word, which might have been newly created (along with all required predecessor
+     * states)
+     */
+    public int getOrCreateState(int[] word) {
+        int curr = ROOT;
+        for (int sym : word) {
+            curr = getOrCreateSuccessor(curr, sym);
+        }
+        return curr;
+    }
+
+    /**
+     * Adds a sample to the PTA, and sets the property of the last reached (or inserted) state accordingly (see {@link
+     * BasePTA#addSample(int[], Object)}).
+     *
+     * @param sample
+     *         the word to add to the PTA
+     * @param lastProperty
+     *         the property of the last state to set
+     */
+    public void addSample(int[] sample, SP lastProperty) {
+        int target = getOrCreateState(sample);
+        if (!tryMergeStateProperty(target, lastProperty)) {
+            throw new IllegalStateException();
+        }
+        countSample(sample);
+    }
+
+    public void addSampleWithStateProperties(int[] sample, List<? extends SP> lastStateProperties) {
+        int sampleLen = sample.length;
+        int skip = sampleLen + 1 - lastStateProperties.size();
+        if (skip < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int curr = ROOT;
+        int i = 0;
+        while (i < skip) {
+            curr = getOrCreateSuccessor(curr, sample[i++]);
+        }
+
+        Iterator<? extends SP> spIt = lastStateProperties.iterator();
+
+        while (i < sampleLen) {
+            if (!tryMergeStateProperty(curr, spIt.next())) {
+                throw new IllegalArgumentException();
+            }
+            curr = getOrCreateSuccessor(curr, sample[i++]);
+        }
+
+        if (!tryMergeStateProperty(curr, spIt.next())) {
+            throw new IllegalArgumentException();
+        }
+
+        countSample(sample);
+    }
+
+    public void addSampleWithTransitionProperties(int[] sample, List<? extends TP> lastTransitionProperties) {
+        int sampleLen = sample.length;
+        int skip = sampleLen - lastTransitionProperties.size();
+        if (skip < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int curr = ROOT;
+        int i = 0;
+        while (i < skip) {
+            curr = getOrCreateSuccessor(curr, sample[i++]);
+        }
+
+        Iterator<? extends TP> tpIt = lastTransitionProperties.iterator();
+        while (i < sampleLen) {
+            int sym = sample[i++];
+            if (!tryMergeTransitionProperty(curr, sym, tpIt.next())) {
+                throw new IllegalArgumentException();
+            }
+            curr = getOrCreateSuccessor(curr, sym);
+        }
+
+        countSample(sample);
+    }
+
+    /**
+     * Adds all samples of the given PTA to this PTA, i.e. computes the union of both prefix trees and accumulates the
+     * visit and sample end counts of corresponding states. This allows to construct the PTA for a large set of samples
+     * from PTAs for (independently processed) shards of the sample set.
+     * <p>
+     * Neither PTA may contain red states, i.e. both PTAs must still represent their plain sample sets.
+     *
+     * @param other
+     *         the PTA whose samples should be added
+     *
+     * @throws IllegalArgumentException
+     *         if the properties of the given PTA conflict with the properties of this PTA
+     */
+    public void addAll(CompactBlueFringePTA<? extends SP, ? extends TP> other) {
+        if (other.alphabetSize != alphabetSize) {
+            throw new IllegalArgumentException("Alphabet sizes do not match");
+        }
+        if (numRedStates > 0 || other.numRedStates > 0) {
+            throw new IllegalStateException("PTAs must not contain red states");
+        }
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot add a PTA to itself");
+        }
+
+        int[] stack = new int[INITIAL_CAPACITY];
+        int size = 0;
+        stack[size++] = ROOT;
+        stack[size++] = ROOT;
+
+        while (size > 0) {
+            final int otherState = stack[--size];
+            final int state = stack[--size];
+
+            final int otherProp = other.stateProperties[otherState];
+            if (otherProp != UNDEFINED && !tryMergeStateProperty(state, other.getStateProperty(otherState))) {
+                throw new IllegalArgumentException("Conflicting state properties for state " + state);
+            }
+            numVisits[state] += other.numVisits[otherState];
+            numSampleEnds[state] += other.numSampleEnds[otherState];
+
+            for (int i = 0; i < alphabetSize; i++) {
+                final int otherSucc = other.successors[otherState * alphabetSize + i];
+                if (otherSucc == NO_STATE) {
+                    continue;
+                }
+
+                final TP otherTP = other.getTransProperty(otherState, i);
+                if (otherTP != null && !tryMergeTransitionProperty(state, i, otherTP)) {
+                    throw new IllegalArgumentException("Conflicting transition properties for state " + state);
+                }
+
+                if (size + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[size++] = getOrCreateSuccessor(state, i);
+                stack[size++] = otherSucc;
+            }
+        }
+    }
+
+    /**
+     * Adds all samples of this PTA to the given (object-based) PTA, accumulating the visit and sample end counts of
+     * corresponding states. This PTA must not contain red states.
+     *
+     * @param pta
+     *         the PTA to which the samples should be added
+     * @param <S>
+     *         state type of the given PTA
+     *
+     * @throws IllegalArgumentException
+     *         if the properties of this PTA conflict with the properties of the given PTA
+     */
+    public <S extends AbstractBasePTAState<SP, TP, S>> void addTo(BasePTA<SP, TP, S> pta) {
+        if (numRedStates > 0) {
+            throw new IllegalStateException("PTA must not contain red states");
+        }
+
+        final Deque<Pair<Integer, S>> stack = new ArrayDeque<>();
+        stack.push(new Pair<>(ROOT, pta.getRoot()));
+
+        Pair<Integer, S> curr;
+        while ((curr = stack.poll()) != null) {
+            final int state = curr.getFirst();
+            final S target = curr.getSecond();
+
+            final SP prop = getStateProperty(state);
+            if (prop != null && !target.tryMergeStateProperty(prop)) {
+                throw new IllegalArgumentException("Conflicting state properties for state " + state);
+            }
+            target.numVisits += numVisits[state];
+            target.numSampleEnds += numSampleEnds[state];
+
+            for (int i = 0; i < alphabetSize; i++) {
+                final int succ = successors[state * alphabetSize + i];
+                if (succ == NO_STATE) {
+                    continue;
+                }
+
+                final TP tp = getTransProperty(state, i);
+                if (tp != null && !target.tryMergeTransitionProperty(i, alphabetSize, tp)) {
+                    throw new IllegalArgumentException("Conflicting transition properties for state " + state);
+                }
+
+                stack.push(new Pair<>(succ, target.getOrCreateSuccessor(i, alphabetSize)));
+            }
+        }
+    }
+
+    public boolean isRed(int state) {
+        return colors[state] >= 0;
+    }
+
+    public boolean isBlue(int state) {
+        return colors[state] == BLUE;
+    }
+
+    public boolean isWhite(int state) {
+        return colors[state] == WHITE;
+    }
+
+    public int getRedState(@Nonnegative int id) {
+        if (id >= numRedStates) {
+            throw new IndexOutOfBoundsException(Integer.toString(id));
+        }
+        return redStates[id];
+    }
+
+    @Nonnegative
+    public int getNumRedStates() {
+        return numRedStates;
+    }
+
+    public void init(IntConsumer newBlue) {
+        colors[ROOT] = BLUE;
+        promote(ROOT, newBlue);
+    }
+
+    public void promote(int qb, IntConsumer newBlue) {
+        if (!isBlue(qb)) {
+            throw new IllegalArgumentException();
+        }
+
+        final int parentSlot = parentSlots[qb];
+        final int[] access;
+        if (parentSlot == NO_STATE) {
+            access = new int[0];
+        } else {
+            final int[] parentAccess = redAccess.get(colors[parentSlot / alphabetSize]);
+            access = Arrays.copyOf(parentAccess, parentAccess.length + 1);
+            access[parentAccess.length] = parentSlot % alphabetSize;
+        }
+
+        if (numRedStates == redStates.length) {
+            redStates = Arrays.copyOf(redStates, numRedStates * 2);
+        }
+        colors[qb] = numRedStates;
+        redStates[numRedStates++] = qb;
+        redAccess.add(access);
+
+        for (int slot = qb * alphabetSize, end = slot + alphabetSize; slot < end; slot++) {
+            final int succ = successors[slot];
+            if (succ != NO_STATE) {
+                if (!isWhite(succ)) {
+                    throw new IllegalStateException();
+                }
+                colors[succ] = BLUE;
+                newBlue.accept(succ);
+            }
+        }
+    }
+
+    /**
+     * Compares two blue states w.r.t. the canonical order of their access sequences, i.e. the order in which {@link
+     * de.learnlib.datastructure.pta.bluefringe.DefaultProcessingOrders#CANONICAL_ORDER} processes blue states.
+     *
+     * @param qb1
+     *         the first blue state
+     * @param qb2
+     *         the second blue state
+     *
+     * @return a negative integer, zero or a positive integer if the access sequence of the first state is less than,
+     * equal to or greater than the access sequence of the second state
+     */
+    public int canonicalCompare(int qb1, int qb2) {
+        if (qb1 == qb2) {
+            return 0;
+        }
+
+        final int parentSlot1 = parentSlots[qb1];
+        final int parentSlot2 = parentSlots[qb2];
+        // only the root has no parent, and the root is the smallest state
+        if (parentSlot1 == NO_STATE || parentSlot2 == NO_STATE) {
+            return (parentSlot1 == NO_STATE) ? -1 : 1;
+        }
+
+        final int[] parentAccess1 = redAccess.get(colors[parentSlot1 / alphabetSize]);
+        final int[] parentAccess2 = redAccess.get(colors[parentSlot2 / alphabetSize]);
+        int cmp = CmpUtil.canonicalCompare(parentAccess1, parentAccess2);
+        if (cmp == 0) {
+            cmp = parentSlot1 % alphabetSize - parentSlot2 % alphabetSize;
+        }
+        return cmp;
+    }
+
+    /**
+     * Tries to merge the given blue state into the given red state. If the merge is possible, the PTA is modified to
+     * represent the merged automaton and the merge has to be finished by either calling {@link #rollback()} or {@link
+     * #commit(IntConsumer)}. Otherwise, all modifications are undone.
+     *
+     * @param qr
+     *         the red state (i.e., the merge target)
+     * @param qb
+     *         the blue state (i.e., the merge source)
+     *
+     * @return {@code true} if the merge was successful, {@code false} otherwise
+     */
+    public boolean merge(int qr, int qb) {
+        if (active) {
+            throw new IllegalStateException("The previous merge has neither been committed nor rolled back");
+        }
+        if (!isRed(qr)) {
+            throw new IllegalArgumentException("Merge target must be a red state");
+        }
+        if (!isBlue(qb)) {
+            throw new IllegalArgumentException("Merge source must be a blue state");
+        }
+
+        this.active = true;
+        this.numSampleEndCollisions = 0;
+        nextEpoch();
+
+        setSuccessor(parentSlots[qb], qr);
+
+        if (!fold(qr, qb)) {
+            rollback();
+            return false;
+        }
+
+        while (stackSize > 0) {
+            int top = stackSize - 1;
+            int i = ++stackI[top];
+
+            if (i == alphabetSize) {
+                stackSize--;
+                continue;
+            }
+
+            int rSucc = successors[stackR[top] * alphabetSize + i];
+            if (rSucc != NO_STATE) {
+                int qSlot = stackQ[top] * alphabetSize + i;
+                int qSucc = successors[qSlot];
+                if (qSucc != NO_STATE) {
+                    if (!fold(qSucc, rSucc)) {
+                        rollback();
+                        return false;
+                    }
+                } else {
+                    setSuccessor(qSlot, rSucc);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Convenience method for checking whether a merge is possible, without modifying the PTA.
+     *
+     * @param qr
+     *         the red state (i.e., the merge target)
+     * @param qb
+     *         the blue state (i.e., the merge source)
+     *
+     * @return {@code true} if the merge is possible, {@code false} otherwise
+     */
+    public boolean isMergeable(int qr, int qb) {
+        if (merge(qr, qb)) {
+            rollback();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the number of state pairs folded by the current merge in which both states are the end of at least one
+     * sample (see {@link RedBlueMerge#getNumSampleEndCollisions()}).
+     *
+     * @return the number of folds of two sample-ending states
+     */
+    public long getNumSampleEndCollisions() {
+        checkActive();
+        return numSampleEndCollisions;
+    }
+
+    /**
+     * Retrieves the number of states that have been folded into other states by the current merge.
+     *
+     * @return the number of folded states
+     *
+     * @see #getFoldedState(int)
+     */
+    public int getNumFoldedStates() {
+        checkActive();
+        return numFolded;
+    }
+
+    /**
+     * Retrieves a state that has been folded into another state by the current merge. Folded states are no longer
+     * reachable, but still hold the properties and counts they had prior to the merge.
+     *
+     * @param index
+     *         the index of the folded state, between {@code 0} and {@link #getNumFoldedStates()} (exclusive)
+     *
+     * @return the folded state
+     */
+    public int getFoldedState(int index) {
+        checkActive();
+        return foldedStates[index];
+    }
+
+    /**
+     * Retrieves the number of (still reachable) states whose properties, counts or successors have been modified by
+     * the current merge, i.e. the states other states have been folded into.
+     *
+     * @return the number of modified states
+     *
+     * @see #getModifiedState(int)
+     */
+    public int getNumModifiedStates() {
+        checkActive();
+        return numModified;
+    }
+
+    /**
+     * Retrieves a state that has been modified by the current merge. The values of the state prior to the merge can be
+     * queried via {@link #getOriginalNumVisits(int)}, {@link #getOriginalNumSuccessors(int)} and {@link
+     * #getOriginalStateProperty(int)}.
+     *
+     * @param index
+     *         the index of the modified state, between {@code 0} and {@link #getNumModifiedStates()} (exclusive)
+     *
+     * @return the modified state
+     */
+    public int getModifiedState(int index) {
+        checkActive();
+        return modStates[index];
+    }
+
+    public int getOriginalNumVisits(int index) {
+        checkActive();
+        return modVisits[index];
+    }
+
+    public int getOriginalNumSuccessors(int index) {
+        checkActive();
+        return modNumSuccessors[index];
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public SP getOriginalStateProperty(int index) {
+        checkActive();
+        return (SP) properties.get(modProperties[index]);
+    }
+
+    /**
+     * Undoes all modifications of the current merge, restoring the PTA to its state before the merge.
+     */
+    public void rollback() {
+        checkActive();
+
+        for (int k = logSize - 1; k >= 0; k--) {
+            int index = logIndices[k];
+            int value = logValues[k];
+
+            switch (logOps[k]) {
+                case OP_SUCC:
+                    successors[index] = value;
+                    break;
+                case OP_PROP:
+                    stateProperties[index] = value;
+                    break;
+                case OP_TRANS_PROP:
+                    assert transProperties != null;
+                    transProperties[index] = value;
+                    break;
+                case OP_COUNTS:
+                    numVisits[index] -= numVisits[value];
+                    numSampleEnds[index] -= numSampleEnds[value];
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+
+        finish();
+    }
+
+    /**
+     * Finalizes the current merge. The immediate non-red successors of red states that have been introduced by the
+     * merge become blue states, and are passed to the given consumer.
+     *
+     * @param newBlue
+     *         the consumer for the new blue states
+     */
+    public void commit(IntConsumer newBlue) {
+        checkActive();
+
+        for (int k = 0; k < logSize; k++) {
+            if (logOps[k] == OP_SUCC) {
+                int slot = logIndices[k];
+                int state = slot / alphabetSize;
+                int succ = successors[slot];
+                if (!isRed(succ)) {
+                    parentSlots[succ] = slot;
+                    if (isRed(state) && isWhite(succ)) {
+                        colors[succ] = BLUE;
+                        newBlue.accept(succ);
+                    }
+                }
+            }
+        }
+
+        finish();
+    }
+
+    public <I> void toAutomaton(MutableDeterministic<?, I, ?, ? super SP, ? super TP> automaton, Alphabet<I> alphabet) {
+        toAutomaton(automaton, alphabet, sp -> sp, tp -> tp);
+    }
+
+    public <S2, I, SP2, TP2> void toAutomaton(MutableDeterministic<S2, I, ?, ? super SP2, ? super TP2> automaton,
+                                              Alphabet<I> alphabet,
+                                              Function<? super SP, ? extends SP2> spExtractor,
+                                              Function<? super TP, ? extends TP2> tpExtractor) {
+
+        final Function<? super SP, ? extends SP2> safeSPExtractor = FunctionsUtil.safeDefault(spExtractor);
+        final Function<? super TP, ? extends TP2> safeTPExtractor = FunctionsUtil.safeDefault(tpExtractor);
+
+        final int[] states = getStates();
+        final Map<Integer, S2> resultStates = new HashMap<>();
+
+        resultStates.put(ROOT, automaton.addInitialState(safeSPExtractor.apply(getStateProperty(ROOT))));
+        for (int i = 1; i < states.length; i++) {
+            resultStates.put(states[i], automaton.addState(safeSPExtractor.apply(getStateProperty(states[i]))));
+        }
+
+        for (final int state : states) {
+            final S2 resultState = resultStates.get(state);
+            for (int i = 0; i < alphabetSize; i++) {
+                final int succ = getSuccessor(state, i);
+                if (succ != NO_STATE) {
+                    I sym = alphabet.getSymbol(i);
+                    TP2 transProp = safeTPExtractor.apply(getTransProperty(state, i));
+                    automaton.setTransition(resultState, sym, resultStates.get(succ), transProp);
+                }
+            }
+        }
+
+        Automata.invasiveMinimize(automaton, alphabet);
+    }
+
+    private boolean fold(int q, int r) {
+        markModified(q);
+
+        int rProp = stateProperties[r];
+        if (rProp != UNDEFINED) {
+            int qProp = stateProperties[q];
+            if (qProp == UNDEFINED) {
+                log(OP_PROP, q, UNDEFINED);
+                stateProperties[q] = rProp;
+            } else if (qProp != rProp) {
+                return false;
+            }
+        }
+
+        if (transProperties != null) {
+            int qBase = q * alphabetSize;
+            int rBase = r * alphabetSize;
+            for (int i = 0; i < alphabetSize; i++) {
+                int rTP = transProperties[rBase + i];
+                if (rTP != UNDEFINED) {
+                    int qTP = transProperties[qBase + i];
+                    if (qTP == UNDEFINED) {
+                        log(OP_TRANS_PROP, qBase + i, UNDEFINED);
+                        transProperties[qBase + i] = rTP;
+                    } else if (qTP != rTP) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        if (numSampleEnds[r] > 0 && numSampleEnds[q] > 0) {
+            numSampleEndCollisions++;
+        }
+        log(OP_COUNTS, q, r);
+        numVisits[q] += numVisits[r];
+        numSampleEnds[q] += numSampleEnds[r];
+
+        if (numFolded == foldedStates.length) {
+            foldedStates = Arrays.copyOf(foldedStates, numFolded * 2);
+        }
+        foldedStates[numFolded++] = r;
+
+        push(q, r);
+        return true;
+    }
+
+    private void setSuccessor(int slot, int succ) {
+        log(OP_SUCC, slot, successors[slot]);
+        successors[slot] = succ;
+    }
+
+    private void markModified(int state) {
+        if (marks[state] == epoch) {
+            return;
+        }
+        marks[state] = epoch;
+
+        if (numModified == modStates.length) {
+            int newCapacity = numModified * 2;
+            modStates = Arrays.copyOf(modStates, newCapacity);
+            modVisits = Arrays.copyOf(modVisits, newCapacity);
+            modProperties = Arrays.copyOf(modProperties, newCapacity);
+            modNumSuccessors = Arrays.copyOf(modNumSuccessors, newCapacity);
+        }
+        modStates[numModified] = state;
+        modVisits[numModified] = numVisits[state];
+        modProperties[numModified] = stateProperties[state];
+        modNumSuccessors[numModified] = getNumSuccessors(state);
+        numModified++;
+    }
+
+    private void nextEpoch() {
+        if (++epoch == 0) {
+            // on overflow, reset all marks so that no stale mark is mistaken for a current one
+            Arrays.fill(marks, 0);
+            epoch = 1;
+        }
+    }
+
+    private void log(byte op, int index, int oldValue) {
+        if (logSize == logOps.length) {
+            int newCapacity = logSize * 2;
+            logIndices = Arrays.copyOf(logIndices, newCapacity);
+            logValues = Arrays.copyOf(logValues, newCapacity);
+            logOps = Arrays.copyOf(logOps, newCapacity);
+        }
+        logIndices[logSize] = index;
+        logValues[logSize] = oldValue;
+        logOps[logSize] = op;
+        logSize++;
+    }
+
+    private void push(int q, int r) {
+        if (stackSize == stackI.length) {
+            int newCapacity = stackSize * 2;
+            stackQ = Arrays.copyOf(stackQ, newCapacity);
+            stackR = Arrays.copyOf(stackR, newCapacity);
+            stackI = Arrays.copyOf(stackI, newCapacity);
+        }
+        stackQ[stackSize] = q;
+        stackR[stackSize] = r;
+        stackI[stackSize] = -1;
+        stackSize++;
+    }
+
+    private void finish() {
+        logSize = 0;
+        stackSize = 0;
+        numModified = 0;
+        numFolded = 0;
+        active = false;
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("No merge in progress");
+        }
+    }
+
+    private int getOrCreateSuccessor(int state, int input) {
+        if (input < 0 || input >= alphabetSize) {
+            // otherwise, the slot of a different state would be addressed
+            throw new IllegalArgumentException("Input index " + input + " out of range");
+        }
+        int slot = state * alphabetSize + input;
+        int succ = successors[slot];
+        if (succ == NO_STATE) {
+            succ = createState(slot);
+            successors[slot] = succ;
+        }
+        return succ;
+    }
+
+    private int createState(int parentSlot) {
+        if (numStates == colors.length) {
+            grow();
+        }
+        int state = numStates++;
+        parentSlots[state] = parentSlot;
+        colors[state] = WHITE;
+        return state;
+    }
+
+    private void grow() {
+        int capacity = colors.length;
+        int newCapacity = capacity * 2;
+
+        successors = Arrays.copyOf(successors, newCapacity * alphabetSize);
+        Arrays.fill(successors, capacity * alphabetSize, newCapacity * alphabetSize, NO_STATE);
+        if (transProperties != null) {
+            transProperties = Arrays.copyOf(transProperties, newCapacity * alphabetSize);
+        }
+        stateProperties = Arrays.copyOf(stateProperties, newCapacity);
+        parentSlots = Arrays.copyOf(parentSlots, newCapacity);
+        colors = Arrays.copyOf(colors, newCapacity);
+        numVisits = Arrays.copyOf(numVisits, newCapacity);
+        numSampleEnds = Arrays.copyOf(numSampleEnds, newCapacity);
+        marks = Arrays.copyOf(marks, newCapacity);
+    }
+
+    private boolean tryMergeStateProperty(int state, @Nullable SP newSP) {
+        int newId = intern(newSP);
+        int oldId = stateProperties[state];
+        if (oldId != UNDEFINED) {
+            return oldId == newId;
+        }
+        stateProperties[state] = newId;
+        return true;
+    }
+
+    private boolean tryMergeTransitionProperty(int state, int input, @Nullable TP newTP) {
+        if (transProperties == null) {
+            transProperties = new int[colors.length * alphabetSize];
+        }
+        int slot = state * alphabetSize + input;
+        int newId = intern(newTP);
+        int oldId = transProperties[slot];
+        if (oldId != UNDEFINED) {
+            return oldId == newId;
+        }
+        transProperties[slot] = newId;
+        return true;
+    }
+
+    private int intern(@Nullable Object property) {
+        if (property == null) {
+            return UNDEFINED;
+        }
+        return propertyIds.computeIfAbsent(property, p -> {
+            properties.add(p);
+            return properties.size() - 1;
+        });
+    }
+
+    /**
+     * Updates the visit and sample end counts along the path of the given sample (see {@link BasePTA}). The path for
+     * the sample must already exist in the PTA.
+     */
+    private void countSample(int[] sample) {
+        int curr = ROOT;
+        numVisits[curr]++;
+        for (int sym : sample) {
+            curr = successors[curr * alphabetSize + sym];
+            numVisits[curr]++;
+        }
+        numSampleEnds[curr]++;
+    }
+}
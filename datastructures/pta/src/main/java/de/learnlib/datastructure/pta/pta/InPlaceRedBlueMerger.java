@@ -0,0 +1,344 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta.pta;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+
+import net.automatalib.commons.util.array.RichArray;
+
+/**
+ * A merge engine that folds a blue state into a red state directly on the {@link AbstractBlueFringePTA}, recording
+ * every modification in a compact undo log. Unlike {@link RedBlueMerge}, which copies every state it modifies, no
+ * objects are allocated for a tentative merge (apart from the amortized growth of the internal buffers). If the fold
+ * runs into a conflict it is rolled back immediately. Otherwise, the PTA represents the merged automaton until either
+ * {@link #rollback()} or {@link #commit(Consumer)} is called.
+ * <p>
+ * As the PTA is modified in place, a merger must not be used concurrently with any other access to the PTA, which
+ * especially rules out evaluating several merges in parallel. Instances may (and should) be re-used for subsequent
+ * merges on the same PTA.
+ *
+ * @param <SP>
+ *         state property type
+ * @param <TP>
+ *         transition property type
+ * @param <S>
+ *         state type
+ */
+public class InPlaceRedBlueMerger<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S>> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // undo log operations, the index of a modified successor/transition property is stored in the upper bits
+    private static final int OP_BITS = 3;
+    private static final int OP_MASK = (1 << OP_BITS) - 1;
+    private static final int OP_SUCC = 0;
+    private static final int OP_SUCC_ARRAY = 1;
+    private static final int OP_PROP = 2;
+    private static final int OP_TRANS_PROP = 3;
+    private static final int OP_TRANS_PROP_ARRAY = 4;
+    private static final int OP_COUNTS = 5;
+
+    private final int alphabetSize;
+
+    private Object[] logStates = new Object[INITIAL_CAPACITY];
+    private Object[] logValues = new Object[INITIAL_CAPACITY];
+    private int[] logOps = new int[INITIAL_CAPACITY];
+    private int logSize;
+
+    private Object[] stackQ = new Object[INITIAL_CAPACITY];
+    private Object[] stackR = new Object[INITIAL_CAPACITY];
+    private int[] stackI = new int[INITIAL_CAPACITY];
+    private int stackSize;
+
+    private boolean active;
+    private long numSampleEndCollisions;
+
+    /**
+     * Constructor.
+     *
+     * @param alphabetSize
+     *         the size of the input alphabet of the PTAs this merger operates on
+     */
+    public InPlaceRedBlueMerger(@Nonnegative int alphabetSize) {
+        this.alphabetSize = alphabetSize;
+    }
+
+    /**
+     * Tries to merge the given blue state into the given red state. If the merge is possible, the PTA is modified to
+     * represent the merged automaton and the merge has to be finished by either calling {@link #rollback()} or {@link
+     * #commit(Consumer)}. Otherwise, all modifications are undone.
+     *
+     * @param qr
+     *         the red state (i.e., the merge target)
+     * @param qb
+     *         the blue state (i.e., the merge source)
+     *
+     * @return {@code true} if the merge was successful, {@code false} otherwise
+     */
+    public boolean merge(S qr, S qb) {
+        if (active) {
+            throw new IllegalStateException("The previous merge has neither been committed nor rolled back");
+        }
+        if (!qr.isRed()) {
+            throw new IllegalArgumentException("Merge target must be a red state");
+        }
+        if (!qb.isBlue()) {
+            throw new IllegalArgumentException("Merge source must be a blue state");
+        }
+
+        this.active = true;
+        this.numSampleEndCollisions = 0;
+
+        assert qb.parent != null;
+        setSuccessor(qb.parent, qb.parentInput, qr);
+
+        if (!fold(qr, qb)) {
+            rollback();
+            return false;
+        }
+
+        while (stackSize > 0) {
+            int top = stackSize - 1;
+            int i = ++stackI[top];
+
+            if (i == alphabetSize) {
+                stackQ[top] = null;
+                stackR[top] = null;
+                stackSize--;
+                continue;
+            }
+
+            @SuppressWarnings("unchecked")
+            S q = (S) stackQ[top];
+            @SuppressWarnings("unchecked")
+            S r = (S) stackR[top];
+
+            S rSucc = r.getSuccessor(i);
+            if (rSucc != null) {
+                S qSucc = q.getSuccessor(i);
+                if (qSucc != null) {
+                    if (!fold(qSucc, rSucc)) {
+                        rollback();
+                        return false;
+                    }
+                } else {
+                    setSuccessor(q, i, rSucc);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Convenience method for checking whether a merge is possible, without modifying the PTA.
+     *
+     * @param qr
+     *         the red state (i.e., the merge target)
+     * @param qb
+     *         the blue state (i.e., the merge source)
+     *
+     * @return {@code true} if the merge is possible, {@code false} otherwise
+     */
+    public boolean isMergeable(S qr, S qb) {
+        if (merge(qr, qb)) {
+            rollback();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the number of state pairs folded by the current merge in which both states are the end of at least one
+     * sample (see {@link RedBlueMerge#getNumSampleEndCollisions()}).
+     *
+     * @return the number of folds of two sample-ending states
+     */
+    public long getNumSampleEndCollisions() {
+        checkActive();
+        return numSampleEndCollisions;
+    }
+
+    /**
+     * Undoes all modifications of the current merge, restoring the PTA to its state before the merge.
+     */
+    @SuppressWarnings("unchecked")
+    public void rollback() {
+        checkActive();
+
+        for (int k = logSize - 1; k >= 0; k--) {
+            S state = (S) logStates[k];
+            Object value = logValues[k];
+            int code = logOps[k];
+            int index = code >>> OP_BITS;
+
+            switch (code & OP_MASK) {
+                case OP_SUCC:
+                    state.successors.update(index, (S) value);
+                    break;
+                case OP_SUCC_ARRAY:
+                    state.successors = null;
+                    break;
+                case OP_PROP:
+                    state.property = (SP) value;
+                    break;
+                case OP_TRANS_PROP:
+                    state.transProperties.update(index, (TP) value);
+                    break;
+                case OP_TRANS_PROP_ARRAY:
+                    state.transProperties = null;
+                    break;
+                case OP_COUNTS:
+                    S folded = (S) value;
+                    state.numVisits -= folded.numVisits;
+                    state.numSampleEnds -= folded.numSampleEnds;
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+
+        finish();
+    }
+
+    /**
+     * Finalizes the current merge. The immediate non-red successors of red states that have been introduced by the
+     * merge become blue states, and are passed to the given consumer.
+     *
+     * @param newFrontierConsumer
+     *         the consumer for the new blue states
+     */
+    @SuppressWarnings("unchecked")
+    public void commit(Consumer<? super PTATransition<S>> newFrontierConsumer) {
+        checkActive();
+
+        for (int k = 0; k < logSize; k++) {
+            if ((logOps[k] & OP_MASK) == OP_SUCC) {
+                S state = (S) logStates[k];
+                int index = logOps[k] >>> OP_BITS;
+                S succ = state.getSuccessor(index);
+                if (!succ.isRed()) {
+                    succ.parent = state;
+                    succ.parentInput = index;
+                    if (state.isRed() && succ.isWhite()) {
+                        newFrontierConsumer.accept(succ.makeBlue());
+                    }
+                }
+            }
+        }
+
+        finish();
+    }
+
+    private boolean fold(S q, S r) {
+        SP rProp = r.property;
+        if (rProp != null) {
+            SP qProp = q.property;
+            if (qProp == null) {
+                log(q, OP_PROP, 0, null);
+                q.property = rProp;
+            } else if (!Objects.equals(qProp, rProp)) {
+                return false;
+            }
+        }
+
+        RichArray<TP> rTPs = r.transProperties;
+        if (rTPs != null) {
+            for (int i = 0; i < alphabetSize; i++) {
+                TP rTP = rTPs.get(i);
+                if (rTP != null) {
+                    if (q.transProperties == null) {
+                        log(q, OP_TRANS_PROP_ARRAY, 0, null);
+                        q.transProperties = new RichArray<>(alphabetSize);
+                    }
+                    TP qTP = q.transProperties.get(i);
+                    if (qTP == null) {
+                        log(q, OP_TRANS_PROP, i, null);
+                        q.transProperties.update(i, rTP);
+                    } else if (!Objects.equals(qTP, rTP)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        if (r.numSampleEnds > 0 && q.numSampleEnds > 0) {
+            numSampleEndCollisions++;
+        }
+        log(q, OP_COUNTS, 0, r);
+        q.numVisits += r.numVisits;
+        q.numSampleEnds += r.numSampleEnds;
+
+        push(q, r);
+        return true;
+    }
+
+    private void setSuccessor(S state, int index, S succ) {
+        if (state.successors == null) {
+            log(state, OP_SUCC_ARRAY, 0, null);
+            state.successors = new RichArray<>(alphabetSize);
+        }
+        log(state, OP_SUCC, index, state.successors.get(index));
+        state.successors.update(index, succ);
+    }
+
+    private void log(S state, int op, int index, @Nullable Object oldValue) {
+        if (logSize == logOps.length) {
+            int newCapacity = logSize * 2;
+            logStates = Arrays.copyOf(logStates, newCapacity);
+            logValues = Arrays.copyOf(logValues, newCapacity);
+            logOps = Arrays.copyOf(logOps, newCapacity);
+        }
+        logStates[logSize] = state;
+        logValues[logSize] = oldValue;
+        logOps[logSize] = (index << OP_BITS) | op;
+        logSize++;
+    }
+
+    private void push(S q, S r) {
+        if (stackSize == stackI.length) {
+            int newCapacity = stackSize * 2;
+            stackQ = Arrays.copyOf(stackQ, newCapacity);
+            stackR = Arrays.copyOf(stackR, newCapacity);
+            stackI = Arrays.copyOf(stackI, newCapacity);
+        }
+        stackQ[stackSize] = q;
+        stackR[stackSize] = r;
+        stackI[stackSize] = -1;
+        stackSize++;
+    }
+
+    private void finish() {
+        Arrays.fill(logStates, 0, logSize, null);
+        Arrays.fill(logValues, 0, logSize, null);
+        Arrays.fill(stackQ, 0, stackSize, null);
+        Arrays.fill(stackR, 0, stackSize, null);
+        logSize = 0;
+        stackSize = 0;
+        active = false;
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("No merge in progress");
+        }
+    }
+}
@@ -17,14 +17,21 @@ package de.learnlib.datastructure.pta.pta;
 
 import java.awt.Color;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.Sets;
 import net.automatalib.automata.UniversalDeterministicAutomaton;
 import net.automatalib.commons.util.Pair;
@@ -36,10 +43,17 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
     private final RichArray<S>[] succMod;
     private final RichArray<TP>[] transPropMod;
     private final RichArray<SP> propMod;
+    private final int[] visitsMod;
+    private final int[] sampleEndsMod;
+    private final boolean[] redVisited;
+    private final Map<S, int[]> countsMod;
+    private final List<S> foldedStates;
+    private final List<Pair<S, S>> copies;
     private final int alphabetSize;
     private final S qr;
     private final S qb;
     private boolean merged;
+    private long numSampleEndCollisions;
 
     @SuppressWarnings("unchecked")
     public RedBlueMerge(AbstractBlueFringePTA<SP, TP, S> pta, S qr, S qb) {
@@ -56,6 +70,12 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
         this.succMod = new RichArray[numRedStates];
         this.transPropMod = new RichArray[numRedStates];
         this.propMod = new RichArray<>(numRedStates);
+        this.visitsMod = new int[numRedStates];
+        this.sampleEndsMod = new int[numRedStates];
+        this.redVisited = new boolean[numRedStates];
+        this.countsMod = new HashMap<>();
+        this.foldedStates = new ArrayList<>();
+        this.copies = new ArrayList<>();
         this.alphabetSize = pta.alphabetSize;
 
         this.qr = qr;
@@ -75,6 +95,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
         if (!mergeRedProperties(qr, qb)) {
             return false;
         }
+        foldCounts(qr, qb);
         updateRedTransition(qb.parent, qb.parentInput, qr);
 
         Deque<FoldRecord<S>> stack = new ArrayDeque<>();
@@ -136,6 +157,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
                         }
                     }
 
+                    foldCounts(qSucc, rSucc);
                     stack.push(new FoldRecord<>(qSucc, rSucc));
                 } else {
                     if (q.isRed()) {
@@ -153,7 +175,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
     }
 
     private S cloneTopSucc(S succ, int i, Deque<FoldRecord<S>> stack, RichArray<TP> newTPs) {
-        S succClone = (newTPs != null) ? succ.copy(newTPs) : succ.copy();
+        S succClone = copy(succ, newTPs);
         if (succClone == succ) {
             return succ;
         }
@@ -170,7 +192,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
     private S cloneTop(S topState, Deque<FoldRecord<S>> stack) {
         assert !topState.isRed();
 
-        S topClone = topState.copy();
+        S topClone = copy(topState, null);
         if (topClone == topState) {
             return topState;
         }
@@ -186,7 +208,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
         S currSrc = currRec.q;
 
         while (!currSrc.isRed()) {
-            S currSrcClone = currSrc.copy();
+            S currSrcClone = copy(currSrc, null);
             currSrcClone.successors.update(currRec.i, currTgt);
             if (currSrcClone == currSrc) {
                 return topClone; // we're done
@@ -205,6 +227,169 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
         return topClone;
     }
 
+    /**
+     * Returns a private copy of the given state that may be modified by this merge. States that already are copies are
+     * not copied again, but updated in-place, since they are not visible outside of this merge.
+     */
+    private S copy(S state, @Nullable RichArray<TP> newTPs) {
+        if (state.isCopy) {
+            if (newTPs != null) {
+                state.transProperties = newTPs;
+            }
+            return state;
+        }
+        S copy = (newTPs != null) ? state.copy(newTPs) : state.copy();
+        copy.isCopy = true;
+        copies.add(new Pair<>(state, copy));
+        int[] counts = countsMod.remove(state);
+        if (counts != null) {
+            countsMod.put(copy, counts);
+        }
+        return copy;
+    }
+
+    private void foldCounts(S q, S r) {
+        foldedStates.add(r);
+        if (r.numSampleEnds > 0 && getNumSampleEnds(q) > 0) {
+            numSampleEndCollisions++;
+        }
+        if (q.isRed()) {
+            redVisited[q.id] = true;
+            visitsMod[q.id] += r.numVisits;
+            sampleEndsMod[q.id] += r.numSampleEnds;
+        } else {
+            // non-red states are only copied if their properties change, so their counts are kept aside
+            int[] counts = countsMod.computeIfAbsent(q, k -> new int[2]);
+            counts[0] += r.numVisits;
+            counts[1] += r.numSampleEnds;
+        }
+    }
+
+    /**
+     * Retrieves the number of samples visiting the given state of the merged automaton (see {@link
+     * AbstractBasePTAState#getNumVisits()}).
+     *
+     * @param state
+     *         a state of the merged automaton
+     *
+     * @return the accumulated number of samples visiting the given state
+     */
+    public int getNumVisits(S state) {
+        if (isTracked(state)) {
+            return state.numVisits + visitsMod[state.id];
+        }
+        int[] counts = countsMod.get(state);
+        return (counts != null) ? state.numVisits + counts[0] : state.numVisits;
+    }
+
+    /**
+     * Retrieves the number of samples ending in the given state of the merged automaton (see {@link
+     * AbstractBasePTAState#getNumSampleEnds()}).
+     *
+     * @param state
+     *         a state of the merged automaton
+     *
+     * @return the accumulated number of samples ending in the given state
+     */
+    public int getNumSampleEnds(S state) {
+        if (isTracked(state)) {
+            return state.numSampleEnds + sampleEndsMod[state.id];
+        }
+        int[] counts = countsMod.get(state);
+        return (counts != null) ? state.numSampleEnds + counts[1] : state.numSampleEnds;
+    }
+
+    /**
+     * Retrieves the number of state pairs folded by this merge in which both states are the end of at least one sample.
+     * Each such fold reduces the number of (sample-ending) states by one, which allows to compute score differences
+     * (e.g. of the EDSM heuristic) without re-running the samples on the merged automaton.
+     *
+     * @return the number of folds of two sample-ending states
+     */
+    public long getNumSampleEndCollisions() {
+        checkMerged();
+        return numSampleEndCollisions;
+    }
+
+    /**
+     * Retrieves the states of the PTA that are folded into other states by this merge, i.e. the states that are no
+     * longer part of the merged automaton.
+     *
+     * @return the states folded by this merge
+     */
+    public List<S> getFoldedStates() {
+        checkMerged();
+        return Collections.unmodifiableList(foldedStates);
+    }
+
+    /**
+     * Retrieves the states of the PTA whose properties, successors, or counts are changed by this merge. Each entry
+     * consists of the original state of the PTA and its representative in the merged automaton (see {@link
+     * #toMergedAutomaton()}). Together with {@link #getFoldedStates()}, this describes the full difference between the
+     * PTA and the merged automaton.
+     *
+     * @return the states modified by this merge, along with their representatives in the merged automaton
+     */
+    public List<Pair<S, S>> getModifiedStates() {
+        checkMerged();
+        List<Pair<S, S>> result = new ArrayList<>(copies);
+        for (int i = 0; i < succMod.length; i++) {
+            if (succMod[i] != null || transPropMod[i] != null || propMod.get(i) != null || visitsMod[i] != 0 ||
+                sampleEndsMod[i] != 0) {
+                S redState = pta.redStates.get(i);
+                result.add(new Pair<>(redState, redState));
+            }
+        }
+        for (S state : countsMod.keySet()) {
+            if (!state.isCopy) {
+                result.add(new Pair<>(state, state));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves all states of the PTA on which the outcome of this merge depends, i.e. the folded states (see {@link
+     * #getFoldedStates()}), the modified states (see {@link #getModifiedStates()}), and the red states that have been
+     * visited by the fold without being modified. As long as none of these states is changed (e.g. by applying another
+     * merge) or promoted, this merge remains valid and may be applied to the PTA.
+     *
+     * @return the states this merge depends on
+     */
+    public Set<S> getAffectedStates() {
+        checkMerged();
+        Set<S> result = Sets.newHashSetWithExpectedSize(foldedStates.size() + copies.size());
+        result.addAll(foldedStates);
+        for (Pair<S, S> copy : copies) {
+            result.add(copy.getFirst());
+        }
+        for (S state : countsMod.keySet()) {
+            if (!state.isCopy) {
+                result.add(state);
+            }
+        }
+        for (int i = 0; i < redVisited.length; i++) {
+            if (redVisited[i]) {
+                result.add(pta.redStates.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether modifications of the given state are tracked by this merge. This is not the case for states that
+     * have been promoted after the merge has been computed.
+     */
+    private boolean isTracked(S state) {
+        return state.isRed() && state.id < succMod.length;
+    }
+
+    private void checkMerged() {
+        if (!this.merged) {
+            throw new IllegalStateException("#merge has not been called yet");
+        }
+    }
+
     private RichArray<TP> getTransProperties(S q) {
         if (q.isRed()) {
             int qId = q.id;
@@ -246,6 +431,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
         assert redSrc.isRed();
 
         int id = redSrc.id;
+        redVisited[id] = true;
         RichArray<S> newSuccs = succMod[id];
         if (newSuccs == null) {
             if (redSrc.successors == null) {
@@ -361,6 +547,13 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
     public void apply(AbstractBlueFringePTA<SP, TP, S> pta, Consumer<? super PTATransition<S>> newFrontierConsumer) {
         int alphabetSize = pta.alphabetSize;
 
+        for (Map.Entry<S, int[]> e : countsMod.entrySet()) {
+            S state = e.getKey();
+            int[] counts = e.getValue();
+            state.numVisits += counts[0];
+            state.numSampleEnds += counts[1];
+        }
+
         for (int i = 0; i < succMod.length; i++) {
             S redState = pta.redStates.get(i);
             assert redState.isRed();
@@ -392,6 +585,8 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
             if (newTransProps != null) {
                 redState.transProperties = newTransProps;
             }
+            redState.numVisits += visitsMod[i];
+            redState.numSampleEnds += sampleEndsMod[i];
         }
     }
 
@@ -425,9 +620,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
     }
 
     public UniversalDeterministicAutomaton<S, Integer, ?, SP, TP> toMergedAutomaton() {
-        if (!this.merged) {
-            throw new IllegalStateException("#merge has not been called yet");
-        }
+        checkMerged();
 
         return new UniversalDeterministicAutomaton<S, Integer, Pair<S, Integer>, SP, TP>() {
 
@@ -438,7 +631,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
                 final S source = transition.getFirst();
                 final Integer input = transition.getSecond();
 
-                if (source.isRed() && succMod[source.id] != null) {
+                if (isTracked(source) && succMod[source.id] != null) {
                     return succMod[source.id].get(input);
                 }
 
@@ -447,7 +640,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
 
             @Override
             public SP getStateProperty(S state) {
-                if (state.isRed() && propMod.get(state.id) != null) {
+                if (isTracked(state) && propMod.get(state.id) != null) {
                     return propMod.get(state.id);
                 }
 
@@ -459,7 +652,7 @@ public class RedBlueMerge<SP, TP, S extends AbstractBlueFringePTAState<SP, TP, S
                 final S source = transition.getFirst();
                 final Integer input = transition.getSecond();
 
-                if (source.isRed() && transPropMod[source.id] != null) {
+                if (isTracked(source) && transPropMod[source.id] != null) {
                     return transPropMod[source.id].get(input);
                 }
 
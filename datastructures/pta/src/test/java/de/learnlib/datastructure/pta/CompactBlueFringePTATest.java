@@ -0,0 +1,373 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+
+import de.learnlib.datastructure.pta.bluefringe.DefaultProcessingOrders;
+import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.CompactBlueFringePTA;
+import de.learnlib.datastructure.pta.pta.InPlaceRedBlueMerger;
+import de.learnlib.datastructure.pta.pta.PTATransition;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the {@link CompactBlueFringePTA}, which has to behave exactly like a {@link BlueFringePTA} that is
+ * modified by an {@link InPlaceRedBlueMerger}.
+ */
+@Test
+public class CompactBlueFringePTATest {
+
+    /**
+     * This test checks the merge step of Fig. 12.25 of the book "Grammatical Inference" by Colin de la Higuera.
+     */
+    @Test
+    public void testMergeAndRollback() {
+        final Alphabet<Character> alphabet = Alphabets.fromArray('a', 'b');
+        final CompactBlueFringePTA<Boolean, Void> pta = new CompactBlueFringePTA<>(alphabet.size());
+
+        for (final String w : new String[] {"aaa", "aaba", "bba", "bbaba"}) {
+            pta.addSample(Word.fromString(w).toIntArray(alphabet), true);
+        }
+        for (final String w : new String[] {"a", "bb", "aab", "aba"}) {
+            pta.addSample(Word.fromString(w).toIntArray(alphabet), false);
+        }
+
+        // the PTA works on an Integer alphabet abstraction, hence a -> 0, b -> 1
+        final int q2 = pta.getState(new int[] {0});
+        final int q3 = pta.getState(new int[] {1});
+        final int q4 = pta.getState(new int[] {0, 0});
+        final int q6 = pta.getState(new int[] {0, 0, 0});
+
+        pta.init((q) -> {});
+        pta.promote(q2, (q) -> {});
+        pta.promote(q3, (q) -> {});
+
+        final int size = pta.getStates().length;
+        final String signature = signature(pta, alphabet.size());
+
+        Assert.assertTrue(pta.merge(q3, q4));
+
+        // subtree of 3 states has been subsumed
+        Assert.assertEquals(pta.getStates().length, size - 3);
+        Assert.assertEquals(pta.getNumFoldedStates(), 3);
+        Assert.assertEquals(pta.getState(new int[] {0, 0}), q3);
+        Assert.assertEquals(pta.getState(new int[] {1, 0}), q6);
+
+        pta.rollback();
+
+        Assert.assertEquals(pta.getStates().length, size);
+        Assert.assertEquals(pta.getState(new int[] {0, 0}), q4);
+        Assert.assertEquals(signature(pta, alphabet.size()), signature);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testUnfinishedMerge() {
+        final CompactBlueFringePTA<Boolean, Void> pta = new CompactBlueFringePTA<>(1);
+        pta.addSample(new int[] {0}, true);
+
+        final int root = pta.getRoot();
+        final int succ = pta.getSuccessor(root, 0);
+
+        pta.init((q) -> {});
+        Assert.assertTrue(pta.merge(root, succ));
+        pta.merge(root, succ);
+    }
+
+    @Test
+    public void testAddAll() {
+        final int alphabetSize = 3;
+        final Random random = new Random(42);
+        final CompactBlueFringePTA<Boolean, Integer> pta = new CompactBlueFringePTA<>(alphabetSize);
+        final List<CompactBlueFringePTA<Boolean, Integer>> shards = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            shards.add(new CompactBlueFringePTA<>(alphabetSize));
+        }
+
+        for (int i = 0; i < 300; i++) {
+            final int[] sample = random.ints(random.nextInt(12), 0, alphabetSize).toArray();
+            final boolean accepted = sample.length % 3 == countZeros(sample) % 3;
+            final List<Integer> outputs = lastOutputs(sample);
+            final CompactBlueFringePTA<Boolean, Integer> shard = shards.get(i % shards.size());
+
+            pta.addSample(sample, accepted);
+            pta.addSampleWithTransitionProperties(sample, outputs);
+            shard.addSample(sample, accepted);
+            shard.addSampleWithTransitionProperties(sample, outputs);
+        }
+
+        final CompactBlueFringePTA<Boolean, Integer> union = new CompactBlueFringePTA<>(alphabetSize);
+        shards.forEach(union::addAll);
+
+        Assert.assertEquals(signature(union, alphabetSize), signature(pta, alphabetSize));
+        Assert.assertEquals(countSignature(union), countSignature(pta));
+
+        // conflicting state property
+        final CompactBlueFringePTA<Boolean, Integer> conflict = new CompactBlueFringePTA<>(alphabetSize);
+        conflict.addSample(new int[0], !pta.getStateProperty(pta.getRoot()));
+        Assert.assertThrows(IllegalArgumentException.class, () -> union.addAll(conflict));
+    }
+
+    @Test
+    public void testAddTo() {
+        final int alphabetSize = 3;
+        final Random random = new Random(42);
+        final CompactBlueFringePTA<Boolean, Integer> compactPTA = new CompactBlueFringePTA<>(alphabetSize);
+        final BlueFringePTA<Boolean, Integer> pta = new BlueFringePTA<>(alphabetSize);
+
+        for (int i = 0; i < 300; i++) {
+            final int[] sample = random.ints(random.nextInt(12), 0, alphabetSize).toArray();
+            final boolean accepted = sample.length % 3 == countZeros(sample) % 3;
+            final List<Integer> outputs = lastOutputs(sample);
+
+            compactPTA.addSample(sample, accepted);
+            compactPTA.addSampleWithTransitionProperties(sample, outputs);
+            pta.addSample(sample, accepted);
+            pta.addSampleWithTransitionProperties(sample, outputs);
+        }
+
+        final BlueFringePTA<Boolean, Integer> copy = new BlueFringePTA<>(alphabetSize);
+        compactPTA.addTo(copy);
+
+        Assert.assertEquals(signature(copy, alphabetSize), signature(pta, alphabetSize));
+        Assert.assertEquals(countSignature(copy), countSignature(pta));
+        Assert.assertEquals(signature(copy, alphabetSize), signature(compactPTA, alphabetSize));
+    }
+
+    @Test
+    public void testDFAAgainstInPlaceMerger() {
+        final int alphabetSize = 3;
+        final Random random = new Random(42);
+        final BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(alphabetSize);
+        final CompactBlueFringePTA<Boolean, Void> compactPTA = new CompactBlueFringePTA<>(alphabetSize);
+
+        for (int i = 0; i < 300; i++) {
+            final int[] sample = random.ints(random.nextInt(12), 0, alphabetSize).toArray();
+            // words whose length modulo 3 equals their number of 0s modulo 3
+            final boolean accepted = sample.length % 3 == countZeros(sample) % 3;
+            pta.addSample(sample, accepted);
+            compactPTA.addSample(sample, accepted);
+        }
+
+        checkAgainstInPlaceMerger(pta, compactPTA, alphabetSize);
+    }
+
+    @Test
+    public void testMealyAgainstInPlaceMerger() {
+        final int alphabetSize = 3;
+        final Random random = new Random(42);
+        final BlueFringePTA<Void, Integer> pta = new BlueFringePTA<>(alphabetSize);
+        final CompactBlueFringePTA<Void, Integer> compactPTA = new CompactBlueFringePTA<>(alphabetSize);
+
+        for (int i = 0; i < 300; i++) {
+            final int[] sample = random.ints(random.nextInt(12), 0, alphabetSize).toArray();
+            // output the number of 0s read so far, modulo 3
+            final List<Integer> outputs = new ArrayList<>(sample.length);
+            int zeros = 0;
+            for (int sym : sample) {
+                if (sym == 0) {
+                    zeros++;
+                }
+                outputs.add(zeros % 3);
+            }
+            pta.addSampleWithTransitionProperties(sample, outputs);
+            compactPTA.addSampleWithTransitionProperties(sample, outputs);
+        }
+
+        checkAgainstInPlaceMerger(pta, compactPTA, alphabetSize);
+    }
+
+    /*
+     * Runs the blue-fringe loop on the two given (identical) PTAs, and checks that both behave identically.
+     */
+    private static <SP, TP> void checkAgainstInPlaceMerger(BlueFringePTA<SP, TP> pta,
+                                                           CompactBlueFringePTA<SP, TP> compactPTA,
+                                                           int alphabetSize) {
+
+        final Queue<PTATransition<BlueFringePTAState<SP, TP>>> blue =
+                DefaultProcessingOrders.CANONICAL_ORDER.createWorklist();
+        final Queue<Integer> compactBlue = new PriorityQueue<>(compactPTA::canonicalCompare);
+        final InPlaceRedBlueMerger<SP, TP, BlueFringePTAState<SP, TP>> merger =
+                new InPlaceRedBlueMerger<>(alphabetSize);
+
+        pta.init(blue::offer);
+        compactPTA.init(compactBlue::offer);
+
+        PTATransition<BlueFringePTAState<SP, TP>> qbRef;
+        while ((qbRef = blue.poll()) != null) {
+            final Integer compactQb = compactBlue.poll();
+            Assert.assertNotNull(compactQb);
+
+            final BlueFringePTAState<SP, TP> qb = qbRef.getTarget();
+            final String signature = signature(compactPTA, alphabetSize);
+            Assert.assertEquals(signature, signature(pta, alphabetSize));
+            Assert.assertEquals(signature(compactPTA, compactQb, alphabetSize), signature(qb, alphabetSize));
+
+            int selected = -1;
+
+            for (int id = 0; id < pta.getNumRedStates(); id++) {
+                final boolean merged = merger.merge(pta.getRedState(id), qb);
+                final boolean compactMerged = compactPTA.merge(compactPTA.getRedState(id), compactQb);
+
+                Assert.assertEquals(compactMerged, merged);
+
+                if (merged) {
+                    Assert.assertEquals(compactPTA.getNumSampleEndCollisions(), merger.getNumSampleEndCollisions());
+                    Assert.assertEquals(signature(compactPTA, alphabetSize), signature(pta, alphabetSize));
+                    merger.rollback();
+                    compactPTA.rollback();
+                    if (selected < 0) {
+                        selected = id;
+                    }
+                }
+
+                Assert.assertEquals(signature(compactPTA, alphabetSize), signature);
+            }
+
+            if (selected < 0) {
+                pta.promote(qb, blue::offer);
+                compactPTA.promote(compactQb, compactBlue::offer);
+            } else {
+                Assert.assertTrue(merger.merge(pta.getRedState(selected), qb));
+                Assert.assertTrue(compactPTA.merge(compactPTA.getRedState(selected), compactQb));
+                merger.commit(blue::offer);
+                compactPTA.commit(compactBlue::offer);
+            }
+        }
+
+        Assert.assertTrue(compactBlue.isEmpty());
+        Assert.assertEquals(compactPTA.getNumRedStates(), pta.getNumRedStates());
+        Assert.assertEquals(signature(compactPTA, alphabetSize), signature(pta, alphabetSize));
+    }
+
+    /*
+     * Outputs of the (at most) two last transitions of the given sample, which only depend on the position and the
+     * symbol of the respective transition.
+     */
+    private static List<Integer> lastOutputs(int[] sample) {
+        final List<Integer> outputs = new ArrayList<>();
+        for (int i = Math.max(sample.length - 2, 0); i < sample.length; i++) {
+            outputs.add((i + sample[i]) % 2);
+        }
+        return outputs;
+    }
+
+    private static int countZeros(int[] sample) {
+        int result = 0;
+        for (int sym : sample) {
+            if (sym == 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static String signature(BlueFringePTA<?, ?> pta, int alphabetSize) {
+        return signature(pta.getRoot(), alphabetSize);
+    }
+
+    private static String signature(CompactBlueFringePTA<?, ?> pta, int alphabetSize) {
+        return signature(pta, pta.getRoot(), alphabetSize);
+    }
+
+    /*
+     * Computes a string representation of the (sub-)automaton reachable from the given state, which is identical for
+     * isomorphic automata.
+     */
+    private static String signature(BlueFringePTAState<?, ?> init, int alphabetSize) {
+        final Map<BlueFringePTAState<?, ?>, Integer> ids = new HashMap<>();
+        final Queue<BlueFringePTAState<?, ?>> queue = new ArrayDeque<>();
+        final StringBuilder sb = new StringBuilder();
+
+        ids.put(init, 0);
+        queue.add(init);
+
+        BlueFringePTAState<?, ?> curr;
+        while ((curr = queue.poll()) != null) {
+            sb.append(curr.getStateProperty()).append(':');
+            for (int i = 0; i < alphabetSize; i++) {
+                final BlueFringePTAState<?, ?> succ = curr.getSuccessor(i);
+                if (succ != null && !ids.containsKey(succ)) {
+                    ids.put(succ, ids.size());
+                    queue.add(succ);
+                }
+                sb.append(succ == null ? "-" : ids.get(succ)).append('/').append(curr.getTransProperty(i)).append(',');
+            }
+            sb.append(';');
+        }
+
+        return sb.toString();
+    }
+
+    private static String signature(CompactBlueFringePTA<?, ?> pta, int init, int alphabetSize) {
+        final Map<Integer, Integer> ids = new HashMap<>();
+        final Queue<Integer> queue = new ArrayDeque<>();
+        final StringBuilder sb = new StringBuilder();
+
+        ids.put(init, 0);
+        queue.add(init);
+
+        Integer curr;
+        while ((curr = queue.poll()) != null) {
+            sb.append(pta.getStateProperty(curr)).append(':');
+            for (int i = 0; i < alphabetSize; i++) {
+                final int succ = pta.getSuccessor(curr, i);
+                if (succ != CompactBlueFringePTA.NO_STATE && !ids.containsKey(succ)) {
+                    ids.put(succ, ids.size());
+                    queue.add(succ);
+                }
+                sb.append(succ == CompactBlueFringePTA.NO_STATE ? "-" : ids.get(succ))
+                  .append('/')
+                  .append(pta.getTransProperty(curr, i))
+                  .append(',');
+            }
+            sb.append(';');
+        }
+
+        return sb.toString();
+    }
+
+    /*
+     * Lists the sample counts of all states in breadth-first order. Only meaningful for plain prefix trees.
+     */
+    private static String countSignature(BlueFringePTA<?, ?> pta) {
+        final StringBuilder sb = new StringBuilder();
+        pta.bfsStates()
+           .forEach(s -> sb.append(s.getNumVisits()).append('/').append(s.getNumSampleEnds()).append(','));
+        return sb.toString();
+    }
+
+    private static String countSignature(CompactBlueFringePTA<?, ?> pta) {
+        final StringBuilder sb = new StringBuilder();
+        for (final int s : pta.getStates()) {
+            sb.append(pta.getNumVisits(s)).append('/').append(pta.getNumSampleEnds(s)).append(',');
+        }
+        return sb.toString();
+    }
+}
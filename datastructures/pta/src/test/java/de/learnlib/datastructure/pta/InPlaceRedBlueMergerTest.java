@@ -0,0 +1,220 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+
+import de.learnlib.datastructure.pta.bluefringe.DefaultProcessingOrders;
+import de.learnlib.datastructure.pta.pta.BlueFringePTA;
+import de.learnlib.datastructure.pta.pta.BlueFringePTAState;
+import de.learnlib.datastructure.pta.pta.InPlaceRedBlueMerger;
+import de.learnlib.datastructure.pta.pta.PTATransition;
+import de.learnlib.datastructure.pta.pta.RedBlueMerge;
+import net.automatalib.automata.UniversalDeterministicAutomaton;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the {@link InPlaceRedBlueMerger}, which has to behave exactly like the (copy-on-write) {@link
+ * RedBlueMerge}.
+ */
+@Test
+public class InPlaceRedBlueMergerTest {
+
+    /**
+     * This test checks the merge step of Fig. 12.25 of the book "Grammatical Inference" by Colin de la Higuera.
+     */
+    @Test
+    public void testMergeAndRollback() {
+        final Alphabet<Character> alphabet = Alphabets.fromArray('a', 'b');
+        final BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(alphabet.size());
+
+        for (final String w : new String[] {"aaa", "aaba", "bba", "bbaba"}) {
+            pta.addSample(Word.fromString(w).toIntArray(alphabet), true);
+        }
+        for (final String w : new String[] {"a", "bb", "aab", "aba"}) {
+            pta.addSample(Word.fromString(w).toIntArray(alphabet), false);
+        }
+
+        // the PTA works on an Integer alphabet abstraction, hence a -> 0, b -> 1
+        final BlueFringePTAState<Boolean, Void> q2 = pta.getState(Word.fromSymbols(0));
+        final BlueFringePTAState<Boolean, Void> q3 = pta.getState(Word.fromSymbols(1));
+        final BlueFringePTAState<Boolean, Void> q4 = pta.getState(Word.fromSymbols(0, 0));
+        final BlueFringePTAState<Boolean, Void> q6 = pta.getState(Word.fromSymbols(0, 0, 0));
+
+        pta.init((q) -> {});
+        pta.promote(q2, (q) -> {});
+        pta.promote(q3, (q) -> {});
+
+        final int size = pta.size();
+        final String signature = signature(pta, alphabet.size());
+        final String mergedSignature = signature(pta.tryMerge(q3, q4).toMergedAutomaton(), alphabet.size());
+        final InPlaceRedBlueMerger<Boolean, Void, BlueFringePTAState<Boolean, Void>> merger =
+                new InPlaceRedBlueMerger<>(alphabet.size());
+
+        Assert.assertTrue(merger.merge(q3, q4));
+
+        // subtree of 3 states has been subsumed
+        Assert.assertEquals(pta.size(), size - 3);
+        Assert.assertEquals(pta.getState(Word.fromSymbols(0, 0)), q3);
+        Assert.assertEquals(pta.getState(Word.fromSymbols(1, 0)), q6);
+        Assert.assertEquals(signature(pta, alphabet.size()), mergedSignature);
+
+        merger.rollback();
+
+        Assert.assertEquals(pta.size(), size);
+        Assert.assertEquals(pta.getState(Word.fromSymbols(0, 0)), q4);
+        Assert.assertEquals(signature(pta, alphabet.size()), signature);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testUnfinishedMerge() {
+        final BlueFringePTA<Boolean, Void> pta = new BlueFringePTA<>(1);
+        pta.addSample(new int[] {0}, true);
+
+        final BlueFringePTAState<Boolean, Void> root = pta.getRoot();
+        final BlueFringePTAState<Boolean, Void> succ = root.getSuccessor(0);
+        final InPlaceRedBlueMerger<Boolean, Void, BlueFringePTAState<Boolean, Void>> merger =
+                new InPlaceRedBlueMerger<>(1);
+
+        pta.init((q) -> {});
+        Assert.assertTrue(merger.merge(root, succ));
+        merger.merge(root, succ);
+    }
+
+    /**
+     * Runs the blue-fringe loop on two identical PTAs, one of them being modified by {@link RedBlueMerge}s and the
+     * other by an {@link InPlaceRedBlueMerger}, and checks that both behave identically.
+     */
+    @Test
+    public void testAgainstCopyOnWrite() {
+        final int alphabetSize = 3;
+        final Random random = new Random(42);
+        final BlueFringePTA<Boolean, Void> cowPTA = new BlueFringePTA<>(alphabetSize);
+        final BlueFringePTA<Boolean, Void> inPlacePTA = new BlueFringePTA<>(alphabetSize);
+
+        for (int i = 0; i < 300; i++) {
+            final int[] sample = random.ints(random.nextInt(12), 0, alphabetSize).toArray();
+            // words whose length modulo 3 equals their number of 0s modulo 3
+            final boolean accepted = sample.length % 3 == countZeros(sample) % 3;
+            cowPTA.addSample(sample, accepted);
+            inPlacePTA.addSample(sample, accepted);
+        }
+
+        final Queue<PTATransition<BlueFringePTAState<Boolean, Void>>> cowBlue =
+                DefaultProcessingOrders.CANONICAL_ORDER.createWorklist();
+        final Queue<PTATransition<BlueFringePTAState<Boolean, Void>>> inPlaceBlue =
+                DefaultProcessingOrders.CANONICAL_ORDER.createWorklist();
+        final InPlaceRedBlueMerger<Boolean, Void, BlueFringePTAState<Boolean, Void>> merger =
+                new InPlaceRedBlueMerger<>(alphabetSize);
+
+        cowPTA.init(cowBlue::offer);
+        inPlacePTA.init(inPlaceBlue::offer);
+
+        PTATransition<BlueFringePTAState<Boolean, Void>> cowRef;
+        while ((cowRef = cowBlue.poll()) != null) {
+            final PTATransition<BlueFringePTAState<Boolean, Void>> inPlaceRef = inPlaceBlue.poll();
+            Assert.assertNotNull(inPlaceRef);
+
+            final BlueFringePTAState<Boolean, Void> cowQb = cowRef.getTarget();
+            final BlueFringePTAState<Boolean, Void> inPlaceQb = inPlaceRef.getTarget();
+            final String signature = signature(inPlacePTA, alphabetSize);
+            Assert.assertEquals(signature, signature(cowPTA, alphabetSize));
+
+            RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> selected = null;
+
+            for (int id = 0; id < cowPTA.getNumRedStates(); id++) {
+                final RedBlueMerge<Boolean, Void, BlueFringePTAState<Boolean, Void>> merge =
+                        cowPTA.tryMerge(cowPTA.getRedState(id), cowQb);
+                final boolean merged = merger.merge(inPlacePTA.getRedState(id), inPlaceQb);
+
+                Assert.assertEquals(merged, merge != null);
+
+                if (merged) {
+                    Assert.assertEquals(merger.getNumSampleEndCollisions(), merge.getNumSampleEndCollisions());
+                    Assert.assertEquals(signature(inPlacePTA, alphabetSize),
+                                        signature(merge.toMergedAutomaton(), alphabetSize));
+                    merger.rollback();
+                    if (selected == null) {
+                        selected = merge;
+                    }
+                }
+
+                Assert.assertEquals(signature(inPlacePTA, alphabetSize), signature);
+            }
+
+            if (selected == null) {
+                cowPTA.promote(cowQb, cowBlue::offer);
+                inPlacePTA.promote(inPlaceQb, inPlaceBlue::offer);
+            } else {
+                selected.apply(cowPTA, cowBlue::offer);
+                final int redId = cowPTA.getRedStates().indexOf(selected.getRedState());
+                Assert.assertTrue(merger.merge(inPlacePTA.getRedState(redId), inPlaceQb));
+                merger.commit(inPlaceBlue::offer);
+            }
+        }
+
+        Assert.assertTrue(inPlaceBlue.isEmpty());
+        Assert.assertEquals(signature(inPlacePTA, alphabetSize), signature(cowPTA, alphabetSize));
+    }
+
+    private static int countZeros(int[] sample) {
+        int result = 0;
+        for (int sym : sample) {
+            if (sym == 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Computes a string representation of the given automaton, which is identical for isomorphic automata.
+     */
+    private static <S> String signature(UniversalDeterministicAutomaton<S, Integer, ?, Boolean, ?> automaton,
+                                        int alphabetSize) {
+        final Map<S, Integer> ids = new HashMap<>();
+        final Queue<S> queue = new ArrayDeque<>();
+        final S init = automaton.getInitialState();
+        final StringBuilder sb = new StringBuilder();
+
+        ids.put(init, 0);
+        queue.add(init);
+
+        S curr;
+        while ((curr = queue.poll()) != null) {
+            sb.append(automaton.getStateProperty(curr)).append(':');
+            for (int i = 0; i < alphabetSize; i++) {
+                final S succ = automaton.getSuccessor(curr, i);
+                if (succ != null && !ids.containsKey(succ)) {
+                    ids.put(succ, ids.size());
+                    queue.add(succ);
+                }
+                sb.append(succ == null ? "-" : ids.get(succ)).append(',');
+            }
+            sb.append(';');
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.datastructure.pta.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.automatalib.commons.util.Pair;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test
+public class TraceFileTest {
+
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("traces", ".bin");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Random random = new Random(42);
+        final List<Pair<int[], Boolean>> traces = new ArrayList<>();
+
+        traces.add(new Pair<>(new int[0], true));
+        for (int i = 0; i < 200; i++) {
+            traces.add(new Pair<>(random.ints(random.nextInt(20), 0, 5).toArray(), random.nextBoolean()));
+        }
+        // a trace that exceeds the window size used below
+        traces.add(new Pair<>(random.ints(100, 0, 5).toArray(), false));
+
+        TraceFile.write(file, traces);
+
+        final List<String> expected = traces.stream().map(TraceFileTest::toString).collect(Collectors.toList());
+
+        // small windows, such that records span multiple windows
+        try (Stream<Pair<int[], Boolean>> stream = TraceFile.read(file, 64)) {
+            Assert.assertEquals(stream.map(TraceFileTest::toString).collect(Collectors.toList()), expected);
+        }
+
+        try (Stream<Pair<int[], Boolean>> stream = TraceFile.read(file)) {
+            Assert.assertEquals(stream.parallel().map(TraceFileTest::toString).collect(Collectors.toList()), expected);
+        }
+    }
+
+    @Test(expectedExceptions = UncheckedIOException.class)
+    public void testTruncatedFile() throws IOException {
+        final List<Pair<int[], Boolean>> traces = new ArrayList<>();
+        traces.add(new Pair<>(new int[] {0, 1, 2}, true));
+        traces.add(new Pair<>(new int[] {2, 1, 0}, false));
+
+        TraceFile.write(file, traces);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (Stream<Pair<int[], Boolean>> stream = TraceFile.read(file)) {
+            stream.forEach(t -> {});
+        }
+    }
+
+    private static String toString(Pair<int[], Boolean> trace) {
+        return Arrays.toString(trace.getFirst()) + trace.getSecond();
+    }
+}
@@ -22,7 +22,7 @@ import net.automatalib.automata.transout.MealyMachine;
 /**
  * A {@link SUL} that implements steps by stepping through a {@link MealyMachine}.
  * <p>
- * Note: this SUL is {@link SUL#fork() forkable}.
+ * Note: this SUL is {@link SUL#fork() forkable} and supports {@link SUL#snapshot() snapshots}.
  *
  * @param <I>
  *         input symbol type
@@ -93,6 +93,16 @@ public class MealySimulatorSUL<I, O> implements SUL<I, O> {
         return new MealySimulatorSUL<>(impl.fork());
     }
 
+    @Override
+    public boolean canSnapshot() {
+        return impl.canSnapshot();
+    }
+
+    @Override
+    public SUL<I, O> snapshot() {
+        return new MealySimulatorSUL<>(impl.snapshot());
+    }
+
     /**
      * Implementation class, used to hide {@code S} and {@code T} type parameters.
      *
@@ -152,6 +162,18 @@ public class MealySimulatorSUL<I, O> implements SUL<I, O> {
         public MealySimulatorSULImpl<S, I, T, O> fork() {
             return new MealySimulatorSULImpl<>(mealy, noTransOut);
         }
+
+        @Override
+        public boolean canSnapshot() {
+            return true;
+        }
+
+        @Override
+        public MealySimulatorSULImpl<S, I, T, O> snapshot() {
+            MealySimulatorSULImpl<S, I, T, O> snapshot = new MealySimulatorSULImpl<>(mealy, noTransOut);
+            snapshot.curr = curr;
+            return snapshot;
+        }
     }
 
 }
@@ -15,14 +15,24 @@
  */
 package de.learnlib.oracle.equivalence;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Streams;
 import de.learnlib.api.oracle.EquivalenceOracle;
 import de.learnlib.api.oracle.MembershipOracle;
@@ -39,6 +49,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Being {@link Stream stream}-based, this oracle encourages the lazy computation of counterexamples, so that all
  * counterexamples do not have to be computed upfront, but only until the first valid counterexample is found.
+ * <p>
+ * Optionally, test words can be checked in a parallel pipeline (see {@link #setPipeline(Executor, int)}), where the
+ * generation of test words, the answering of queries and the comparison with the hypothesis overlap.
  *
  * @param <A>
  *         hypothesis type
@@ -56,6 +69,10 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
     private final MembershipOracle<I, D> membershipOracle;
     private final int batchSize;
 
+    @Nullable
+    private Executor pipelineExecutor;
+    private int maxBatchesInFlight;
+
     public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle) {
         this(membershipOracle, 1);
     }
@@ -67,6 +84,44 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         this.batchSize = batchSize;
     }
 
+    /**
+     * Enables the parallel pipeline mode, using twice as many batches in flight as there are available processors.
+     *
+     * @param executor
+     *         the executor for answering and checking batches of queries, or {@code null} to disable the pipeline mode
+     *
+     * @see #setPipeline(Executor, int)
+     */
+    public void setPipeline(@Nullable Executor executor) {
+        setPipeline(executor, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Enables (or disables) the parallel pipeline mode. In this mode, test words are still generated on the calling
+     * thread, but each batch of test words (see {@link #AbstractTestWordEQOracle(MembershipOracle, int)}) is answered
+     * by the membership oracle and then compared with the hypothesis in tasks executed by the given executor. As a
+     * consequence, the membership oracle has to support concurrent invocations of {@link
+     * MembershipOracle#processQueries(Collection)}, and the hypothesis has to support concurrent invocations of {@link
+     * Output#computeOutput(Iterable)}.
+     * <p>
+     * At most {@code maxBatchesInFlight} batches are generated ahead. As soon as a counterexample is confirmed, later
+     * batches are not queried anymore and the checks of in-flight batches are stopped. Batches preceding the one of the
+     * counterexample are still completed, so that the returned counterexample is the same as in the sequential mode.
+     * <p>
+     * Note that every batch constitutes a task of its own, hence the batch size should be chosen sufficiently large.
+     *
+     * @param executor
+     *         the executor for answering and checking batches of queries, or {@code null} to disable the pipeline mode
+     * @param maxBatchesInFlight
+     *         the maximum number of batches that are being processed at the same time
+     */
+    public void setPipeline(@Nullable Executor executor, @Nonnegative int maxBatchesInFlight) {
+        Preconditions.checkArgument(maxBatchesInFlight > 0);
+
+        this.pipelineExecutor = executor;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+    }
+
     @Nullable
     @Override
     public DefaultQuery<I, D> findCounterExample(A hypothesis, Collection<? extends I> inputs) {
@@ -77,6 +132,11 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         }
 
         final Stream<Word<I>> testWordStream = generateTestWords(hypothesis, inputs);
+
+        if (pipelineExecutor != null) {
+            return findCounterExampleInPipeline(hypothesis, testWordStream, pipelineExecutor);
+        }
+
         final Stream<DefaultQuery<I, D>> queryStream = testWordStream.map(DefaultQuery<I, D>::new);
         final Stream<DefaultQuery<I, D>> answeredQueryStream = answerQueries(queryStream);
 
@@ -88,6 +148,88 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         return ceStream.findFirst().orElse(null);
     }
 
+    @Nullable
+    private DefaultQuery<I, D> findCounterExampleInPipeline(A hypothesis,
+                                                            Stream<Word<I>> testWordStream,
+                                                            Executor executor) {
+        final Iterator<Word<I>> testWords = testWordStream.iterator();
+        // the index of the first batch known to contain a counterexample, later batches can be skipped
+        final AtomicLong ceBatch = new AtomicLong(Long.MAX_VALUE);
+        final Deque<CompletableFuture<DefaultQuery<I, D>>> inFlight = new ArrayDeque<>(maxBatchesInFlight);
+
+        DefaultQuery<I, D> result = null;
+        long numBatches = 0;
+
+        try {
+            while (result == null && testWords.hasNext()) {
+                final List<DefaultQuery<I, D>> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && testWords.hasNext()) {
+                    batch.add(new DefaultQuery<>(testWords.next()));
+                }
+
+                final long index = numBatches++;
+                inFlight.add(CompletableFuture.supplyAsync(() -> answerBatch(index, batch, ceBatch), executor)
+                                              .thenApplyAsync(answered -> checkBatch(index,
+                                                                                     answered,
+                                                                                     hypothesis,
+                                                                                     ceBatch), executor));
+
+                // batches are consumed in order, so that the first counterexample of the stream is returned
+                if (inFlight.size() >= maxBatchesInFlight) {
+                    result = inFlight.poll().join();
+                }
+            }
+
+            while (result == null && !inFlight.isEmpty()) {
+                result = inFlight.poll().join();
+            }
+
+            return result;
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Queries must not throw checked exceptions", e);
+        } finally {
+            // let the remaining batches finish (they will be skipped) before the oracles are used elsewhere
+            ceBatch.set(-1);
+            for (CompletableFuture<DefaultQuery<I, D>> future : inFlight) {
+                future.handle((ce, ex) -> ce).join();
+            }
+        }
+    }
+
+    @Nullable
+    private List<DefaultQuery<I, D>> answerBatch(long index, List<DefaultQuery<I, D>> batch, AtomicLong ceBatch) {
+        if (index > ceBatch.get()) {
+            return null;
+        }
+        membershipOracle.processQueries(batch);
+        return batch;
+    }
+
+    @Nullable
+    private DefaultQuery<I, D> checkBatch(long index,
+                                          @Nullable List<DefaultQuery<I, D>> batch,
+                                          A hypothesis,
+                                          AtomicLong ceBatch) {
+        if (batch == null) {
+            return null;
+        }
+
+        for (DefaultQuery<I, D> query : batch) {
+            if (index > ceBatch.get()) {
+                return null;
+            }
+
+            D hypOutput = hypothesis.computeOutput(query.getInput());
+            if (!Objects.equals(hypOutput, query.getOutput())) {
+                ceBatch.accumulateAndGet(index, Math::min);
+                return query;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Generate the stream of test words that should be used for the current equivalence check cycle.
      *
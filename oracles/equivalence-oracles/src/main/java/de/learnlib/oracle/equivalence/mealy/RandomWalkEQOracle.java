@@ -15,9 +15,25 @@
  */
 package de.learnlib.oracle.equivalence.mealy;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import de.learnlib.api.SUL;
 import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
@@ -33,6 +49,13 @@ import org.slf4j.LoggerFactory;
  * Performs a random walk over the hypothesis. A random walk restarts with a fixed probability after every step and
  * terminates after a fixed number of steps or with a counterexample. The number of steps to termination may be reset
  * for every new search.
+ * <p>
+ * If a number of walkers greater than one is specified, the SUL is {@link SUL#fork() forked} and the walkers perform
+ * independent random walks in parallel, each with a random number generator of its own (seeded by the one passed to
+ * the constructor). The walkers share the step budget, and all walkers stop as soon as one of them finds a
+ * counterexample. If several walkers find a counterexample at the same time, the shortest one is returned. The forks
+ * and the threads of the walkers are retained across searches, and should be released by calling {@link #shutdown()}
+ * once the oracle is no longer needed (idle threads terminate automatically after a while, though).
  *
  * @param <I>
  *         input symbol type
@@ -45,6 +68,8 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RandomWalkEQOracle.class);
 
+    private static final long IDLE_TIMEOUT_SECONDS = 60;
+
     /**
      * probability to restart before step.
      */
@@ -62,6 +87,15 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
      * System under learning.
      */
     private final SUL<I, O> sul;
+    /**
+     * Forks of the system under learning for additional walkers.
+     */
+    private final List<SUL<I, O>> forks;
+    /**
+     * Executor for the walkers, {@code null} if only a single walker is used.
+     */
+    @Nullable
+    private final ExecutorService executor;
     /**
      * step counter.
      */
@@ -81,10 +115,80 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
     }
 
     public RandomWalkEQOracle(double restartProbability, long maxSteps, Random random, SUL<I, O> sul) {
+        this(restartProbability, maxSteps, random, sul, 1);
+    }
+
+    /**
+     * Constructor for a (possibly) parallel random walk.
+     *
+     * @param restartProbability
+     *         probability to restart before a step
+     * @param maxSteps
+     *         maximum number of steps (of all walkers)
+     * @param resetStepCount
+     *         whether to reset the step count after every search
+     * @param random
+     *         the RNG used for seeding the RNGs of the walkers
+     * @param sul
+     *         the system under learning, which must be {@link SUL#canFork() forkable} if more than one walker is used
+     * @param numWalkers
+     *         the number of walkers
+     *
+     * @throws IllegalArgumentException
+     *         if more than one walker is requested for a SUL that cannot be forked
+     */
+    public RandomWalkEQOracle(double restartProbability,
+                              long maxSteps,
+                              boolean resetStepCount,
+                              Random random,
+                              SUL<I, O> sul,
+                              @Nonnegative int numWalkers) {
+        this(restartProbability, maxSteps, random, sul, numWalkers);
+        this.resetStepCount = resetStepCount;
+    }
+
+    private RandomWalkEQOracle(double restartProbability,
+                               long maxSteps,
+                               Random random,
+                               SUL<I, O> sul,
+                               int numWalkers) {
+        if (numWalkers > 1 && !sul.canFork()) {
+            throw new IllegalArgumentException("Parallel random walks require a forkable SUL");
+        }
+
         this.restartProbability = restartProbability;
         this.maxSteps = maxSteps;
         this.random = random;
         this.sul = sul;
+        this.forks = new ArrayList<>(Math.max(0, numWalkers - 1));
+
+        for (int i = 1; i < numWalkers; i++) {
+            this.forks.add(sul.fork());
+        }
+
+        if (numWalkers > 1) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(numWalkers,
+                                                             numWalkers,
+                                                             IDLE_TIMEOUT_SECONDS,
+                                                             TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>());
+            // do not keep the JVM alive if the oracle is not shut down explicitly
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Shuts down the executor of the walkers and releases the forks of the system under learning. Subsequent searches
+     * for counterexamples are not possible. Has no effect if only a single walker is used.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            forks.clear();
+        }
     }
 
     @Override
@@ -100,30 +204,115 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
             steps = 0;
         }
 
+        if (executor != null && executor.isShutdown()) {
+            throw new IllegalStateException("The oracle has already been shut down");
+        }
+
         if (inputs.isEmpty()) {
             LOGGER.warn("Passed empty set of inputs to equivalence oracle; no counterexample can be found!");
             return null;
         }
 
         List<? extends I> choices = CollectionsUtil.randomAccessList(inputs);
+        AtomicLong stepCounter = new AtomicLong(steps);
+
+        try {
+            if (executor == null) {
+                return walk(hypothesis,
+                            choices,
+                            sul,
+                            random,
+                            stepCounter,
+                            new AtomicBoolean(),
+                            new AtomicReference<>());
+            }
+
+            return walkInParallel(hypothesis, choices, stepCounter);
+        } finally {
+            // the counter is incremented once more by each walker that exhausts the budget
+            steps = Math.min(stepCounter.get(), maxSteps);
+        }
+    }
+
+    private <S, T> DefaultQuery<I, Word<O>> walkInParallel(MealyMachine<S, I, T, O> hypothesis,
+                                                           List<? extends I> choices,
+                                                           AtomicLong stepCounter) {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<DefaultQuery<I, Word<O>>> result = new AtomicReference<>();
+
+        List<SUL<I, O>> walkers = new ArrayList<>(forks.size() + 1);
+        walkers.add(sul);
+        walkers.addAll(forks);
+
+        assert executor != null;
+        List<Future<?>> futures = new ArrayList<>(walkers.size());
+        try {
+            for (SUL<I, O> walker : walkers) {
+                Random walkerRandom = new Random(random.nextLong());
+                futures.add(executor.submit(() -> walk(hypothesis,
+                                                       choices,
+                                                       walker,
+                                                       walkerRandom,
+                                                       stepCounter,
+                                                       done,
+                                                       result)));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Random walks must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for random walks", e);
+        } finally {
+            // stop the remaining walkers (if any) in case of an exception, and wait for them to release their SULs,
+            // which are re-used by subsequent searches
+            done.set(true);
+            for (Future<?> future : futures) {
+                try {
+                    Uninterruptibles.getUninterruptibly(future);
+                } catch (ExecutionException e) {
+                    // failures of the remaining walkers are not reported
+                }
+            }
+        }
+
+        return result.get();
+    }
+
+    /**
+     * Performs a random walk on the given SUL until the step budget is exhausted or the walk is stopped by setting the
+     * given flag. If a counterexample is found, it is reported to the given reference (which retains the shortest one)
+     * and all walkers are stopped.
+     */
+    private <S, T> DefaultQuery<I, Word<O>> walk(MealyMachine<S, I, T, O> hypothesis,
+                                                 List<? extends I> choices,
+                                                 SUL<I, O> walker,
+                                                 Random rand,
+                                                 AtomicLong stepCounter,
+                                                 AtomicBoolean done,
+                                                 AtomicReference<DefaultQuery<I, Word<O>>> result) {
         int bound = choices.size();
         S cur = hypothesis.getInitialState();
         WordBuilder<I> wbIn = new WordBuilder<>();
         WordBuilder<O> wbOut = new WordBuilder<>();
 
         boolean first = true;
-        sul.pre();
+        walker.pre();
         try {
-            while (steps < maxSteps) {
+            while (!done.get() && stepCounter.getAndIncrement() < maxSteps) {
 
                 if (first) {
                     first = false;
                 } else {
                     // restart?
-                    double restart = random.nextDouble();
+                    double restart = rand.nextDouble();
                     if (restart < restartProbability) {
-                        sul.post();
-                        sul.pre();
+                        walker.post();
+                        walker.pre();
                         cur = hypothesis.getInitialState();
                         wbIn.clear();
                         wbOut.clear();
@@ -132,11 +321,10 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
                 }
 
                 // step
-                steps++;
-                I in = choices.get(random.nextInt(bound));
+                I in = choices.get(rand.nextInt(bound));
                 O outSul;
 
-                outSul = sul.step(in);
+                outSul = walker.step(in);
 
                 T hypTrans = hypothesis.getTransition(cur, in);
                 O outHyp = hypothesis.getTransitionOutput(hypTrans);
@@ -147,13 +335,21 @@ public class RandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O> {
                 if (!outSul.equals(outHyp)) {
                     DefaultQuery<I, Word<O>> ce = new DefaultQuery<>(wbIn.toWord());
                     ce.answer(wbOut.toWord());
-                    return ce;
+                    done.set(true);
+                    return result.accumulateAndGet(ce, RandomWalkEQOracle::shorter);
                 }
                 cur = hypothesis.getSuccessor(cur, in);
             }
             return null;
         } finally {
-            sul.post();
+            walker.post();
+        }
+    }
+
+    private static <I, O> DefaultQuery<I, Word<O>> shorter(DefaultQuery<I, Word<O>> q1, DefaultQuery<I, Word<O>> q2) {
+        if (q1 == null) {
+            return q2;
         }
+        return q2.getInput().length() < q1.getInput().length() ? q2 : q1;
     }
 }
@@ -0,0 +1,155 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import net.automatalib.automata.concepts.Output;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the parallel pipeline mode of {@link AbstractTestWordEQOracle}.
+ */
+public class AbstractTestWordEQOracleTest {
+
+    private static final int NUM_TEST_WORDS = 1000;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFirstCounterexample() {
+        // the target outputs the sum of a word, the hypothesis is wrong for all words with a sum of at least 500
+        final Output<Integer, Integer> hypothesis = input -> {
+            final int sum = sum(input);
+            return sum < 500 ? sum : -1;
+        };
+
+        for (final int batchSize : new int[] {1, 7, 100}) {
+            final AtomicInteger numQueries = new AtomicInteger();
+            final TestOracle sequential = new TestOracle(new SumOracle(numQueries), batchSize);
+            final TestOracle pipelined = new TestOracle(new SumOracle(numQueries), batchSize);
+            pipelined.setPipeline(executor, 3);
+
+            final DefaultQuery<Integer, Integer> expected = sequential.findCounterExample(hypothesis, inputs());
+            final DefaultQuery<Integer, Integer> actual = pipelined.findCounterExample(hypothesis, inputs());
+
+            Assert.assertNotNull(actual);
+            Assert.assertEquals(actual.getInput(), expected.getInput());
+            Assert.assertEquals(actual.getOutput(), expected.getOutput());
+        }
+    }
+
+    @Test
+    public void testEarlyCancellation() {
+        final AtomicInteger numQueries = new AtomicInteger();
+        final TestOracle oracle = new TestOracle(new SumOracle(numQueries), 10);
+        oracle.setPipeline(executor, 4);
+
+        // every word is a counterexample
+        final DefaultQuery<Integer, Integer> ce = oracle.findCounterExample(input -> -1, inputs());
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getInput(), Word.fromLetter(0));
+        // at most the batches in flight may have been queried
+        Assert.assertTrue(numQueries.get() <= 4 * 10);
+    }
+
+    @Test
+    public void testNoCounterexample() {
+        final AtomicInteger numQueries = new AtomicInteger();
+        final TestOracle oracle = new TestOracle(new SumOracle(numQueries), 13);
+        oracle.setPipeline(executor);
+
+        Assert.assertNull(oracle.findCounterExample(AbstractTestWordEQOracleTest::sum, inputs()));
+        Assert.assertEquals(numQueries.get(), NUM_TEST_WORDS);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testExceptionPropagation() {
+        final MembershipOracle<Integer, Integer> failingOracle = queries -> {
+            throw new IllegalStateException();
+        };
+        final TestOracle oracle = new TestOracle(failingOracle, 5);
+        oracle.setPipeline(executor);
+
+        oracle.findCounterExample(AbstractTestWordEQOracleTest::sum, inputs());
+    }
+
+    private static Collection<Integer> inputs() {
+        return Alphabets.integers(0, 1);
+    }
+
+    private static int sum(Iterable<? extends Integer> input) {
+        int sum = 0;
+        for (Integer i : input) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    private static class TestOracle extends AbstractTestWordEQOracle<Output<Integer, Integer>, Integer, Integer> {
+
+        TestOracle(MembershipOracle<Integer, Integer> membershipOracle, int batchSize) {
+            super(membershipOracle, batchSize);
+        }
+
+        @Override
+        protected Stream<Word<Integer>> generateTestWords(Output<Integer, Integer> hypothesis,
+                                                          Collection<? extends Integer> inputs) {
+            return IntStream.range(0, NUM_TEST_WORDS).mapToObj(Word::fromLetter);
+        }
+    }
+
+    private static class SumOracle implements MembershipOracle<Integer, Integer> {
+
+        private final AtomicInteger numQueries;
+
+        SumOracle(AtomicInteger numQueries) {
+            this.numQueries = numQueries;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            for (Query<Integer, Integer> q : queries) {
+                numQueries.incrementAndGet();
+                q.answer(sum(q.getInput()));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence.mealy;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.automata.transout.impl.compact.CompactMealy;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class RandomWalkEQOracleTest {
+
+    private static final int NUM_WALKERS = 4;
+    private static final long MAX_STEPS = 10000;
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 1);
+
+    @Test
+    public void testParallelCounterexample() {
+        final CompactMealy<Integer, Integer> target = createCounter(-1);
+        final CompactMealy<Integer, Integer> hypothesis = createCounter(3);
+        final CountingSUL sul = new CountingSUL(target, new AtomicLong());
+
+        final RandomWalkEQOracle<Integer, Integer> oracle =
+                new RandomWalkEQOracle<>(0.1, MAX_STEPS, true, new Random(42), sul, NUM_WALKERS);
+
+        final DefaultQuery<Integer, Word<Integer>> ce = oracle.findCounterExample(hypothesis, alphabet);
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getOutput(), target.computeOutput(ce.getInput()));
+        Assert.assertNotEquals(ce.getOutput().lastSymbol(), hypothesis.computeOutput(ce.getInput()).lastSymbol());
+        // every walker should have stopped shortly after the counterexample has been found
+        Assert.assertTrue(sul.steps.get() < MAX_STEPS);
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testParallelStepBudget() {
+        final CompactMealy<Integer, Integer> target = createCounter(-1);
+        final CountingSUL sul = new CountingSUL(target, new AtomicLong());
+
+        final RandomWalkEQOracle<Integer, Integer> oracle =
+                new RandomWalkEQOracle<>(0.1, MAX_STEPS, false, new Random(42), sul, NUM_WALKERS);
+
+        Assert.assertNull(oracle.findCounterExample(target, alphabet));
+        Assert.assertEquals(sul.steps.get(), MAX_STEPS);
+
+        // the budget is not reset, hence subsequent searches should not perform any steps
+        Assert.assertNull(oracle.findCounterExample(target, alphabet));
+        Assert.assertEquals(sul.steps.get(), MAX_STEPS);
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testShutdown() {
+        final CompactMealy<Integer, Integer> target = createCounter(-1);
+        final CompactMealy<Integer, Integer> hypothesis = createCounter(3);
+        final CountingSUL sul = new CountingSUL(target, new AtomicLong());
+
+        final RandomWalkEQOracle<Integer, Integer> oracle =
+                new RandomWalkEQOracle<>(0.1, MAX_STEPS, true, new Random(42), sul, NUM_WALKERS);
+
+        // the walkers (and their threads) are re-used by subsequent searches
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNotNull(oracle.findCounterExample(hypothesis, alphabet));
+        }
+
+        oracle.shutdown();
+        Assert.expectThrows(IllegalStateException.class, () -> oracle.findCounterExample(hypothesis, alphabet));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonForkableSUL() {
+        final CountingSUL sul = new CountingSUL(createCounter(-1), new AtomicLong()) {
+
+            @Override
+            public boolean canFork() {
+                return false;
+            }
+        };
+
+        new RandomWalkEQOracle<>(0.1, MAX_STEPS, true, new Random(42), sul, NUM_WALKERS);
+    }
+
+    /*
+     * Creates a Mealy machine that outputs the number of observed 1s modulo 4. If faultyState is a valid state, the
+     * 1-transition of this state has a wrong output.
+     */
+    private CompactMealy<Integer, Integer> createCounter(int faultyState) {
+        final CompactMealy<Integer, Integer> result = new CompactMealy<>(alphabet);
+        final Integer[] states = new Integer[4];
+
+        states[0] = result.addInitialState();
+        for (int i = 1; i < states.length; i++) {
+            states[i] = result.addState();
+        }
+
+        for (int i = 0; i < states.length; i++) {
+            final int next = (i + 1) % states.length;
+            result.addTransition(states[i], 0, states[i], i);
+            result.addTransition(states[i], 1, states[next], i == faultyState ? -1 : next);
+        }
+
+        return result;
+    }
+
+    private static class CountingSUL implements SUL<Integer, Integer> {
+
+        private final MealyMachine<Integer, Integer, ?, Integer> mealy;
+        private final AtomicLong steps;
+        private Integer current;
+
+        CountingSUL(MealyMachine<Integer, Integer, ?, Integer> mealy, AtomicLong steps) {
+            this.mealy = mealy;
+            this.steps = steps;
+        }
+
+        @Override
+        public void pre() {
+            current = mealy.getInitialState();
+        }
+
+        @Override
+        public void post() {
+            current = null;
+        }
+
+        @Override
+        public Integer step(Integer in) {
+            steps.incrementAndGet();
+            final Integer output = mealy.getOutput(current, in);
+            current = mealy.getSuccessor(current, in);
+            return output;
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public SUL<Integer, Integer> fork() {
+            return new CountingSUL(mealy, steps);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.bounded;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.setting.LearnLibSettings;
+
+/**
+ * A prefix tree over alphabet indices whose number of nodes is bounded. If the number of nodes exceeds the given
+ * budget, the least recently used subtrees are evicted from the tree.
+ * <p>
+ * Nodes are kept in a (doubly linked) list ordered by the time of their last use. Whenever a node is {@link
+ * #touch(Node) used}, the node and all its ancestors are moved to the end of this list, the ancestors after their
+ * descendants. As a consequence, a node is always considered more recently used than any of its descendants, and the
+ * least recently used node is always a leaf. Evicting a node hence never requires restructuring the tree.
+ * <p>
+ * Each node may store a value of type {@code V}. Inner nodes without a value that become leaves due to eviction are
+ * evicted as well, as they no longer carry any information.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V>
+ *         value type
+ */
+@ParametersAreNonnullByDefault
+public final class BoundedPrefixTree<V> {
+
+    public static final int MAX_NODES;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+
+        MAX_NODES = settings.getInt("cache.bounded.max_nodes", 1_000_000);
+    }
+
+    private final int alphabetSize;
+    @Nonnegative
+    private final int maxNodes;
+    private final Node<V> root;
+    // sentinel of the LRU list: head.next is the least, head.prev the most recently used node
+    private final Node<V> head;
+    private int size;
+    private long evictions;
+
+    /**
+     * Constructor.
+     *
+     * @param alphabetSize
+     *         the number of alphabet indices
+     * @param maxNodes
+     *         the maximum number of nodes (excluding the root) that are kept in the tree
+     */
+    public BoundedPrefixTree(@Nonnegative int alphabetSize, @Nonnegative int maxNodes) {
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("Node budget must be positive: " + maxNodes);
+        }
+        this.alphabetSize = alphabetSize;
+        this.maxNodes = maxNodes;
+        this.root = new Node<>(null, -1);
+        this.head = new Node<>(null, -1);
+        this.head.prev = head;
+        this.head.next = head;
+    }
+
+    @Nonnull
+    public Node<V> getRoot() {
+        return root;
+    }
+
+    @Nullable
+    public Node<V> getSuccessor(Node<V> node, int symIdx) {
+        return node.successors == null ? null : node.successors[symIdx];
+    }
+
+    /**
+     * Retrieves the successor of the given node for the given alphabet index, creating it if necessary. Newly created
+     * nodes are considered to be used just before their parent. Note that the budget is not enforced until the next
+     * call to {@link #evict()}.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public Node<V> getOrCreateSuccessor(Node<V> node, int symIdx) {
+        if (node.successors == null) {
+            node.successors = (Node<V>[]) new Node<?>[alphabetSize];
+        }
+
+        Node<V> succ = node.successors[symIdx];
+        if (succ == null) {
+            succ = new Node<>(node, symIdx);
+            node.successors[symIdx] = succ;
+            node.numSuccessors++;
+            size++;
+            linkBefore(succ, node == root ? head : node);
+        }
+
+        return succ;
+    }
+
+    /**
+     * Marks the given node and all its ancestors as most recently used.
+     */
+    public void touch(Node<V> node) {
+        for (Node<V> curr = node; curr != root; curr = curr.parent) {
+            unlink(curr);
+            linkBefore(curr, head);
+        }
+    }
+
+    /**
+     * Evicts the least recently used subtrees until the number of nodes no longer exceeds the budget.
+     *
+     * @return the number of evicted nodes
+     */
+    public int evict() {
+        int evicted = 0;
+
+        while (size > maxNodes) {
+            Node<V> node = head.next;
+            // the least recently used node is always a leaf, see class documentation
+            assert node.numSuccessors == 0;
+            evicted += remove(node);
+        }
+
+        evictions += evicted;
+        return evicted;
+    }
+
+    private int remove(Node<V> leaf) {
+        int removed = 0;
+        Node<V> curr = leaf;
+
+        do {
+            Node<V> parent = curr.parent;
+            unlink(curr);
+            parent.successors[curr.symIdx] = null;
+            parent.numSuccessors--;
+            size--;
+            removed++;
+            curr = parent;
+        } while (curr != root && curr.numSuccessors == 0 && curr.value == null);
+
+        return removed;
+    }
+
+    public void clear() {
+        root.successors = null;
+        root.numSuccessors = 0;
+        root.value = null;
+        head.prev = head;
+        head.next = head;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of nodes in this tree, excluding the root.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Returns the total number of nodes evicted from this tree.
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    private static <V> void linkBefore(Node<V> node, Node<V> succ) {
+        node.prev = succ.prev;
+        node.next = succ;
+        succ.prev.next = node;
+        succ.prev = node;
+    }
+
+    private static <V> void unlink(Node<V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+    }
+
+    /**
+     * A node of a {@link BoundedPrefixTree}.
+     *
+     * @param <V>
+     *         value type
+     */
+    public static final class Node<V> {
+
+        private final Node<V> parent;
+        private final int symIdx;
+        private Node<V>[] successors;
+        private int numSuccessors;
+        private V value;
+        private Node<V> prev;
+        private Node<V> next;
+
+        Node(@Nullable Node<V> parent, int symIdx) {
+            this.parent = parent;
+            this.symIdx = symIdx;
+        }
+
+        @Nullable
+        public V getValue() {
+            return value;
+        }
+
+        public void setValue(@Nullable V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import de.learnlib.filter.cache.bounded.BoundedPrefixTree;
+import de.learnlib.filter.cache.bounded.BoundedPrefixTree.Node;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A DFA cache whose memory consumption is bounded by a maximum number of tree nodes. Apart from that, it behaves like
+ * a tree-based {@link DFACacheOracle}.
+ * <p>
+ * If the node budget is exceeded after incorporating the results of a batch of queries, the least recently used
+ * subtrees of the cache are evicted (see {@link BoundedPrefixTree}). As every cache hit refreshes the corresponding
+ * word, queries that are repeatedly posed by the learner (e.g., for access sequences and their one-letter extensions)
+ * remain cached, whereas the (mostly unique) words of long equivalence testing phases are evicted again.
+ * <p>
+ * Note that an evicted word may be posed to the delegate oracle again, and that the {@link
+ * #createCacheConsistencyTest() cache consistency test} only checks the words that are currently cached.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+@ParametersAreNonnullByDefault
+public class BoundedDFACacheOracle<I> implements DFALearningCacheOracle<I> {
+
+    private final BoundedPrefixTree<Boolean> tree;
+    private final Alphabet<I> alphabet;
+    private final Lock treeLock;
+    private final MembershipOracle<I, Boolean> delegate;
+
+    public BoundedDFACacheOracle(Alphabet<I> alphabet, MembershipOracle<I, Boolean> delegate) {
+        this(alphabet, BoundedPrefixTree.MAX_NODES, delegate);
+    }
+
+    public BoundedDFACacheOracle(Alphabet<I> alphabet, int maxNodes, MembershipOracle<I, Boolean> delegate) {
+        this.tree = new BoundedPrefixTree<>(alphabet.size(), maxNodes);
+        this.alphabet = alphabet;
+        this.treeLock = new ReentrantLock();
+        this.delegate = delegate;
+    }
+
+    public int getCacheSize() {
+        treeLock.lock();
+        try {
+            return tree.size();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        treeLock.lock();
+        try {
+            return tree.getEvictionCount();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Override
+    public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
+        return this::findCounterExample;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        List<ProxyQuery<I>> unanswered = new ArrayList<>();
+
+        treeLock.lock();
+        try {
+            for (Query<I, Boolean> q : queries) {
+                Boolean output = lookup(q.getInput());
+                if (output != null) {
+                    q.answer(output);
+                } else {
+                    unanswered.add(new ProxyQuery<>(q));
+                }
+            }
+        } finally {
+            treeLock.unlock();
+        }
+
+        if (unanswered.isEmpty()) {
+            return;
+        }
+
+        delegate.processQueries(unanswered);
+
+        treeLock.lock();
+        try {
+            for (ProxyQuery<I> q : unanswered) {
+                insert(q.getInput(), q.getAnswer());
+            }
+            tree.evict();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private Boolean lookup(Word<I> word) {
+        Node<Boolean> node = tree.getRoot();
+
+        for (I sym : word) {
+            node = tree.getSuccessor(node, alphabet.getSymbolIndex(sym));
+            if (node == null) {
+                return null;
+            }
+        }
+
+        Boolean output = node.getValue();
+        if (output != null) {
+            tree.touch(node);
+        }
+        return output;
+    }
+
+    private void insert(Word<I> word, Boolean accepted) {
+        Node<Boolean> node = tree.getRoot();
+        for (I sym : word) {
+            node = tree.getOrCreateSuccessor(node, alphabet.getSymbolIndex(sym));
+        }
+
+        Boolean oldAccepted = node.getValue();
+        if (oldAccepted == null) {
+            node.setValue(accepted);
+        } else if (!oldAccepted.equals(accepted)) {
+            throw new ConflictException("Acceptance " + accepted + " for word " + word +
+                                        " is inconsistent with the contents of the cache");
+        }
+        tree.touch(node);
+    }
+
+    @Nullable
+    private DefaultQuery<I, Boolean> findCounterExample(DFA<?, I> hypothesis, Collection<? extends I> inputs) {
+        treeLock.lock();
+        try {
+            return findCounterExampleInternal(hypothesis, inputs);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private <S> DefaultQuery<I, Boolean> findCounterExampleInternal(DFA<S, I> hypothesis,
+                                                                    Collection<? extends I> inputs) {
+        Deque<Record<S, I>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(tree.getRoot(), hypothesis.getInitialState(), null, null));
+
+        while (!stack.isEmpty()) {
+            Record<S, I> rec = stack.pop();
+
+            Boolean output = rec.node.getValue();
+            if (output != null) {
+                boolean hypAcc = rec.hypState != null && hypothesis.isAccepting(rec.hypState);
+                if (hypAcc != output) {
+                    DefaultQuery<I, Boolean> result = new DefaultQuery<>(rec.toWord());
+                    result.answer(output);
+                    return result;
+                }
+            }
+
+            for (I sym : inputs) {
+                Node<Boolean> succ = tree.getSuccessor(rec.node, alphabet.getSymbolIndex(sym));
+                if (succ != null) {
+                    S hypSucc = rec.hypState == null ? null : hypothesis.getSuccessor(rec.hypState, sym);
+                    stack.push(new Record<>(succ, hypSucc, rec, sym));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I> {
+
+        private final Node<Boolean> node;
+        private final S hypState;
+        private final Record<S, I> parent;
+        private final I symbol;
+
+        Record(Node<Boolean> node, @Nullable S hypState, @Nullable Record<S, I> parent, @Nullable I symbol) {
+            this.node = node;
+            this.hypState = hypState;
+            this.parent = parent;
+            this.symbol = symbol;
+        }
+
+        Word<I> toWord() {
+            WordBuilder<I> wb = new WordBuilder<>();
+            Record<S, I> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.symbol);
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+    }
+}
@@ -18,11 +18,13 @@ package de.learnlib.filter.cache.dfa;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
@@ -39,6 +41,10 @@ import net.automatalib.words.Alphabet;
  * oracle. Queries that can be answered from the cache are answered directly, others are forwarded to the delegate
  * oracle. When the delegate oracle has finished processing these remaining queries, the results are incorporated into
  * the cache.
+ * <p>
+ * Queries may also be processed asynchronously (see {@link #processQueriesAsync(Collection)}). In this case, cached
+ * queries are answered immediately, while the remaining queries are forwarded to the delegate oracle asynchronously if
+ * it supports this (see {@link AsyncMembershipOracle#of(MembershipOracle)}).
  *
  * @param <I>
  *         input symbol class
@@ -46,11 +52,12 @@ import net.automatalib.words.Alphabet;
  * @author Malte Isberner
  */
 @ParametersAreNonnullByDefault
-public class DFACacheOracle<I> implements DFALearningCacheOracle<I> {
+public class DFACacheOracle<I> implements DFALearningCacheOracle<I>, AsyncMembershipOracle<I, Boolean> {
 
     private final IncrementalDFABuilder<I> incDfa;
     private final Lock incDfaLock;
     private final MembershipOracle<I, Boolean> delegate;
+    private final AsyncMembershipOracle<I, Boolean> asyncDelegate;
 
     /**
      * Constructor.
@@ -75,6 +82,7 @@ public class DFACacheOracle<I> implements DFALearningCacheOracle<I> {
         this.incDfa = incDfa;
         this.incDfaLock = lock;
         this.delegate = delegate;
+        this.asyncDelegate = AsyncMembershipOracle.of(delegate);
     }
 
     public static <I> DFACacheOracle<I> createTreeCacheOracle(Alphabet<I> alphabet,
@@ -111,6 +119,25 @@ public class DFACacheOracle<I> implements DFALearningCacheOracle<I> {
 
     @Override
     public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        List<ProxyQuery<I>> unanswered = answerFromCache(queries);
+
+        delegate.processQueries(unanswered);
+
+        insertIntoCache(unanswered);
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Boolean>> queries) {
+        List<ProxyQuery<I>> unanswered = answerFromCache(queries);
+
+        if (unanswered.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return asyncDelegate.processQueriesAsync(unanswered).thenRun(() -> insertIntoCache(unanswered));
+    }
+
+    private List<ProxyQuery<I>> answerFromCache(Collection<? extends Query<I, Boolean>> queries) {
         List<ProxyQuery<I>> unanswered = new ArrayList<>();
 
         incDfaLock.lock();
@@ -127,8 +154,10 @@ public class DFACacheOracle<I> implements DFALearningCacheOracle<I> {
             incDfaLock.unlock();
         }
 
-        delegate.processQueries(unanswered);
+        return unanswered;
+    }
 
+    private void insertIntoCache(List<ProxyQuery<I>> unanswered) {
         incDfaLock.lock();
         try {
             for (ProxyQuery<I> q : unanswered) {
@@ -75,4 +75,23 @@ public final class DFACaches {
     public static <I> DFACacheOracle<I> createDAGCache(Alphabet<I> alphabet, MembershipOracle<I, Boolean> mqOracle) {
         return DFACacheOracle.createDAGCacheOracle(alphabet, mqOracle);
     }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, whose memory consumption is bounded by the given number of tree
+     * nodes. If the budget is exceeded, the least recently used entries are evicted from the cache.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param maxNodes
+     *         the maximum number of tree nodes
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a DFA learning cache with a bounded tree-based implementation
+     */
+    public static <I> BoundedDFACacheOracle<I> createBoundedTreeCache(Alphabet<I> alphabet,
+                                                                      int maxNodes,
+                                                                      MembershipOracle<I, Boolean> mqOracle) {
+        return new BoundedDFACacheOracle<>(alphabet, maxNodes, mqOracle);
+    }
 }
@@ -0,0 +1,265 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import de.learnlib.filter.cache.persistent.PersistentPrefixTree;
+import de.learnlib.filter.cache.persistent.SyncPolicy;
+import net.automatalib.automata.fsa.DFA;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A DFA cache whose contents are stored in a file, using a {@link PersistentPrefixTree}. Apart from that, it behaves
+ * like a tree-based {@link DFACacheOracle}: queries that can be answered from the cache are answered directly, others
+ * are forwarded to the delegate oracle and their results are incorporated into the cache.
+ * <p>
+ * As the cache contents survive restarts of the JVM, a learning process can be continued (or repeated) without posing
+ * any of the previously answered queries to the system under learning again. A cache file that has been opened {@link
+ * #openReadOnly(Path, Alphabet, MembershipOracle) read-only} can be shared between multiple processes; in this case,
+ * the results of queries that have to be forwarded to the delegate oracle are not stored.
+ * <p>
+ * The cache file only stores alphabet indices, hence it must always be opened with the same alphabet (both in terms of
+ * size and order of symbols). The cache should be {@link #close() closed} after use.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+@ParametersAreNonnullByDefault
+public class PersistentDFACacheOracle<I> implements DFALearningCacheOracle<I>, Closeable {
+
+    private static final int REJECTED = 0;
+    private static final int ACCEPTED = 1;
+
+    private final PersistentPrefixTree tree;
+    private final Alphabet<I> alphabet;
+    private final Lock treeLock;
+    private final MembershipOracle<I, Boolean> delegate;
+
+    public PersistentDFACacheOracle(PersistentPrefixTree tree,
+                                    Alphabet<I> alphabet,
+                                    MembershipOracle<I, Boolean> delegate) {
+        if (tree.getAlphabetSize() != alphabet.size()) {
+            throw new IllegalArgumentException("Tree and alphabet sizes do not match");
+        }
+        this.tree = tree;
+        this.alphabet = alphabet;
+        this.treeLock = new ReentrantLock();
+        this.delegate = delegate;
+    }
+
+    public static <I> PersistentDFACacheOracle<I> open(Path file,
+                                                       Alphabet<I> alphabet,
+                                                       MembershipOracle<I, Boolean> delegate) throws IOException {
+        return new PersistentDFACacheOracle<>(PersistentPrefixTree.open(file, alphabet.size()), alphabet, delegate);
+    }
+
+    public static <I> PersistentDFACacheOracle<I> open(Path file,
+                                                       Alphabet<I> alphabet,
+                                                       MembershipOracle<I, Boolean> delegate,
+                                                       SyncPolicy syncPolicy) throws IOException {
+        return new PersistentDFACacheOracle<>(PersistentPrefixTree.open(file, alphabet.size(), syncPolicy),
+                                              alphabet,
+                                              delegate);
+    }
+
+    public static <I> PersistentDFACacheOracle<I> openReadOnly(Path file,
+                                                               Alphabet<I> alphabet,
+                                                               MembershipOracle<I, Boolean> delegate)
+            throws IOException {
+        return new PersistentDFACacheOracle<>(PersistentPrefixTree.openReadOnly(file, alphabet.size()),
+                                              alphabet,
+                                              delegate);
+    }
+
+    public int getCacheSize() {
+        treeLock.lock();
+        try {
+            return tree.size();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Override
+    public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
+        return this::findCounterExample;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        List<ProxyQuery<I>> unanswered = new ArrayList<>();
+
+        treeLock.lock();
+        try {
+            for (Query<I, Boolean> q : queries) {
+                int output = lookup(q.getInput());
+                if (output != PersistentPrefixTree.UNDEFINED_OUTPUT) {
+                    q.answer(output == ACCEPTED);
+                } else {
+                    unanswered.add(new ProxyQuery<>(q));
+                }
+            }
+        } finally {
+            treeLock.unlock();
+        }
+
+        if (unanswered.isEmpty()) {
+            return;
+        }
+
+        delegate.processQueries(unanswered);
+
+        if (tree.isReadOnly()) {
+            return;
+        }
+
+        treeLock.lock();
+        try {
+            for (ProxyQuery<I> q : unanswered) {
+                insert(q.getInput(), q.getAnswer());
+            }
+            tree.endBatch();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    private int lookup(Word<I> word) {
+        int node = PersistentPrefixTree.ROOT;
+
+        for (I sym : word) {
+            node = tree.getSuccessor(node, alphabet.getSymbolIndex(sym));
+            if (node == PersistentPrefixTree.NO_NODE) {
+                return PersistentPrefixTree.UNDEFINED_OUTPUT;
+            }
+        }
+
+        return tree.getOutput(node);
+    }
+
+    private void insert(Word<I> word, Boolean accepted) {
+        int node = PersistentPrefixTree.ROOT;
+        for (I sym : word) {
+            node = tree.getOrCreateSuccessor(node, alphabet.getSymbolIndex(sym));
+        }
+
+        int output = accepted ? ACCEPTED : REJECTED;
+        int oldOutput = tree.getOutput(node);
+        if (oldOutput == PersistentPrefixTree.UNDEFINED_OUTPUT) {
+            tree.setOutput(node, output);
+        } else if (oldOutput != output) {
+            throw new ConflictException("Acceptance " + accepted + " for word " + word +
+                                        " is inconsistent with the contents of the cache");
+        }
+    }
+
+    @Nullable
+    private DefaultQuery<I, Boolean> findCounterExample(DFA<?, I> hypothesis, Collection<? extends I> inputs) {
+        treeLock.lock();
+        try {
+            return findCounterExampleInternal(hypothesis, inputs);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private <S> DefaultQuery<I, Boolean> findCounterExampleInternal(DFA<S, I> hypothesis,
+                                                                    Collection<? extends I> inputs) {
+        Deque<Record<S, I>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(PersistentPrefixTree.ROOT, hypothesis.getInitialState(), null, null));
+
+        while (!stack.isEmpty()) {
+            Record<S, I> rec = stack.pop();
+
+            int output = tree.getOutput(rec.node);
+            if (output != PersistentPrefixTree.UNDEFINED_OUTPUT) {
+                boolean hypAcc = rec.hypState != null && hypothesis.isAccepting(rec.hypState);
+                if (hypAcc != (output == ACCEPTED)) {
+                    DefaultQuery<I, Boolean> result = new DefaultQuery<>(rec.toWord());
+                    result.answer(output == ACCEPTED);
+                    return result;
+                }
+            }
+
+            for (I sym : inputs) {
+                int succ = tree.getSuccessor(rec.node, alphabet.getSymbolIndex(sym));
+                if (succ != PersistentPrefixTree.NO_NODE) {
+                    S hypSucc = rec.hypState == null ? null : hypothesis.getSuccessor(rec.hypState, sym);
+                    stack.push(new Record<>(succ, hypSucc, rec, sym));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        treeLock.lock();
+        try {
+            tree.close();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    private static final class Record<S, I> {
+
+        private final int node;
+        private final S hypState;
+        private final Record<S, I> parent;
+        private final I symbol;
+
+        Record(int node, @Nullable S hypState, @Nullable Record<S, I> parent, @Nullable I symbol) {
+            this.node = node;
+            this.hypState = hypState;
+            this.parent = parent;
+            this.symbol = symbol;
+        }
+
+        Word<I> toWord() {
+            WordBuilder<I> wb = new WordBuilder<>();
+            Record<S, I> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.symbol);
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import de.learnlib.filter.cache.bounded.BoundedPrefixTree;
+import de.learnlib.filter.cache.bounded.BoundedPrefixTree.Node;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A Mealy cache whose memory consumption is bounded by a maximum number of tree nodes. Apart from that, it behaves
+ * like a tree-based {@link MealyCacheOracle} (without a prefix-closure filter).
+ * <p>
+ * If the node budget is exceeded after incorporating the results of a batch of queries, the least recently used
+ * subtrees of the cache are evicted (see {@link BoundedPrefixTree}). As every cache hit refreshes the corresponding
+ * word (and all its prefixes), queries that are repeatedly posed by the learner (e.g., for access sequences and their
+ * one-letter extensions) remain cached, whereas the (mostly unique) words of long equivalence testing phases are
+ * evicted again.
+ * <p>
+ * Note that an evicted word may be posed to the delegate oracle again, and that the {@link
+ * #createCacheConsistencyTest() cache consistency test} only checks the words that are currently cached.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+@ParametersAreNonnullByDefault
+public class BoundedMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
+
+    private final BoundedPrefixTree<O> tree;
+    private final Alphabet<I> alphabet;
+    private final Lock treeLock;
+    private final Comparator<? super Query<I, ?>> queryCmp;
+    private final MembershipOracle<I, Word<O>> delegate;
+
+    public BoundedMealyCacheOracle(Alphabet<I> alphabet, MembershipOracle<I, Word<O>> delegate) {
+        this(alphabet, BoundedPrefixTree.MAX_NODES, delegate);
+    }
+
+    public BoundedMealyCacheOracle(Alphabet<I> alphabet, int maxNodes, MembershipOracle<I, Word<O>> delegate) {
+        this.tree = new BoundedPrefixTree<>(alphabet.size(), maxNodes);
+        this.alphabet = alphabet;
+        this.treeLock = new ReentrantLock();
+        this.queryCmp = new MealyCacheOracle.ReverseLexCmp<>(alphabet);
+        this.delegate = delegate;
+    }
+
+    public int getCacheSize() {
+        treeLock.lock();
+        try {
+            return tree.size();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        treeLock.lock();
+        try {
+            return tree.getEvictionCount();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return this::findCounterExample;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        List<Query<I, Word<O>>> qrys = new ArrayList<>(queries);
+        qrys.sort(queryCmp);
+
+        List<MasterQuery<I, O>> masterQueries = new ArrayList<>();
+
+        Iterator<Query<I, Word<O>>> it = qrys.iterator();
+        Query<I, Word<O>> q = it.next();
+        Word<I> ref = q.getInput();
+
+        treeLock.lock();
+        try {
+            MasterQuery<I, O> master = createMasterQuery(ref);
+            if (!master.isAnswered()) {
+                masterQueries.add(master);
+            }
+            master.addSlave(q);
+
+            while (it.hasNext()) {
+                q = it.next();
+                Word<I> curr = q.getInput();
+                if (!curr.isPrefixOf(ref)) {
+                    master = createMasterQuery(curr);
+                    if (!master.isAnswered()) {
+                        masterQueries.add(master);
+                    }
+                }
+
+                master.addSlave(q);
+                ref = curr;
+            }
+        } finally {
+            treeLock.unlock();
+        }
+
+        if (masterQueries.isEmpty()) {
+            return;
+        }
+
+        delegate.processQueries(masterQueries);
+
+        treeLock.lock();
+        try {
+            for (MasterQuery<I, O> m : masterQueries) {
+                insert(m.getInput(), m.getAnswer());
+            }
+            tree.evict();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    private MasterQuery<I, O> createMasterQuery(Word<I> word) {
+        WordBuilder<O> wb = new WordBuilder<>(word.length());
+        Node<O> node = tree.getRoot();
+
+        for (I sym : word) {
+            node = tree.getSuccessor(node, alphabet.getSymbolIndex(sym));
+            if (node == null) {
+                return new MasterQuery<>(word);
+            }
+            wb.append(node.getValue());
+        }
+
+        tree.touch(node);
+        return new MasterQuery<>(word, wb.toWord());
+    }
+
+    private void insert(Word<I> word, Word<O> answer) {
+        Node<O> node = tree.getRoot();
+
+        int len = word.length();
+        for (int i = 0; i < len; i++) {
+            node = tree.getOrCreateSuccessor(node, alphabet.getSymbolIndex(word.getSymbol(i)));
+
+            O output = answer.getSymbol(i);
+            O oldOutput = node.getValue();
+            if (oldOutput == null) {
+                node.setValue(output);
+            } else if (!oldOutput.equals(output)) {
+                throw new ConflictException(
+                        "Output " + answer + " for input " + word + " is inconsistent with the contents of the cache");
+            }
+        }
+
+        tree.touch(node);
+    }
+
+    @Nullable
+    private DefaultQuery<I, Word<O>> findCounterExample(MealyMachine<?, I, ?, O> hypothesis,
+                                                        Collection<? extends I> inputs) {
+        treeLock.lock();
+        try {
+            return findCounterExampleInternal(hypothesis, inputs);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private <S, T> DefaultQuery<I, Word<O>> findCounterExampleInternal(MealyMachine<S, I, T, O> hypothesis,
+                                                                       Collection<? extends I> inputs) {
+        Deque<Record<S, I, O>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(tree.getRoot(), hypothesis.getInitialState(), null, null));
+
+        while (!stack.isEmpty()) {
+            Record<S, I, O> rec = stack.pop();
+
+            for (I sym : inputs) {
+                Node<O> succ = tree.getSuccessor(rec.node, alphabet.getSymbolIndex(sym));
+                if (succ == null) {
+                    continue;
+                }
+
+                T trans = rec.hypState == null ? null : hypothesis.getTransition(rec.hypState, sym);
+                if (trans == null || !Objects.equals(hypothesis.getTransitionOutput(trans), succ.getValue())) {
+                    Record<S, I, O> ceRec = new Record<>(succ, null, rec, sym);
+                    DefaultQuery<I, Word<O>> result = new DefaultQuery<>(ceRec.toWord());
+                    result.answer(ceRec.toOutput());
+                    return result;
+                }
+
+                stack.push(new Record<>(succ, hypothesis.getSuccessor(trans), rec, sym));
+            }
+        }
+
+        return null;
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final Node<O> node;
+        private final S hypState;
+        private final Record<S, I, O> parent;
+        private final I symbol;
+
+        Record(Node<O> node, @Nullable S hypState, @Nullable Record<S, I, O> parent, @Nullable I symbol) {
+            this.node = node;
+            this.hypState = hypState;
+            this.parent = parent;
+            this.symbol = symbol;
+        }
+
+        Word<I> toWord() {
+            WordBuilder<I> wb = new WordBuilder<>();
+            Record<S, I, O> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.symbol);
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+
+        Word<O> toOutput() {
+            WordBuilder<O> wb = new WordBuilder<>();
+            Record<S, I, O> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.node.getValue());
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+    }
+}
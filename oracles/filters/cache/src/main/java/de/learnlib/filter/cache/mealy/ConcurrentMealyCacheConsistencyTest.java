@@ -0,0 +1,60 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.Collection;
+
+import de.learnlib.api.oracle.EquivalenceOracle;
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * An {@link EquivalenceOracle} that tests an hypothesis for consistency with the contents of a {@link
+ * ConcurrentMealyCacheOracle}.
+ *
+ * @param <I>
+ *         input symbol class
+ * @param <O>
+ *         output symbol class
+ */
+public class ConcurrentMealyCacheConsistencyTest<I, O> implements MealyEquivalenceOracle<I, O> {
+
+    private final ConcurrentMealyTree<I, O> cache;
+
+    ConcurrentMealyCacheConsistencyTest(ConcurrentMealyTree<I, O> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public DefaultQuery<I, Word<O>> findCounterExample(MealyMachine<?, I, ?, O> hypothesis,
+                                                       Collection<? extends I> inputs) {
+        Word<I> w = cache.findSeparatingWord(hypothesis, inputs);
+        if (w == null) {
+            return null;
+        }
+
+        WordBuilder<O> wb = new WordBuilder<>(w.length());
+        cache.lookup(w, wb);
+
+        DefaultQuery<I, Word<O>> result = new DefaultQuery<>(w);
+        result.answer(wb.toWord());
+        return result;
+    }
+
+}
@@ -0,0 +1,194 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import net.automatalib.commons.util.mappings.Mapping;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A Mealy cache that can be accessed concurrently by multiple threads without any locking.
+ * <p>
+ * Functionally, this cache behaves like a tree-based {@link MealyCacheOracle} (including the support for a
+ * prefix-closure filter, see {@link MealyCacheOracle}). However, instead of guarding a single incremental Mealy builder
+ * with a global lock, the cache contents are stored in a lock-free prefix tree. Hence, cache lookups of different
+ * threads (e.g., worker threads of a parallel oracle) never block each other, and insertions only synchronize on the
+ * nodes they actually create.
+ * <p>
+ * Note that queries which cannot be answered from the cache are forwarded to the delegate oracle from the thread that
+ * called {@link #processQueries(Collection)}. Hence, the delegate oracle either needs to be thread-safe as well, or
+ * each thread needs to use its own delegate, see {@link #withDelegate(MembershipOracle)}.
+ *
+ * @param <I>
+ *         input symbol class
+ * @param <O>
+ *         output symbol class
+ */
+@ParametersAreNonnullByDefault
+public class ConcurrentMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
+
+    private final ConcurrentMealyTree<I, O> cache;
+    private final Comparator<? super Query<I, ?>> queryCmp;
+    private final Mapping<? super O, ? extends O> errorSyms;
+    private final MembershipOracle<I, Word<O>> delegate;
+
+    public ConcurrentMealyCacheOracle(Alphabet<I> alphabet, MembershipOracle<I, Word<O>> delegate) {
+        this(alphabet, null, delegate);
+    }
+
+    public ConcurrentMealyCacheOracle(Alphabet<I> alphabet,
+                                      Mapping<? super O, ? extends O> errorSyms,
+                                      MembershipOracle<I, Word<O>> delegate) {
+        this(new ConcurrentMealyTree<>(alphabet), errorSyms, delegate);
+    }
+
+    private ConcurrentMealyCacheOracle(ConcurrentMealyTree<I, O> cache,
+                                       Mapping<? super O, ? extends O> errorSyms,
+                                       MembershipOracle<I, Word<O>> delegate) {
+        this.cache = cache;
+        this.queryCmp = new MealyCacheOracle.ReverseLexCmp<>(cache.getInputAlphabet());
+        this.errorSyms = errorSyms;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates a new cache oracle that shares the cache contents of this oracle, but uses a different delegate. This
+     * allows to use a single cache in combination with multiple (e.g., thread-local) delegate oracles.
+     *
+     * @param newDelegate
+     *         the delegate oracle of the new cache oracle
+     *
+     * @return a cache oracle backed by the same cache contents as this oracle
+     */
+    public ConcurrentMealyCacheOracle<I, O> withDelegate(MembershipOracle<I, Word<O>> newDelegate) {
+        return new ConcurrentMealyCacheOracle<>(cache, errorSyms, newDelegate);
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    @Override
+    public ConcurrentMealyCacheConsistencyTest<I, O> createCacheConsistencyTest() {
+        return new ConcurrentMealyCacheConsistencyTest<>(cache);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        List<Query<I, Word<O>>> qrys = new ArrayList<>(queries);
+        qrys.sort(queryCmp);
+
+        List<MasterQuery<I, O>> masterQueries = new ArrayList<>();
+
+        Iterator<Query<I, Word<O>>> it = qrys.iterator();
+        Query<I, Word<O>> q = it.next();
+        Word<I> ref = q.getInput();
+
+        MasterQuery<I, O> master = createMasterQuery(ref);
+        if (!master.isAnswered()) {
+            masterQueries.add(master);
+        }
+        master.addSlave(q);
+
+        while (it.hasNext()) {
+            q = it.next();
+            Word<I> curr = q.getInput();
+            if (!curr.isPrefixOf(ref)) {
+                master = createMasterQuery(curr);
+                if (!master.isAnswered()) {
+                    masterQueries.add(master);
+                }
+            }
+
+            master.addSlave(q);
+            ref = curr;
+        }
+
+        if (masterQueries.isEmpty()) {
+            return;
+        }
+
+        delegate.processQueries(masterQueries);
+
+        for (MasterQuery<I, O> m : masterQueries) {
+            postProcess(m);
+        }
+    }
+
+    private MasterQuery<I, O> createMasterQuery(Word<I> word) {
+        WordBuilder<O> wb = new WordBuilder<>();
+        if (cache.lookup(word, wb)) {
+            return new MasterQuery<>(word, wb.toWord());
+        }
+
+        if (errorSyms == null) {
+            return new MasterQuery<>(word);
+        }
+        int wbSize = wb.size();
+        if (wbSize == 0) {
+            return new MasterQuery<>(word, errorSyms);
+        }
+        O repSym = errorSyms.get(wb.getSymbol(wbSize - 1));
+        if (repSym == null) {
+            return new MasterQuery<>(word, errorSyms);
+        }
+
+        wb.repeatAppend(word.length() - wbSize, repSym);
+        return new MasterQuery<>(word, wb.toWord());
+    }
+
+    private void postProcess(MasterQuery<I, O> master) {
+        Word<I> word = master.getSuffix();
+        Word<O> answer = master.getAnswer();
+
+        if (errorSyms == null) {
+            cache.insert(word, answer);
+            return;
+        }
+
+        int answLen = answer.length();
+        int i = 0;
+        while (i < answLen) {
+            O sym = answer.getSymbol(i++);
+            if (errorSyms.get(sym) != null) {
+                break;
+            }
+        }
+
+        if (i == answLen) {
+            cache.insert(word, answer);
+        } else {
+            cache.insert(word.prefix(i), answer.prefix(i));
+        }
+    }
+
+}
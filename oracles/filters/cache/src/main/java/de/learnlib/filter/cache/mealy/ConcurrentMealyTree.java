@@ -0,0 +1,234 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A thread-safe, lock-free prefix tree storing the outputs of a Mealy system.
+ * <p>
+ * Every node stores the output of its incoming transition and an {@link AtomicReferenceArray} of successors, indexed by
+ * the input alphabet. Lookups never block and simply follow the successor references. Insertions attach new nodes via
+ * compare-and-set operations on the successor array of the respective parent node, so concurrent insertions only
+ * interfere with each other if they attempt to create the same node. In this case, the loser of the race simply
+ * continues with the node created by the winner.
+ * <p>
+ * Nodes are never removed, hence every word that has been observed to be contained in the tree will remain contained
+ * in the tree.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+@ParametersAreNonnullByDefault
+final class ConcurrentMealyTree<I, O> {
+
+    private final Alphabet<I> alphabet;
+    private final int alphabetSize;
+    private final Node<O> root;
+    private final AtomicInteger size;
+
+    ConcurrentMealyTree(Alphabet<I> alphabet) {
+        this.alphabet = alphabet;
+        this.alphabetSize = alphabet.size();
+        this.root = new Node<>(null, alphabetSize);
+        this.size = new AtomicInteger(1);
+    }
+
+    Alphabet<I> getInputAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Returns the number of nodes in the tree (including the root).
+     *
+     * @return the number of nodes in the tree
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Looks up the output of the given input word. The outputs of the longest prefix of the given word that is
+     * contained in the tree are appended to the given word builder.
+     *
+     * @param word
+     *         the input word
+     * @param output
+     *         the word builder to which the outputs are appended
+     *
+     * @return {@code true} if the complete input word is contained in the tree, {@code false} otherwise
+     */
+    boolean lookup(Word<I> word, WordBuilder<O> output) {
+        Node<O> curr = root;
+
+        for (I sym : word) {
+            Node<O> succ = curr.getSuccessor(alphabet.getSymbolIndex(sym));
+            if (succ == null) {
+                return false;
+            }
+            output.append(succ.output);
+            curr = succ;
+        }
+
+        return true;
+    }
+
+    /**
+     * Inserts the given input word and its corresponding output word into the tree.
+     *
+     * @param word
+     *         the input word
+     * @param output
+     *         the output word
+     *
+     * @throws ConflictException
+     *         if the given output is inconsistent with the contents of the tree
+     */
+    void insert(Word<I> word, Word<O> output) {
+        Node<O> curr = root;
+
+        int len = word.length();
+        for (int i = 0; i < len; i++) {
+            int symIdx = alphabet.getSymbolIndex(word.getSymbol(i));
+            O out = output.getSymbol(i);
+
+            Node<O> succ = curr.getSuccessor(symIdx);
+            if (succ == null) {
+                Node<O> newSucc = new Node<>(out, alphabetSize);
+                succ = curr.casSuccessor(symIdx, newSucc);
+                if (succ == newSucc) {
+                    size.incrementAndGet();
+                }
+            }
+
+            if (!Objects.equals(succ.output, out)) {
+                throw new ConflictException(
+                        "Output " + output + " for input " + word + " is inconsistent with the contents of the cache");
+            }
+
+            curr = succ;
+        }
+    }
+
+    /**
+     * Finds a word (in the contents of this tree) for which the given hypothesis produces an output that is different
+     * from the stored one.
+     *
+     * @param hypothesis
+     *         the hypothesis
+     * @param inputs
+     *         the input symbols to consider
+     *
+     * @return a separating word, or {@code null} if the hypothesis is consistent with the contents of this tree
+     */
+    @Nullable
+    <S, T> Word<I> findSeparatingWord(MealyMachine<S, I, T, O> hypothesis, Collection<? extends I> inputs) {
+        Deque<Record<S, I, O>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(root, hypothesis.getInitialState(), null, null));
+
+        while (!stack.isEmpty()) {
+            Record<S, I, O> rec = stack.pop();
+
+            for (I sym : inputs) {
+                Node<O> succ = rec.node.getSuccessor(alphabet.getSymbolIndex(sym));
+                if (succ == null) {
+                    continue;
+                }
+
+                T trans = rec.hypState == null ? null : hypothesis.getTransition(rec.hypState, sym);
+                if (trans == null || !Objects.equals(hypothesis.getTransitionOutput(trans), succ.output)) {
+                    return new Record<>(succ, null, rec, sym).toWord();
+                }
+
+                stack.push(new Record<>(succ, hypothesis.getSuccessor(trans), rec, sym));
+            }
+        }
+
+        return null;
+    }
+
+    private static final class Node<O> {
+
+        private final O output;
+        private final AtomicReferenceArray<Node<O>> successors;
+
+        Node(@Nullable O output, int alphabetSize) {
+            this.output = output;
+            this.successors = new AtomicReferenceArray<>(alphabetSize);
+        }
+
+        @Nullable
+        Node<O> getSuccessor(int symIdx) {
+            return successors.get(symIdx);
+        }
+
+        /**
+         * Sets the successor for the given input index, if none has been set before.
+         *
+         * @return the successor for the given input index after the operation, i.e., either {@code succ} or the node
+         * that has been set by a concurrent thread
+         */
+        @Nonnull
+        Node<O> casSuccessor(int symIdx, Node<O> succ) {
+            if (successors.compareAndSet(symIdx, null, succ)) {
+                return succ;
+            }
+            return successors.get(symIdx);
+        }
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final Node<O> node;
+        private final S hypState;
+        private final Record<S, I, O> parent;
+        private final I symbol;
+
+        Record(Node<O> node, @Nullable S hypState, @Nullable Record<S, I, O> parent, @Nullable I symbol) {
+            this.node = node;
+            this.hypState = hypState;
+            this.parent = parent;
+            this.symbol = symbol;
+        }
+
+        Word<I> toWord() {
+            WordBuilder<I> wb = new WordBuilder<>();
+            Record<S, I, O> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.symbol);
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+    }
+}
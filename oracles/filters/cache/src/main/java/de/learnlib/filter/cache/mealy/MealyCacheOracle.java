@@ -21,9 +21,11 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.Query;
 import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
@@ -49,6 +51,10 @@ import net.automatalib.words.WordBuilder;
  * respective value. The rationale behind this is that the concrete error message (key in the mapping) is still
  * reflected in the learned model, it is forced to result in a sink state with only a single repeating output symbol
  * (value in the mapping).
+ * <p>
+ * Queries may also be processed asynchronously (see {@link #processQueriesAsync(Collection)}). In this case, cached
+ * queries are answered immediately, while the remaining queries are forwarded to the delegate oracle asynchronously if
+ * it supports this (see {@link AsyncMembershipOracle#of(MembershipOracle)}).
  *
  * @param <I>
  *         input symbol class
@@ -57,9 +63,10 @@ import net.automatalib.words.WordBuilder;
  *
  * @author Malte Isberner
  */
-public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
+public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>, AsyncMembershipOracle<I, Word<O>> {
 
     private final MembershipOracle<I, Word<O>> delegate;
+    private final AsyncMembershipOracle<I, Word<O>> asyncDelegate;
     private final IncrementalMealyBuilder<I, O> incMealy;
     private final Lock incMealyLock;
     private final Comparator<? super Query<I, ?>> queryCmp;
@@ -116,6 +123,7 @@ public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
         this.queryCmp = new ReverseLexCmp<>(incrementalBuilder.getInputAlphabet());
         this.errorSyms = errorSyms;
         this.delegate = delegate;
+        this.asyncDelegate = AsyncMembershipOracle.of(delegate);
     }
 
     public static <I, O> MealyCacheOracle<I, O> createDAGCacheOracle(Alphabet<I> inputAlphabet,
@@ -157,6 +165,33 @@ public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
             return;
         }
 
+        List<MasterQuery<I, O>> masterQueries = answerFromCache(queries);
+
+        delegate.processQueries(masterQueries);
+
+        insertIntoCache(masterQueries);
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<MasterQuery<I, O>> masterQueries = answerFromCache(queries);
+
+        if (masterQueries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return asyncDelegate.processQueriesAsync(masterQueries).thenRun(() -> insertIntoCache(masterQueries));
+    }
+
+    /**
+     * Answers the given queries from the cache (as far as possible) and returns the master queries that need to be
+     * processed by the delegate oracle.
+     */
+    private List<MasterQuery<I, O>> answerFromCache(Collection<? extends Query<I, Word<O>>> queries) {
         RichArray<Query<I, Word<O>>> qrys = new RichArray<>(queries);
         qrys.parallelSort(queryCmp);
 
@@ -193,8 +228,10 @@ public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
             incMealyLock.unlock();
         }
 
-        delegate.processQueries(masterQueries);
+        return masterQueries;
+    }
 
+    private void insertIntoCache(List<MasterQuery<I, O>> masterQueries) {
         incMealyLock.lock();
         try {
             for (MasterQuery<I, O> m : masterQueries) {
@@ -249,7 +286,7 @@ public class MealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O> {
         }
     }
 
-    private static final class ReverseLexCmp<I> implements Comparator<Query<I, ?>>, Serializable {
+    static final class ReverseLexCmp<I> implements Comparator<Query<I, ?>>, Serializable {
 
         private final Alphabet<I> alphabet;
 
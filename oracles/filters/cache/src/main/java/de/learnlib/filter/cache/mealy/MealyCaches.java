@@ -93,6 +93,43 @@ public final class MealyCaches {
         return MealyCacheOracle.createTreeCacheOracle(alphabet, errorSyms, mqOracle);
     }
 
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a lock-free tree for internal cache
+     * organization. This cache is suited for being accessed by multiple threads concurrently.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a concurrent tree-based implementation
+     */
+    public static <I, O> ConcurrentMealyCacheOracle<I, O> createConcurrentTreeCache(
+            Alphabet<I> alphabet,
+            MembershipOracle<I, Word<O>> mqOracle) {
+        return new ConcurrentMealyCacheOracle<>(alphabet, mqOracle);
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a lock-free tree for internal cache
+     * organization. This cache is suited for being accessed by multiple threads concurrently.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param errorSyms
+     *         a mapping for the prefix-closure filter
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a concurrent tree-based implementation
+     */
+    public static <I, O> ConcurrentMealyCacheOracle<I, O> createConcurrentTreeCache(
+            Alphabet<I> alphabet,
+            Mapping<? super O, ? extends O> errorSyms,
+            MembershipOracle<I, Word<O>> mqOracle) {
+        return new ConcurrentMealyCacheOracle<>(alphabet, errorSyms, mqOracle);
+    }
+
     /**
      * Creates a cache oracle for a Mealy machine learning setup.
      * <p>
@@ -110,4 +147,23 @@ public final class MealyCaches {
                                                             MembershipOracle<I, Word<O>> mqOracle) {
         return MealyCacheOracle.createDAGCacheOracle(alphabet, mqOracle);
     }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, whose memory consumption is bounded by the given
+     * number of tree nodes. If the budget is exceeded, the least recently used entries are evicted from the cache.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param maxNodes
+     *         the maximum number of tree nodes
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a bounded tree-based implementation
+     */
+    public static <I, O> BoundedMealyCacheOracle<I, O> createBoundedTreeCache(Alphabet<I> alphabet,
+                                                                              int maxNodes,
+                                                                              MembershipOracle<I, Word<O>> mqOracle) {
+        return new BoundedMealyCacheOracle<>(alphabet, maxNodes, mqOracle);
+    }
 }
@@ -0,0 +1,338 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import de.learnlib.filter.cache.persistent.PersistentPrefixTree;
+import de.learnlib.filter.cache.persistent.PersistentSymbolTable;
+import de.learnlib.filter.cache.persistent.SyncPolicy;
+import net.automatalib.automata.transout.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A Mealy cache whose contents are stored in a file, using a {@link PersistentPrefixTree}. Apart from that, it behaves
+ * like a tree-based {@link MealyCacheOracle} (without a prefix-closure filter): queries that can be answered from the
+ * cache are answered directly, others are forwarded to the delegate oracle and their results are incorporated into the
+ * cache.
+ * <p>
+ * As the cache contents survive restarts of the JVM, a learning process can be continued (or repeated) without posing
+ * any of the previously answered queries to the system under learning again. A cache file that has been opened
+ * read-only can be shared between multiple processes; in this case, the results of queries that have to be forwarded
+ * to the delegate oracle are not stored.
+ * <p>
+ * The prefix tree only stores alphabet indices and output codes. The output symbols themselves are stored in a {@link
+ * PersistentSymbolTable} in a second file (with the suffix {@value #OUTPUTS_FILE_SUFFIX}), using a user-specified
+ * string representation. The cache file must always be opened with the same input alphabet (both in terms of size and
+ * order of symbols). The cache should be {@link #close() closed} after use.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+@ParametersAreNonnullByDefault
+public class PersistentMealyCacheOracle<I, O> implements MealyLearningCacheOracle<I, O>, Closeable {
+
+    public static final String OUTPUTS_FILE_SUFFIX = ".outputs";
+
+    private final PersistentPrefixTree tree;
+    private final PersistentSymbolTable<O> outputs;
+    private final Alphabet<I> alphabet;
+    private final Lock treeLock;
+    private final Comparator<? super Query<I, ?>> queryCmp;
+    private final MembershipOracle<I, Word<O>> delegate;
+
+    public PersistentMealyCacheOracle(PersistentPrefixTree tree,
+                                      PersistentSymbolTable<O> outputs,
+                                      Alphabet<I> alphabet,
+                                      MembershipOracle<I, Word<O>> delegate) {
+        if (tree.getAlphabetSize() != alphabet.size()) {
+            throw new IllegalArgumentException("Tree and alphabet sizes do not match");
+        }
+        this.tree = tree;
+        this.outputs = outputs;
+        this.alphabet = alphabet;
+        this.treeLock = new ReentrantLock();
+        this.queryCmp = new MealyCacheOracle.ReverseLexCmp<>(alphabet);
+        this.delegate = delegate;
+    }
+
+    public static <I, O> PersistentMealyCacheOracle<I, O> open(Path file,
+                                                               Alphabet<I> alphabet,
+                                                               Function<? super O, String> outputEncoder,
+                                                               Function<String, ? extends O> outputDecoder,
+                                                               MembershipOracle<I, Word<O>> delegate)
+            throws IOException {
+        return open(file, alphabet, outputEncoder, outputDecoder, delegate, PersistentPrefixTree.SYNC_POLICY);
+    }
+
+    public static <I, O> PersistentMealyCacheOracle<I, O> open(Path file,
+                                                               Alphabet<I> alphabet,
+                                                               Function<? super O, String> outputEncoder,
+                                                               Function<String, ? extends O> outputDecoder,
+                                                               MembershipOracle<I, Word<O>> delegate,
+                                                               SyncPolicy syncPolicy) throws IOException {
+        PersistentSymbolTable<O> outputs =
+                PersistentSymbolTable.open(getOutputsFile(file), outputEncoder, outputDecoder, syncPolicy);
+        try {
+            PersistentPrefixTree tree = PersistentPrefixTree.open(file, alphabet.size(), syncPolicy);
+            return new PersistentMealyCacheOracle<>(tree, outputs, alphabet, delegate);
+        } catch (IOException | RuntimeException ex) {
+            outputs.close();
+            throw ex;
+        }
+    }
+
+    public static <I, O> PersistentMealyCacheOracle<I, O> openReadOnly(Path file,
+                                                                       Alphabet<I> alphabet,
+                                                                       Function<? super O, String> outputEncoder,
+                                                                       Function<String, ? extends O> outputDecoder,
+                                                                       MembershipOracle<I, Word<O>> delegate)
+            throws IOException {
+        PersistentSymbolTable<O> outputs =
+                PersistentSymbolTable.openReadOnly(getOutputsFile(file), outputEncoder, outputDecoder);
+        try {
+            PersistentPrefixTree tree = PersistentPrefixTree.openReadOnly(file, alphabet.size());
+            return new PersistentMealyCacheOracle<>(tree, outputs, alphabet, delegate);
+        } catch (IOException | RuntimeException ex) {
+            outputs.close();
+            throw ex;
+        }
+    }
+
+    private static Path getOutputsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + OUTPUTS_FILE_SUFFIX);
+    }
+
+    public int getCacheSize() {
+        treeLock.lock();
+        try {
+            return tree.size();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return this::findCounterExample;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        List<Query<I, Word<O>>> qrys = new ArrayList<>(queries);
+        qrys.sort(queryCmp);
+
+        List<MasterQuery<I, O>> masterQueries = new ArrayList<>();
+
+        Iterator<Query<I, Word<O>>> it = qrys.iterator();
+        Query<I, Word<O>> q = it.next();
+        Word<I> ref = q.getInput();
+
+        treeLock.lock();
+        try {
+            MasterQuery<I, O> master = createMasterQuery(ref);
+            if (!master.isAnswered()) {
+                masterQueries.add(master);
+            }
+            master.addSlave(q);
+
+            while (it.hasNext()) {
+                q = it.next();
+                Word<I> curr = q.getInput();
+                if (!curr.isPrefixOf(ref)) {
+                    master = createMasterQuery(curr);
+                    if (!master.isAnswered()) {
+                        masterQueries.add(master);
+                    }
+                }
+
+                master.addSlave(q);
+                ref = curr;
+            }
+        } finally {
+            treeLock.unlock();
+        }
+
+        if (masterQueries.isEmpty()) {
+            return;
+        }
+
+        delegate.processQueries(masterQueries);
+
+        if (tree.isReadOnly()) {
+            return;
+        }
+
+        treeLock.lock();
+        try {
+            for (MasterQuery<I, O> m : masterQueries) {
+                insert(m.getInput(), m.getAnswer());
+            }
+            tree.endBatch();
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    private MasterQuery<I, O> createMasterQuery(Word<I> word) {
+        WordBuilder<O> wb = new WordBuilder<>(word.length());
+        int node = PersistentPrefixTree.ROOT;
+
+        for (I sym : word) {
+            node = tree.getSuccessor(node, alphabet.getSymbolIndex(sym));
+            if (node == PersistentPrefixTree.NO_NODE) {
+                return new MasterQuery<>(word);
+            }
+            int output = tree.getOutput(node);
+            if (output == PersistentPrefixTree.UNDEFINED_OUTPUT) {
+                return new MasterQuery<>(word);
+            }
+            wb.append(outputs.getSymbol(output));
+        }
+
+        return new MasterQuery<>(word, wb.toWord());
+    }
+
+    private void insert(Word<I> word, Word<O> answer) {
+        int node = PersistentPrefixTree.ROOT;
+
+        int len = word.length();
+        for (int i = 0; i < len; i++) {
+            node = tree.getOrCreateSuccessor(node, alphabet.getSymbolIndex(word.getSymbol(i)));
+
+            int output = outputs.getOrAddCode(answer.getSymbol(i));
+            int oldOutput = tree.getOutput(node);
+            if (oldOutput == PersistentPrefixTree.UNDEFINED_OUTPUT) {
+                tree.setOutput(node, output);
+            } else if (oldOutput != output) {
+                throw new ConflictException(
+                        "Output " + answer + " for input " + word + " is inconsistent with the contents of the cache");
+            }
+        }
+    }
+
+    @Nullable
+    private DefaultQuery<I, Word<O>> findCounterExample(MealyMachine<?, I, ?, O> hypothesis,
+                                                        Collection<? extends I> inputs) {
+        treeLock.lock();
+        try {
+            return findCounterExampleInternal(hypothesis, inputs);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    @Nullable
+    private <S, T> DefaultQuery<I, Word<O>> findCounterExampleInternal(MealyMachine<S, I, T, O> hypothesis,
+                                                                       Collection<? extends I> inputs) {
+        Deque<Record<S, I>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(PersistentPrefixTree.ROOT, hypothesis.getInitialState(), null, null));
+
+        while (!stack.isEmpty()) {
+            Record<S, I> rec = stack.pop();
+
+            for (I sym : inputs) {
+                int succ = tree.getSuccessor(rec.node, alphabet.getSymbolIndex(sym));
+                if (succ == PersistentPrefixTree.NO_NODE ||
+                    tree.getOutput(succ) == PersistentPrefixTree.UNDEFINED_OUTPUT) {
+                    continue;
+                }
+
+                O output = outputs.getSymbol(tree.getOutput(succ));
+                T trans = rec.hypState == null ? null : hypothesis.getTransition(rec.hypState, sym);
+                if (trans == null || !Objects.equals(hypothesis.getTransitionOutput(trans), output)) {
+                    Word<I> ceInput = new Record<S, I>(succ, null, rec, sym).toWord();
+                    DefaultQuery<I, Word<O>> result = new DefaultQuery<>(ceInput);
+                    result.answer(createMasterQuery(ceInput).getAnswer());
+                    return result;
+                }
+
+                stack.push(new Record<>(succ, hypothesis.getSuccessor(trans), rec, sym));
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        treeLock.lock();
+        try {
+            try {
+                tree.close();
+            } finally {
+                outputs.close();
+            }
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
+    private static final class Record<S, I> {
+
+        private final int node;
+        private final S hypState;
+        private final Record<S, I> parent;
+        private final I symbol;
+
+        Record(int node, @Nullable S hypState, @Nullable Record<S, I> parent, @Nullable I symbol) {
+            this.node = node;
+            this.hypState = hypState;
+            this.parent = parent;
+            this.symbol = symbol;
+        }
+
+        Word<I> toWord() {
+            WordBuilder<I> wb = new WordBuilder<>();
+            Record<S, I> curr = this;
+            while (curr.parent != null) {
+                wb.append(curr.symbol);
+                curr = curr.parent;
+            }
+            return wb.reverse().toWord();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.util.mealy.TracingSymbolQueryOracle;
 import net.automatalib.automata.transout.impl.FastMealy;
 import net.automatalib.automata.transout.impl.FastMealyState;
 import net.automatalib.words.Alphabet;
@@ -28,7 +29,10 @@ import net.automatalib.words.Alphabet;
  * be answered from the cache are answered directly, others are forwarded to the delegate oracle. Queried symbols that
  * have to be delegated are incorporated into the cache directly.
  * <p>
- * Internally, an incrementally growing tree (in form of a mealy automaton) is used for caching.
+ * Internally, an incrementally growing tree (in form of a mealy automaton) is used for caching. Additionally, the cache
+ * keeps track of the symbols that have been queried on the delegate since its last reset. If a query cannot be
+ * answered from the cache but the current trace extends the trace of the delegate, only the missing symbols are
+ * queried instead of resetting the delegate and replaying the complete trace.
  *
  * @param <I>
  *         input alphabet type
@@ -41,14 +45,14 @@ import net.automatalib.words.Alphabet;
 public class SymbolQueryCache<I, O> implements SymbolQueryOracle<I, O> {
 
     private final FastMealy<I, O> cache;
-    private final SymbolQueryOracle<I, O> delegate;
+    private final TracingSymbolQueryOracle<I, O> delegate;
 
     private final List<I> currentTrace;
     private FastMealyState<O> currentState;
     private boolean currentTraceValid;
 
     public SymbolQueryCache(final SymbolQueryOracle<I, O> delegate, final Alphabet<I> alphabet) {
-        this.delegate = delegate;
+        this.delegate = new TracingSymbolQueryOracle<>(delegate);
         this.cache = new FastMealy<>(alphabet);
         this.cache.addInitialState();
         this.currentState = this.cache.getInitialState();
@@ -70,9 +74,7 @@ public class SymbolQueryCache<I, O> implements SymbolQueryOracle<I, O> {
                 return output;
             } else {
                 this.currentTraceValid = false;
-                this.delegate.reset();
-
-                this.currentTrace.forEach(this.delegate::query);
+                this.delegate.replay(this.currentTrace);
             }
         }
 
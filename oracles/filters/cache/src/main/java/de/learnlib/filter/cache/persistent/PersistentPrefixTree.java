@@ -0,0 +1,414 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.setting.LearnLibSettings;
+
+/**
+ * A prefix tree over alphabet indices that is stored in a memory-mapped file, such that its contents survive restarts
+ * of the JVM.
+ * <p>
+ * Each node of the tree is identified by an integer index, and stores an integer output code as well as the indices of
+ * its successors (one per alphabet index). The interpretation of the output codes is left to the user of this class;
+ * the only reserved value is {@link #UNDEFINED_OUTPUT}, which is the output code of newly created nodes.
+ * <p>
+ * The file consists of a fixed-size header followed by fixed-size node records, which are only ever appended. The only
+ * in-place modifications are setting the output code of a node and setting a (previously undefined) successor of a
+ * node. A new node is always fully written (and counted in the header) before it is linked to its parent, and
+ * {@link #sync()} forces the node records to the storage device before the header.
+ * <p>
+ * Note, however, that the operating system may write back modified pages of the mapping at any time and in any order.
+ * While this does not matter if only the JVM terminates unexpectedly, a crash of the operating system (or the machine)
+ * may leave the file in an inconsistent state unless it happens after a successful {@link #sync()} (or
+ * {@link #close()}) with no subsequent modifications. Such a file has to be discarded.
+ * <p>
+ * A file may either be opened for writing by a single process, or be opened {@link #openReadOnly(Path, int) read-only}
+ * by an arbitrary number of processes. This is enforced by means of {@link FileLock file locks}. A read-only tree
+ * reflects the contents of the file at the time it was opened.
+ * <p>
+ * This class is not thread-safe.
+ */
+@ParametersAreNonnullByDefault
+public final class PersistentPrefixTree implements Closeable {
+
+    /**
+     * The index of the root node.
+     */
+    public static final int ROOT = 0;
+    /**
+     * The value returned by {@link #getSuccessor(int, int)} if a node has no successor for a given alphabet index. As
+     * the root node is never a successor of another node, its index can be used for this purpose.
+     */
+    public static final int NO_NODE = ROOT;
+    /**
+     * The output code of newly created nodes.
+     */
+    public static final int UNDEFINED_OUTPUT = -1;
+
+    public static final SyncPolicy SYNC_POLICY;
+
+    private static final int MAGIC = 0x4C4C5054; // "LLPT"
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ALPHABET_SIZE_OFFSET = 8;
+    private static final int NODE_COUNT_OFFSET = 12;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SEGMENT_BYTES = 1 << 24;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+
+        SYNC_POLICY = settings.getEnumValue("cache.persistent.sync_policy", SyncPolicy.class, SyncPolicy.ON_BATCH);
+    }
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final boolean readOnly;
+    private final SyncPolicy syncPolicy;
+    private final int alphabetSize;
+    private final int nodeBytes;
+    private final int nodesPerSegment;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments;
+    private final BitSet dirtySegments;
+    private int nodeCount;
+    private boolean headerDirty;
+
+    private PersistentPrefixTree(FileChannel channel,
+                                 FileLock lock,
+                                 boolean readOnly,
+                                 SyncPolicy syncPolicy,
+                                 int alphabetSize) throws IOException {
+        this.channel = channel;
+        this.lock = lock;
+        this.readOnly = readOnly;
+        this.syncPolicy = syncPolicy;
+        this.alphabetSize = alphabetSize;
+        this.nodeBytes = (alphabetSize + 1) * Integer.BYTES;
+        this.nodesPerSegment = Math.max(1, SEGMENT_BYTES / nodeBytes);
+        this.segments = new ArrayList<>();
+        this.dirtySegments = new BitSet();
+
+        boolean newFile = channel.size() == 0;
+        if (newFile && readOnly) {
+            throw new IOException("Cannot open empty cache file in read-only mode");
+        }
+
+        this.header = channel.map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        if (newFile) {
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(ALPHABET_SIZE_OFFSET, alphabetSize);
+            header.putInt(NODE_COUNT_OFFSET, 0);
+            headerDirty = true;
+            createNode();
+        } else {
+            validateHeader();
+            this.nodeCount = header.getInt(NODE_COUNT_OFFSET);
+            int numSegments = (nodeCount - 1) / nodesPerSegment + 1;
+            for (int i = 0; i < numSegments; i++) {
+                mapSegment(i);
+            }
+        }
+    }
+
+    /**
+     * Opens (or creates) the given file for reading and writing, using the {@link #SYNC_POLICY default} synchronization
+     * policy.
+     *
+     * @see #open(Path, int, SyncPolicy)
+     */
+    public static PersistentPrefixTree open(Path file, @Nonnegative int alphabetSize) throws IOException {
+        return open(file, alphabetSize, SYNC_POLICY);
+    }
+
+    /**
+     * Opens (or creates) the given file for reading and writing. The file is locked exclusively until the tree is
+     * {@link #close() closed}.
+     *
+     * @param file
+     *         the file storing the tree
+     * @param alphabetSize
+     *         the size of the alphabet. If the file already exists, it must have been created with the same alphabet
+     *         size
+     * @param syncPolicy
+     *         the policy for synchronizing modifications with the storage device
+     *
+     * @return the tree stored in the given file
+     *
+     * @throws IOException
+     *         if the file cannot be opened or locked, or does not contain a valid tree
+     */
+    public static PersistentPrefixTree open(Path file, @Nonnegative int alphabetSize, SyncPolicy syncPolicy)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                                               StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        return open(channel, false, syncPolicy, alphabetSize);
+    }
+
+    /**
+     * Opens the given (existing) file for reading only. Multiple processes may open the same file read-only at the same
+     * time, but not while it is opened for writing.
+     *
+     * @param file
+     *         the file storing the tree
+     * @param alphabetSize
+     *         the size of the alphabet the file was created with
+     *
+     * @return the tree stored in the given file
+     *
+     * @throws IOException
+     *         if the file cannot be opened or locked, or does not contain a valid tree
+     */
+    public static PersistentPrefixTree openReadOnly(Path file, @Nonnegative int alphabetSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return open(channel, true, SyncPolicy.NEVER, alphabetSize);
+    }
+
+    private static PersistentPrefixTree open(FileChannel channel,
+                                             boolean readOnly,
+                                             SyncPolicy syncPolicy,
+                                             int alphabetSize) throws IOException {
+        try {
+            FileLock lock = channel.tryLock(0, Long.MAX_VALUE, readOnly);
+            if (lock == null) {
+                throw new IOException("Cache file is locked by another process");
+            }
+            return new PersistentPrefixTree(channel, lock, readOnly, syncPolicy, alphabetSize);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    private void validateHeader() throws IOException {
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Not a cache file");
+        }
+        int version = header.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache file version " + version);
+        }
+        int fileAlphabetSize = header.getInt(ALPHABET_SIZE_OFFSET);
+        if (fileAlphabetSize != alphabetSize) {
+            throw new IOException(
+                    "Cache file was created for alphabet size " + fileAlphabetSize + ", but got " + alphabetSize);
+        }
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns the number of nodes in the tree (including the root).
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the successor of the given node for the given alphabet index.
+     *
+     * @param node
+     *         the node index
+     * @param symIdx
+     *         the alphabet index
+     *
+     * @return the index of the successor node, or {@link #NO_NODE} if there is no such successor
+     */
+    public int getSuccessor(int node, int symIdx) {
+        return readInt(node, 1 + symIdx);
+    }
+
+    /**
+     * Returns the successor of the given node for the given alphabet index, creating it if it does not exist yet.
+     *
+     * @param node
+     *         the node index
+     * @param symIdx
+     *         the alphabet index
+     *
+     * @return the index of the successor node
+     */
+    public int getOrCreateSuccessor(int node, int symIdx) {
+        int succ = getSuccessor(node, symIdx);
+        if (succ == NO_NODE) {
+            succ = createNode();
+            writeInt(node, 1 + symIdx, succ);
+            syncIfRequired(SyncPolicy.ALWAYS);
+        }
+        return succ;
+    }
+
+    /**
+     * Returns the output code stored at the given node.
+     *
+     * @param node
+     *         the node index
+     *
+     * @return the output code, or {@link #UNDEFINED_OUTPUT} if no output code has been set
+     */
+    public int getOutput(int node) {
+        return readInt(node, 0);
+    }
+
+    /**
+     * Sets the output code stored at the given node.
+     *
+     * @param node
+     *         the node index
+     * @param output
+     *         the (non-negative) output code
+     */
+    public void setOutput(int node, @Nonnegative int output) {
+        writeInt(node, 0, output);
+        syncIfRequired(SyncPolicy.ALWAYS);
+    }
+
+    /**
+     * Marks the end of a batch of modifications. Depending on the synchronization policy, this forces all
+     * modifications to be written to the storage device.
+     */
+    public void endBatch() {
+        syncIfRequired(SyncPolicy.ON_BATCH);
+    }
+
+    /**
+     * Forces all modifications to be written to the storage device, regardless of the synchronization policy.
+     */
+    public void sync() {
+        if (readOnly) {
+            return;
+        }
+
+        // node records first, so that the persisted node count never covers records that have not been written yet
+        for (int i = dirtySegments.nextSetBit(0); i >= 0; i = dirtySegments.nextSetBit(i + 1)) {
+            segments.get(i).force();
+        }
+        dirtySegments.clear();
+
+        if (headerDirty) {
+            header.force();
+            headerDirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        try {
+            if (syncPolicy != SyncPolicy.NEVER) {
+                sync();
+            }
+        } finally {
+            try {
+                lock.release();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void syncIfRequired(SyncPolicy minimumPolicy) {
+        if (syncPolicy.compareTo(minimumPolicy) >= 0) {
+            sync();
+        }
+    }
+
+    private int createNode() {
+        if (readOnly) {
+            throw new IllegalStateException("Cannot modify read-only cache");
+        }
+
+        int node = nodeCount;
+        int segmentIdx = node / nodesPerSegment;
+        if (segmentIdx == segments.size()) {
+            mapSegment(segmentIdx);
+        }
+
+        // explicitly initialize the record, as it may contain garbage from an interrupted write
+        writeInt(node, 0, UNDEFINED_OUTPUT);
+        for (int i = 1; i <= alphabetSize; i++) {
+            writeInt(node, i, NO_NODE);
+        }
+
+        nodeCount++;
+        header.putInt(NODE_COUNT_OFFSET, nodeCount);
+        headerDirty = true;
+
+        return node;
+    }
+
+    private void mapSegment(int segmentIdx) {
+        long offset = HEADER_SIZE + (long) segmentIdx * nodesPerSegment * nodeBytes;
+        long length = (long) nodesPerSegment * nodeBytes;
+
+        try {
+            if (readOnly) {
+                // read-only mappings must not exceed the size of the file
+                length = Math.min(length, channel.size() - offset);
+                segments.add(channel.map(MapMode.READ_ONLY, offset, length));
+            } else {
+                segments.add(channel.map(MapMode.READ_WRITE, offset, length));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int readInt(int node, int field) {
+        MappedByteBuffer segment = segments.get(node / nodesPerSegment);
+        return segment.getInt((node % nodesPerSegment) * nodeBytes + field * Integer.BYTES);
+    }
+
+    private void writeInt(int node, int field, int value) {
+        int segmentIdx = node / nodesPerSegment;
+        segments.get(segmentIdx).putInt((node % nodesPerSegment) * nodeBytes + field * Integer.BYTES, value);
+        dirtySegments.set(segmentIdx);
+    }
+}
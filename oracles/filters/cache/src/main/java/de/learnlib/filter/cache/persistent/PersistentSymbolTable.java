@@ -0,0 +1,287 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An append-only, file-backed mapping between (arbitrary) symbols and consecutive integer codes. This allows to store
+ * output symbols in a {@link PersistentPrefixTree}, which only supports integer output codes.
+ * <p>
+ * Symbols are stored in their string representation (as determined by the given encoder), and are restored from this
+ * representation (using the given decoder) when the file is re-opened. The encoder must therefore be injective, and
+ * the decoder must be its inverse.
+ * <p>
+ * Each symbol is stored as a separate record. If the last record of the file is incomplete (e.g., because of an
+ * interrupted write), it is discarded when the file is re-opened for writing, so that new records are appended directly
+ * after the last complete one.
+ * <p>
+ * Like {@link PersistentPrefixTree}, a file may either be opened for writing by a single process, or be opened
+ * {@link #openReadOnly(Path, Function, Function) read-only} by an arbitrary number of processes. This is enforced by
+ * means of {@link FileLock file locks}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <S>
+ *         symbol type
+ */
+@ParametersAreNonnullByDefault
+public final class PersistentSymbolTable<S> implements Closeable {
+
+    private final Function<? super S, String> encoder;
+    private final List<S> symbols;
+    private final Map<S, Integer> codes;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final DataOutputStream out;
+    private final SyncPolicy syncPolicy;
+
+    private PersistentSymbolTable(Function<? super S, String> encoder,
+                                  List<S> symbols,
+                                  FileChannel channel,
+                                  FileLock lock,
+                                  boolean readOnly,
+                                  SyncPolicy syncPolicy) {
+        this.encoder = encoder;
+        this.symbols = symbols;
+        this.codes = new HashMap<>();
+        this.channel = channel;
+        this.lock = lock;
+        this.out = readOnly ? null : new DataOutputStream(Channels.newOutputStream(channel));
+        this.syncPolicy = syncPolicy;
+
+        for (int i = 0; i < symbols.size(); i++) {
+            codes.put(symbols.get(i), i);
+        }
+    }
+
+    /**
+     * Opens (or creates) the given file for reading and writing. The file is locked exclusively until the table is
+     * {@link #close() closed}.
+     *
+     * @param file
+     *         the file storing the symbols
+     * @param encoder
+     *         the function for obtaining the string representation of a symbol
+     * @param decoder
+     *         the function for restoring a symbol from its string representation
+     * @param syncPolicy
+     *         the policy for synchronizing new symbols with the storage device
+     *
+     * @return the symbol table stored in the given file
+     *
+     * @throws IOException
+     *         if the file cannot be read, written or locked
+     */
+    public static <S> PersistentSymbolTable<S> open(Path file,
+                                                    Function<? super S, String> encoder,
+                                                    Function<String, ? extends S> decoder,
+                                                    SyncPolicy syncPolicy) throws IOException {
+        FileChannel channel =
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return open(channel, encoder, decoder, false, syncPolicy);
+    }
+
+    /**
+     * Reads the given file. The returned symbol table cannot be modified. Multiple processes may open the same file
+     * read-only at the same time, but not while it is opened for writing.
+     *
+     * @param file
+     *         the file storing the symbols
+     * @param encoder
+     *         the function for obtaining the string representation of a symbol
+     * @param decoder
+     *         the function for restoring a symbol from its string representation
+     *
+     * @return the symbol table stored in the given file
+     *
+     * @throws IOException
+     *         if the file cannot be read or locked
+     */
+    public static <S> PersistentSymbolTable<S> openReadOnly(Path file,
+                                                            Function<? super S, String> encoder,
+                                                            Function<String, ? extends S> decoder) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return open(channel, encoder, decoder, true, SyncPolicy.NEVER);
+    }
+
+    private static <S> PersistentSymbolTable<S> open(FileChannel channel,
+                                                     Function<? super S, String> encoder,
+                                                     Function<String, ? extends S> decoder,
+                                                     boolean readOnly,
+                                                     SyncPolicy syncPolicy) throws IOException {
+        try {
+            FileLock lock = channel.tryLock(0, Long.MAX_VALUE, readOnly);
+            if (lock == null) {
+                throw new IOException("Symbol file is locked by another process");
+            }
+
+            List<S> symbols = new ArrayList<>();
+            long validLength = readSymbols(channel, decoder, symbols);
+
+            if (!readOnly) {
+                // drop an incomplete last record, so that it is not mistaken for the length of the next one
+                channel.truncate(validLength);
+                channel.position(validLength);
+            }
+
+            return new PersistentSymbolTable<>(encoder, symbols, channel, lock, readOnly, syncPolicy);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads all complete records of the given channel into the given list.
+     *
+     * @return the offset directly after the last complete record
+     */
+    private static <S> long readSymbols(FileChannel channel, Function<String, ? extends S> decoder, List<S> result)
+            throws IOException {
+        channel.position(0);
+        // not closed, as this would close the underlying channel
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        long validLength = 0;
+
+        while (true) {
+            // a record consists of an unsigned short length followed by the (modified UTF-8) encoded bytes
+            byte[] record;
+            try {
+                int length = in.readUnsignedShort();
+                record = new byte[Short.BYTES + length];
+                record[0] = (byte) (length >>> 8);
+                record[1] = (byte) length;
+                in.readFully(record, Short.BYTES, length);
+            } catch (EOFException ex) {
+                // regular end of file, or an incomplete last record from an interrupted write
+                break;
+            }
+
+            String encoded = new DataInputStream(new ByteArrayInputStream(record)).readUTF();
+            result.add(decoder.apply(encoded));
+            validLength += record.length;
+        }
+
+        return validLength;
+    }
+
+    public boolean isReadOnly() {
+        return out == null;
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Returns the symbol for the given code.
+     *
+     * @param code
+     *         the code
+     *
+     * @return the symbol
+     */
+    public S getSymbol(@Nonnegative int code) {
+        return symbols.get(code);
+    }
+
+    /**
+     * Returns the code of the given symbol, if it is contained in this table.
+     *
+     * @param symbol
+     *         the symbol
+     *
+     * @return the code of the symbol, or {@code -1} if the symbol is not contained in this table
+     */
+    public int getCode(S symbol) {
+        Integer code = codes.get(symbol);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the code of the given symbol, adding it to this table (and the underlying file) if necessary.
+     *
+     * @param symbol
+     *         the symbol
+     *
+     * @return the code of the symbol
+     */
+    public int getOrAddCode(S symbol) {
+        Integer code = codes.get(symbol);
+        if (code != null) {
+            return code;
+        }
+
+        if (out == null) {
+            throw new IllegalStateException("Cannot modify read-only symbol table");
+        }
+
+        try {
+            out.writeUTF(encoder.apply(symbol));
+            out.flush();
+            // the tree may reference the new code right away, so make sure it is not lost in case of a crash
+            if (syncPolicy != SyncPolicy.NEVER) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        int newCode = symbols.size();
+        symbols.add(symbol);
+        codes.put(symbol, newCode);
+        return newCode;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        try {
+            lock.release();
+        } finally {
+            // closes the underlying channel as well
+            if (out != null) {
+                out.close();
+            } else {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.persistent;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * Policies for synchronizing the contents of a {@link PersistentPrefixTree} with the underlying storage device.
+ * <p>
+ * Synchronizing means {@link MappedByteBuffer#force() forcing} all modifications to be written to the storage device.
+ * Without explicit synchronization, modifications are written back by the operating system at an unspecified point in
+ * time. They are not lost if the JVM terminates unexpectedly, but may be lost if the operating system (or the machine)
+ * crashes.
+ */
+public enum SyncPolicy {
+    /**
+     * Never synchronize explicitly, but leave writing back modifications to the operating system.
+     */
+    NEVER,
+    /**
+     * Synchronize only when the tree is closed.
+     */
+    ON_CLOSE,
+    /**
+     * Synchronize after each batch of queries that has been added to the tree (and when the tree is closed).
+     */
+    ON_BATCH,
+    /**
+     * Synchronize after each modification of the tree. This is very expensive and should only be used if every single
+     * query is expensive to repeat.
+     */
+    ALWAYS
+}
@@ -0,0 +1,171 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.dfa.BoundedDFACacheOracle;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.filter.cache.mealy.BoundedMealyCacheOracle;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BoundedCacheOracleTest {
+
+    private static final int MAX_NODES = 100;
+    private static final int NUM_RANDOM_QUERIES = 2000;
+    private static final int RANDOM_QUERY_LENGTH = 10;
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 2);
+
+    @Test
+    public void testDFACacheEviction() {
+        CountingOracle<Boolean> delegate = new CountingOracle<>(BoundedCacheOracleTest::isEvenSum);
+        BoundedDFACacheOracle<Integer> cache = DFACaches.createBoundedTreeCache(alphabet, MAX_NODES, delegate);
+
+        List<DefaultQuery<Integer, Boolean>> hotQueries = createHotQueries();
+        cache.processQueries(hotQueries);
+        int count = delegate.count;
+
+        floodCache(cache, delegate, BoundedCacheOracleTest::isEvenSum);
+        Assert.assertTrue(cache.getCacheSize() <= MAX_NODES);
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+
+        // the hot queries have been refreshed during flooding
+        Assert.assertEquals(delegate.count, count + NUM_RANDOM_QUERIES);
+        cache.processQueries(hotQueries);
+        Assert.assertEquals(delegate.count, count + NUM_RANDOM_QUERIES);
+        checkAnswers(hotQueries, BoundedCacheOracleTest::isEvenSum);
+    }
+
+    @Test
+    public void testMealyCacheEviction() {
+        CountingOracle<Word<Integer>> delegate = new CountingOracle<>(BoundedCacheOracleTest::runningSum);
+        BoundedMealyCacheOracle<Integer, Integer> cache =
+                MealyCaches.createBoundedTreeCache(alphabet, MAX_NODES, delegate);
+
+        List<DefaultQuery<Integer, Word<Integer>>> hotQueries = createHotQueries();
+        cache.processQueries(hotQueries);
+        int count = delegate.count;
+
+        floodCache(cache, delegate, BoundedCacheOracleTest::runningSum);
+        Assert.assertTrue(cache.getCacheSize() <= MAX_NODES);
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+
+        Assert.assertEquals(delegate.count, count + NUM_RANDOM_QUERIES);
+        cache.processQueries(hotQueries);
+        Assert.assertEquals(delegate.count, count + NUM_RANDOM_QUERIES);
+        checkAnswers(hotQueries, BoundedCacheOracleTest::runningSum);
+    }
+
+    private <D> void floodCache(MembershipOracle<Integer, D> cache,
+                                CountingOracle<D> delegate,
+                                BiFunction<Word<Integer>, Word<Integer>, D> expected) {
+        Random random = new Random(42);
+
+        for (int i = 0; i < NUM_RANDOM_QUERIES; i++) {
+            // the queries of the learner are posed repeatedly, the (unique) queries of an EQ oracle are not
+            List<DefaultQuery<Integer, D>> queries = createHotQueries();
+            WordBuilder<Integer> wb = new WordBuilder<>(RANDOM_QUERY_LENGTH);
+            // the first symbols ensure uniqueness
+            wb.append(alphabet.getSymbol(i % 3)).append(alphabet.getSymbol((i / 3) % 3));
+            wb.append(alphabet.getSymbol((i / 9) % 3)).append(alphabet.getSymbol((i / 27) % 3));
+            wb.append(alphabet.getSymbol((i / 81) % 3)).append(alphabet.getSymbol((i / 243) % 3));
+            wb.append(alphabet.getSymbol((i / 729) % 3));
+            while (wb.size() < RANDOM_QUERY_LENGTH) {
+                wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            queries.add(new DefaultQuery<>(wb.toWord()));
+
+            int count = delegate.count;
+            cache.processQueries(queries);
+            Assert.assertEquals(delegate.count, count + 1);
+            checkAnswers(queries, expected);
+        }
+    }
+
+    private <D> List<DefaultQuery<Integer, D>> createHotQueries() {
+        List<DefaultQuery<Integer, D>> result = new ArrayList<>();
+
+        for (Integer a : alphabet) {
+            result.add(new DefaultQuery<>(Word.fromSymbols(a)));
+            for (Integer b : alphabet) {
+                result.add(new DefaultQuery<>(Word.fromSymbols(a), Word.fromSymbols(b)));
+            }
+        }
+
+        return result;
+    }
+
+    private static <D> void checkAnswers(Collection<DefaultQuery<Integer, D>> queries,
+                                         BiFunction<Word<Integer>, Word<Integer>, D> expected) {
+        for (DefaultQuery<Integer, D> q : queries) {
+            Assert.assertEquals(q.getOutput(), expected.apply(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    private static Boolean isEvenSum(Word<Integer> prefix, Word<Integer> suffix) {
+        int sum = 0;
+        for (Integer i : prefix.concat(suffix)) {
+            sum += i;
+        }
+        return sum % 2 == 0;
+    }
+
+    private static Word<Integer> runningSum(Word<Integer> prefix, Word<Integer> suffix) {
+        int sum = 0;
+        for (Integer i : prefix) {
+            sum += i;
+        }
+
+        WordBuilder<Integer> wb = new WordBuilder<>(suffix.length());
+        for (Integer i : suffix) {
+            sum += i;
+            wb.append(sum);
+        }
+        return wb.toWord();
+    }
+
+    private static final class CountingOracle<D> implements MembershipOracle<Integer, D> {
+
+        private final BiFunction<Word<Integer>, Word<Integer>, D> function;
+        private int count;
+
+        CountingOracle(BiFunction<Word<Integer>, Word<Integer>, D> function) {
+            this.function = function;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, D>> queries) {
+            for (Query<Integer, D> q : queries) {
+                count++;
+                q.answer(function.apply(q.getPrefix(), q.getSuffix()));
+            }
+        }
+    }
+}
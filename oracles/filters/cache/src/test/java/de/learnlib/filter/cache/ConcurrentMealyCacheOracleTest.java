@@ -0,0 +1,160 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.mealy.ConcurrentMealyCacheOracle;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the {@link ConcurrentMealyCacheOracle}.
+ */
+public class ConcurrentMealyCacheOracleTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_QUERIES = 500;
+    private static final int MAX_LENGTH = 8;
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 2);
+
+    @Test
+    public void testDuplicateQueries() {
+        CountingSumOracle delegate = new CountingSumOracle();
+        ConcurrentMealyCacheOracle<Integer, Integer> cache = MealyCaches.createConcurrentTreeCache(alphabet, delegate);
+
+        List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>();
+        queries.add(new DefaultQuery<>(Word.fromSymbols(0, 1, 2)));
+        queries.add(new DefaultQuery<>(Word.fromSymbols(0), Word.fromSymbols(1)));
+        queries.add(new DefaultQuery<>(Word.fromSymbols(0, 1, 2)));
+
+        cache.processQueries(queries);
+        // prefixes of other queries are answered by the same delegated query
+        Assert.assertEquals(delegate.count.get(), 1);
+        checkAnswers(queries);
+
+        cache.processQueries(queries);
+        Assert.assertEquals(delegate.count.get(), 1);
+        checkAnswers(queries);
+
+        cache.processQuery(new DefaultQuery<>(Word.fromSymbols(1)));
+        Assert.assertEquals(delegate.count.get(), 2);
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException, ExecutionException {
+        CountingSumOracle delegate = new CountingSumOracle();
+        ConcurrentMealyCacheOracle<Integer, Integer> cache = MealyCaches.createConcurrentTreeCache(alphabet, delegate);
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+
+        try {
+            List<Future<List<DefaultQuery<Integer, Word<Integer>>>>> futures = new ArrayList<>(NUM_THREADS);
+
+            for (int i = 0; i < NUM_THREADS; i++) {
+                final Random random = new Random(i % 2);
+                futures.add(executor.submit(() -> {
+                    List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries(random);
+                    for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+                        cache.processQuery(q);
+                    }
+                    return queries;
+                }));
+            }
+
+            for (Future<List<DefaultQuery<Integer, Word<Integer>>>> f : futures) {
+                checkAnswers(f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // all queries are cached now
+        int count = delegate.count.get();
+        List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries(new Random(0));
+        cache.processQueries(queries);
+        checkAnswers(queries);
+        Assert.assertEquals(delegate.count.get(), count);
+    }
+
+    private List<DefaultQuery<Integer, Word<Integer>>> createQueries(Random random) {
+        List<DefaultQuery<Integer, Word<Integer>>> result = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            int length = random.nextInt(MAX_LENGTH);
+            WordBuilder<Integer> wb = new WordBuilder<>(length);
+            for (int j = 0; j < length; j++) {
+                wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+            }
+            result.add(new DefaultQuery<>(wb.toWord()));
+        }
+
+        return result;
+    }
+
+    private static void checkAnswers(Collection<DefaultQuery<Integer, Word<Integer>>> queries) {
+        for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), CountingSumOracle.computeOutput(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    /**
+     * A (thread-safe) oracle that outputs the running sum of all inputs, and counts the number of processed queries.
+     */
+    private static final class CountingSumOracle implements MembershipOracle<Integer, Word<Integer>> {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Word<Integer>>> queries) {
+            for (Query<Integer, Word<Integer>> q : queries) {
+                count.incrementAndGet();
+                q.answer(computeOutput(q.getPrefix(), q.getSuffix()));
+            }
+        }
+
+        static Word<Integer> computeOutput(Word<Integer> prefix, Word<Integer> suffix) {
+            int sum = 0;
+            for (Integer i : prefix) {
+                sum += i;
+            }
+
+            WordBuilder<Integer> wb = new WordBuilder<>(suffix.length());
+            for (Integer i : suffix) {
+                sum += i;
+                wb.append(sum);
+            }
+            return wb.toWord();
+        }
+    }
+}
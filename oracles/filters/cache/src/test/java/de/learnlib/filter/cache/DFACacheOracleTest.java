@@ -18,7 +18,6 @@ package de.learnlib.filter.cache;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
 import de.learnlib.api.query.Query;
 import de.learnlib.examples.dfa.ExampleAngluin;
@@ -40,7 +39,7 @@ import org.testng.annotations.Test;
 @SuppressWarnings("deprecation")
 public class DFACacheOracleTest {
 
-    private MembershipOracle<Integer, Boolean> oracle;
+    private DFACacheOracle<Integer> oracle;
     private CounterOracle<Integer, Boolean> counterOracle;
     private Collection<Query<Integer, Boolean>> queries;
 
@@ -106,4 +105,17 @@ public class DFACacheOracleTest {
         long count = counterOracle.getCount();
         Assert.assertTrue(count == 3);
     }
+
+    @Test(dependsOnMethods = {"testOneNewQuery"})
+    public void testAsyncQueries() {
+        DefaultQuery<Integer, Boolean> newQuery = new DefaultQuery<>(Word.fromSymbols(1, 1));
+        queries.add(newQuery);
+        Assert.assertTrue(queries.size() == 2);
+        oracle.processQueriesAsync(queries).join();
+        Assert.assertTrue(counterOracle.getCount() == 4);
+        Assert.assertNotNull(newQuery.getOutput());
+
+        oracle.processQueriesAsync(queries).join();
+        Assert.assertTrue(counterOracle.getCount() == 4);
+    }
 }
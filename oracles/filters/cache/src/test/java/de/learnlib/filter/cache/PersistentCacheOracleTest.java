@@ -0,0 +1,230 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import de.learnlib.filter.cache.dfa.PersistentDFACacheOracle;
+import de.learnlib.filter.cache.mealy.PersistentMealyCacheOracle;
+import de.learnlib.filter.cache.persistent.PersistentSymbolTable;
+import de.learnlib.filter.cache.persistent.SyncPolicy;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class PersistentCacheOracleTest {
+
+    private final Alphabet<Integer> alphabet = Alphabets.integers(0, 2);
+
+    private Path directory;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("learnlib-cache");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    public void testDFACacheReopen() throws IOException {
+        Path file = directory.resolve("dfa.cache");
+        CountingOracle<Boolean> delegate = new CountingOracle<>(PersistentCacheOracleTest::isEvenSum);
+
+        try (PersistentDFACacheOracle<Integer> cache = PersistentDFACacheOracle.open(file, alphabet, delegate)) {
+            List<DefaultQuery<Integer, Boolean>> queries = createQueries();
+            cache.processQueries(queries);
+            checkAnswers(queries, PersistentCacheOracleTest::isEvenSum);
+            Assert.assertEquals(delegate.count, queries.size());
+        }
+
+        delegate.count = 0;
+
+        try (PersistentDFACacheOracle<Integer> cache = PersistentDFACacheOracle.open(file, alphabet, delegate)) {
+            List<DefaultQuery<Integer, Boolean>> queries = createQueries();
+            cache.processQueries(queries);
+            checkAnswers(queries, PersistentCacheOracleTest::isEvenSum);
+            Assert.assertEquals(delegate.count, 0);
+        }
+
+        try (PersistentDFACacheOracle<Integer> cache = PersistentDFACacheOracle.openReadOnly(file,
+                                                                                             alphabet,
+                                                                                             delegate)) {
+            DefaultQuery<Integer, Boolean> query = new DefaultQuery<>(Word.fromSymbols(2, 2, 2, 2, 2));
+            int size = cache.getCacheSize();
+
+            cache.processQuery(query);
+            Assert.assertEquals(query.getOutput(), isEvenSum(Word.epsilon(), query.getInput()));
+            Assert.assertEquals(delegate.count, 1);
+
+            // read-only caches do not store new results
+            cache.processQuery(query);
+            Assert.assertEquals(delegate.count, 2);
+            Assert.assertEquals(cache.getCacheSize(), size);
+        }
+    }
+
+    @Test
+    public void testMealyCacheReopen() throws IOException {
+        Path file = directory.resolve("mealy.cache");
+        CountingOracle<Word<Integer>> delegate = new CountingOracle<>(PersistentCacheOracleTest::runningSum);
+
+        try (PersistentMealyCacheOracle<Integer, Integer> cache = openMealyCache(file, delegate)) {
+            List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries();
+            cache.processQueries(queries);
+            checkAnswers(queries, PersistentCacheOracleTest::runningSum);
+            Assert.assertTrue(delegate.count > 0);
+        }
+
+        delegate.count = 0;
+
+        try (PersistentMealyCacheOracle<Integer, Integer> cache = openMealyCache(file, delegate)) {
+            List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries();
+            queries.add(new DefaultQuery<>(Word.fromSymbols(1), Word.fromSymbols(2, 0)));
+            cache.processQueries(queries);
+            checkAnswers(queries, PersistentCacheOracleTest::runningSum);
+            Assert.assertEquals(delegate.count, 0);
+
+            DefaultQuery<Integer, Word<Integer>> query = new DefaultQuery<>(Word.fromSymbols(2, 2, 2, 2, 2));
+            cache.processQuery(query);
+            Assert.assertEquals(delegate.count, 1);
+            Assert.assertEquals(query.getOutput(), runningSum(Word.epsilon(), query.getInput()));
+        }
+    }
+
+    @Test
+    public void testSymbolTableIncompleteRecord() throws IOException {
+        Path file = directory.resolve("symbols");
+
+        try (PersistentSymbolTable<String> table = openSymbolTable(file)) {
+            Assert.assertEquals(table.getOrAddCode("a"), 0);
+            Assert.assertEquals(table.getOrAddCode("b"), 1);
+        }
+
+        // simulate an interrupted write: a length prefix announcing more bytes than actually follow
+        Files.write(file, new byte[] {0, 5, 'c'}, StandardOpenOption.APPEND);
+
+        try (PersistentSymbolTable<String> table = openSymbolTable(file)) {
+            Assert.assertEquals(table.size(), 2);
+            Assert.assertEquals(table.getOrAddCode("d"), 2);
+        }
+
+        try (PersistentSymbolTable<String> table = PersistentSymbolTable.openReadOnly(file,
+                                                                                      String::toString,
+                                                                                      String::toString)) {
+            Assert.assertEquals(table.size(), 3);
+            Assert.assertEquals(table.getSymbol(0), "a");
+            Assert.assertEquals(table.getSymbol(1), "b");
+            Assert.assertEquals(table.getSymbol(2), "d");
+        }
+    }
+
+    private static PersistentSymbolTable<String> openSymbolTable(Path file) throws IOException {
+        return PersistentSymbolTable.open(file, String::toString, String::toString, SyncPolicy.NEVER);
+    }
+
+    private PersistentMealyCacheOracle<Integer, Integer> openMealyCache(Path file,
+                                                                       CountingOracle<Word<Integer>> delegate)
+            throws IOException {
+        return PersistentMealyCacheOracle.open(file, alphabet, String::valueOf, Integer::valueOf, delegate);
+    }
+
+    private <D> List<DefaultQuery<Integer, D>> createQueries() {
+        List<DefaultQuery<Integer, D>> result = new ArrayList<>();
+
+        for (Integer a : alphabet) {
+            result.add(new DefaultQuery<>(Word.fromSymbols(a)));
+            for (Integer b : alphabet) {
+                result.add(new DefaultQuery<>(Word.fromSymbols(a, b)));
+                for (Integer c : alphabet) {
+                    result.add(new DefaultQuery<>(Word.fromSymbols(a, b, c)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static <D> void checkAnswers(Collection<DefaultQuery<Integer, D>> queries,
+                                         BiFunction<Word<Integer>, Word<Integer>, D> expected) {
+        for (DefaultQuery<Integer, D> q : queries) {
+            Assert.assertEquals(q.getOutput(), expected.apply(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    private static Boolean isEvenSum(Word<Integer> prefix, Word<Integer> suffix) {
+        int sum = 0;
+        for (Integer i : prefix.concat(suffix)) {
+            sum += i;
+        }
+        return sum % 2 == 0;
+    }
+
+    private static Word<Integer> runningSum(Word<Integer> prefix, Word<Integer> suffix) {
+        int sum = 0;
+        for (Integer i : prefix) {
+            sum += i;
+        }
+
+        WordBuilder<Integer> wb = new WordBuilder<>(suffix.length());
+        for (Integer i : suffix) {
+            sum += i;
+            wb.append(sum);
+        }
+        return wb.toWord();
+    }
+
+    private static final class CountingOracle<D> implements MembershipOracle<Integer, D> {
+
+        private final BiFunction<Word<Integer>, Word<Integer>, D> function;
+        private int count;
+
+        CountingOracle(BiFunction<Word<Integer>, Word<Integer>, D> function) {
+            this.function = function;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, D>> queries) {
+            for (Query<Integer, D> q : queries) {
+                count++;
+                q.answer(function.apply(q.getPrefix(), q.getSuffix()));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.filter.cache.mealy.SymbolQueryCache;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the {@link SymbolQueryCache}, in particular for the re-use of the trace that has been executed on the
+ * delegate since its last reset.
+ */
+public class SymbolQueryCacheTest {
+
+    private final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+
+    private LoggingSymbolQueryOracle delegate;
+    private SymbolQueryCache<Character, Integer> cache;
+
+    @BeforeMethod
+    public void setUp() {
+        delegate = new LoggingSymbolQueryOracle();
+        cache = new SymbolQueryCache<>(delegate, alphabet);
+    }
+
+    @Test
+    public void testHit() {
+        cache.reset();
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(cache.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "Rab");
+
+        cache.reset();
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(cache.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "Rab");
+    }
+
+    @Test
+    public void testMiss() {
+        cache.reset();
+        cache.query('a');
+        cache.query('b');
+
+        // the new trace does not extend the executed trace
+        cache.reset();
+        Assert.assertEquals(cache.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "RabRb");
+
+        // the new trace diverges from the executed trace after a cache hit
+        cache.reset();
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(2));
+        Assert.assertEquals(delegate.getLog(), "RabRbRaa");
+    }
+
+    @Test
+    public void testExtend() {
+        cache.reset();
+        cache.query('a');
+        cache.query('b');
+
+        cache.reset();
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(cache.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(cache.query('a'), Integer.valueOf(2));
+        Assert.assertEquals(cache.query('b'), Integer.valueOf(2));
+        Assert.assertEquals(delegate.getLog(), "Rabab");
+    }
+
+    @Test
+    public void testReset() {
+        // resets of the cache are only forwarded once a query cannot be answered from the cache
+        cache.reset();
+        cache.reset();
+        Assert.assertEquals(delegate.getLog(), "");
+
+        cache.query('b');
+        Assert.assertEquals(delegate.getLog(), "Rb");
+
+        // the executed trace is tracked from the last reset of the delegate on
+        cache.reset();
+        cache.query('a');
+        cache.reset();
+        cache.query('a');
+        cache.query('b');
+        Assert.assertEquals(delegate.getLog(), "RbRab");
+    }
+
+    /**
+     * A symbol query oracle that logs its resets (as {@code R}) and queried symbols. The output of a query is the
+     * number of occurrences of the queried symbol since the last reset.
+     */
+    private static final class LoggingSymbolQueryOracle implements SymbolQueryOracle<Character, Integer> {
+
+        private final StringBuilder log = new StringBuilder();
+        private final List<Character> trace = new ArrayList<>();
+
+        @Override
+        public Integer query(Character i) {
+            log.append(i);
+            trace.add(i);
+            return Collections.frequency(trace, i);
+        }
+
+        @Override
+        public void reset() {
+            log.append('R');
+            trace.clear();
+        }
+
+        String getLog() {
+            return log.toString();
+        }
+    }
+}
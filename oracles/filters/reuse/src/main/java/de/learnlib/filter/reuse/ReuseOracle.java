@@ -15,19 +15,23 @@
  */
 package de.learnlib.filter.reuse;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import de.learnlib.api.oracle.SingleQueryOracle.SingleQueryOracleMealy;
+import de.learnlib.api.query.Query;
 import de.learnlib.filter.reuse.ReuseCapableOracle.QueryResult;
 import de.learnlib.filter.reuse.tree.BoundedDeque.AccessPolicy;
 import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
 import de.learnlib.filter.reuse.tree.ReuseNode;
 import de.learnlib.filter.reuse.tree.ReuseNode.NodeResult;
 import de.learnlib.filter.reuse.tree.ReuseTree;
+import de.learnlib.filter.reuse.tree.ReuseTree.QueryLookup;
 import de.learnlib.filter.reuse.tree.ReuseTree.ReuseTreeBuilder;
 import de.learnlib.filter.reuse.tree.SystemStateHandler;
 import net.automatalib.words.Alphabet;
@@ -49,6 +53,19 @@ import net.automatalib.words.WordBuilder;
  * The usage of model invariant input symbols and failure output symbols is disabled by default and can be enabled upon
  * construction (see {@link ReuseOracleBuilder#withFailureOutputs(Set)} and {@link
  * ReuseOracleBuilder#withInvariantInputs(Set)}).
+ * <p>
+ * By default, the queries of a batch are answered in the order in which they are passed to {@link
+ * #processQueries(Collection)}. If query scheduling is enabled (see {@link
+ * ReuseOracleBuilder#withQueryScheduling(boolean)}), each batch is reordered depth-first along the shared prefixes of
+ * its queries, so that stored system states can be continued before they are consumed or evicted. This is most
+ * effective if system states are not invalidated upon reuse. The estimated effect of the reordering is available via
+ * {@link #getSchedulingReport()}, if reporting is enabled (see {@link
+ * ReuseOracleBuilder#withSchedulingReport(boolean)}).
+ * <p>
+ * A single reuse oracle may be shared by multiple threads (e.g. the workers of a parallel oracle). Each thread obtains
+ * its own {@link ReuseCapableOracle} from the supplier passed to {@link ReuseOracleBuilder#ReuseOracleBuilder(Alphabet,
+ * Supplier)}, while the thread-safe {@link ReuseTree} is shared, so that the system states stored by one thread can be
+ * continued by any other thread. In this case, system states need to be usable by all instances of the supplier.
  *
  * @param <S>
  *         system state class
@@ -68,19 +85,71 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
 
     private final ReuseTree<S, I, O> tree;
 
+    private final boolean scheduleQueries;
+    private final boolean reportScheduling;
+    private final boolean invalidateSystemstates;
+    private final Comparator<Word<I>> scheduleOrder;
+    private final ReuseSchedulingReport schedulingReport;
+
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong executedSymbols = new AtomicLong();
+
     /**
      * Default constructor.
      */
     private ReuseOracle(ReuseOracleBuilder<S, I, O> builder) {
         this.oracleSupplier = builder.oracleSupplier;
-        this.tree = new ReuseTreeBuilder<S, I, O>(builder.alphabet).withSystemStateHandler(builder.systemStateHandler)
-                                                                   .withFailureOutputs(builder.failureOutputSymbols)
-                                                                   .withInvariantInputs(builder.invariantInputSymbols)
-                                                                   .withEnabledSystemstateInvalidation(builder.invalidateSystemstates)
-                                                                   .withMaxSystemStates(builder.maxSystemStates)
-                                                                   .withAccessPolicy(builder.accessPolicy)
-                                                                   .withEvictPolicy(builder.evictPolicy)
-                                                                   .build();
+        this.scheduleQueries = builder.scheduleQueries;
+        this.reportScheduling = builder.reportScheduling;
+        this.invalidateSystemstates = builder.invalidateSystemstates;
+        this.scheduleOrder = ReuseQueryScheduler.depthFirstOrder(builder.alphabet);
+        this.schedulingReport = new ReuseSchedulingReport();
+        this.tree = new ReuseTreeBuilder<S, I, O>(builder.alphabet)
+                .withSystemStateHandler(builder.systemStateHandler)
+                .withFailureOutputs(builder.failureOutputSymbols)
+                .withInvariantInputs(builder.invariantInputSymbols)
+                .withEnabledSystemstateInvalidation(builder.invalidateSystemstates)
+                .withMaxSystemStates(builder.maxSystemStates)
+                .withMaxTotalSystemStates(builder.maxTotalSystemStates)
+                .withAccessPolicy(builder.accessPolicy)
+                .withEvictPolicy(builder.evictPolicy)
+                .build();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (!scheduleQueries || queries.size() < 2) {
+            queries.forEach(this::processQuery);
+            return;
+        }
+
+        final List<Query<I, Word<O>>> schedule = new ArrayList<>(queries);
+        schedule.sort((q1, q2) -> scheduleOrder.compare(q1.getInput(), q2.getInput()));
+
+        if (reportScheduling) {
+            recordSchedule(queries, schedule);
+        }
+
+        schedule.forEach(this::processQuery);
+    }
+
+    /**
+     * Estimates the costs of the naive and the scheduled order of a batch and records them in the scheduling report.
+     */
+    private void recordSchedule(Collection<? extends Query<I, Word<O>>> queries, List<Query<I, Word<O>>> schedule) {
+        final List<Word<I>> naiveOrder = new ArrayList<>(queries.size());
+        for (final Query<I, Word<O>> q : queries) {
+            naiveOrder.add(q.getInput());
+        }
+
+        final List<Word<I>> scheduledOrder = new ArrayList<>(schedule.size());
+        for (final Query<I, Word<O>> q : schedule) {
+            scheduledOrder.add(q.getInput());
+        }
+
+        schedulingReport.record(queries.size(),
+                                ReuseQueryScheduler.estimateCosts(naiveOrder, invalidateSystemstates),
+                                ReuseQueryScheduler.estimateCosts(scheduledOrder, invalidateSystemstates));
     }
 
     @Override
@@ -101,49 +170,41 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
      * invoked) or there exists a prefix that (maybe epsilon) could be reused so save reset invocation ( {@link
      * ReuseCapableOracle#continueQuery(Word, Object)} will be invoked with remaining suffix and the corresponding
      * {@link ReuseNode} of the {@link ReuseTree}).
+     * <p>
+     * All information required from the tree is obtained in a single traversal (see {@link ReuseTree#lookup(Word)}).
      */
     private Word<O> processQuery(final Word<I> query) {
-        Word<O> knownOutput = tree.getOutput(query);
+        final QueryLookup<S, I, O> lookup = tree.lookup(query);
 
-        if (knownOutput != null) {
-            return knownOutput;
+        if (lookup.isKnown()) {
+            return lookup.getOutput();
         }
 
-        // Search for system state
-        final NodeResult<S, I, O> nodeResult = tree.fetchSystemState(query);
+        final NodeResult<S, I, O> nodeResult = lookup.getNodeResult();
         final ReuseCapableOracle<S, I, O> oracle = getReuseCapableOracle();
-        final Word<O> output;
 
         // No system state available
         if (nodeResult == null) {
-            final QueryResult<S, O> newResult =
-                    filterAndProcessQuery(query, tree.getPartialOutput(query), oracle::processQuery);
-
+            final QueryResult<S, O> newResult = filterAndProcessQuery(query, lookup, 0, oracle, null);
             tree.insert(query, newResult);
+            return newResult.output;
+        }
 
-            output = newResult.output;
-        } else { // System state available -> reuse
-            final int suffixLen = query.size() - nodeResult.prefixLength;
-            final Word<I> suffix = query.suffix(suffixLen);
-
-            final Word<O> partialOutput = tree.getPartialOutput(query);
-            final Word<O> partialSuffixOutput = partialOutput.suffix(suffixLen);
-
-            final ReuseNode<S, I, O> reuseNode = nodeResult.reuseNode;
-            final S systemState = nodeResult.systemState;
+        // System state available -> reuse
+        final int prefixLength = nodeResult.prefixLength;
+        final Word<I> suffix = query.subWord(prefixLength);
 
-            final QueryResult<S, O> suffixQueryResult = filterAndProcessQuery(suffix,
-                                                                              partialSuffixOutput,
-                                                                              filteredInput -> oracle.continueQuery(
-                                                                                      filteredInput,
-                                                                                      systemState));
+        final QueryResult<S, O> suffixQueryResult;
+        try {
+            suffixQueryResult = filterAndProcessQuery(suffix, lookup, prefixLength, oracle, nodeResult);
+        } finally {
+            // the system state has been checked out exclusively, make it available again (if not invalidated)
+            this.tree.releaseSystemState(nodeResult);
+        }
 
-            this.tree.insert(suffix, reuseNode, suffixQueryResult);
+        this.tree.insert(suffix, nodeResult.reuseNode, suffixQueryResult);
 
-            final Word<O> prefixOutput = tree.getOutput(query.prefix(nodeResult.prefixLength));
-            output = new WordBuilder<>(prefixOutput).append(suffixQueryResult.output).toWord();
-        }
-        return output;
+        return lookup.getOutputPrefix(prefixLength).concat(suffixQueryResult.output);
     }
 
     /**
@@ -155,50 +216,83 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
 
     /**
      * Filters all the query elements corresponding to "reflexive" edges in the reuse tree, executes the shorter query,
-     * and fills the filtered outputs into the resulting output word.
+     * and fills the filtered outputs into the resulting output word. If the query does not contain any "reflexive"
+     * symbols, it is passed to the {@link ReuseCapableOracle} as is.
      *
      * @param query
      *         the input query with "reflexive" symbols (may be a suffix of the original query, if a system state is
      *         reused).
-     * @param partialOutput
-     *         the output information from the tree with {@code null} entries for all "non-reflexive" edges.
-     * @param processQuery
-     *         a function that actually processes the (shortened) query.
+     * @param lookup
+     *         the lookup of the original query in the tree, providing the positions and outputs of "reflexive" edges.
+     * @param offset
+     *         the position of the given query in the original query.
+     * @param oracle
+     *         the oracle that actually processes the (shortened) query.
+     * @param nodeResult
+     *         the system state to continue, or {@code null} if the query should be processed from scratch.
      *
      * @return the query result including the outputs of the "reflexive" symbol executions.
      */
     private QueryResult<S, O> filterAndProcessQuery(Word<I> query,
-                                                    Word<O> partialOutput,
-                                                    Function<Word<I>, QueryResult<S, O>> processQuery) {
-        final LinkedList<I> filteredQueryList = new LinkedList<>(query.asList());
-        final Iterator<I> queryIterator = filteredQueryList.iterator();
+                                                    QueryLookup<S, I, O> lookup,
+                                                    int offset,
+                                                    ReuseCapableOracle<S, I, O> oracle,
+                                                    NodeResult<S, I, O> nodeResult) {
+        final int numReflexive = lookup.getNumReflexiveEdges();
+
+        // skip the "reflexive" edges of the (reused) prefix
+        int firstReflexive = 0;
+        while (firstReflexive < numReflexive && lookup.getReflexiveIndex(firstReflexive) < offset) {
+            firstReflexive++;
+        }
+
+        if (firstReflexive == numReflexive) {
+            return process(query, oracle, nodeResult);
+        }
+
+        final int length = query.length();
 
         // filter "reflexive" edges
-        for (final O outputSymbol : partialOutput) {
-            queryIterator.next();
-            if (outputSymbol != null) {
-                queryIterator.remove();
+        final WordBuilder<I> filteredQuery = new WordBuilder<>(length - (numReflexive - firstReflexive));
+        int r = firstReflexive;
+        for (int i = 0; i < length; i++) {
+            if (r < numReflexive && lookup.getReflexiveIndex(r) == offset + i) {
+                r++;
+            } else {
+                filteredQuery.add(query.getSymbol(i));
             }
         }
 
         // process the query
-        final QueryResult<S, O> res = processQuery.apply(Word.fromList(filteredQueryList));
-
-        final WordBuilder<O> wordBuilder = new WordBuilder<>();
-        final Iterator<O> resultIterator = res.output.iterator();
+        final QueryResult<S, O> res = process(filteredQuery.toWord(), oracle, nodeResult);
 
         // insert back the a priori available outputs of "reflexive" edges
-        for (final O output : partialOutput) {
-            if (output == null) {
-                wordBuilder.add(resultIterator.next());
+        final WordBuilder<O> wordBuilder = new WordBuilder<>(length);
+        r = firstReflexive;
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            if (r < numReflexive && lookup.getReflexiveIndex(r) == offset + i) {
+                wordBuilder.add(lookup.getOutput(offset + i));
+                r++;
             } else {
-                wordBuilder.add(output);
+                wordBuilder.add(res.output.getSymbol(j++));
             }
         }
 
         return new QueryResult<>(wordBuilder.toWord(), res.newState);
     }
 
+    private QueryResult<S, O> process(Word<I> query,
+                                      ReuseCapableOracle<S, I, O> oracle,
+                                      NodeResult<S, I, O> nodeResult) {
+        executedSymbols.addAndGet(query.length());
+        if (nodeResult == null) {
+            resets.incrementAndGet();
+            return oracle.processQuery(query);
+        }
+        return oracle.continueQuery(query, nodeResult.systemState);
+    }
+
     /**
      * Returns the {@link ReuseTree} used by this instance.
      */
@@ -206,6 +300,31 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
         return this.tree;
     }
 
+    /**
+     * Returns the number of queries that have been processed from scratch, i.e., without reusing a system state.
+     */
+    public long getResets() {
+        return resets.get();
+    }
+
+    /**
+     * Returns the number of symbols that have been executed by the {@link ReuseCapableOracle}s of this instance. See
+     * {@link ReuseTree#getSavedSymbols()} for the number of symbols that did not need to be replayed due to reusage.
+     */
+    public long getExecutedSymbols() {
+        return executedSymbols.get();
+    }
+
+    /**
+     * Returns the report about the resets and symbols that are estimated to be saved by the query scheduling of this
+     * instance. If query scheduling or reporting (see {@link ReuseOracleBuilder#withSchedulingReport(boolean)}) is
+     * disabled, the report remains empty. See {@link #getResets()} and {@link #getExecutedSymbols()} for the actual
+     * costs.
+     */
+    public ReuseSchedulingReport getSchedulingReport() {
+        return this.schedulingReport;
+    }
+
     public static class ReuseOracleBuilder<S, I, O> {
 
         private final Alphabet<I> alphabet;
@@ -216,8 +335,11 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
         private Set<I> invariantInputSymbols;
         private Set<O> failureOutputSymbols;
         private int maxSystemStates = -1;
+        private int maxTotalSystemStates = -1;
         private AccessPolicy accessPolicy = AccessPolicy.LIFO;
         private EvictPolicy evictPolicy = EvictPolicy.EVICT_OLDEST;
+        private boolean scheduleQueries;
+        private boolean reportScheduling;
 
         public ReuseOracleBuilder(Alphabet<I> alphabet,
                                   Supplier<? extends ReuseCapableOracle<S, I, O>> oracleSupplier) {
@@ -250,6 +372,11 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
             return this;
         }
 
+        public ReuseOracleBuilder<S, I, O> withMaxTotalSystemStates(int maxTotalSystemStates) {
+            this.maxTotalSystemStates = maxTotalSystemStates;
+            return this;
+        }
+
         public ReuseOracleBuilder<S, I, O> withAccessPolicy(AccessPolicy accessPolicy) {
             this.accessPolicy = accessPolicy;
             return this;
@@ -260,6 +387,26 @@ public final class ReuseOracle<S, I, O> implements SingleQueryOracleMealy<I, O>
             return this;
         }
 
+        public ReuseOracleBuilder<S, I, O> withQueryScheduling(boolean scheduleQueries) {
+            this.scheduleQueries = scheduleQueries;
+            return this;
+        }
+
+        /**
+         * Enables the {@link ReuseOracle#getSchedulingReport() scheduling report}. Estimating the costs of the naive
+         * and the scheduled order requires two additional passes over each batch, hence the report is disabled by
+         * default.
+         *
+         * @param reportScheduling
+         *         whether to estimate the effect of the query scheduling
+         *
+         * @return this builder
+         */
+        public ReuseOracleBuilder<S, I, O> withSchedulingReport(boolean reportScheduling) {
+            this.reportScheduling = reportScheduling;
+            return this;
+        }
+
         public ReuseOracle<S, I, O> build() {
             return new ReuseOracle<>(this);
         }
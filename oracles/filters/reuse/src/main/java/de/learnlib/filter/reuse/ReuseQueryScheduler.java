@@ -0,0 +1,141 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+
+/**
+ * Utility class for scheduling the queries of a batch that is processed by a {@link ReuseOracle}.
+ * <p>
+ * The scheduled order corresponds to a depth-first (pre-order) traversal of the prefix trie spanned by the inputs of
+ * the queries: Queries are sorted lexicographically w.r.t. the symbol indices of the alphabet, where a word precedes
+ * all of its extensions. Hence, a query is always processed directly before the queries that extend it, so that the
+ * system state stored for its input can be continued, and queries that share a prefix are processed in sequence.
+ * <p>
+ * Additionally, this class provides a simple cost model that allows to compare the number of resets and symbols of
+ * different orders of the same batch (see {@link #estimateCosts(List, boolean)}).
+ */
+final class ReuseQueryScheduler {
+
+    private ReuseQueryScheduler() {
+        throw new AssertionError("Constructor should not be invoked");
+    }
+
+    /**
+     * Returns a comparator that sorts words in a depth-first order of their prefix trie.
+     *
+     * @param alphabet
+     *         the alphabet whose symbol indices determine the order of siblings
+     *
+     * @return a comparator for the depth-first order of words
+     */
+    static <I> Comparator<Word<I>> depthFirstOrder(Alphabet<I> alphabet) {
+        return (w1, w2) -> {
+            final int len1 = w1.length();
+            final int len2 = w2.length();
+            final int minLen = Math.min(len1, len2);
+
+            for (int i = 0; i < minLen; i++) {
+                final int cmp = Integer.compare(alphabet.getSymbolIndex(w1.getSymbol(i)),
+                                                alphabet.getSymbolIndex(w2.getSymbol(i)));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+
+            return Integer.compare(len1, len2);
+        };
+    }
+
+    /**
+     * Estimates the number of resets and executed symbols that are required for answering the given words in the
+     * given order. The estimation assumes an initially empty reuse tree, an unbounded number of system states per
+     * node, and no pumping of invariant inputs or failure outputs.
+     *
+     * @param words
+     *         the (ordered) input words of the batch
+     * @param invalidateSystemStates
+     *         whether system states are removed from the tree once they have been reused
+     *
+     * @return an array containing the number of resets at index 0 and the number of executed symbols at index 1
+     */
+    static <I> long[] estimateCosts(List<? extends Word<I>> words, boolean invalidateSystemStates) {
+        final TrieNode<I> root = new TrieNode<>();
+
+        long resets = 0;
+        long symbols = 0;
+
+        for (final Word<I> word : words) {
+            final int length = word.length();
+
+            TrieNode<I> node = root;
+            TrieNode<I> stateNode = root.systemStates > 0 ? root : null;
+            int stateDepth = 0;
+            int depth = 0;
+
+            while (depth < length) {
+                final TrieNode<I> succ = node.children.get(word.getSymbol(depth));
+                if (succ == null) {
+                    break;
+                }
+                node = succ;
+                depth++;
+                if (node.systemStates > 0) {
+                    stateNode = node;
+                    stateDepth = depth;
+                }
+            }
+
+            if (depth == length) {
+                // output already known
+                continue;
+            }
+
+            if (stateNode == null) {
+                resets++;
+                symbols += length;
+            } else {
+                symbols += length - stateDepth;
+                if (invalidateSystemStates) {
+                    stateNode.systemStates--;
+                }
+            }
+
+            while (depth < length) {
+                final TrieNode<I> succ = new TrieNode<>();
+                node.children.put(word.getSymbol(depth), succ);
+                node = succ;
+                depth++;
+            }
+
+            node.systemStates++;
+        }
+
+        return new long[] {resets, symbols};
+    }
+
+    private static final class TrieNode<I> {
+
+        private final Map<I, TrieNode<I>> children = new HashMap<>();
+        private int systemStates;
+    }
+}
@@ -0,0 +1,118 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.statistic.StatisticData;
+
+/**
+ * Report about the <em>estimated</em> effect of the query scheduling of a {@link ReuseOracle} (see {@link
+ * ReuseOracle.ReuseOracleBuilder#withQueryScheduling(boolean)}). The report is only maintained if it has been enabled
+ * (see {@link ReuseOracle.ReuseOracleBuilder#withSchedulingReport(boolean)}).
+ * <p>
+ * For each scheduled batch, the number of resets and executed symbols is estimated both for the original (naive)
+ * order, in which the queries were passed to the oracle, and for the scheduled order. The estimation simulates the
+ * queries of the batch on an empty tree, i.e., it does not account for system states that were stored by previous
+ * batches, for capacity restrictions, or for concurrent workers. Hence, the reported savings are not measured during
+ * the run; the resets and symbols that were actually executed are available via {@link ReuseOracle#getResets()} and
+ * {@link ReuseOracle#getExecutedSymbols()}.
+ */
+@ParametersAreNonnullByDefault
+public class ReuseSchedulingReport implements StatisticData {
+
+    private long batches;
+    private long queries;
+    private long estimatedNaiveResets;
+    private long estimatedNaiveSymbols;
+    private long estimatedScheduledResets;
+    private long estimatedScheduledSymbols;
+
+    synchronized void record(int batchSize, long[] naiveCosts, long[] scheduledCosts) {
+        batches++;
+        queries += batchSize;
+        estimatedNaiveResets += naiveCosts[0];
+        estimatedNaiveSymbols += naiveCosts[1];
+        estimatedScheduledResets += scheduledCosts[0];
+        estimatedScheduledSymbols += scheduledCosts[1];
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    public synchronized long getQueries() {
+        return queries;
+    }
+
+    public synchronized long getEstimatedNaiveResets() {
+        return estimatedNaiveResets;
+    }
+
+    public synchronized long getEstimatedNaiveSymbols() {
+        return estimatedNaiveSymbols;
+    }
+
+    public synchronized long getEstimatedScheduledResets() {
+        return estimatedScheduledResets;
+    }
+
+    public synchronized long getEstimatedScheduledSymbols() {
+        return estimatedScheduledSymbols;
+    }
+
+    public synchronized long getEstimatedSavedResets() {
+        return estimatedNaiveResets - estimatedScheduledResets;
+    }
+
+    public synchronized long getEstimatedSavedSymbols() {
+        return estimatedNaiveSymbols - estimatedScheduledSymbols;
+    }
+
+    @Nonnull
+    @Override
+    public String getName() {
+        return "Reuse query scheduling";
+    }
+
+    @Nonnull
+    @Override
+    public String getUnit() {
+        return "resets/symbols";
+    }
+
+    @Nonnull
+    @Override
+    public synchronized String getSummary() {
+        return getName() + " [" + getUnit() + "]: estimated savings " + getEstimatedSavedResets() + '/' +
+               getEstimatedSavedSymbols();
+    }
+
+    @Nonnull
+    @Override
+    public synchronized String getDetails() {
+        return getSummary() + " (" + batches + " batches, " + queries + " queries, estimated naive order: " +
+               estimatedNaiveResets + '/' + estimatedNaiveSymbols + ", estimated scheduled order: " +
+               estimatedScheduledResets + '/' + estimatedScheduledSymbols + ')';
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getDetails();
+    }
+}
@@ -97,15 +97,17 @@ public class BoundedDeque<E> extends AbstractCollection<E> implements Serializab
     }
 
     /**
-     * Evicts an element, depending on the configured {@link EvictPolicy}.
+     * Evicts an element, depending on the configured {@link EvictPolicy}. As {@link EvictPolicy#REJECT_NEW} retains the
+     * elements that have been inserted first, the newest element is evicted in this case.
      *
-     * @return the evicted element
+     * @return the evicted element, {@code null} if the deque is empty
      */
-    private E evict() {
+    public E evict() {
         switch (evictPolicy) {
             case EVICT_OLDEST:
                 return deque.pollFirst();
             case EVICT_NEWEST:
+            case REJECT_NEW:
                 return deque.pollLast();
             default:
                 throw new IllegalStateException("Illegal evict policy: " + evictPolicy);
@@ -15,9 +15,11 @@
  */
 package de.learnlib.filter.reuse.tree;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import de.learnlib.filter.reuse.tree.BoundedDeque.AccessPolicy;
 import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
@@ -27,6 +29,10 @@ import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
  * ReuseEdge}s. Each {@link ReuseNode} may contain a system state holding relevant informations (e.g. database
  * identifiers or an object) that belongs to the system state that 'represents' the system state after executing a
  * membership query.
+ * <p>
+ * Nodes may be accessed concurrently: Outgoing edges are stored in an atomic array (so that lookups do not require any
+ * locking) and are only added via {@link #addEdgeIfAbsent(int, ReuseEdge)} by the {@link ReuseTree}. The system states
+ * of a node are guarded by the node itself, i.e., accessing the system states of different nodes does not block.
  *
  * @param <S>
  *         system state class
@@ -39,46 +45,138 @@ import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
  */
 public class ReuseNode<S, I, O> {
 
-    private final ReuseEdge<S, I, O>[] edges;
+    private final AtomicReferenceArray<ReuseEdge<S, I, O>> edges;
     private final BoundedDeque<S> systemStates;
-    // private S systemstate;
+    /** Number of system states, may be read without holding the lock of this node. */
+    private volatile int numSystemStates;
     private final int id;
+    /** The number of (non-reflexive) edges from the root to this node, i.e., the replay cost of its system states. */
+    private final int depth;
+    /** Number of times a system state of this node has been reused, guarded by this node. */
+    private long hits;
+    /** Logical time of the last access to the system states of this node, guarded by this node. */
+    private long lastAccess;
+    /** Position of this node in the eviction candidates of the tree, guarded by the tree. */
+    private int stateNodeIndex = -1;
 
-    @SuppressWarnings("unchecked")
     public ReuseNode(int id,
                      int alphabetSize,
                      int maxSystemStates,
                      AccessPolicy accessPolicy,
                      EvictPolicy evictPolicy) {
-        this.edges = new ReuseEdge[alphabetSize];
+        this(id, 0, alphabetSize, maxSystemStates, accessPolicy, evictPolicy);
+    }
+
+    public ReuseNode(int id,
+                     int depth,
+                     int alphabetSize,
+                     int maxSystemStates,
+                     AccessPolicy accessPolicy,
+                     EvictPolicy evictPolicy) {
+        this.edges = new AtomicReferenceArray<>(alphabetSize);
         this.id = id;
+        this.depth = depth;
         this.systemStates = new BoundedDeque<>(maxSystemStates, accessPolicy, evictPolicy);
     }
 
     /**
-     * The system state, may be {@code null}.
+     * The system state, may be {@code null}. Note that a system state that is not removed may be returned to multiple
+     * (concurrent) callers; the {@link ReuseTree} therefore always removes fetched system states and re-adds them if
+     * they are not invalidated.
      */
-    public S fetchSystemState(boolean remove) {
+    public synchronized S fetchSystemState(boolean remove) {
         if (remove) {
-            return systemStates.retrieve();
+            final S result = systemStates.retrieve();
+            numSystemStates = systemStates.size();
+            return result;
         }
         return systemStates.peek();
     }
 
-    public S addSystemState(S state) {
-        return systemStates.insert(state);
+    public synchronized S addSystemState(S state) {
+        final S evicted = systemStates.insert(state);
+        numSystemStates = systemStates.size();
+        return evicted;
+    }
+
+    /**
+     * Removes a system state of this node according to the configured {@link EvictPolicy}.
+     *
+     * @return the removed system state, {@code null} if this node does not hold any system states
+     *
+     * @see BoundedDeque#evict()
+     */
+    public synchronized S evictSystemState() {
+        final S result = systemStates.evict();
+        numSystemStates = systemStates.size();
+        return result;
+    }
+
+    /**
+     * Returns the number of system states of this node.
+     */
+    public int getNumSystemStates() {
+        return numSystemStates;
+    }
+
+    /**
+     * Returns the number of times a system state of this node has been reused.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized void recordAccess(long time, boolean hit) {
+        lastAccess = time;
+        if (hit) {
+            hits++;
+        }
     }
 
-    public Iterator<S> systemStatesIterator() {
-        return systemStates.iterator();
+    /**
+     * Computes the value of retaining the system states of this node at the given (logical) time: The value grows with
+     * the replay cost (depth) and the number of reuses of the system states and decays with the time since their last
+     * access.
+     */
+    synchronized double getRetentionValue(long now) {
+        return depth * (1.0 + hits) / (1.0 + (now - lastAccess));
+    }
+
+    int getStateNodeIndex() {
+        return stateNodeIndex;
+    }
+
+    void setStateNodeIndex(int stateNodeIndex) {
+        this.stateNodeIndex = stateNodeIndex;
+    }
+
+    /**
+     * Returns an iterator over the system states of this node. The iterator is backed by a snapshot of the current
+     * system states, i.e., it does not reflect subsequent modifications.
+     */
+    public synchronized Iterator<S> systemStatesIterator() {
+        return new ArrayList<>(systemStates).iterator();
     }
 
     public boolean hasSystemStates() {
-        return !systemStates.isEmpty();
+        return numSystemStates > 0;
     }
 
-    public void clearSystemStates() {
+    public synchronized void clearSystemStates() {
         systemStates.clear();
+        numSystemStates = 0;
+    }
+
+    /**
+     * Removes all system states from this node and returns them.
+     *
+     * @return the removed system states
+     */
+    public synchronized List<S> drainSystemStates() {
+        final List<S> result = new ArrayList<>(systemStates);
+        systemStates.clear();
+        numSystemStates = 0;
+        return result;
     }
 
     /**
@@ -86,14 +184,38 @@ public class ReuseNode<S, I, O> {
      * java.util.Collection} will be empty (but never {@code null}).
      */
     public Collection<ReuseEdge<S, I, O>> getEdges() {
-        return Arrays.asList(edges);
+        final int numEdges = edges.length();
+        final List<ReuseEdge<S, I, O>> result = new ArrayList<>(numEdges);
+        for (int i = 0; i < numEdges; i++) {
+            result.add(edges.get(i));
+        }
+        return result;
     }
 
     /**
      * Adds an outgoing {@link ReuseEdge} to this {@link ReuseNode}.
      */
     public void addEdge(int index, ReuseEdge<S, I, O> edge) {
-        this.edges[index] = edge;
+        this.edges.set(index, edge);
+    }
+
+    /**
+     * Atomically adds an outgoing {@link ReuseEdge} to this {@link ReuseNode}, if there is no edge for the given index
+     * yet.
+     *
+     * @param index
+     *         the index of the input symbol
+     * @param edge
+     *         the edge to add
+     *
+     * @return the edge for the given index after this operation, i.e., the given edge if it was added, or the existing
+     * edge otherwise
+     */
+    public ReuseEdge<S, I, O> addEdgeIfAbsent(int index, ReuseEdge<S, I, O> edge) {
+        if (edges.compareAndSet(index, null, edge)) {
+            return edge;
+        }
+        return edges.get(index);
     }
 
     public ReuseNode<S, I, O> getTargetNodeForInput(int index) {
@@ -108,13 +230,20 @@ public class ReuseNode<S, I, O> {
      * May be {@code null}.
      */
     public ReuseEdge<S, I, O> getEdgeWithInput(int index) {
-        return this.edges[index];
+        return this.edges.get(index);
     }
 
     public int getId() {
         return this.id;
     }
 
+    /**
+     * Returns the number of (non-reflexive) edges from the root of the tree to this node.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
     public static final class NodeResult<S, I, O> {
 
         public final ReuseNode<S, I, O> reuseNode;
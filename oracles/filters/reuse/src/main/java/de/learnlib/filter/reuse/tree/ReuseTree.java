@@ -18,9 +18,12 @@ package de.learnlib.filter.reuse.tree;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import de.learnlib.filter.reuse.ReuseCapableOracle;
 import de.learnlib.filter.reuse.ReuseException;
@@ -42,6 +45,29 @@ import net.automatalib.words.WordBuilder;
  * SUL and maintains also available system states. The {@link ReuseTree} is only 'tree like' since it may contain
  * reflexive edges at nodes (only possible if {@link ReuseTreeBuilder#withFailureOutputs(Set)} or {@link
  * ReuseTreeBuilder#withInvariantInputs(Set)} is set).
+ * <p>
+ * The {@link ReuseTree} is thread-safe: Lookups ({@link #getOutput(Word)}, {@link #getPartialOutput(Word)}) traverse
+ * the tree without locking, new edges are added atomically (see {@link ReuseNode#addEdgeIfAbsent(int, ReuseEdge)}), and
+ * the system states are guarded by their respective nodes. Hence, multiple {@link ReuseCapableOracle}s (e.g. the
+ * per-thread instances of a {@link ReuseOracle} that is shared by the workers of a parallel oracle) may fetch and
+ * continue different system states at the same time.
+ * <p>
+ * A fetched system state is always removed from its node, so that it is handed out to a single caller only. If system
+ * states are not invalidated upon reuse (see {@link ReuseTreeBuilder#withEnabledSystemstateInvalidation(boolean)}), the
+ * caller has to return the system state via {@link #releaseSystemState(ReuseNode.NodeResult)} once it has been
+ * continued.
+ * <p>
+ * {@link #clearTree()} and {@link #disposeSystemstates()} are mutually exclusive, but are not synchronized with the
+ * other operations of the tree. They must only be invoked while no queries are in flight, i.e., while no other thread
+ * accesses the tree.
+ * <p>
+ * Besides the per-node capacity (see {@link ReuseTreeBuilder#withMaxSystemStates(int)}), the total number of system
+ * states stored in the tree may be limited (see {@link ReuseTreeBuilder#withMaxTotalSystemStates(int)}). If this budget
+ * is exceeded, system states are evicted (according to the evict policy of the nodes) from the node with the lowest
+ * retention value among a bounded sample of nodes. The retention value grows with the depth of the node (i.e., the
+ * number of symbols that need not be replayed when reusing its system states) and the number of past reuses, and
+ * decays with the (logical) time since the last access to its system states. The tree counts hits, misses, evictions
+ * and saved symbols of its system states.
  *
  * @param <S>
  *         system state class
@@ -63,10 +89,29 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
     private final int maxSystemStates;
     private final AccessPolicy accessPolicy;
     private final EvictPolicy evictPolicy;
+    private final int maxTotalSystemStates;
+
+    /** The number of nodes that are sampled for selecting the node to evict system states from. */
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    /**
+     * Nodes that (may) hold system states, guarded by itself. Only maintained if the total budget is limited. Each node
+     * knows its position in this list (see {@link ReuseNode#getStateNodeIndex()}), so that it can be removed in
+     * constant time.
+     */
+    private final List<ReuseNode<S, I, O>> stateNodes = new ArrayList<>();
+    private final AtomicInteger numSystemStates = new AtomicInteger();
+    /** Logical clock for tracking the recency of system state accesses. */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong savedSymbols = new AtomicLong();
     /** Maybe reset to zero, see {@link ReuseTree#clearTree()}. */
-    private int nodeCount;
+    private final AtomicInteger nodeCount = new AtomicInteger();
     /** Maybe reinitialized , see {@link ReuseTree#clearTree()}. */
-    private ReuseNode<S, I, O> root;
+    private volatile ReuseNode<S, I, O> root;
 
     private ReuseTree(ReuseTreeBuilder<S, I, O> builder) {
         this.alphabet = builder.alphabet;
@@ -86,14 +131,20 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
         this.maxSystemStates = builder.maxSystemStates;
         this.accessPolicy = builder.accessPolicy;
         this.evictPolicy = builder.evictPolicy;
+        this.maxTotalSystemStates = builder.maxTotalSystemStates;
 
         // local and not configurable
         this.alphabetSize = alphabet.size();
-        this.root = createNode();
+        this.root = createNode(0);
     }
 
-    private ReuseNode<S, I, O> createNode() {
-        return new ReuseNode<>(nodeCount++, alphabetSize, maxSystemStates, accessPolicy, evictPolicy);
+    private ReuseNode<S, I, O> createNode(int depth) {
+        return new ReuseNode<>(nodeCount.getAndIncrement(),
+                               depth,
+                               alphabetSize,
+                               maxSystemStates,
+                               accessPolicy,
+                               evictPolicy);
     }
 
     /**
@@ -104,7 +155,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      *
      * @return The output for {@code query} if already known from the {@link ReuseTree} or {@code null} if unknown.
      */
-    public synchronized Word<O> getOutput(final Word<I> query) {
+    public Word<O> getOutput(final Word<I> query) {
         if (query == null) {
             String msg = "Query is not allowed to be null.";
             throw new IllegalArgumentException(msg);
@@ -144,7 +195,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * @return The partial output for {@code query} from the {@link ReuseTree} with outputs for "reflexive" edges filled
      * with {@code null} for "non-reflexive" and not-known parts of the input word.
      */
-    public synchronized Word<O> getPartialOutput(Word<I> query) {
+    public Word<O> getPartialOutput(Word<I> query) {
         if (query == null) {
             String msg = "Query is not allowed to be null.";
             throw new IllegalArgumentException(msg);
@@ -176,19 +227,18 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * This method removes all system states from the tree. The tree structure remains, but there will be nothing for
      * reusage.
      * <p>
-     * The {@link SystemStateHandler} will be informed about all disposings.
+     * The {@link SystemStateHandler} will be informed about all disposings. System states that are currently fetched
+     * are not affected, hence this method must not be invoked while queries are in flight.
      */
     public synchronized void disposeSystemstates() {
         disposeSystemstates(getRoot());
+        resetSystemStateBudget();
     }
 
     private void disposeSystemstates(ReuseNode<S, I, O> node) {
-        Iterator<S> stateIt = node.systemStatesIterator();
-        while (stateIt.hasNext()) {
-            S state = stateIt.next();
+        for (S state : node.drainSystemStates()) {
             systemStateHandler.dispose(state);
         }
-        node.clearSystemStates();
 
         for (ReuseEdge<S, I, O> edge : node.getEdges()) {
             if (edge != null) {
@@ -204,34 +254,84 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * Clears the whole tree which means the root will be reinitialized by a new {@link ReuseNode} and all existing
      * system states will be disposed. All invariant input symbols as well as all failure output symbols will remain.
      * <p>
-     * The {@link SystemStateHandler} will <b>not</b> be informed about any disposings.
+     * The {@link SystemStateHandler} will <b>not</b> be informed about any disposings. This method must not be invoked
+     * while queries are in flight.
      */
     public synchronized void clearTree() {
-        this.nodeCount = 0;
+        this.nodeCount.set(0);
         disposeSystemstates(root);
-        this.root = createNode();
+        resetSystemStateBudget();
+        this.root = createNode(0);
+    }
+
+    private void resetSystemStateBudget() {
+        synchronized (stateNodes) {
+            for (final ReuseNode<S, I, O> node : stateNodes) {
+                node.setStateNodeIndex(-1);
+            }
+            stateNodes.clear();
+            numSystemStates.set(0);
+        }
+    }
+
+    /**
+     * Returns the number of system states currently stored in the tree.
+     */
+    public int getNumSystemStates() {
+        return numSystemStates.get();
+    }
+
+    /**
+     * Returns the number of times a system state has been fetched for reusage.
+     */
+    public long getSystemStateHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of times no system state was available for a query with unknown output.
+     */
+    public long getSystemStateMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of system states that have been evicted (and disposed) due to a capacity restriction.
+     */
+    public long getEvictedSystemStates() {
+        return evictions.get();
     }
 
     /**
-     * Returns a reuseable {@link ReuseNode.NodeResult} with system state or {@code null} if none such exists. If
-     * ''oldInvalidated'' was set to {@code true} (in the {@link ReuseOracle}) the system state is already removed from
-     * the tree whenever one was available.
+     * Returns the number of symbols that did not need to be replayed, because a system state was reused.
+     */
+    public long getSavedSymbols() {
+        return savedSymbols.get();
+    }
+
+    /**
+     * Returns a reuseable {@link ReuseNode.NodeResult} with system state or {@code null} if none such exists. The
+     * system state is removed from the tree, so that no other caller continues it at the same time. If
+     * ''oldInvalidated'' was set to {@code false} (in the {@link ReuseOracle}), the system state has to be returned
+     * via {@link #releaseSystemState(ReuseNode.NodeResult)} once it has been continued.
      *
      * @param query
      *         Not allowed to be {@code null}.
      */
-    public synchronized ReuseNode.NodeResult<S, I, O> fetchSystemState(Word<I> query) {
+    public ReuseNode.NodeResult<S, I, O> fetchSystemState(Word<I> query) {
         if (query == null) {
             String msg = "Query is not allowed to be null.";
             throw new IllegalArgumentException(msg);
         }
 
-        int length = 0;
+        // collect the nodes along the longest known prefix that (currently) hold system states
+        final List<ReuseNode<S, I, O>> candidates = new ArrayList<>();
+        final List<Integer> lengths = new ArrayList<>();
 
         ReuseNode<S, I, O> sink = getRoot();
-        ReuseNode<S, I, O> lastState = null;
         if (sink.hasSystemStates()) {
-            lastState = sink;
+            candidates.add(sink);
+            lengths.add(0);
         }
 
         ReuseNode<S, I, O> node;
@@ -245,18 +345,95 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
 
             sink = node;
             if (sink.hasSystemStates()) {
-                lastState = sink;
-                length = i + 1;
+                candidates.add(sink);
+                lengths.add(i + 1);
             }
         }
 
-        if (lastState == null) {
-            return null;
+        // the system states of a candidate may have been fetched concurrently, so fall back to shorter prefixes
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            final ReuseNode<S, I, O> candidate = candidates.get(i);
+            final S systemState = takeSystemState(candidate);
+
+            if (systemState != null) {
+                return new ReuseNode.NodeResult<>(candidate, systemState, lengths.get(i));
+            }
         }
 
-        S systemState = lastState.fetchSystemState(invalidateSystemstates);
+        misses.incrementAndGet();
+        return null;
+    }
 
-        return new ReuseNode.NodeResult<>(lastState, systemState, length);
+    /**
+     * Looks up the given query in a single traversal of the tree. The result contains the known outputs along the
+     * longest known prefix of the query, the positions of "reflexive" edges along this prefix, and (if the output of
+     * the query is not completely known) the deepest available system state, which is fetched in the same way as
+     * {@link #fetchSystemState(Word)} does.
+     *
+     * @param query
+     *         Not allowed to be {@code null}.
+     *
+     * @return the lookup result for the given query
+     */
+    public QueryLookup<S, I, O> lookup(Word<I> query) {
+        if (query == null) {
+            String msg = "Query is not allowed to be null.";
+            throw new IllegalArgumentException(msg);
+        }
+
+        final int length = query.length();
+        final Object[] outputs = new Object[length];
+        int[] reflexiveIndices = null;
+        int numReflexive = 0;
+
+        ReuseNode<S, I, O> sink = getRoot();
+        ReuseNode<S, I, O> stateNode = sink.hasSystemStates() ? sink : null;
+        int stateDepth = 0;
+        int depth = 0;
+
+        while (depth < length) {
+            final ReuseEdge<S, I, O> edge = sink.getEdgeWithInput(alphabet.getSymbolIndex(query.getSymbol(depth)));
+            if (edge == null) {
+                // we have reached longest known prefix
+                break;
+            }
+
+            final O output = edge.getOutput();
+            final ReuseNode<S, I, O> target = edge.getTarget();
+            outputs[depth] = output;
+
+            // see getPartialOutput: only non-null outputs of "reflexive" edges are a priori known
+            if (output != null && sink.equals(target)) {
+                if (reflexiveIndices == null) {
+                    reflexiveIndices = new int[length - depth];
+                }
+                reflexiveIndices[numReflexive++] = depth;
+            }
+
+            sink = target;
+            depth++;
+
+            if (sink.hasSystemStates()) {
+                stateNode = sink;
+                stateDepth = depth;
+            }
+        }
+
+        ReuseNode.NodeResult<S, I, O> nodeResult = null;
+
+        if (depth < length) {
+            final S systemState = (stateNode == null) ? null : takeSystemState(stateNode);
+            if (systemState != null) {
+                nodeResult = new ReuseNode.NodeResult<>(stateNode, systemState, stateDepth);
+            } else if (stateDepth > 0) {
+                // the system states have been fetched concurrently, fall back to shorter prefixes
+                nodeResult = fetchSystemState(query.prefix(stateDepth - 1));
+            } else {
+                misses.incrementAndGet();
+            }
+        }
+
+        return new QueryLookup<>(outputs, depth, reflexiveIndices, numReflexive, nodeResult);
     }
 
     /**
@@ -274,7 +451,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * @throws ReuseException
      *         if non deterministic behavior is detected
      */
-    public synchronized void insert(Word<I> query, ReuseCapableOracle.QueryResult<S, O> queryResult) {
+    public void insert(Word<I> query, ReuseCapableOracle.QueryResult<S, O> queryResult) {
         insert(query, getRoot(), queryResult);
     }
 
@@ -285,8 +462,9 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * <p>
      * Will be called from the {@link ReuseOracle} if an available system state was reused for the query (otherwise
      * {@link #insert(Word, ReuseCapableOracle.QueryResult)} would be called). The old system state was already removed
-     * from the {@link ReuseNode} (through {@link #fetchSystemState(Word)}) if the ''invalidateSystemstates'' flag in
-     * the {@link ReuseOracle} was set to {@code true}.
+     * from the {@link ReuseNode} (through {@link #fetchSystemState(Word)}) and is only returned to it (through {@link
+     * #releaseSystemState(ReuseNode.NodeResult)}) if the ''invalidateSystemstates'' flag in the {@link ReuseOracle} was
+     * set to {@code false}.
      * <p>
      * This method should only be invoked internally from the {@link ReuseOracle} unless you know exactly what you are
      * doing (you may want to create a predefined reuse tree before start learning).
@@ -294,9 +472,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
      * @throws ReuseException
      *         if non deterministic behavior is detected
      */
-    public synchronized void insert(Word<I> query,
-                                    ReuseNode<S, I, O> sink,
-                                    ReuseCapableOracle.QueryResult<S, O> queryResult) {
+    public void insert(Word<I> query, ReuseNode<S, I, O> sink, ReuseCapableOracle.QueryResult<S, O> queryResult) {
         if (queryResult == null) {
             String msg = "The queryResult is not allowed to be null.";
             throw new IllegalArgumentException(msg);
@@ -317,35 +493,173 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
             O out = queryResult.output.getSymbol(i);
             ReuseNode<S, I, O> rn;
 
-            ReuseEdge<S, I, O> edge = effectiveSink.getEdgeWithInput(alphabet.getSymbolIndex(in));
-            if (edge != null) {
-                if (Objects.equals(edge.getOutput(), out)) {
-                    effectiveSink = edge.getTarget();
-                    continue;
+            int index = alphabet.getSymbolIndex(in);
+            ReuseEdge<S, I, O> edge = effectiveSink.getEdgeWithInput(index);
+            if (edge == null) {
+                if (failureOutputSymbols.contains(out)) {
+                    rn = effectiveSink;
+                } else if (invariantInputSymbols.contains(in)) {
+                    rn = effectiveSink;
+                } else {
+                    rn = createNode(effectiveSink.getDepth() + 1);
                 }
 
-                throw new ReuseException(
-                        "Conflict: input '" + query + "', output '" + queryResult.output + "', i=" + i +
-                        ", cached output '" + edge.getOutput() + "'");
+                final ReuseEdge<S, I, O> newEdge = new ReuseEdge<>(effectiveSink, rn, in, out);
+                edge = effectiveSink.addEdgeIfAbsent(index, newEdge);
+
+                if (edge == newEdge) {
+                    effectiveSink = rn;
+                    continue;
+                }
+                // the edge has been added concurrently, check it for conflicts
             }
 
-            if (failureOutputSymbols.contains(out)) {
-                rn = effectiveSink;
-            } else if (invariantInputSymbols.contains(in)) {
-                rn = effectiveSink;
-            } else {
-                rn = createNode();
+            if (Objects.equals(edge.getOutput(), out)) {
+                effectiveSink = edge.getTarget();
+                continue;
             }
 
-            int index = alphabet.getSymbolIndex(in);
-            effectiveSink.addEdge(index, new ReuseEdge<>(effectiveSink, rn, in, out));
-            effectiveSink = rn;
+            throw new ReuseException(
+                    "Conflict: input '" + query + "', output '" + queryResult.output + "', i=" + i +
+                    ", cached output '" + edge.getOutput() + "'");
         }
 
-        S evictedState = effectiveSink.addSystemState(queryResult.newState);
-        if (evictedState != null) {
+        storeSystemState(effectiveSink, queryResult.newState);
+    }
+
+    /**
+     * Returns a system state that has been obtained via {@link #fetchSystemState(Word)} (or {@link #lookup(Word)}) to
+     * its node, so that it can be continued again. Has no effect if system states are invalidated upon reuse.
+     * <p>
+     * Should be invoked before the result of continuing the system state is {@link #insert(Word, ReuseNode,
+     * ReuseCapableOracle.QueryResult) inserted}, so that the per-node capacity is applied in the order in which the
+     * system states have been created.
+     *
+     * @param nodeResult
+     *         the fetched system state, not allowed to be {@code null}.
+     */
+    public void releaseSystemState(ReuseNode.NodeResult<S, I, O> nodeResult) {
+        if (!invalidateSystemstates) {
+            storeSystemState(nodeResult.reuseNode, nodeResult.systemState);
+        }
+    }
+
+    private S takeSystemState(ReuseNode<S, I, O> node) {
+        // always check out the system state exclusively, see releaseSystemState
+        final S systemState = node.fetchSystemState(true);
+
+        if (systemState != null) {
+            node.recordAccess(clock.incrementAndGet(), true);
+            hits.incrementAndGet();
+            savedSymbols.addAndGet(node.getDepth());
+            numSystemStates.decrementAndGet();
+        }
+
+        return systemState;
+    }
+
+    private void storeSystemState(ReuseNode<S, I, O> node, S systemState) {
+        final S evictedState = node.addSystemState(systemState);
+        node.recordAccess(clock.incrementAndGet(), false);
+
+        if (evictedState == null) {
+            numSystemStates.incrementAndGet();
+        } else {
+            evictions.incrementAndGet();
             systemStateHandler.dispose(evictedState);
         }
+
+        if (maxTotalSystemStates > 0) {
+            synchronized (stateNodes) {
+                if (node.getStateNodeIndex() < 0) {
+                    node.setStateNodeIndex(stateNodes.size());
+                    stateNodes.add(node);
+                }
+                enforceSystemStateBudget();
+            }
+        }
+    }
+
+    /**
+     * Evicts system states until the total budget is met. The node to evict from is the one with the lowest retention
+     * value among a bounded random sample of the nodes holding system states (or among all of them, if there are only
+     * a few), so that the cost of an eviction does not depend on the size of the budget. Must be called while holding
+     * the lock of {@link #stateNodes}.
+     */
+    private void enforceSystemStateBudget() {
+        while (numSystemStates.get() > maxTotalSystemStates) {
+            final ReuseNode<S, I, O> victim = selectEvictionVictim();
+
+            if (victim == null) {
+                // remaining system states are currently being fetched concurrently
+                return;
+            }
+
+            final S evictedState = victim.evictSystemState();
+            if (evictedState != null) {
+                numSystemStates.decrementAndGet();
+                evictions.incrementAndGet();
+                systemStateHandler.dispose(evictedState);
+            }
+            if (!victim.hasSystemStates()) {
+                removeStateNode(victim.getStateNodeIndex());
+            }
+        }
+    }
+
+    private ReuseNode<S, I, O> selectEvictionVictim() {
+        final long now = clock.get();
+
+        ReuseNode<S, I, O> victim = null;
+        double minValue = Double.POSITIVE_INFINITY;
+
+        if (stateNodes.size() <= EVICTION_SAMPLE_SIZE) {
+            for (int i = stateNodes.size() - 1; i >= 0; i--) {
+                final ReuseNode<S, I, O> node = stateNodes.get(i);
+                if (!node.hasSystemStates()) {
+                    removeStateNode(i);
+                    continue;
+                }
+                final double value = node.getRetentionValue(now);
+                if (value < minValue) {
+                    minValue = value;
+                    victim = node;
+                }
+            }
+            return victim;
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sampled = 0;
+        while (sampled < EVICTION_SAMPLE_SIZE && !stateNodes.isEmpty()) {
+            final int idx = random.nextInt(stateNodes.size());
+            final ReuseNode<S, I, O> node = stateNodes.get(idx);
+            if (!node.hasSystemStates()) {
+                // does not count as a sample, terminates as the node is removed
+                removeStateNode(idx);
+                continue;
+            }
+            sampled++;
+            final double value = node.getRetentionValue(now);
+            if (value < minValue) {
+                minValue = value;
+                victim = node;
+            }
+        }
+
+        return victim;
+    }
+
+    /**
+     * Removes the node at the given position from {@link #stateNodes} by moving the last node into its place.
+     */
+    private void removeStateNode(int idx) {
+        final ReuseNode<S, I, O> last = stateNodes.remove(stateNodes.size() - 1);
+        final ReuseNode<S, I, O> removed = (idx < stateNodes.size()) ? stateNodes.set(idx, last) : last;
+        if (removed != last) {
+            last.setStateNodeIndex(idx);
+        }
+        removed.setStateNodeIndex(-1);
     }
 
     @Override
@@ -369,12 +683,12 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
     }
 
     @Override
-    public synchronized Collection<ReuseEdge<S, I, O>> getOutgoingEdges(ReuseNode<S, I, O> node) {
+    public Collection<ReuseEdge<S, I, O>> getOutgoingEdges(ReuseNode<S, I, O> node) {
         return node.getEdges();
     }
 
     @Override
-    public synchronized ReuseNode<S, I, O> getTarget(ReuseEdge<S, I, O> edge) {
+    public ReuseNode<S, I, O> getTarget(ReuseEdge<S, I, O> edge) {
         if (edge != null) {
             return edge.getTarget();
         }
@@ -382,10 +696,114 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
     }
 
     @Override
-    public synchronized GraphDOTHelper<ReuseNode<S, I, O>, ReuseEdge<S, I, O>> getGraphDOTHelper() {
+    public GraphDOTHelper<ReuseNode<S, I, O>, ReuseEdge<S, I, O>> getGraphDOTHelper() {
         return new ReuseTreeDotHelper<>();
     }
 
+    /**
+     * The result of a {@link #lookup(Word)} of a query.
+     *
+     * @param <S>
+     *         system state class
+     * @param <I>
+     *         input symbol class
+     * @param <O>
+     *         output symbol class
+     */
+    public static final class QueryLookup<S, I, O> {
+
+        private static final int[] NO_INDICES = new int[0];
+
+        private final Object[] outputs;
+        private final int knownLength;
+        private final int[] reflexiveIndices;
+        private final int numReflexive;
+        private final ReuseNode.NodeResult<S, I, O> nodeResult;
+
+        QueryLookup(Object[] outputs,
+                    int knownLength,
+                    int[] reflexiveIndices,
+                    int numReflexive,
+                    ReuseNode.NodeResult<S, I, O> nodeResult) {
+            this.outputs = outputs;
+            this.knownLength = knownLength;
+            this.reflexiveIndices = (reflexiveIndices != null) ? reflexiveIndices : NO_INDICES;
+            this.numReflexive = numReflexive;
+            this.nodeResult = nodeResult;
+        }
+
+        /**
+         * Returns whether the complete output of the query is known.
+         */
+        public boolean isKnown() {
+            return knownLength == outputs.length;
+        }
+
+        /**
+         * Returns the length of the longest prefix of the query whose output is known.
+         */
+        public int getKnownLength() {
+            return knownLength;
+        }
+
+        /**
+         * Returns the known output at the given position of the query.
+         *
+         * @param index
+         *         the position, must be smaller than {@link #getKnownLength()}
+         */
+        @SuppressWarnings("unchecked")
+        public O getOutput(int index) {
+            return (O) outputs[index];
+        }
+
+        /**
+         * Returns the known output of the prefix of the given length of the query.
+         *
+         * @param length
+         *         the length of the prefix, must not be greater than {@link #getKnownLength()}
+         */
+        @SuppressWarnings("unchecked")
+        public Word<O> getOutputPrefix(int length) {
+            if (length > knownLength) {
+                throw new IllegalArgumentException("Output of prefix of length " + length + " is not known");
+            }
+            return Word.fromArray((O[]) outputs, 0, length);
+        }
+
+        /**
+         * Returns the complete output of the query, or {@code null} if it is not known.
+         */
+        public Word<O> getOutput() {
+            return isKnown() ? getOutputPrefix(knownLength) : null;
+        }
+
+        /**
+         * Returns the number of "reflexive" edges (whose outputs are a priori known) along the known prefix.
+         */
+        public int getNumReflexiveEdges() {
+            return numReflexive;
+        }
+
+        /**
+         * Returns the (ascending) positions of the query which correspond to "reflexive" edges in the tree.
+         *
+         * @param i
+         *         the number of the reflexive edge, must be smaller than {@link #getNumReflexiveEdges()}
+         */
+        public int getReflexiveIndex(int i) {
+            return reflexiveIndices[i];
+        }
+
+        /**
+         * Returns the fetched system state for the query, or {@code null} if none was available (or the output of the
+         * query is already known).
+         */
+        public ReuseNode.NodeResult<S, I, O> getNodeResult() {
+            return nodeResult;
+        }
+    }
+
     public static class ReuseTreeBuilder<S, I, O> {
 
         // mandatory
@@ -397,6 +815,7 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
         private Set<I> invariantInputSymbols;
         private Set<O> failureOutputSymbols;
         private int maxSystemStates = -1;
+        private int maxTotalSystemStates = -1;
         private AccessPolicy accessPolicy = AccessPolicy.LIFO;
         private EvictPolicy evictPolicy = EvictPolicy.EVICT_OLDEST;
 
@@ -432,6 +851,11 @@ public final class ReuseTree<S, I, O> implements Graph<ReuseNode<S, I, O>, Reuse
             return this;
         }
 
+        public ReuseTreeBuilder<S, I, O> withMaxTotalSystemStates(int maxTotalSystemStates) {
+            this.maxTotalSystemStates = maxTotalSystemStates;
+            return this;
+        }
+
         public ReuseTreeBuilder<S, I, O> withAccessPolicy(AccessPolicy accessPolicy) {
             this.accessPolicy = accessPolicy;
             return this;
@@ -15,12 +15,17 @@
  */
 package de.learnlib.filter.reuse.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import com.google.common.base.Supplier;
 import com.google.common.collect.Sets;
 import de.learnlib.filter.reuse.ReuseCapableOracle;
 import de.learnlib.filter.reuse.ReuseCapableOracle.QueryResult;
 import de.learnlib.filter.reuse.ReuseOracle;
 import de.learnlib.filter.reuse.tree.ReuseNode.NodeResult;
+import de.learnlib.filter.reuse.tree.ReuseTree.QueryLookup;
 import net.automatalib.words.Alphabet;
 import net.automatalib.words.Word;
 import net.automatalib.words.impl.Alphabets;
@@ -114,6 +119,63 @@ public class DomainKnowledgeTest {
         Assert.assertTrue(output.size() == 7);
     }
 
+    @Test
+    public void testLookup() {
+        QueryResult<Integer, String> qr = new QueryResult<>(getOutput("ok1", "ok0", "ok1"), 2);
+        reuseOracle.getReuseTree().insert(getInput(1, 0, 1), qr);
+
+        // "1 0 0 1" is known by pumping the invariant input 0, the system state of "1 0 1" can be reused
+        QueryLookup<Integer, Integer, String> lookup = reuseOracle.getReuseTree().lookup(getInput(1, 0, 0, 1, 1));
+        Assert.assertFalse(lookup.isKnown());
+        Assert.assertNull(lookup.getOutput());
+        Assert.assertEquals(lookup.getKnownLength(), 4);
+        Assert.assertEquals(lookup.getOutputPrefix(4), getOutput("ok1", "ok0", "ok0", "ok1"));
+        Assert.assertEquals(lookup.getNumReflexiveEdges(), 2);
+        Assert.assertEquals(lookup.getReflexiveIndex(0), 1);
+        Assert.assertEquals(lookup.getReflexiveIndex(1), 2);
+        Assert.assertNotNull(lookup.getNodeResult());
+        Assert.assertEquals(lookup.getNodeResult().prefixLength, 4);
+        Assert.assertEquals(lookup.getNodeResult().systemState, Integer.valueOf(2));
+
+        // the system state has been invalidated by the previous lookup, the (known) output does not require a state
+        lookup = reuseOracle.getReuseTree().lookup(getInput(1, 0, 1));
+        Assert.assertTrue(lookup.isKnown());
+        Assert.assertEquals(lookup.getOutput(), getOutput("ok1", "ok0", "ok1"));
+        Assert.assertNull(lookup.getNodeResult());
+    }
+
+    @Test
+    public void testFilterReflexiveSymbols() {
+        final List<Word<Integer>> executed = new ArrayList<>();
+        final ReuseCapableOracle<Integer, Integer, String> reuseCapableOracle =
+                new ReuseCapableOracle<Integer, Integer, String>() {
+
+                    @Override
+                    public QueryResult<Integer, String> continueQuery(Word<Integer> trace, Integer integer) {
+                        executed.add(trace);
+                        return new QueryResult<>(trace.transform(i -> "ok" + i), integer + trace.length());
+                    }
+
+                    @Override
+                    public QueryResult<Integer, String> processQuery(Word<Integer> trace) {
+                        return continueQuery(trace, 0);
+                    }
+                };
+
+        final ReuseOracle<Integer, Integer, String> oracle =
+                new ReuseOracle.ReuseOracleBuilder<>(Alphabets.integers(0, 10), () -> reuseCapableOracle)
+                        .withInvariantInputs(Sets.newHashSet(0))
+                        .build();
+
+        Assert.assertEquals(oracle.answerQuery(getInput(1, 0)), getOutput("ok1", "ok0"));
+        // the (reused) prefix "1 0" is not executed again
+        Assert.assertEquals(oracle.answerQuery(getInput(1, 0, 2, 0, 3)), getOutput("ok1", "ok0", "ok2", "ok0", "ok3"));
+        // no system state for "1 0 0 2", the known invariant input 0 (in the first three symbols) is filtered
+        Assert.assertEquals(oracle.answerQuery(getInput(1, 0, 0, 2, 4)), getOutput("ok1", "ok0", "ok0", "ok2", "ok4"));
+
+        Assert.assertEquals(executed, Arrays.asList(getInput(1, 0), getInput(2, 0, 3), getInput(1, 2, 4)));
+    }
+
     private class NullReuseCapableFactory implements Supplier<ReuseCapableOracle<Integer, Integer, String>> {
 
         @Override
@@ -0,0 +1,201 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.filter.reuse.ReuseCapableOracle;
+import de.learnlib.filter.reuse.ReuseOracle;
+import de.learnlib.filter.reuse.ReuseOracle.ReuseOracleBuilder;
+import de.learnlib.filter.reuse.tree.ReuseNode.NodeResult;
+import de.learnlib.filter.reuse.tree.ReuseTree;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for sharing a {@link ReuseOracle} (and its {@link ReuseTree}) between multiple threads.
+ */
+public class ReuseConcurrencyTest {
+
+    private static final int NUM_THREADS = 4;
+    private static final int QUERIES_PER_THREAD = 500;
+    private static final Alphabet<Integer> ALPHABET = Alphabets.integers(0, 2);
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(NUM_THREADS);
+    }
+
+    @AfterClass
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSharedOracle() throws Exception {
+        final AtomicInteger instances = new AtomicInteger();
+        final AtomicInteger continuations = new AtomicInteger();
+
+        final ReuseOracle<Integer, Integer, Integer> oracle = new ReuseOracleBuilder<Integer, Integer, Integer>(
+                ALPHABET,
+                () -> {
+                    instances.incrementAndGet();
+                    return new SumOracle(continuations);
+                }).build();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>(NUM_THREADS);
+
+        for (int t = 0; t < NUM_THREADS; t++) {
+            final Random random = new Random(t);
+            futures.add(executor.submit((Callable<Void>) () -> {
+                start.await();
+                final List<Word<Integer>> issued = new ArrayList<>();
+                for (int i = 0; i < QUERIES_PER_THREAD; i++) {
+                    final WordBuilder<Integer> wb = new WordBuilder<>();
+                    if (!issued.isEmpty() && random.nextBoolean()) {
+                        wb.append(issued.get(random.nextInt(issued.size())));
+                    }
+                    for (int j = random.nextInt(5); j >= 0; j--) {
+                        wb.add(random.nextInt(ALPHABET.size()));
+                    }
+                    final Word<Integer> query = wb.toWord();
+                    Assert.assertEquals(oracle.answerQuery(query), SumOracle.expectedOutput(query));
+                    issued.add(query);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+
+        Assert.assertTrue(instances.get() > 1);
+        Assert.assertTrue(continuations.get() > 0);
+    }
+
+    @Test
+    public void testExclusiveCheckoutWithoutInvalidation() {
+        final ReuseTree<Integer, Integer, Integer> tree =
+                new ReuseTree.ReuseTreeBuilder<Integer, Integer, Integer>(ALPHABET)
+                        .withEnabledSystemstateInvalidation(false)
+                        .build();
+        final Word<Integer> word = Word.fromSymbols(0, 1);
+        tree.insert(word, new ReuseCapableOracle.QueryResult<>(SumOracle.expectedOutput(word), 1));
+
+        final Word<Integer> query = Word.fromSymbols(0, 1, 2);
+        final NodeResult<Integer, Integer, Integer> first = tree.fetchSystemState(query);
+        Assert.assertNotNull(first);
+        Assert.assertEquals(first.systemState, Integer.valueOf(1));
+
+        // the system state is checked out, so it must not be handed out to a second worker
+        Assert.assertNull(tree.fetchSystemState(query));
+        Assert.assertEquals(tree.getNumSystemStates(), 0);
+
+        tree.releaseSystemState(first);
+
+        final NodeResult<Integer, Integer, Integer> second = tree.fetchSystemState(query);
+        Assert.assertNotNull(second);
+        Assert.assertEquals(second.systemState, Integer.valueOf(1));
+    }
+
+    @Test
+    public void testConcurrentInsert() throws Exception {
+        final ReuseTree<Integer, Integer, Integer> tree =
+                new ReuseTree.ReuseTreeBuilder<Integer, Integer, Integer>(ALPHABET).build();
+        final Word<Integer> word = Word.fromSymbols(0, 1, 2, 1, 0);
+        final Word<Integer> output = SumOracle.expectedOutput(word);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>(NUM_THREADS);
+
+        for (int t = 0; t < NUM_THREADS; t++) {
+            final int state = t;
+            futures.add(executor.submit((Callable<Void>) () -> {
+                start.await();
+                for (int i = 1; i <= word.length(); i++) {
+                    tree.insert(word.prefix(i), new ReuseCapableOracle.QueryResult<>(output.prefix(i), state));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+
+        Assert.assertEquals(tree.getOutput(word), output);
+        Assert.assertEquals(tree.getNodes().size(), word.length() + 1);
+    }
+
+    /**
+     * A system that outputs the sum of the inputs seen so far (modulo 5) and uses this value as its system state.
+     */
+    private static final class SumOracle implements ReuseCapableOracle<Integer, Integer, Integer> {
+
+        private final AtomicInteger continuations;
+
+        SumOracle(AtomicInteger continuations) {
+            this.continuations = continuations;
+        }
+
+        static Word<Integer> expectedOutput(Word<Integer> input) {
+            return run(0, input).output;
+        }
+
+        private static QueryResult<Integer, Integer> run(int state, Word<Integer> trace) {
+            final WordBuilder<Integer> wb = new WordBuilder<>(trace.length());
+            int s = state;
+            for (Integer i : trace) {
+                s = (s + i) % 5;
+                wb.add(s);
+            }
+            return new QueryResult<>(wb.toWord(), s);
+        }
+
+        @Override
+        public QueryResult<Integer, Integer> continueQuery(Word<Integer> trace, Integer s) {
+            continuations.incrementAndGet();
+            return run(s, trace);
+        }
+
+        @Override
+        public QueryResult<Integer, Integer> processQuery(Word<Integer> trace) {
+            return run(0, trace);
+        }
+    }
+}
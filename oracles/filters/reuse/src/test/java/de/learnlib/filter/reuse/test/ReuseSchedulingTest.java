@@ -0,0 +1,192 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.filter.reuse.ReuseCapableOracle;
+import de.learnlib.filter.reuse.ReuseOracle;
+import de.learnlib.filter.reuse.ReuseOracle.ReuseOracleBuilder;
+import de.learnlib.filter.reuse.ReuseSchedulingReport;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the query scheduling of the {@link ReuseOracle}.
+ */
+public class ReuseSchedulingTest {
+
+    private static final Alphabet<Integer> ALPHABET = Alphabets.integers(0, 1);
+
+    @Test
+    public void testScheduledBatchSavesResets() {
+        final CountingOracle naiveSUL = new CountingOracle();
+        final CountingOracle scheduledSUL = new CountingOracle();
+
+        final ReuseOracle<Integer, Integer, Integer> naiveOracle =
+                new ReuseOracleBuilder<>(ALPHABET, () -> naiveSUL).withEnabledSystemstateInvalidation(false).build();
+        final ReuseOracle<Integer, Integer, Integer> scheduledOracle =
+                new ReuseOracleBuilder<>(ALPHABET, () -> scheduledSUL).withEnabledSystemstateInvalidation(false)
+                                                                       .withQueryScheduling(true)
+                                                                       .withSchedulingReport(true)
+                                                                       .build();
+
+        final List<DefaultQuery<Integer, Word<Integer>>> naiveBatch = createBatch();
+        final List<DefaultQuery<Integer, Word<Integer>>> scheduledBatch = createBatch();
+
+        naiveOracle.processQueries(naiveBatch);
+        scheduledOracle.processQueries(scheduledBatch);
+
+        // the batch order (and hence the mapping of answers to queries) must be preserved
+        for (int i = 0; i < naiveBatch.size(); i++) {
+            final DefaultQuery<Integer, Word<Integer>> query = scheduledBatch.get(i);
+            Assert.assertEquals(query.getInput(), naiveBatch.get(i).getInput());
+            Assert.assertEquals(query.getOutput(), naiveBatch.get(i).getOutput());
+            Assert.assertEquals(query.getOutput(), CountingOracle.expectedOutput(query.getInput()));
+        }
+
+        Assert.assertEquals(naiveSUL.resets, 4);
+        Assert.assertEquals(naiveSUL.symbols, 13);
+        Assert.assertEquals(scheduledSUL.resets, 2);
+        Assert.assertEquals(scheduledSUL.symbols, 9);
+
+        final ReuseSchedulingReport report = scheduledOracle.getSchedulingReport();
+        Assert.assertEquals(report.getBatches(), 1);
+        Assert.assertEquals(report.getQueries(), naiveBatch.size());
+        Assert.assertEquals(report.getEstimatedNaiveResets(), naiveSUL.resets);
+        Assert.assertEquals(report.getEstimatedNaiveSymbols(), naiveSUL.symbols);
+        Assert.assertEquals(report.getEstimatedScheduledResets(), scheduledSUL.resets);
+        Assert.assertEquals(report.getEstimatedScheduledSymbols(), scheduledSUL.symbols);
+        Assert.assertEquals(report.getEstimatedSavedResets(), naiveSUL.resets - scheduledSUL.resets);
+
+        Assert.assertEquals(naiveOracle.getSchedulingReport().getBatches(), 0);
+        Assert.assertEquals(naiveOracle.getResets(), naiveSUL.resets);
+        Assert.assertEquals(naiveOracle.getExecutedSymbols(), naiveSUL.symbols);
+        Assert.assertEquals(scheduledOracle.getResets(), scheduledSUL.resets);
+        Assert.assertEquals(scheduledOracle.getExecutedSymbols(), scheduledSUL.symbols);
+    }
+
+    @Test
+    public void testScheduledBatchWithInvalidation() {
+        final CountingOracle naiveSUL = new CountingOracle();
+        final CountingOracle scheduledSUL = new CountingOracle();
+
+        final ReuseOracle<Integer, Integer, Integer> naiveOracle =
+                new ReuseOracleBuilder<>(ALPHABET, () -> naiveSUL).build();
+        final ReuseOracle<Integer, Integer, Integer> scheduledOracle =
+                new ReuseOracleBuilder<>(ALPHABET, () -> scheduledSUL).withQueryScheduling(true)
+                                                                       .withSchedulingReport(true)
+                                                                       .build();
+
+        final List<DefaultQuery<Integer, Word<Integer>>> naiveBatch = createBatch();
+        final List<DefaultQuery<Integer, Word<Integer>>> scheduledBatch = createBatch();
+
+        naiveOracle.processQueries(naiveBatch);
+        scheduledOracle.processQueries(scheduledBatch);
+
+        for (DefaultQuery<Integer, Word<Integer>> query : scheduledBatch) {
+            Assert.assertEquals(query.getOutput(), CountingOracle.expectedOutput(query.getInput()));
+        }
+
+        // invalidated system states can only be continued once, so the schedule must not be worse than the naive order
+        Assert.assertTrue(scheduledSUL.resets <= naiveSUL.resets);
+        Assert.assertTrue(scheduledSUL.symbols <= naiveSUL.symbols);
+
+        final ReuseSchedulingReport report = scheduledOracle.getSchedulingReport();
+        Assert.assertEquals(report.getEstimatedScheduledResets(), scheduledSUL.resets);
+        Assert.assertEquals(report.getEstimatedScheduledSymbols(), scheduledSUL.symbols);
+        Assert.assertTrue(report.getEstimatedSavedResets() >= 0);
+    }
+
+    @Test
+    public void testSchedulingWithoutReport() {
+        final CountingOracle sul = new CountingOracle();
+        final ReuseOracle<Integer, Integer, Integer> oracle =
+                new ReuseOracleBuilder<>(ALPHABET, () -> sul).withEnabledSystemstateInvalidation(false)
+                                                             .withQueryScheduling(true)
+                                                             .build();
+
+        final List<DefaultQuery<Integer, Word<Integer>>> batch = createBatch();
+        oracle.processQueries(batch);
+
+        for (DefaultQuery<Integer, Word<Integer>> query : batch) {
+            Assert.assertEquals(query.getOutput(), CountingOracle.expectedOutput(query.getInput()));
+        }
+
+        Assert.assertEquals(sul.resets, 2);
+        Assert.assertEquals(oracle.getSchedulingReport().getBatches(), 0);
+        Assert.assertEquals(oracle.getSchedulingReport().getQueries(), 0);
+    }
+
+    private static List<DefaultQuery<Integer, Word<Integer>>> createBatch() {
+        final List<Word<Integer>> words = Arrays.asList(Word.fromSymbols(1, 0, 1),
+                                                        Word.fromSymbols(1, 0, 0),
+                                                        Word.fromSymbols(1, 0),
+                                                        Word.fromSymbols(0, 1, 1),
+                                                        Word.fromSymbols(0, 1, 0),
+                                                        Word.fromSymbols(0, 1),
+                                                        Word.fromSymbols(0, 1, 1, 0));
+
+        final List<DefaultQuery<Integer, Word<Integer>>> result = new ArrayList<>(words.size());
+        for (Word<Integer> w : words) {
+            result.add(new DefaultQuery<>(w));
+        }
+        return result;
+    }
+
+    /**
+     * A system that outputs the number of ones seen so far (modulo 3) and uses this value as its system state.
+     */
+    private static final class CountingOracle implements ReuseCapableOracle<Integer, Integer, Integer> {
+
+        private int resets;
+        private int symbols;
+
+        static Word<Integer> expectedOutput(Word<Integer> input) {
+            return run(0, input).output;
+        }
+
+        private static QueryResult<Integer, Integer> run(int state, Word<Integer> trace) {
+            final WordBuilder<Integer> wb = new WordBuilder<>(trace.length());
+            int s = state;
+            for (Integer i : trace) {
+                s = (s + i) % 3;
+                wb.add(s);
+            }
+            return new QueryResult<>(wb.toWord(), s);
+        }
+
+        @Override
+        public QueryResult<Integer, Integer> continueQuery(Word<Integer> trace, Integer s) {
+            symbols += trace.length();
+            return run(s, trace);
+        }
+
+        @Override
+        public QueryResult<Integer, Integer> processQuery(Word<Integer> trace) {
+            resets++;
+            symbols += trace.length();
+            return run(0, trace);
+        }
+    }
+}
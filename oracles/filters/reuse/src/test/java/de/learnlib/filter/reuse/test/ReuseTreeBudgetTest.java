@@ -0,0 +1,177 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.reuse.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.filter.reuse.ReuseCapableOracle.QueryResult;
+import de.learnlib.filter.reuse.tree.BoundedDeque.EvictPolicy;
+import de.learnlib.filter.reuse.tree.ReuseNode.NodeResult;
+import de.learnlib.filter.reuse.tree.ReuseTree;
+import de.learnlib.filter.reuse.tree.ReuseTree.ReuseTreeBuilder;
+import net.automatalib.words.Alphabet;
+import net.automatalib.words.Word;
+import net.automatalib.words.impl.Alphabets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for the total system state budget of the {@link ReuseTree}.
+ */
+public class ReuseTreeBudgetTest {
+
+    private static final Alphabet<Integer> ALPHABET = Alphabets.integers(0, 1);
+
+    @Test
+    public void testUnboundedTree() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add).build();
+
+        insert(tree, "A", 0, 1);
+        insert(tree, "B", 0);
+        insert(tree, "C", 1);
+
+        Assert.assertEquals(tree.getNumSystemStates(), 3);
+        Assert.assertEquals(tree.getEvictedSystemStates(), 0);
+        Assert.assertTrue(disposed.isEmpty());
+    }
+
+    @Test
+    public void testEvictShallowStates() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add)
+                                                                        .withMaxTotalSystemStates(2)
+                                                                        .build();
+
+        insert(tree, "A", 0);
+        insert(tree, "B", 0, 1, 1);
+        insert(tree, "C", 1, 1);
+
+        // "A" has the lowest replay cost and is the least recently used one
+        Assert.assertEquals(disposed, Collections.singletonList("A"));
+        Assert.assertEquals(tree.getNumSystemStates(), 2);
+        Assert.assertEquals(tree.getEvictedSystemStates(), 1);
+
+        final NodeResult<String, Integer, Integer> result = tree.fetchSystemState(Word.fromSymbols(0, 1, 1, 0));
+        Assert.assertNotNull(result);
+        Assert.assertEquals(result.systemState, "B");
+        Assert.assertEquals(result.prefixLength, 3);
+
+        Assert.assertNull(tree.fetchSystemState(Word.fromSymbols(0, 0)));
+
+        Assert.assertEquals(tree.getNumSystemStates(), 1);
+        Assert.assertEquals(tree.getSystemStateHits(), 1);
+        Assert.assertEquals(tree.getSystemStateMisses(), 1);
+        Assert.assertEquals(tree.getSavedSymbols(), 3);
+    }
+
+    @Test
+    public void testKeepFrequentlyUsedStates() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add)
+                                                                        .withEnabledSystemstateInvalidation(false)
+                                                                        .withMaxTotalSystemStates(2)
+                                                                        .build();
+
+        insert(tree, "A", 0);
+        for (int i = 0; i < 4; i++) {
+            final NodeResult<String, Integer, Integer> result = tree.fetchSystemState(Word.fromSymbols(0, i % 2));
+            Assert.assertEquals(result.systemState, "A");
+            tree.releaseSystemState(result);
+        }
+        insert(tree, "B", 1, 1, 1);
+        insert(tree, "C", 1, 0);
+
+        // "A" is frequently reused, so the deeper (but unused) "B" is evicted
+        Assert.assertEquals(disposed, Collections.singletonList("B"));
+        Assert.assertEquals(tree.getNumSystemStates(), 2);
+        Assert.assertEquals(tree.getSystemStateHits(), 4);
+        Assert.assertEquals(tree.getSavedSymbols(), 4);
+    }
+
+    @Test
+    public void testEvictAccordingToPolicy() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add)
+                                                                        .withMaxSystemStates(2)
+                                                                        .withEvictPolicy(EvictPolicy.EVICT_NEWEST)
+                                                                        .withMaxTotalSystemStates(2)
+                                                                        .build();
+
+        insert(tree, "A", 0);
+        insert(tree, "B", 0);
+        insert(tree, "C", 1, 1, 1);
+
+        // the shallow node is evicted from, but its policy keeps the oldest system state
+        Assert.assertEquals(disposed, Collections.singletonList("B"));
+        Assert.assertEquals(tree.fetchSystemState(Word.fromSymbols(0, 0)).systemState, "A");
+    }
+
+    @Test
+    public void testSampledEviction() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add)
+                                                                        .withMaxTotalSystemStates(16)
+                                                                        .build();
+
+        // more nodes than are sampled per eviction
+        for (int i = 0; i < 64; i++) {
+            final Integer[] input = new Integer[6];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = (i >> j) & 1;
+            }
+            insert(tree, "S" + i, input);
+        }
+
+        Assert.assertEquals(tree.getNumSystemStates(), 16);
+        Assert.assertEquals(tree.getEvictedSystemStates(), 48);
+        Assert.assertEquals(disposed.size(), 48);
+    }
+
+    @Test
+    public void testDisposeResetsBudget() {
+        final List<String> disposed = new ArrayList<>();
+        final ReuseTree<String, Integer, Integer> tree =
+                new ReuseTreeBuilder<String, Integer, Integer>(ALPHABET).withSystemStateHandler(disposed::add)
+                                                                        .withMaxTotalSystemStates(2)
+                                                                        .build();
+
+        insert(tree, "A", 0);
+        insert(tree, "B", 1);
+        tree.disposeSystemstates();
+
+        Assert.assertEquals(tree.getNumSystemStates(), 0);
+        Assert.assertEquals(disposed.size(), 2);
+
+        insert(tree, "C", 0, 0);
+        insert(tree, "D", 1, 1);
+
+        Assert.assertEquals(tree.getNumSystemStates(), 2);
+        Assert.assertEquals(tree.getEvictedSystemStates(), 0);
+    }
+
+    private static void insert(ReuseTree<String, Integer, Integer> tree, String state, Integer... input) {
+        final Word<Integer> word = Word.fromSymbols(input);
+        tree.insert(word, new QueryResult<>(word, state));
+    }
+}
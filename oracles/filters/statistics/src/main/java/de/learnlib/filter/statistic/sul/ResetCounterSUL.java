@@ -67,6 +67,16 @@ public class ResetCounterSUL<I, O> implements StatisticSUL<I, O> {
         return new ResetCounterSUL<>(counter, sul.fork());
     }
 
+    @Override
+    public boolean canSnapshot() {
+        return sul.canSnapshot();
+    }
+
+    @Override
+    public SUL<I, O> snapshot() {
+        return new ResetCounterSUL<>(counter, sul.snapshot());
+    }
+
     @Override
     @Nonnull
     public Counter getStatisticalData() {
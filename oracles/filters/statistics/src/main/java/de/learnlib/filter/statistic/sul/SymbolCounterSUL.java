@@ -67,6 +67,16 @@ public class SymbolCounterSUL<I, O> implements StatisticSUL<I, O> {
         return new SymbolCounterSUL<>(counter, sul.fork());
     }
 
+    @Override
+    public boolean canSnapshot() {
+        return sul.canSnapshot();
+    }
+
+    @Override
+    public SUL<I, O> snapshot() {
+        return new SymbolCounterSUL<>(counter, sul.snapshot());
+    }
+
     @Override
     @Nonnull
     public Counter getStatisticalData() {
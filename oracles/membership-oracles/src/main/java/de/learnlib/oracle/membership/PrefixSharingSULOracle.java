@@ -0,0 +1,248 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.exception.SULException;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+
+/**
+ * A {@link SULOracle} that shares the execution of common prefixes among the queries of a batch.
+ * <p>
+ * The input words of a batch are arranged in a prefix tree, such that every query whose input word is a prefix of
+ * another query's input word is answered by the same run of the SUL. If the SUL is capable of taking {@link
+ * SUL#snapshot() snapshots}, shared prefixes are executed only once and the execution branches at every node of the
+ * prefix tree with more than one successor. Otherwise, the SUL is reset once per leaf of the prefix tree and replays
+ * the path to the respective leaf.
+ * <p>
+ * Note that this is only sound for deterministic SULs, as outputs observed on a shared prefix are re-used for all
+ * queries passing through it. The number of resets and steps saved in comparison to a (regular) {@link SULOracle} can
+ * be obtained via {@link #getSavedResets()} and {@link #getSavedSteps()}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+@ParametersAreNonnullByDefault
+public class PrefixSharingSULOracle<I, O> extends SULOracle<I, O> {
+
+    private final AtomicLong savedResets = new AtomicLong();
+    private final AtomicLong savedSteps = new AtomicLong();
+
+    public PrefixSharingSULOracle(SUL<I, O> sul) {
+        super(sul);
+    }
+
+    public PrefixSharingSULOracle(SUL<I, O> sul, @Nullable Executor executor) {
+        super(sul, executor);
+    }
+
+    /**
+     * Returns the number of resets (i.e., {@link SUL#pre()}/{@link SUL#post()} cycles) that were saved in comparison to
+     * executing every query separately.
+     *
+     * @return the number of saved resets
+     */
+    public long getSavedResets() {
+        return savedResets.get();
+    }
+
+    /**
+     * Returns the number of {@link SUL#step(Object) steps} that were saved in comparison to executing every query
+     * separately.
+     *
+     * @return the number of saved steps
+     */
+    public long getSavedSteps() {
+        return savedSteps.get();
+    }
+
+    @Override
+    protected void processQueries(SUL<I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        final Node<I, O> root = new Node<>();
+        long naiveSteps = 0;
+
+        for (Query<I, Word<O>> q : queries) {
+            final Word<I> input = q.getInput();
+            Node<I, O> node = root;
+            for (I sym : input) {
+                node = node.children.computeIfAbsent(sym, k -> new Node<>());
+            }
+            node.queries.add(q);
+            naiveSteps += input.length();
+        }
+
+        final Execution<I, O> execution = new Execution<>(sul.canSnapshot());
+
+        sul.pre();
+        try {
+            execution.explore(sul, root);
+        } finally {
+            sul.post();
+        }
+
+        savedResets.addAndGet(queries.size() - execution.resets);
+        savedSteps.addAndGet(naiveSteps - execution.steps);
+    }
+
+    private static final class Node<I, O> {
+
+        private final Map<I, Node<I, O>> children = new LinkedHashMap<>();
+        private final List<Query<I, Word<O>>> queries = new ArrayList<>();
+    }
+
+    /**
+     * The state of a single (depth-first) exploration of a prefix tree.
+     */
+    private static final class Execution<I, O> {
+
+        private final boolean snapshots;
+        private final List<I> inputs = new ArrayList<>();
+        private final List<O> outputs = new ArrayList<>();
+
+        private long resets = 1;
+        private long steps;
+
+        Execution(boolean snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        /**
+         * Answers all queries of the subtree of the given node. Assumes that the given SUL has been stepped through the
+         * path to this node. The tree is traversed with an explicit stack, so that long queries do not exhaust the call
+         * stack.
+         */
+        void explore(SUL<I, O> sul, Node<I, O> root) throws SULException {
+            final Deque<Frame<I, O>> stack = new ArrayDeque<>();
+
+            try {
+                stack.push(new Frame<>(sul, root, 0, null));
+                answer(root, 0);
+
+                while (!stack.isEmpty()) {
+                    final Frame<I, O> frame = stack.peek();
+
+                    if (!frame.children.hasNext()) {
+                        stack.pop();
+                        if (frame.snapshot != null) {
+                            frame.snapshot.post();
+                        }
+                        if (frame.depth > 0) {
+                            inputs.remove(frame.depth - 1);
+                            outputs.remove(frame.depth - 1);
+                        }
+                        continue;
+                    }
+
+                    final Map.Entry<I, Node<I, O>> e = frame.children.next();
+                    final SUL<I, O> childSul;
+                    final SUL<I, O> snapshot;
+
+                    if (snapshots && frame.children.hasNext()) {
+                        snapshot = frame.sul.snapshot();
+                        childSul = snapshot;
+                    } else {
+                        if (!snapshots && frame.visited) {
+                            replay(frame.sul, frame.depth);
+                        }
+                        snapshot = null;
+                        childSul = frame.sul;
+                    }
+                    frame.visited = true;
+
+                    final int depth = frame.depth + 1;
+                    stack.push(new Frame<>(childSul, e.getValue(), depth, snapshot));
+
+                    inputs.add(e.getKey());
+                    outputs.add(childSul.step(e.getKey()));
+                    steps++;
+
+                    answer(e.getValue(), depth);
+                }
+            } finally {
+                // only non-empty if the exploration has been aborted by an exception
+                while (!stack.isEmpty()) {
+                    final Frame<I, O> frame = stack.pop();
+                    if (frame.snapshot != null) {
+                        frame.snapshot.post();
+                    }
+                }
+            }
+        }
+
+        private void answer(Node<I, O> node, int depth) {
+            for (Query<I, Word<O>> q : node.queries) {
+                final int suffixLength = q.getSuffix().length();
+                q.answer(Word.fromList(outputs.subList(depth - suffixLength, depth)));
+            }
+        }
+
+        /**
+         * Resets the given SUL and steps it through the first {@code depth} symbols of the current path.
+         */
+        private void replay(SUL<I, O> sul, int depth) throws SULException {
+            sul.post();
+            sul.pre();
+            resets++;
+
+            for (int i = 0; i < depth; i++) {
+                sul.step(inputs.get(i));
+            }
+            steps += depth;
+        }
+    }
+
+    /**
+     * A node of the prefix tree that is currently on the exploration path, together with the SUL that has been stepped
+     * to it.
+     */
+    private static final class Frame<I, O> {
+
+        private final SUL<I, O> sul;
+        private final Iterator<Map.Entry<I, Node<I, O>>> children;
+        private final int depth;
+        @Nullable
+        private final SUL<I, O> snapshot;
+        private boolean visited;
+
+        Frame(SUL<I, O> sul, Node<I, O> node, int depth, @Nullable SUL<I, O> snapshot) {
+            this.sul = sul;
+            this.children = node.children.entrySet().iterator();
+            this.depth = depth;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+
+/**
+ * A {@link SymbolQueryOracle} that processes batches of queries on a delegate symbol query oracle with as few resets
+ * and steps as possible.
+ * <p>
+ * The input words of a batch are arranged in a prefix tree which is explored depth-first, such that every query whose
+ * input word is a prefix of another query's input word is answered by the same run of the delegate. Furthermore, this
+ * oracle keeps track of the trace that has been executed on the delegate since its last reset: if a query (or a run
+ * of the prefix tree) extends this trace, only the missing symbols are executed instead of resetting the delegate and
+ * replaying the trace. For the same reason, {@link #reset() resets} are performed lazily.
+ * <p>
+ * Note that the delegate must not be accessed other than through this oracle, as this would invalidate the tracked
+ * trace. Furthermore, this is only sound for deterministic systems. In order to distribute the queries of a batch
+ * across multiple delegate instances, one instance of this oracle per delegate can be passed to a static parallel
+ * oracle, which forwards contiguous parts of every batch to the individual oracles.
+ * <p>
+ * The number of resets and steps saved in comparison to executing every query (and every reset) separately can be
+ * obtained via {@link #getSavedResets()} and {@link #getSavedSteps()}.
+ *
+ * @param <I>
+ *         input alphabet type
+ * @param <O>
+ *         output alphabet type
+ */
+@ParametersAreNonnullByDefault
+public class PrefixSharingSymbolQueryOracle<I, O> implements SymbolQueryOracle<I, O> {
+
+    private final SymbolQueryOracle<I, O> delegate;
+
+    private final List<I> executedInputs;
+    private final List<O> executedOutputs;
+    private boolean executedTraceValid;
+    private boolean resetPending;
+
+    private long savedResets;
+    private long savedSteps;
+
+    public PrefixSharingSymbolQueryOracle(final SymbolQueryOracle<I, O> delegate) {
+        this.delegate = delegate;
+        this.executedInputs = new ArrayList<>();
+        this.executedOutputs = new ArrayList<>();
+    }
+
+    /**
+     * Returns the number of resets that were saved in comparison to executing every query (and every reset)
+     * separately.
+     *
+     * @return the number of saved resets
+     */
+    public long getSavedResets() {
+        return savedResets;
+    }
+
+    /**
+     * Returns the number of steps (i.e. queried symbols) that were saved in comparison to executing every query
+     * separately.
+     *
+     * @return the number of saved steps
+     */
+    public long getSavedSteps() {
+        return savedSteps;
+    }
+
+    @Override
+    public O query(I i) {
+        if (resetPending) {
+            resetDelegate();
+        }
+
+        final O output = delegate.query(i);
+
+        if (executedTraceValid) {
+            executedInputs.add(i);
+            executedOutputs.add(output);
+        }
+
+        return output;
+    }
+
+    @Override
+    public void reset() {
+        if (resetPending || (executedTraceValid && executedInputs.isEmpty())) {
+            // the delegate is either going to be reset anyway or already is in its initial state
+            savedResets++;
+        } else {
+            resetPending = true;
+        }
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        final Node<I, O> root = new Node<>();
+
+        for (final Query<I, Word<O>> q : queries) {
+            Node<I, O> node = root;
+            for (final I i : q.getInput()) {
+                node = node.children.computeIfAbsent(i, k -> new Node<>());
+            }
+            node.queries.add(q);
+            savedResets++;
+            savedSteps += q.getInput().length();
+        }
+
+        // every query starts from the initial state, so a pending reset may be skipped if the executed trace is re-used
+        if (resetPending) {
+            resetPending = false;
+            savedResets++;
+        }
+
+        explore(root, new ArrayList<>(), executedTraceValid);
+    }
+
+    private void explore(Node<I, O> node, List<I> path, boolean onExecutedTrace) {
+        final int depth = path.size();
+
+        if (!node.queries.isEmpty()) {
+            advanceTo(path);
+            for (final Query<I, Word<O>> q : node.queries) {
+                final int suffixLength = q.getSuffix().length();
+                q.answer(Word.fromList(executedOutputs.subList(depth - suffixLength, depth)));
+            }
+        }
+
+        // explore the subtree that continues the executed trace first, as it requires no reset
+        I preferred = null;
+        if (onExecutedTrace && depth < executedInputs.size()) {
+            preferred = executedInputs.get(depth);
+            final Node<I, O> child = node.children.get(preferred);
+            if (child != null) {
+                path.add(preferred);
+                explore(child, path, true);
+                path.remove(depth);
+            }
+        }
+
+        for (final Map.Entry<I, Node<I, O>> e : node.children.entrySet()) {
+            final I i = e.getKey();
+            if (preferred == null || !preferred.equals(i)) {
+                path.add(i);
+                explore(e.getValue(), path, false);
+                path.remove(depth);
+            }
+        }
+    }
+
+    /**
+     * Makes sure that the given input word is a prefix of the executed trace, re-using the executed trace if possible.
+     */
+    private void advanceTo(List<I> path) {
+        if (executedTraceValid && isPrefix(path, executedInputs)) {
+            return;
+        }
+
+        if (!executedTraceValid || !isPrefix(executedInputs, path)) {
+            resetDelegate();
+            savedResets--;
+        }
+
+        for (int idx = executedInputs.size(); idx < path.size(); idx++) {
+            final I i = path.get(idx);
+            executedInputs.add(i);
+            executedOutputs.add(delegate.query(i));
+            savedSteps--;
+        }
+    }
+
+    private void resetDelegate() {
+        delegate.reset();
+        executedInputs.clear();
+        executedOutputs.clear();
+        executedTraceValid = true;
+        resetPending = false;
+    }
+
+    private static <I> boolean isPrefix(List<I> prefix, List<I> word) {
+        return prefix.size() <= word.size() && prefix.equals(word.subList(0, prefix.size()));
+    }
+
+    private static final class Node<I, O> {
+
+        private final Map<I, Node<I, O>> children = new LinkedHashMap<>();
+        private final List<Query<I, Word<O>>> queries = new ArrayList<>();
+    }
+}
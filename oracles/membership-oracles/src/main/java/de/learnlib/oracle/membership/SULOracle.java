@@ -16,12 +16,16 @@
 package de.learnlib.oracle.membership;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import de.learnlib.api.SUL;
 import de.learnlib.api.exception.SULException;
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
 import de.learnlib.api.query.Query;
 import net.automatalib.words.Word;
@@ -35,18 +39,29 @@ import net.automatalib.words.WordBuilder;
  * maintain a {@link ThreadLocal thread-local} fork of the SUL, which is used for processing queries.</li>
  * <li>otherwise, if the SUL is not forkable, accesses to the SUL in {@link #processQueries(Collection)} will be
  * synchronized explicitly.</li> </ul>
+ * <p>
+ * If an {@link Executor} is passed to the constructor, queries that are submitted via {@link
+ * #processQueriesAsync(Collection)} are processed by tasks of this executor (which, for forkable SULs, use thread-local
+ * forks of the SUL as well). Otherwise, asynchronously submitted queries are processed on the calling thread.
  *
  * @author Falk Howar
  * @author Malte Isberner
  */
 @ParametersAreNonnullByDefault
-public class SULOracle<I, O> implements MealyMembershipOracle<I, O> {
+public class SULOracle<I, O> implements MealyMembershipOracle<I, O>, AsyncMembershipOracle<I, Word<O>> {
 
     private final SUL<I, O> sul;
     private final ThreadLocal<SUL<I, O>> localSul;
+    @Nullable
+    private final Executor executor;
 
     public SULOracle(SUL<I, O> sul) {
+        this(sul, null);
+    }
+
+    public SULOracle(SUL<I, O> sul, @Nullable Executor executor) {
         this.sul = sul;
+        this.executor = executor;
         if (sul.canFork()) {
             this.localSul = ThreadLocal.withInitial(sul::fork);
         } else {
@@ -65,7 +80,32 @@ public class SULOracle<I, O> implements MealyMembershipOracle<I, O> {
         }
     }
 
-    private static <I, O> void processQueries(SUL<I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, Word<O>>> queries) {
+        if (executor != null) {
+            return CompletableFuture.runAsync(() -> processQueries(queries), executor);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            processQueries(queries);
+            result.complete(null);
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Processes the given batch of queries on the given SUL instance. The caller ensures that the SUL is not accessed
+     * concurrently.
+     *
+     * @param sul
+     *         the SUL instance to use
+     * @param queries
+     *         the queries to process
+     */
+    protected void processQueries(SUL<I, O> sul, Collection<? extends Query<I, Word<O>>> queries) {
         for (Query<I, Word<O>> q : queries) {
             Word<O> output = answerQuery(sul, q.getPrefix(), q.getSuffix());
             q.answer(output);
@@ -0,0 +1,156 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PrefixSharingSULOracleTest {
+
+    @Test
+    public void testResetBasedSharing() {
+        final CountingSUL sul = new CountingSUL(false);
+        final PrefixSharingSULOracle<Integer, Integer> oracle = new PrefixSharingSULOracle<>(sul);
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries();
+
+        oracle.processQueries(queries);
+
+        checkAnswers(queries);
+        Assert.assertEquals(sul.resets, 3);
+        Assert.assertEquals(sul.steps, 7);
+        Assert.assertEquals(oracle.getSavedResets(), 2);
+        Assert.assertEquals(oracle.getSavedSteps(), 2);
+        Assert.assertEquals(sul.openSessions, 0);
+    }
+
+    @Test
+    public void testSnapshotBasedSharing() {
+        final CountingSUL sul = new CountingSUL(true);
+        final PrefixSharingSULOracle<Integer, Integer> oracle = new PrefixSharingSULOracle<>(sul);
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = createQueries();
+
+        oracle.processQueries(queries);
+
+        checkAnswers(queries);
+        Assert.assertEquals(sul.resets, 1);
+        Assert.assertEquals(sul.steps, 5);
+        Assert.assertEquals(oracle.getSavedResets(), 4);
+        Assert.assertEquals(oracle.getSavedSteps(), 4);
+        Assert.assertEquals(sul.openSessions, 0);
+    }
+
+    @Test
+    public void testLongQueries() {
+        final int length = 100_000;
+        final Word<Integer> prefix = Word.fromList(Collections.nCopies(length - 1, 0));
+
+        for (boolean snapshots : new boolean[] {false, true}) {
+            final CountingSUL sul = new CountingSUL(snapshots);
+            final PrefixSharingSULOracle<Integer, Integer> oracle = new PrefixSharingSULOracle<>(sul);
+            final List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>();
+            queries.add(new DefaultQuery<>(prefix, Word.fromSymbols(0)));
+            queries.add(new DefaultQuery<>(prefix, Word.fromSymbols(1)));
+
+            oracle.processQueries(queries);
+
+            checkAnswers(queries);
+            Assert.assertEquals(sul.resets, snapshots ? 1 : 2);
+            Assert.assertEquals(sul.steps, snapshots ? length + 1 : 2 * length);
+            Assert.assertEquals(sul.openSessions, 0);
+        }
+    }
+
+    private static List<DefaultQuery<Integer, Word<Integer>>> createQueries() {
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>();
+        queries.add(new DefaultQuery<>(Word.fromSymbols(0), Word.fromSymbols(1, 0)));
+        queries.add(new DefaultQuery<>(Word.fromSymbols(0, 1), Word.epsilon()));
+        queries.add(new DefaultQuery<>(Word.epsilon(), Word.fromSymbols(0, 1, 1)));
+        queries.add(new DefaultQuery<>(Word.epsilon(), Word.fromSymbols(1)));
+        queries.add(new DefaultQuery<>(Word.epsilon(), Word.epsilon()));
+        return queries;
+    }
+
+    private static void checkAnswers(List<DefaultQuery<Integer, Word<Integer>>> queries) {
+        final SULOracle<Integer, Integer> reference = new SULOracle<>(new CountingSUL(false));
+
+        for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), reference.answerQuery(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    /**
+     * A deterministic SUL whose outputs depend on the full input history, and which counts the resets and steps
+     * executed by it and its snapshots.
+     */
+    private static final class CountingSUL implements SUL<Integer, Integer> {
+
+        private final boolean snapshots;
+        private final CountingSUL origin;
+
+        private int state;
+        private int resets;
+        private int steps;
+        private int openSessions;
+
+        CountingSUL(boolean snapshots) {
+            this.snapshots = snapshots;
+            this.origin = this;
+        }
+
+        private CountingSUL(CountingSUL snapshot) {
+            this.snapshots = true;
+            this.origin = snapshot.origin;
+            this.state = snapshot.state;
+        }
+
+        @Override
+        public void pre() {
+            state = 1;
+            origin.resets++;
+            origin.openSessions++;
+        }
+
+        @Override
+        public void post() {
+            origin.openSessions--;
+        }
+
+        @Override
+        public Integer step(Integer in) {
+            origin.steps++;
+            state = (3 * state + in) % 17;
+            return state;
+        }
+
+        @Override
+        public boolean canSnapshot() {
+            return snapshots;
+        }
+
+        @Override
+        public SUL<Integer, Integer> snapshot() {
+            origin.openSessions++;
+            return new CountingSUL(this);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.learnlib.api.oracle.SymbolQueryOracle;
+import de.learnlib.api.query.DefaultQuery;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the interplay of interactive symbol queries, (lazy) resets and query batches of the {@link
+ * PrefixSharingSymbolQueryOracle} by means of the exact sequence of resets and symbols executed on its delegate.
+ */
+public class PrefixSharingSymbolQueryOracleTest {
+
+    @Test
+    public void testBatchContinuesInteractiveTrace() {
+        final LoggingSymbolQueryOracle delegate = new LoggingSymbolQueryOracle();
+        final PrefixSharingSymbolQueryOracle<Character, Integer> oracle =
+                new PrefixSharingSymbolQueryOracle<>(delegate);
+
+        oracle.reset();
+        Assert.assertEquals(oracle.query('a'), Integer.valueOf(1));
+        Assert.assertEquals(oracle.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "Rab");
+
+        final DefaultQuery<Character, Word<Integer>> q1 =
+                new DefaultQuery<>(Word.fromSymbols('a', 'b'), Word.fromSymbols('a'));
+        final DefaultQuery<Character, Word<Integer>> q2 = new DefaultQuery<>(Word.fromSymbols('a'));
+        final DefaultQuery<Character, Word<Integer>> q3 = new DefaultQuery<>(Word.fromSymbols('b', 'b'));
+        oracle.processQueries(Arrays.asList(q1, q2, q3));
+
+        // q2 is answered by the interactive trace, which q1 extends, q3 requires a reset
+        Assert.assertEquals(delegate.getLog(), "RabaRbb");
+        Assert.assertEquals(q1.getOutput(), Word.fromSymbols(2));
+        Assert.assertEquals(q2.getOutput(), Word.fromSymbols(1));
+        Assert.assertEquals(q3.getOutput(), Word.fromSymbols(1, 2));
+        Assert.assertEquals(oracle.getSavedResets(), 2);
+        Assert.assertEquals(oracle.getSavedSteps(), 3);
+    }
+
+    @Test
+    public void testPendingResetIsSkippedByBatch() {
+        final LoggingSymbolQueryOracle delegate = new LoggingSymbolQueryOracle();
+        final PrefixSharingSymbolQueryOracle<Character, Integer> oracle =
+                new PrefixSharingSymbolQueryOracle<>(delegate);
+
+        oracle.reset();
+        oracle.query('a');
+        oracle.reset();
+        oracle.reset();
+        Assert.assertEquals(delegate.getLog(), "Ra");
+
+        // the batch re-uses the executed trace, so the pending reset is not needed
+        final DefaultQuery<Character, Word<Integer>> query = new DefaultQuery<>(Word.fromSymbols('a', 'b'));
+        oracle.processQueries(Collections.singletonList(query));
+        Assert.assertEquals(delegate.getLog(), "Rab");
+        Assert.assertEquals(query.getOutput(), Word.fromSymbols(1, 1));
+        Assert.assertEquals(oracle.getSavedResets(), 3);
+        Assert.assertEquals(oracle.getSavedSteps(), 1);
+
+        // interactive queries still start from the initial state
+        oracle.reset();
+        Assert.assertEquals(oracle.query('b'), Integer.valueOf(1));
+        Assert.assertEquals(delegate.getLog(), "RabRb");
+    }
+
+    /**
+     * A symbol query oracle that logs its resets (as {@code R}) and queried symbols. The output of a query is the
+     * number of occurrences of the queried symbol since the last reset.
+     */
+    private static final class LoggingSymbolQueryOracle implements SymbolQueryOracle<Character, Integer> {
+
+        private final StringBuilder log = new StringBuilder();
+        private final List<Character> trace = new ArrayList<>();
+
+        @Override
+        public Integer query(Character i) {
+            log.append(i);
+            trace.add(i);
+            return Collections.frequency(trace, i);
+        }
+
+        @Override
+        public void reset() {
+            log.append('R');
+            trace.clear();
+        }
+
+        String getLog() {
+            return log.toString();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import com.google.common.base.Throwables;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.setting.LearnLibSettings;
+
+/**
+ * A parallel membership oracle that distributes queries among the workers of a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * As opposed to the {@link DynamicParallelOracle}, this oracle does not submit one job per fixed-size batch. Instead,
+ * an incoming set of queries is sorted by (descending) length and recursively split into sub-tasks of roughly equal
+ * cost, until the estimated processing time of a sub-task drops below a configurable target. The cost of a query is
+ * estimated from its length, and the time required per input symbol is continuously measured while queries are being
+ * processed. Idle workers steal pending sub-tasks from busy ones, so the load remains balanced even if the lengths of
+ * the queries vary greatly, while the number of tasks (and thus the scheduling overhead) stays small for large batches
+ * of cheap queries.
+ * <p>
+ * Like the {@link DynamicParallelOracle}, each worker thread uses its own oracle instance, obtained from the supplier
+ * passed to the constructor.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+@ParametersAreNonnullByDefault
+public class AdaptiveParallelOracle<I, D> implements ParallelOracle<I, D> {
+
+    private static final int DEFAULT_TARGET_TASK_MICROS = 1000;
+    private static final int DEFAULT_MIN_BATCH_SIZE = 1;
+    /**
+     * The number of tasks per worker that are created (at least) if no latency estimate is available or all queries
+     * are very cheap. Over-splitting slightly allows idle workers to steal work at the end of a round.
+     */
+    private static final int TASKS_PER_WORKER = 4;
+    /**
+     * The weight of the latest observation when updating the latency estimate.
+     */
+    private static final double SMOOTHING_FACTOR = 0.25;
+
+    public static final int POOL_SIZE;
+    public static final int TARGET_TASK_MICROS;
+    public static final int MIN_BATCH_SIZE;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+
+        int numProcessors = Runtime.getRuntime().availableProcessors();
+        POOL_SIZE = settings.getInt("parallel.adaptive.pool_size", numProcessors);
+
+        TARGET_TASK_MICROS = settings.getInt("parallel.adaptive.target_task_micros", DEFAULT_TARGET_TASK_MICROS);
+        MIN_BATCH_SIZE = settings.getInt("parallel.adaptive.min_batch_size", DEFAULT_MIN_BATCH_SIZE);
+    }
+
+    @Nonnull
+    private final ThreadLocal<MembershipOracle<I, D>> threadLocalOracle;
+    @Nonnull
+    private final ForkJoinPool pool;
+    @Nonnegative
+    private final long targetTaskNanos;
+    @Nonnegative
+    private final int minBatchSize;
+
+    /**
+     * The (smoothed) observed processing time per cost unit, in nanoseconds. Concurrent updates may get lost, which is
+     * acceptable as this value is only used as a heuristic.
+     */
+    private volatile double nanosPerUnit;
+
+    public AdaptiveParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                  long targetTaskTime,
+                                  TimeUnit targetTaskTimeUnit,
+                                  @Nonnegative int minBatchSize,
+                                  ForkJoinPool pool) {
+        this.threadLocalOracle = ThreadLocal.withInitial(oracleSupplier::get);
+        this.targetTaskNanos = targetTaskTimeUnit.toNanos(targetTaskTime);
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.pool = pool;
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        try {
+            processQueriesAsync(queries).get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Tasks must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @SuppressWarnings("unchecked")
+        Query<I, D>[] sorted = queries.toArray(new Query[queries.size()]);
+        // longest queries first, such that expensive tasks are started early and similar queries end up in one batch
+        Arrays.sort(sorted, (q1, q2) -> Integer.compare(cost(q2), cost(q1)));
+
+        long[] cumulativeCost = new long[sorted.length + 1];
+        for (int i = 0; i < sorted.length; i++) {
+            cumulativeCost[i + 1] = cumulativeCost[i] + cost(sorted[i]);
+        }
+
+        long maxTaskCost = computeMaxTaskCost(cumulativeCost[sorted.length]);
+        QueriesTask task = new QueriesTask(sorted, cumulativeCost, maxTaskCost, 0, sorted.length);
+
+        // the task is invoked by a worker of the pool, so that its sub-tasks are forked into the pool as well
+        return CompletableFuture.runAsync(task::invoke, pool);
+    }
+
+    /**
+     * Computes the maximum (estimated) cost of a single, non-split task.
+     *
+     * @param totalCost
+     *         the total cost of all queries of the current batch
+     *
+     * @return the maximum cost of a single task
+     */
+    private long computeMaxTaskCost(long totalCost) {
+        long balancedCost = totalCost / ((long) pool.getParallelism() * TASKS_PER_WORKER);
+
+        double estimate = nanosPerUnit;
+        if (estimate <= 0.0) {
+            return Math.max(1L, balancedCost);
+        }
+
+        long targetCost = (long) (targetTaskNanos / estimate);
+        return Math.max(1L, Math.min(targetCost, balancedCost));
+    }
+
+    private void updateEstimate(long nanos, long cost) {
+        double observed = (double) nanos / cost;
+        double estimate = nanosPerUnit;
+        if (estimate <= 0.0) {
+            nanosPerUnit = observed;
+        } else {
+            nanosPerUnit = SMOOTHING_FACTOR * observed + (1.0 - SMOOTHING_FACTOR) * estimate;
+        }
+    }
+
+    /**
+     * Estimates the cost of answering a query. Each query is assumed to incur some fixed overhead (e.g., for resetting
+     * the system) plus a cost linear in the number of its input symbols.
+     *
+     * @param query
+     *         the query
+     *
+     * @return the estimated cost of the query
+     */
+    private static int cost(Query<?, ?> query) {
+        return query.getPrefix().length() + query.getSuffix().length() + 1;
+    }
+
+    /**
+     * A recursive task that processes a contiguous range of the (sorted) queries, splitting itself into sub-tasks of
+     * roughly equal cost if the range is too expensive to be processed as a single batch.
+     */
+    private final class QueriesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Query<I, D>[] queries;
+        private final long[] cumulativeCost;
+        private final long maxTaskCost;
+        private final int low;
+        private final int high;
+
+        QueriesTask(Query<I, D>[] queries, long[] cumulativeCost, long maxTaskCost, int low, int high) {
+            this.queries = queries;
+            this.cumulativeCost = cumulativeCost;
+            this.maxTaskCost = maxTaskCost;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute() {
+            long taskCost = cumulativeCost[high] - cumulativeCost[low];
+
+            if (taskCost <= maxTaskCost || high - low <= minBatchSize) {
+                processLocally(taskCost);
+                return;
+            }
+
+            int mid = findCostMidpoint(cumulativeCost[low] + taskCost / 2);
+
+            invokeAll(new QueriesTask(queries, cumulativeCost, maxTaskCost, low, mid),
+                      new QueriesTask(queries, cumulativeCost, maxTaskCost, mid, high));
+        }
+
+        private void processLocally(long taskCost) {
+            List<Query<I, D>> batch = Arrays.asList(queries).subList(low, high);
+            MembershipOracle<I, D> oracle = threadLocalOracle.get();
+
+            long start = System.nanoTime();
+            oracle.processQueries(batch);
+            updateEstimate(System.nanoTime() - start, taskCost);
+        }
+
+        /**
+         * Determines the split index for this task, i.e., the smallest index whose cumulative cost reaches the given
+         * value. The result is guaranteed to lie strictly between {@code low} and {@code high}.
+         */
+        private int findCostMidpoint(long cost) {
+            int idx = Arrays.binarySearch(cumulativeCost, low, high, cost);
+            if (idx < 0) {
+                idx = -idx - 1;
+            }
+            return Math.min(Math.max(idx, low + 1), high - 1);
+        }
+    }
+
+}
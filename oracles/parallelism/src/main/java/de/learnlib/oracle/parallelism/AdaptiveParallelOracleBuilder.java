@@ -0,0 +1,115 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.MembershipOracle;
+
+/**
+ * Builder class for an {@link AdaptiveParallelOracle}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output type
+ */
+@ParametersAreNonnullByDefault
+public class AdaptiveParallelOracleBuilder<I, D> {
+
+    @Nonnull
+    private final Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    private ForkJoinPool customPool;
+    @Nonnegative
+    private int poolSize = AdaptiveParallelOracle.POOL_SIZE;
+    @Nonnegative
+    private long targetTaskTime = AdaptiveParallelOracle.TARGET_TASK_MICROS;
+    @Nonnull
+    private TimeUnit targetTaskTimeUnit = TimeUnit.MICROSECONDS;
+    @Nonnegative
+    private int minBatchSize = AdaptiveParallelOracle.MIN_BATCH_SIZE;
+
+    public AdaptiveParallelOracleBuilder(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        this.oracleSupplier = oracleSupplier;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withCustomPool(ForkJoinPool pool) {
+        this.customPool = pool;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withDefaultPool() {
+        this.customPool = null;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withPoolSize(@Nonnegative int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withDefaultPoolSize() {
+        this.poolSize = AdaptiveParallelOracle.POOL_SIZE;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withTargetTaskTime(@Nonnegative long time, TimeUnit unit) {
+        this.targetTaskTime = time;
+        this.targetTaskTimeUnit = unit;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withDefaultTargetTaskTime() {
+        this.targetTaskTime = AdaptiveParallelOracle.TARGET_TASK_MICROS;
+        this.targetTaskTimeUnit = TimeUnit.MICROSECONDS;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withMinBatchSize(@Nonnegative int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracleBuilder<I, D> withDefaultMinBatchSize() {
+        this.minBatchSize = AdaptiveParallelOracle.MIN_BATCH_SIZE;
+        return this;
+    }
+
+    @Nonnull
+    public AdaptiveParallelOracle<I, D> create() {
+        ForkJoinPool pool = customPool;
+        if (pool == null) {
+            pool = new ForkJoinPool(poolSize);
+        }
+
+        return new AdaptiveParallelOracle<>(oracleSupplier, targetTaskTime, targetTaskTimeUnit, minBatchSize, pool);
+    }
+
+}
@@ -18,9 +18,9 @@ package de.learnlib.oracle.parallelism;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
 import javax.annotation.Nonnegative;
@@ -91,11 +91,29 @@ public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
             return;
         }
 
+        try {
+            // Await completion of all jobs
+            processQueriesAsync(queries).get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Runnables must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
         int numQueries = queries.size();
         int numJobs = (numQueries - 1) / batchSize + 1;
         List<Query<I, D>> currentBatch = null;
 
-        List<Future<?>> futures = new ArrayList<>(numJobs);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(numJobs);
 
         for (Query<I, D> query : queries) {
 
@@ -105,29 +123,17 @@ public class DynamicParallelOracle<I, D> implements ParallelOracle<I, D> {
 
             currentBatch.add(query);
             if (currentBatch.size() == batchSize) {
-                Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-                futures.add(future);
+                futures.add(CompletableFuture.runAsync(new DynamicQueriesJob<>(currentBatch, threadLocalOracle),
+                                                       executor));
                 currentBatch = null;
             }
         }
 
         if (currentBatch != null) {
-            Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-            futures.add(future);
+            futures.add(CompletableFuture.runAsync(new DynamicQueriesJob<>(currentBatch, threadLocalOracle), executor));
         }
 
-        try {
-            // Await completion of all jobs
-            for (Future<?> future : futures) {
-                future.get();
-            }
-        } catch (ExecutionException e) {
-            Throwables.throwIfUnchecked(e.getCause());
-            throw new AssertionError("Runnables must not throw checked exceptions", e);
-        } catch (InterruptedException e) {
-            Thread.interrupted();
-            throw new ParallelOracleInterruptedException(e);
-        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
     }
 
 }
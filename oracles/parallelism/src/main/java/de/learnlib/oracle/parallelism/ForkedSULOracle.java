@@ -0,0 +1,78 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Collection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+import net.automatalib.words.WordBuilder;
+
+/**
+ * A (non thread-safe) membership oracle that answers queries using a dedicated fork of a {@link SUL}.
+ * <p>
+ * As opposed to the SUL oracle of the membership oracles module, this oracle does not maintain thread-local forks of
+ * the SUL. It is meant to be used by parallel oracles that guarantee that each oracle instance is only accessed by a
+ * single thread at a time, but not necessarily always by the same thread.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+@ParametersAreNonnullByDefault
+final class ForkedSULOracle<I, O> implements MealyMembershipOracle<I, O> {
+
+    @Nonnull
+    private final SUL<I, O> sul;
+
+    ForkedSULOracle(SUL<I, O> sul) {
+        this.sul = sul.fork();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        for (Query<I, Word<O>> q : queries) {
+            q.answer(answerQuery(q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Word<O> answerQuery(Word<I> prefix, Word<I> suffix) {
+        sul.pre();
+        try {
+            for (I sym : prefix) {
+                sul.step(sym);
+            }
+
+            WordBuilder<O> wb = new WordBuilder<>(suffix.length());
+            for (I sym : suffix) {
+                wb.add(sul.step(sym));
+            }
+
+            return wb.toWord();
+        } finally {
+            sul.post();
+        }
+    }
+
+}
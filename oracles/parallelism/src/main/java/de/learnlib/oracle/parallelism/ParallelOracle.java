@@ -18,6 +18,7 @@ package de.learnlib.oracle.parallelism;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import de.learnlib.api.oracle.AsyncMembershipOracle;
 import de.learnlib.api.oracle.MembershipOracle;
 
 /**
@@ -26,6 +27,10 @@ import de.learnlib.api.oracle.MembershipOracle;
  * Parallel oracles usually use one or more dedicated worker threads in which the processing of queries is performed.
  * Since these do not have a defined life span, they must be terminated explicitly using {@link #shutdown()} or {@link
  * #shutdownNow()}.
+ * <p>
+ * Parallel oracles natively support asynchronous query processing (see {@link AsyncMembershipOracle}): {@link
+ * #processQueriesAsync(java.util.Collection)} dispatches the queries to the worker threads and returns immediately, so
+ * that the caller can prepare further queries in the meantime.
  *
  * @param <I>
  *         input symbol type
@@ -34,7 +39,7 @@ import de.learnlib.api.oracle.MembershipOracle;
  *
  * @author Malte Isberner
  */
-public interface ParallelOracle<I, D> extends MembershipOracle<I, D> {
+public interface ParallelOracle<I, D> extends MembershipOracle<I, D>, AsyncMembershipOracle<I, D> {
 
     /**
      * Shuts down all worker threads, but waits for any queued queries to be processed.
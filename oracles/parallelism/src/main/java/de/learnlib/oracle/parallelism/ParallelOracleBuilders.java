@@ -25,10 +25,12 @@ import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import com.google.common.base.Suppliers;
+import de.learnlib.api.SUL;
 import de.learnlib.api.oracle.MembershipOracle;
+import net.automatalib.words.Word;
 
 /**
- * Builders for (static and dynamic) parallel oracles.
+ * Builders for (static, dynamic, adaptive and thread-per-query) parallel oracles.
  * <p>
  * Using the methods defined in this class is the preferred way of instantiating parallel oracles.
  * <p>
@@ -61,6 +63,22 @@ import de.learnlib.api.oracle.MembershipOracle;
  *      .withPoolPolicy(PoolPolicy.CACHED)
  *      .create();
  * </pre>
+ * <p>
+ * Creating an adaptive (work-stealing) parallel oracle with 32 worker threads, each of which should process queries
+ * for about 5 milliseconds before checking for new work, using an oracle supplier:
+ * <pre>
+ * ParallelOracleBuilders.newAdaptiveParallelOracle(oracleSupplier)
+ *      .withPoolSize(32)
+ *      .withTargetTaskTime(5, TimeUnit.MILLISECONDS)
+ *      .create();
+ * </pre>
+ * <p>
+ * Creating a thread-per-query parallel oracle for an I/O-bound, forkable SUL, keeping up to 200 queries in flight:
+ * <pre>
+ * ParallelOracleBuilders.newThreadPerQueryParallelOracle(sul)
+ *      .withMaxConcurrency(200)
+ *      .create();
+ * </pre>
  *
  * @author Malte Isberner
  */
@@ -81,6 +99,46 @@ public final class ParallelOracleBuilders {
         return new DynamicParallelOracleBuilder<>(oracleSupplier);
     }
 
+    @Nonnull
+    public static <I, D> AdaptiveParallelOracleBuilder<I, D> newAdaptiveParallelOracle(MembershipOracle<I, D> sharedOracle) {
+        return newAdaptiveParallelOracle(() -> sharedOracle);
+    }
+
+    @Nonnull
+    public static <I, D> AdaptiveParallelOracleBuilder<I, D> newAdaptiveParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        return new AdaptiveParallelOracleBuilder<>(oracleSupplier);
+    }
+
+    @Nonnull
+    public static <I, D> ThreadPerQueryParallelOracleBuilder<I, D> newThreadPerQueryParallelOracle(MembershipOracle<I, D> sharedOracle) {
+        return newThreadPerQueryParallelOracle(() -> sharedOracle);
+    }
+
+    @Nonnull
+    public static <I, D> ThreadPerQueryParallelOracleBuilder<I, D> newThreadPerQueryParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        return new ThreadPerQueryParallelOracleBuilder<>(oracleSupplier);
+    }
+
+    /**
+     * Creates a builder for a thread-per-query parallel oracle, whose oracle instances answer queries using
+     * independent {@link SUL#fork() forks} of the given SUL.
+     *
+     * @param sul
+     *         the (forkable) system under learning
+     *
+     * @return the builder
+     *
+     * @throws IllegalArgumentException
+     *         if the given SUL cannot be forked
+     */
+    @Nonnull
+    public static <I, O> ThreadPerQueryParallelOracleBuilder<I, Word<O>> newThreadPerQueryParallelOracle(SUL<I, O> sul) {
+        if (!sul.canFork()) {
+            throw new IllegalArgumentException("SUL must be forkable");
+        }
+        return newThreadPerQueryParallelOracle(() -> new ForkedSULOracle<>(sul));
+    }
+
     @Nonnull
     public static <I, D> StaticParallelOracleBuilder<I, D> newStaticParallelOracle(MembershipOracle<I, D> sharedOracle) {
         return newStaticParallelOracle(Suppliers.ofInstance(sharedOracle));
@@ -17,8 +17,10 @@ package de.learnlib.oracle.parallelism;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,6 +41,10 @@ import de.learnlib.setting.LearnLibSettings;
  * An incoming set of queries is divided into a given number of batches, such that the sizes of all batches differ by at
  * most one. This keeps the required synchronization effort low, but if some batches are "harder" (for whatever reason)
  * than others, the load can be very unbalanced.
+ * <p>
+ * As the oracles are not required to be thread-safe, each oracle only processes a single batch at a time: A set of
+ * queries (whether submitted via {@link #processQueries(Collection)} or {@link #processQueriesAsync(Collection)}) is
+ * only dispatched once all previously submitted sets have been processed.
  *
  * @param <I>
  *         input symbol type
@@ -72,6 +78,9 @@ public class StaticParallelOracle<I, D> implements ParallelOracle<I, D> {
     private final MembershipOracle<I, D>[] oracles;
     @Nonnull
     private final ExecutorService executor;
+    /** Completion of the most recently submitted set of queries, guarded by this oracle. */
+    @Nonnull
+    private CompletableFuture<Void> lastSubmission = CompletableFuture.completedFuture(null);
 
     @SuppressWarnings("unchecked")
     public StaticParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
@@ -82,7 +91,8 @@ public class StaticParallelOracle<I, D> implements ParallelOracle<I, D> {
 
         switch (policy) {
             case FIXED:
-                this.executor = Executors.newFixedThreadPool(this.oracles.length - 1);
+                // the asynchronous path processes all batches (including the one of the first oracle) on the pool
+                this.executor = Executors.newFixedThreadPool(this.oracles.length);
                 break;
             case CACHED:
                 this.executor = Executors.newCachedThreadPool();
@@ -95,57 +105,59 @@ public class StaticParallelOracle<I, D> implements ParallelOracle<I, D> {
 
     @Override
     public void processQueries(Collection<? extends Query<I, D>> queries) {
-        int num = queries.size();
-        if (num <= 0) {
+        List<List<Query<I, D>>> batches = createBatches(queries);
+        if (batches.isEmpty()) {
             return;
         }
 
-        int numBatches = (num - minBatchSize) / minBatchSize + 1;
-        if (numBatches > oracles.length) {
-            numBatches = oracles.length;
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        CompletableFuture<Void> previous;
+        synchronized (this) {
+            previous = lastSubmission;
+            lastSubmission = completion;
         }
 
-        // Calculate the number of full and non-full batches. The difference in size
-        // will never exceed one (cf. pidgeonhole principle)
-        int fullBatchSize = (num - 1) / numBatches + 1;
-        int nonFullBatches = fullBatchSize * numBatches - num;
+        try {
+            awaitCompletion(previous);
+            processBatches(batches);
+        } finally {
+            completion.complete(null);
+        }
+    }
 
+    private static void awaitCompletion(CompletableFuture<Void> submission) {
+        try {
+            // failures of previous submissions have already been reported to their callers
+            submission.exceptionally(t -> null).get();
+        } catch (ExecutionException ex) {
+            throw new AssertionError("Failures must have been handled", ex);
+        } catch (InterruptedException ex) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(ex);
+        }
+    }
+
+    private void processBatches(List<List<Query<I, D>>> batches) {
         // One batch is always executed in the local thread. This saves the thread creation
         // overhead for the common case where the batch size is quite small.
-        int externalBatches = numBatches - 1;
+        int externalBatches = batches.size() - 1;
 
         if (externalBatches == 0) {
-            processQueriesLocally(queries);
+            processQueriesLocally(batches.get(0));
             return;
         }
 
         List<Future<?>> futures = new ArrayList<>(externalBatches);
 
-        Iterator<? extends Query<I, D>> queryIt = queries.iterator();
-
         // Start the threads for the external batches
         for (int i = 0; i < externalBatches; i++) {
-            int bs = fullBatchSize;
-            if (i < nonFullBatches) {
-                bs--;
-            }
-            List<Query<I, D>> batch = new ArrayList<>(bs);
-            for (int j = 0; j < bs; j++) {
-                batch.add(queryIt.next());
-            }
-
-            Runnable job = new StaticQueriesJob<>(batch, oracles[i + 1]);
+            Runnable job = new StaticQueriesJob<>(batches.get(i), oracles[i + 1]);
             Future<?> future = executor.submit(job);
             futures.add(future);
         }
 
-        // Finally, prepare and process the batch for the oracle executed in this thread.
-        List<Query<I, D>> localBatch = new ArrayList<>(fullBatchSize);
-        for (int j = 0; j < fullBatchSize; j++) {
-            localBatch.add(queryIt.next());
-        }
-
-        processQueriesLocally(localBatch);
+        // Finally, process the batch for the oracle executed in this thread.
+        processQueriesLocally(batches.get(externalBatches));
 
         try {
             for (Future<?> f : futures) {
@@ -160,6 +172,91 @@ public class StaticParallelOracle<I, D> implements ParallelOracle<I, D> {
         }
     }
 
+    /**
+     * Asynchronously processes the given queries. As opposed to {@link #processQueries(Collection)}, all batches
+     * (including the one for the first oracle) are processed by the worker threads. The batches are dispatched once
+     * all previously submitted queries have been processed, so that no oracle is used by two batches at the same time.
+     *
+     * @param queries
+     *         the queries to process
+     *
+     * @return a future that is completed once all queries have been answered
+     */
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        List<List<Query<I, D>>> batches = createBatches(queries);
+
+        synchronized (this) {
+            // failures of previous submissions are reported to their own callers only
+            CompletableFuture<Void> result =
+                    lastSubmission.exceptionally(t -> null).thenCompose(v -> submitBatches(batches));
+            lastSubmission = result;
+            return result;
+        }
+    }
+
+    private CompletableFuture<Void> submitBatches(List<List<Query<I, D>>> batches) {
+        int externalBatches = batches.size() - 1;
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[batches.size()];
+
+        for (int i = 0; i < externalBatches; i++) {
+            futures[i] = CompletableFuture.runAsync(new StaticQueriesJob<>(batches.get(i), oracles[i + 1]), executor);
+        }
+
+        if (externalBatches >= 0) {
+            futures[externalBatches] =
+                    CompletableFuture.runAsync(new StaticQueriesJob<>(batches.get(externalBatches), oracles[0]),
+                                               executor);
+        }
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Divides the given queries into batches, one for each oracle at most. The last batch is the one for the first
+     * oracle.
+     *
+     * @param queries
+     *         the queries to divide
+     *
+     * @return the batches
+     */
+    private List<List<Query<I, D>>> createBatches(Collection<? extends Query<I, D>> queries) {
+        int num = queries.size();
+        if (num <= 0) {
+            return Collections.emptyList();
+        }
+
+        int numBatches = (num - minBatchSize) / minBatchSize + 1;
+        if (numBatches > oracles.length) {
+            numBatches = oracles.length;
+        }
+
+        // Calculate the number of full and non-full batches. The difference in size
+        // will never exceed one (cf. pidgeonhole principle)
+        int fullBatchSize = (num - 1) / numBatches + 1;
+        int nonFullBatches = fullBatchSize * numBatches - num;
+
+        List<List<Query<I, D>>> batches = new ArrayList<>(numBatches);
+        Iterator<? extends Query<I, D>> queryIt = queries.iterator();
+
+        for (int i = 0; i < numBatches; i++) {
+            // the last batch is always a full one, as nonFullBatches < numBatches
+            int bs = fullBatchSize;
+            if (i < nonFullBatches) {
+                bs--;
+            }
+            List<Query<I, D>> batch = new ArrayList<>(bs);
+            for (int j = 0; j < bs; j++) {
+                batch.add(queryIt.next());
+            }
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
     private void processQueriesLocally(Collection<? extends Query<I, D>> localBatch) {
         oracles[0].processQueries(localBatch);
     }
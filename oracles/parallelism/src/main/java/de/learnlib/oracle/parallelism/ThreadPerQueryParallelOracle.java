@@ -0,0 +1,172 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import com.google.common.base.Throwables;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import de.learnlib.setting.LearnLibSettings;
+
+/**
+ * A parallel membership oracle that processes every query in a task of its own, while limiting the number of queries
+ * that are processed concurrently.
+ * <p>
+ * This oracle is tailored towards I/O-bound systems, where answering a query mostly consists of waiting for the system
+ * to respond (e.g., via a network connection). In this case, the number of queries that should be processed
+ * concurrently is not related to the number of available processors, but rather to the number of (independent)
+ * instances of the system that can be accessed simultaneously. By default, each query is executed on a <i>virtual
+ * thread</i> if the executing JVM supports them (Java 21 and later), and on a thread of a cached thread pool
+ * otherwise.
+ * <p>
+ * Since tasks may be executed by an arbitrary (and possibly always new) thread, this oracle does not use thread-local
+ * oracle instances. Instead, it maintains a pool of oracle instances, which is lazily filled using the supplier passed
+ * to the constructor. Each instance is used by only one task at a time, and the number of instances never exceeds the
+ * concurrency limit. Note that the oracles obtained from the supplier should therefore not rely on thread-local state
+ * either (in particular, they should not fork the system on a per-thread basis).
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+@ParametersAreNonnullByDefault
+public class ThreadPerQueryParallelOracle<I, D> implements ParallelOracle<I, D> {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 100;
+
+    public static final int MAX_CONCURRENCY;
+
+    static {
+        LearnLibSettings settings = LearnLibSettings.getInstance();
+
+        MAX_CONCURRENCY = settings.getInt("parallel.per_query.max_concurrency", DEFAULT_MAX_CONCURRENCY);
+    }
+
+    @Nonnull
+    private final Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    @Nonnull
+    private final Queue<MembershipOracle<I, D>> idleOracles;
+    @Nonnull
+    private final Semaphore permits;
+    @Nonnull
+    private final ExecutorService executor;
+
+    public ThreadPerQueryParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                       @Nonnegative int maxConcurrency,
+                                       ExecutorService executor) {
+        this.oracleSupplier = oracleSupplier;
+        this.idleOracles = new ConcurrentLinkedQueue<>();
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.executor = executor;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, D>> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Await completion of all jobs
+            processQueriesAsync(queries).get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Runnables must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(e);
+        }
+    }
+
+    /**
+     * Asynchronously processes the given queries. Note that this method still blocks while the concurrency limit is
+     * reached, i.e., it returns as soon as all but the last {@code maxConcurrency} queries have been processed.
+     *
+     * @param queries
+     *         the queries to process
+     *
+     * @return a future that is completed once all queries have been answered
+     */
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(queries.size());
+
+        try {
+            for (Query<I, D> query : queries) {
+                // block until a slot becomes available, so we never have more than the allowed number of tasks
+                permits.acquire();
+                try {
+                    futures.add(CompletableFuture.runAsync(() -> processPooled(query), executor));
+                } catch (RejectedExecutionException ex) {
+                    permits.release();
+                    throw ex;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new ParallelOracleInterruptedException(e);
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * Processes a single query using an idle oracle instance from the pool (or a new one, if there is none), and
+     * releases the permit acquired for the query afterwards. If the oracle throws an exception, it is not returned to
+     * the pool.
+     *
+     * @param query
+     *         the query to process
+     */
+    private void processPooled(Query<I, D> query) {
+        try {
+            MembershipOracle<I, D> oracle = idleOracles.poll();
+            if (oracle == null) {
+                oracle = oracleSupplier.get();
+            }
+            oracle.processQuery(query);
+            idleOracles.add(oracle);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import de.learnlib.api.oracle.MembershipOracle;
+
+/**
+ * Builder class for a {@link ThreadPerQueryParallelOracle}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output type
+ */
+@ParametersAreNonnullByDefault
+public class ThreadPerQueryParallelOracleBuilder<I, D> {
+
+    @Nonnull
+    private final Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    private ExecutorService customExecutor;
+    @Nonnegative
+    private int maxConcurrency = ThreadPerQueryParallelOracle.MAX_CONCURRENCY;
+
+    public ThreadPerQueryParallelOracleBuilder(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        this.oracleSupplier = oracleSupplier;
+    }
+
+    @Nonnull
+    public ThreadPerQueryParallelOracleBuilder<I, D> withCustomExecutor(ExecutorService executor) {
+        this.customExecutor = executor;
+        return this;
+    }
+
+    @Nonnull
+    public ThreadPerQueryParallelOracleBuilder<I, D> withDefaultExecutor() {
+        this.customExecutor = null;
+        return this;
+    }
+
+    @Nonnull
+    public ThreadPerQueryParallelOracleBuilder<I, D> withMaxConcurrency(@Nonnegative int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    @Nonnull
+    public ThreadPerQueryParallelOracleBuilder<I, D> withDefaultMaxConcurrency() {
+        this.maxConcurrency = ThreadPerQueryParallelOracle.MAX_CONCURRENCY;
+        return this;
+    }
+
+    @Nonnull
+    public ThreadPerQueryParallelOracle<I, D> create() {
+        ExecutorService executor = customExecutor;
+        if (executor == null) {
+            executor = ThreadPerTaskExecutors.newThreadPerTaskExecutor();
+        }
+
+        return new ThreadPerQueryParallelOracle<>(oracleSupplier, maxConcurrency, executor);
+    }
+
+}
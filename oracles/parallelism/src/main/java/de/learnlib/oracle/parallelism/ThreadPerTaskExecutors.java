@@ -0,0 +1,51 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Utility class for obtaining executors that start a new thread for each submitted task.
+ */
+final class ThreadPerTaskExecutors {
+
+    private static final String VIRTUAL_THREAD_FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    private ThreadPerTaskExecutors() {
+        throw new AssertionError("Constructor should not be invoked");
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread, if supported by the executing JVM. Since
+     * LearnLib targets Java versions without virtual threads, the respective factory method is looked up reflectively.
+     * If it is not available, a cached thread pool (re-using idle platform threads) is returned instead.
+     *
+     * @return an executor that does not limit the number of concurrently executed tasks
+     */
+    @Nonnull
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            Method factoryMethod = Executors.class.getMethod(VIRTUAL_THREAD_FACTORY_METHOD);
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (ReflectiveOperationException | SecurityException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test
+public class AdaptiveParallelOracleTest {
+
+    private static final int SEED = 42;
+
+    @Test
+    public void testDistinctQueries() {
+        ParallelOracle<Integer, Integer> oracle =
+                ParallelOracleBuilders.newAdaptiveParallelOracle(new LengthOracle()).withPoolSize(4).create();
+
+        try {
+            List<LengthQuery> queries = createQueries(1000, 100);
+
+            // process twice, so the second round uses the latency estimate of the first one
+            oracle.processQueries(queries);
+            oracle.processQueries(queries);
+
+            for (LengthQuery query : queries) {
+                Assert.assertEquals(query.answers.get(), 2);
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testSmallTargetTime() {
+        ParallelOracle<Integer, Integer> oracle = ParallelOracleBuilders.newAdaptiveParallelOracle(new LengthOracle())
+                                                                        .withPoolSize(4)
+                                                                        .withTargetTaskTime(1, TimeUnit.NANOSECONDS)
+                                                                        .withMinBatchSize(3)
+                                                                        .create();
+
+        try {
+            List<LengthQuery> queries = createQueries(500, 20);
+
+            oracle.processQueries(queries);
+            oracle.processQueries(queries);
+
+            for (LengthQuery query : queries) {
+                Assert.assertEquals(query.answers.get(), 2);
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testExceptionPropagation() {
+        ParallelOracle<Integer, Integer> oracle =
+                ParallelOracleBuilders.newAdaptiveParallelOracle(new LengthOracle()).withPoolSize(4).create();
+
+        try {
+            List<LengthQuery> queries = createQueries(100, 10);
+            queries.add(new LengthQuery(Word.fromSymbols(-1)));
+
+            oracle.processQueries(queries);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static List<LengthQuery> createQueries(int numQueries, int maxLength) {
+        Random random = new Random(SEED);
+        List<LengthQuery> queries = new ArrayList<>(numQueries);
+
+        for (int i = 0; i < numQueries; i++) {
+            int length = random.nextInt(maxLength);
+            List<Integer> symbols = new ArrayList<>(length);
+            for (int j = 0; j < length; j++) {
+                symbols.add(j);
+            }
+            queries.add(new LengthQuery(Word.fromList(symbols)));
+        }
+
+        return queries;
+    }
+
+    private static final class LengthOracle implements MembershipOracle<Integer, Integer> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            for (Query<Integer, Integer> q : queries) {
+                Word<Integer> input = q.getInput();
+                if (!input.isEmpty() && input.firstSymbol() < 0) {
+                    throw new IllegalStateException("Illegal input symbol");
+                }
+                q.answer(input.length());
+            }
+        }
+    }
+
+    private static final class LengthQuery extends Query<Integer, Integer> {
+
+        private final Word<Integer> input;
+        private final AtomicInteger answers = new AtomicInteger();
+
+        LengthQuery(Word<Integer> input) {
+            this.input = input;
+        }
+
+        @Override
+        public void answer(Integer output) {
+            Assert.assertEquals(output.intValue(), input.length());
+            answers.incrementAndGet();
+        }
+
+        @Override
+        public Word<Integer> getPrefix() {
+            return Word.epsilon();
+        }
+
+        @Override
+        public Word<Integer> getSuffix() {
+            return input;
+        }
+
+    }
+
+}
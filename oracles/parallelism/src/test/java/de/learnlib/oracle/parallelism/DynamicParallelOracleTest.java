@@ -51,6 +51,27 @@ public class DynamicParallelOracleTest {
         }
     }
 
+    @Test
+    public void testAsyncDistinctQueries() {
+        ParallelOracle<Void, Void> oracle = ParallelOracleBuilders.newDynamicParallelOracle(new NullOracle())
+                                                                  .withBatchSize(1)
+                                                                  .withPoolSize(4)
+                                                                  .withPoolPolicy(PoolPolicy.CACHED)
+                                                                  .create();
+
+        try {
+            List<AnswerOnceQuery> queries = createQueries(100);
+
+            oracle.processQueriesAsync(queries).join();
+
+            for (AnswerOnceQuery query : queries) {
+                Assert.assertTrue(query.answered.get());
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
     private static List<AnswerOnceQuery> createQueries(int numQueries) {
         List<AnswerOnceQuery> queries = new ArrayList<>(numQueries);
 
@@ -21,6 +21,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.learnlib.api.oracle.MembershipOracle;
 import de.learnlib.api.query.DefaultQuery;
@@ -175,6 +179,51 @@ public class StaticParallelOracleTest {
         Assert.assertEquals(ana.involvedOracles.size(), 5);
     }
 
+    @Test
+    public void testAsyncLessThanSixBatches() {
+        List<DefaultQuery<Integer, TestOutput>> queries = createQueries(5 * MIN_BATCH_SIZE + MIN_BATCH_SIZE / 2);
+        parallelOracle.processQueriesAsync(queries).join();
+        Analysis ana = analyze(queries);
+        sanityCheck(ana);
+        Assert.assertEquals(ana.involvedOracles.size(), 5);
+    }
+
+    @Test
+    public void testAsyncOverlappingSubmissions() {
+        AtomicInteger concurrentUses = new AtomicInteger();
+        List<ExclusiveMembershipOracle> oracles = new ArrayList<>(NUM_ORACLES);
+        for (int i = 0; i < NUM_ORACLES; i++) {
+            oracles.add(new ExclusiveMembershipOracle(new TestMembershipOracle(i), concurrentUses));
+        }
+
+        StaticParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newStaticParallelOracle(oracles).withMinBatchSize(MIN_BATCH_SIZE).create();
+
+        try {
+            List<List<DefaultQuery<Integer, TestOutput>>> submissions = new ArrayList<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                List<DefaultQuery<Integer, TestOutput>> queries = createQueries(NUM_ORACLES * MIN_BATCH_SIZE);
+                submissions.add(queries);
+                futures.add(oracle.processQueriesAsync(queries));
+            }
+            List<DefaultQuery<Integer, TestOutput>> blockingQueries = createQueries(NUM_ORACLES * MIN_BATCH_SIZE);
+            submissions.add(blockingQueries);
+            oracle.processQueries(blockingQueries);
+            futures.forEach(CompletableFuture::join);
+
+            // the (non thread-safe) oracles must never be used by two batches at the same time
+            Assert.assertEquals(concurrentUses.get(), 0);
+            for (List<DefaultQuery<Integer, TestOutput>> queries : submissions) {
+                Analysis ana = analyze(queries);
+                sanityCheck(ana);
+                Assert.assertEquals(ana.involvedOracles.size(), NUM_ORACLES);
+            }
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
     @Test
     public void testFullLoad() {
         List<DefaultQuery<Integer, TestOutput>> queries = createQueries(2 * NUM_ORACLES * MIN_BATCH_SIZE);
@@ -238,4 +287,35 @@ public class StaticParallelOracleTest {
 
     }
 
+    /**
+     * Wraps a test oracle and counts how often it is used by two batches at the same time.
+     */
+    private static final class ExclusiveMembershipOracle implements MembershipOracle<Integer, TestOutput> {
+
+        private final TestMembershipOracle delegate;
+        private final AtomicInteger concurrentUses;
+        private final AtomicBoolean busy = new AtomicBoolean();
+
+        ExclusiveMembershipOracle(TestMembershipOracle delegate, AtomicInteger concurrentUses) {
+            this.delegate = delegate;
+            this.concurrentUses = concurrentUses;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+            if (!busy.compareAndSet(false, true)) {
+                concurrentUses.incrementAndGet();
+            }
+            try {
+                delegate.processQueries(queries);
+                // widen the window for overlapping batches
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                busy.set(false);
+            }
+        }
+    }
+
 }
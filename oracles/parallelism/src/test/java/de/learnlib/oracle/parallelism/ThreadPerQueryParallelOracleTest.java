@@ -0,0 +1,170 @@
+/* Copyright (C) 2013-2017 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.api.SUL;
+import de.learnlib.api.oracle.MembershipOracle;
+import de.learnlib.api.query.DefaultQuery;
+import de.learnlib.api.query.Query;
+import net.automatalib.words.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test
+public class ThreadPerQueryParallelOracleTest {
+
+    private static final int MAX_CONCURRENCY = 10;
+    private static final int NUM_QUERIES = 200;
+
+    @Test
+    public void testConcurrencyLimit() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger instances = new AtomicInteger();
+
+        ParallelOracle<Integer, Integer> oracle = ParallelOracleBuilders.newThreadPerQueryParallelOracle(() -> {
+            instances.incrementAndGet();
+            return new SleepingOracle(running, maxRunning);
+        }).withMaxConcurrency(MAX_CONCURRENCY).create();
+
+        try {
+            List<DefaultQuery<Integer, Integer>> queries = new ArrayList<>(NUM_QUERIES);
+            for (int i = 0; i < NUM_QUERIES; i++) {
+                queries.add(new DefaultQuery<>(Word.fromSymbols(i)));
+            }
+
+            oracle.processQueries(queries);
+
+            for (DefaultQuery<Integer, Integer> query : queries) {
+                Assert.assertEquals(query.getOutput(), query.getInput().firstSymbol());
+            }
+
+            Assert.assertTrue(maxRunning.get() <= MAX_CONCURRENCY);
+            Assert.assertTrue(instances.get() <= MAX_CONCURRENCY);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkedSUL() {
+        CountingSUL sul = new CountingSUL(new AtomicInteger());
+
+        ParallelOracle<Integer, Word<Integer>> oracle =
+                ParallelOracleBuilders.newThreadPerQueryParallelOracle(sul).withMaxConcurrency(MAX_CONCURRENCY).create();
+
+        try {
+            List<DefaultQuery<Integer, Word<Integer>>> queries = new ArrayList<>(NUM_QUERIES);
+            for (int i = 0; i < NUM_QUERIES; i++) {
+                queries.add(new DefaultQuery<>(Word.fromSymbols(i), Word.fromSymbols(1, 2)));
+            }
+
+            oracle.processQueries(queries);
+
+            for (DefaultQuery<Integer, Word<Integer>> query : queries) {
+                int prefixSymbol = query.getPrefix().firstSymbol();
+                Assert.assertEquals(query.getOutput(), Word.fromSymbols(prefixSymbol + 1, prefixSymbol + 3));
+            }
+
+            Assert.assertTrue(sul.forks.get() <= MAX_CONCURRENCY);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonForkableSUL() {
+        ParallelOracleBuilders.newThreadPerQueryParallelOracle(new CountingSUL(new AtomicInteger()) {
+
+            @Override
+            public boolean canFork() {
+                return false;
+            }
+        });
+    }
+
+    private static final class SleepingOracle implements MembershipOracle<Integer, Integer> {
+
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        SleepingOracle(AtomicInteger running, AtomicInteger maxRunning) {
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            for (Query<Integer, Integer> q : queries) {
+                q.answer(q.getInput().firstSymbol());
+            }
+
+            running.decrementAndGet();
+        }
+    }
+
+    /**
+     * A SUL that outputs the sum of all inputs since the last reset.
+     */
+    private static class CountingSUL implements SUL<Integer, Integer> {
+
+        private final AtomicInteger forks;
+        private int sum;
+
+        CountingSUL(AtomicInteger forks) {
+            this.forks = forks;
+        }
+
+        @Override
+        public void pre() {
+            sum = 0;
+        }
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Integer step(Integer in) {
+            sum += in;
+            return sum;
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public SUL<Integer, Integer> fork() {
+            forks.incrementAndGet();
+            return new CountingSUL(forks);
+        }
+    }
+}